@@ -0,0 +1,220 @@
+package org.sbot.entities.alerts;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbot.entities.alerts.Alert.Type;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.settings.UserSettings;
+import org.sbot.exchanges.Exchanges;
+import org.sbot.services.MatchingService;
+import org.sbot.services.MatchingService.MatchingBuffers;
+import org.sbot.services.MatchingService.Prices;
+import org.sbot.services.context.Context;
+import org.sbot.services.context.Context.DataServices;
+import org.sbot.services.context.Context.Parameters;
+import org.sbot.services.context.Context.Services;
+import org.sbot.services.dao.memory.AlertsMemory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+import static org.sbot.entities.alerts.ClientType.DISCORD;
+import static org.sbot.entities.settings.UserSettings.DEFAULT_TIMEZONE;
+import static org.sbot.exchanges.Exchanges.SUPPORTED_EXCHANGES;
+
+/*
+    Matching of N alerts on M one minute candlesticks, the alerts are stored then loaded from the in memory dao.
+    Prices follow a seeded random walk so the runs are comparable, and most of the alerts don't match as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertsMatchingBenchmark {
+
+    private static final String EXCHANGE = SUPPORTED_EXCHANGES.getFirst();
+    private static final String PAIR = "BTC/USD";
+    private static final long USER_ID = 1L;
+    private static final long SEED = 42L;
+
+    @Param({"100", "1000", "10000"})
+    public int alerts;
+
+    @Param({"1", "15", "60"})
+    public int candles;
+
+    private AlertsMemory alertsMemory;
+    private ZonedDateTime now;
+    private List<RangeAlert> rangeAlerts;
+    private List<TrendAlert> trendAlerts;
+    private List<CompiledAlert.Range> compiledRanges;
+    private List<CompiledAlert.Trend> compiledTrends;
+    private List<CompiledAlert> compiledAlerts;
+    private Prices prices;
+    private MatchingService matchingService;
+    private final MatchingBuffers buffers = new MatchingBuffers();
+
+    @Setup
+    public void setup() {
+        now = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        var random = new Random(SEED);
+        alertsMemory = new AlertsMemory();
+        alertsMemory.userSettingsDao.addSettings(UserSettings.ofDiscordUser(USER_ID, Locale.UK, DEFAULT_TIMEZONE, now));
+        var creationDate = now.minusDays(3L);
+        for(int i = 0; i < alerts; i++) {
+            BigDecimal fromPrice = price(random, 900d, 1100d);
+            BigDecimal toPrice = fromPrice.add(price(random, 0d, 5d));
+            BigDecimal margin = price(random, 0d, 2d);
+            alertsMemory.addAlert(new RangeAlert(0L, DISCORD, USER_ID, 0L, creationDate, creationDate, EXCHANGE, PAIR, "",
+                    fromPrice, toPrice, null, null, null, margin, (short) 10, (short) 8));
+            alertsMemory.addAlert(new TrendAlert(0L, DISCORD, USER_ID, 0L, creationDate, creationDate, EXCHANGE, PAIR, "",
+                    fromPrice, price(random, 900d, 1100d), now.minusDays(2L), now.minusDays(1L), null, margin, (short) 10, (short) 8));
+        }
+        rangeAlerts = load(alertsMemory, Type.range, now, RangeAlert.class);
+        trendAlerts = load(alertsMemory, Type.trend, now, TrendAlert.class);
+        compiledRanges = rangeAlerts.stream().map(alert -> (CompiledAlert.Range) alert.compile()).toList();
+        compiledTrends = trendAlerts.stream().map(alert -> (CompiledAlert.Trend) alert.compile()).toList();
+        compiledAlerts = Stream.concat(compiledRanges.stream(), compiledTrends.stream()).map(CompiledAlert.class::cast).toList();
+
+        var candlesticks = new ArrayList<Candlestick>(candles);
+        double close = 1000d;
+        for(int i = 0; i < candles; i++) {
+            double open = close;
+            close = Math.max(1d, open + (random.nextDouble() - 0.5d) * 4d);
+            double high = Math.max(open, close) + random.nextDouble();
+            double low = Math.min(open, close) - random.nextDouble();
+            candlesticks.add(new Candlestick(now.minusMinutes(candles - i), now.minusMinutes(candles - i - 1L),
+                    decimal(open), decimal(close), decimal(high), decimal(low)));
+        }
+        prices = Prices.of(candlesticks, null);
+        if(null == prices.kLines()) {
+            throw new IllegalStateException("Candlesticks prices are not compact");
+        }
+        matchingService = new MatchingService(context());
+    }
+
+    // the matching service only reads the check period of the remainder alerts from its context
+    @NotNull
+    private static Context context() {
+        var parameters = Parameters.of(null, "none", 15, 0);
+        return new Context() {
+            @NotNull @Override public Clock clock() { return Clock.systemUTC(); }
+            @NotNull @Override public DataServices dataServices() { throw new UnsupportedOperationException(); }
+            @NotNull @Override public Services services() { throw new UnsupportedOperationException(); }
+            @NotNull @Override public Exchanges exchanges() { throw new UnsupportedOperationException(); }
+            @NotNull @Override public Parameters parameters() { return parameters; }
+        };
+    }
+
+    @NotNull
+    private static <T extends Alert> List<T> load(@NotNull AlertsMemory alertsMemory, @NotNull Type type, @NotNull ZonedDateTime now, @NotNull Class<T> alertClass) {
+        var alerts = new ArrayList<T>();
+        alertsMemory.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(EXCHANGE, PAIR, type, now, 15,
+                stream -> stream.map(alertClass::cast).forEach(alerts::add));
+        return alerts;
+    }
+
+    @NotNull
+    private static BigDecimal price(@NotNull Random random, double from, double to) {
+        return decimal(from + random.nextDouble() * (to - from));
+    }
+
+    @NotNull
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(Math.round(value * 100d), 2);
+    }
+
+    @Benchmark
+    public void rangeCandlesticks(Blackhole blackhole) {
+        for(var alert : rangeAlerts) {
+            blackhole.consume(alert.match(prices.candlesticks(), prices.previousCandlestick()));
+        }
+    }
+
+    @Benchmark
+    public void rangeKLines(Blackhole blackhole) {
+        for(var alert : compiledRanges) {
+            blackhole.consume(alert.match(prices.kLines(), prices.previousKLine(), buffers));
+        }
+    }
+
+    @Benchmark
+    public void rangeKLinesEnvelope(Blackhole blackhole) {
+        var envelope = prices.envelope();
+        for(var alert : compiledRanges) {
+            blackhole.consume(alert.mayMatch(envelope, buffers) && alert.match(prices.kLines(), prices.previousKLine(), buffers).isMatched());
+        }
+    }
+
+    @Benchmark
+    public void rangeColumnar(Blackhole blackhole) {
+        var columns = RangeAlertsColumns.of(compiledRanges, prices.kLines(), prices.previousKLine());
+        var candidates = null != columns ? columns.scan() : null;
+        for(int i = null != candidates ? candidates.nextSetBit(0) : -1; i >= 0; i = candidates.nextSetBit(i + 1)) {
+            blackhole.consume(compiledRanges.get(i).match(prices.kLines(), prices.previousKLine(), buffers));
+        }
+    }
+
+    @Benchmark
+    public void trendCandlesticks(Blackhole blackhole) {
+        for(var alert : trendAlerts) {
+            blackhole.consume(alert.match(prices.candlesticks(), prices.previousCandlestick()));
+        }
+    }
+
+    @Benchmark
+    public void trendKLines(Blackhole blackhole) {
+        for(var alert : compiledTrends) {
+            blackhole.consume(alert.match(prices.kLines(), prices.previousKLine(), buffers));
+        }
+    }
+
+    @Benchmark
+    public void trendKLinesEnvelope(Blackhole blackhole) {
+        var envelope = prices.envelope();
+        for(var alert : compiledTrends) {
+            blackhole.consume(alert.mayMatch(envelope, buffers) && alert.match(prices.kLines(), prices.previousKLine(), buffers).isMatched());
+        }
+    }
+
+    // alerts loaded from the dao on each check, against their compiled forms kept across the checks
+    @Benchmark
+    public void loadAndMatch(Blackhole blackhole) {
+        var envelope = prices.envelope();
+        for(var type : List.of(Type.range, Type.trend)) {
+            for(var alert : load(alertsMemory, type, now, Alert.class)) {
+                var compiled = requireNonNull(alert.compile());
+                blackhole.consume(compiled.mayMatch(envelope, buffers) && compiled.match(prices.kLines(), prices.previousKLine(), buffers).isMatched());
+            }
+        }
+    }
+
+    // alerts loaded from the dao on each check and matched by batches as the alerts watcher does,
+    // the matching service keeps their compiled forms across the checks
+    @Benchmark
+    public void serviceMatch(Blackhole blackhole) {
+        for(var type : List.of(Type.range, Type.trend)) {
+            matchingService.match(now, load(alertsMemory, type, now, Alert.class), prices).forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void compiledMatch(Blackhole blackhole) {
+        var envelope = prices.envelope();
+        for(var alert : compiledAlerts) {
+            blackhole.consume(alert.mayMatch(envelope, buffers) && alert.match(prices.kLines(), prices.previousKLine(), buffers).isMatched());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.sbot.exchanges.binance;
+
+import com.binance.api.client.domain.market.Candlestick;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbot.entities.chart.KLine;
+import org.sbot.utils.ByteBufferWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Decoding of a binance klines rest response, by the binance api client pojos then BinanceMapper as done by BinanceClient,
+    against BinanceKLinesDecoder into reused klines. Prices follow a seeded random walk with the 8 decimals binance uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinanceKLinesDecoderBenchmark {
+
+    private static final long SEED = 42L;
+    private static final TypeReference<List<Candlestick>> CANDLESTICKS = new TypeReference<>() {};
+
+    @Param({"1", "15", "500"})
+    public int kLinesCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinanceKLinesDecoder decoder = new BinanceKLinesDecoder();
+    private final ByteBufferWrapper wrapper = new ByteBufferWrapper();
+    private final List<KLine> kLines = new ArrayList<>();
+    private byte[] response;
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() {
+        var random = new Random(SEED);
+        var json = new StringBuilder("[");
+        long openTime = 1704067200000L;
+        double price = 42000d;
+        for(int i = 0; i < kLinesCount; i++, openTime += 60_000L) {
+            double open = price;
+            price = Math.max(1d, price * (1d + (random.nextDouble() - 0.5d) / 100d));
+            json.append(i == 0 ? "[" : ",[").append(openTime)
+                    .append(",\"").append(decimal(open)).append("\",\"").append(decimal(Math.max(open, price) * 1.001d))
+                    .append("\",\"").append(decimal(Math.min(open, price) * 0.999d)).append("\",\"").append(decimal(price))
+                    .append("\",\"148976.11427815\",").append(openTime + 59_999L)
+                    .append(",\"2434.19055334\",308,\"1756.87402397\",\"28.46694368\",\"0\"]");
+        }
+        response = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        buffer = Unpooled.wrappedBuffer(response);
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.8f", value);
+    }
+
+    @Benchmark
+    public void binanceMapper(Blackhole blackhole) throws IOException {
+        for(var candlestick : objectMapper.readValue(response, CANDLESTICKS)) {
+            blackhole.consume(BinanceMapper.map(candlestick));
+        }
+    }
+
+    @Benchmark
+    public void decoder(Blackhole blackhole) {
+        wrapper.setBuffer(buffer);
+        int count = decoder.decodeKLines(wrapper, kLines);
+        for(int i = 0; i < count; i++) {
+            blackhole.consume(kLines.get(i));
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package org.sbot.services;
+
+import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.alerts.RangeAlert;
+import org.sbot.entities.alerts.TrendAlert;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.notifications.Notification;
+import org.sbot.entities.notifications.Notification.NotificationStatus;
+import org.sbot.entities.notifications.RecipientType;
+import org.sbot.entities.settings.UserSettings;
+import org.sbot.exchanges.Exchanges;
+import org.sbot.exchanges.replay.ReplayExchange;
+import org.sbot.services.AlertsWatcher.CheckTimings;
+import org.sbot.services.Housekeeping.Pass;
+import org.sbot.services.context.Context;
+import org.sbot.services.context.Context.DataServices;
+import org.sbot.services.context.Context.Parameters;
+import org.sbot.services.context.Context.Services;
+import org.sbot.services.dao.AlertsListener;
+import org.sbot.services.dao.BatchEntry;
+import org.sbot.services.dao.ListenableAlertsDao;
+import org.sbot.services.dao.NotificationsDao;
+import org.sbot.services.dao.memory.AlertsMemory;
+import org.sbot.services.dao.memory.LastCandlesticksMemory;
+import org.sbot.services.dao.memory.NodesMemory;
+import org.sbot.services.dao.memory.ServerSettingsMemory;
+import org.sbot.utils.BoundedStage.Metrics;
+import org.sbot.utils.SimulatedClock;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.sbot.entities.alerts.ClientType.DISCORD;
+import static org.sbot.entities.settings.UserSettings.DEFAULT_TIMEZONE;
+import static org.sbot.exchanges.Exchanges.SUPPORTED_EXCHANGES;
+
+/*
+    End to end load test of the alerts checks, without any database, discord or exchange access.
+    The exchange is replayed from recorded one minute candlesticks, or from seeded random walks written into a temporary directory,
+    and a simulated clock is moved forward by the check period before each check, so a week of market data is replayed
+    against the synthetic alerts in minutes. The notifications are only counted.
+    Reports the throughput and the latencies of each phase of the checks.
+
+    usage : AlertsWatcherSimulation [alerts] [pairs] [days] [check period minutes] [replay directory]
+    a replay directory holds the files of an exchange in a sub directory named like the exchange, see ReplayExchange
+ */
+public final class AlertsWatcherSimulation {
+
+    private static final String EXCHANGE = SUPPORTED_EXCHANGES.getFirst();
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int USERS = 1000;
+    private static final long SEED = 42L;
+
+    // notifications are counted then dropped
+    private static final class NotificationsSink implements NotificationsDao {
+        private final LongAdder notifications = new LongAdder();
+
+        @Override public void addNotification(@NotNull Notification notification) { notifications.increment(); }
+        @NotNull @Override public List<Notification> getNewNotifications(long limit) { return Collections.emptyList(); }
+        @NotNull @Override public List<Notification> getNewNotifications(long limit, @NotNull Predicate<Notification> filter) { return Collections.emptyList(); }
+        @Override public long unblockStatusOfRecipient(@NotNull RecipientType recipientType, @NotNull String userId) { return 0L; }
+        @Override public void statusRecipientBatchUpdate(@NotNull NotificationStatus status, @NotNull String recipientId, @NotNull RecipientType recipientType, @NotNull Consumer<BatchEntry> updater) {}
+        @Override public void statusBatchUpdate(@NotNull NotificationStatus status, @NotNull Consumer<BatchEntry> updater) {}
+        @Override public void delete(@NotNull Consumer<BatchEntry> deleter) {}
+        @Override public long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate, long limit) { return 0L; }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int alerts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        int checkPeriodMin = args.length > 3 ? Integer.parseInt(args[3]) : 15;
+        Path replayDirectory = args.length > 4 ? Path.of(args[4]) : null;
+
+        var random = new Random(SEED);
+        if(null == replayDirectory) {
+            replayDirectory = Files.createTempDirectory("replay");
+            long start = System.nanoTime();
+            writeRandomWalks(random, replayDirectory.resolve(EXCHANGE), pairs, days);
+            System.out.printf("Generated %d days of one minute candlesticks for %d pairs in %s, %dms%n",
+                    days + 1, pairs, replayDirectory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        var clock = new SimulatedClock(START.toInstant());
+        var notifications = new NotificationsSink();
+        var context = context(clock, Parameters.of(null, "simulation", checkPeriodMin, 0),
+                new Exchanges(clock, replayDirectory), notifications);
+        var replayedPairs = context.exchanges().get(EXCHANGE).orElseThrow().getAvailablePairs();
+        if(replayedPairs.isEmpty()) {
+            throw new IllegalArgumentException("No replay files found for exchange " + EXCHANGE + " in " + replayDirectory);
+        }
+
+        long start = System.nanoTime();
+        addAlerts(context, random, replayedPairs, alerts);
+        System.out.printf("Added %d alerts of %d users on %d pairs, %dms%n",
+                alerts, USERS, replayedPairs.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        var timings = new ArrayList<CheckTimings>();
+        var passes = new ArrayList<Pass>();
+        var end = START.plusDays(days).toInstant();
+        var nextHousekeeping = START.toInstant();
+        start = System.nanoTime();
+        while(clock.advance(Duration.ofMinutes(checkPeriodMin)).isBefore(end)) {
+            context.alertsWatcher().checkAlerts();
+            var checkTimings = context.alertsWatcher().lastCheckTimings();
+            if(null != checkTimings) {
+                timings.add(checkTimings);
+            }
+            // the housekeeping runs hourly between the checks, like its own thread with the default period
+            if(!clock.instant().isBefore(nextHousekeeping)) {
+                passes.add(context.housekeeping().run());
+                nextHousekeeping = clock.instant().plus(Duration.ofHours(1L));
+            }
+        }
+        long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        report(timings, passes, alerts, days, elapsedMillis, notifications.notifications.sum());
+        System.exit(0); // stops the notifications thread
+    }
+
+    @NotNull
+    private static Context context(@NotNull Clock clock, @NotNull Parameters parameters, @NotNull Exchanges exchanges, @NotNull NotificationsDao notificationsDao) {
+        return new Context() {
+            private final DataServices dataServices = dataServices(notificationsDao);
+            private final Services services = services(this);
+
+            @NotNull @Override public Clock clock() { return clock; }
+            @NotNull @Override public DataServices dataServices() { return dataServices; }
+            @NotNull @Override public Services services() { return services; }
+            @NotNull @Override public Exchanges exchanges() { return exchanges; }
+            @NotNull @Override public Parameters parameters() { return parameters; }
+        };
+    }
+
+    @NotNull
+    private static DataServices dataServices(@NotNull NotificationsDao notificationsDao) {
+        var alertsListeners = new CopyOnWriteArrayList<AlertsListener>();
+        var alertsMemory = new AlertsMemory();
+        var alertsDao = new ListenableAlertsDao(alertsMemory, alertsListeners);
+        var serverSettingsDao = new ServerSettingsMemory(alertsMemory);
+        var lastCandlesticksDao = new LastCandlesticksMemory();
+        var nodesDao = new NodesMemory();
+        return new DataServices(v -> alertsMemory.userSettingsDao, v -> serverSettingsDao, v -> alertsDao, v -> notificationsDao, v -> lastCandlesticksDao, v -> nodesDao, alertsListeners);
+    }
+
+    @NotNull
+    private static Services services(@NotNull Context context) {
+        var rangeAlertsIndex = new RangeAlertsIndex();
+        var trendAlertsIndex = new TrendAlertsIndex();
+        context.dataServices().alertsListeners().add(rangeAlertsIndex);
+        context.dataServices().alertsListeners().add(trendAlertsIndex);
+        var pairsScheduler = new PairsScheduler();
+        context.dataServices().alertsListeners().add(pairsScheduler);
+        var matchingService = new MatchingService(context);
+        context.dataServices().alertsListeners().add(matchingService);
+        return new Services(new SettingsService(context), null, // no discord, the notifications are not sent
+                matchingService, new NotificationsService(context), new AlertsWatcher(context),
+                rangeAlertsIndex, trendAlertsIndex, new LastCandlesticksCache(), new CandlesticksCache(context.clock()), CandlesticksHistory.DISABLED, pairsScheduler, new RemaindersWheel(), new Housekeeping(context), new ShardsRing(context), LastCandlesticksService::new);
+    }
+
+    // one minute candlesticks from the day before the start, with prices around 1000
+    private static void writeRandomWalks(@NotNull Random random, @NotNull Path directory, int pairs, int days) throws IOException {
+        int minutes = (days + 1) * 24 * 60;
+        var from = START.minusDays(1L);
+        for(int p = 0; p < pairs; p++) {
+            var candlesticks = new ArrayList<Candlestick>(minutes);
+            double close = 1000d;
+            for(int i = 0; i < minutes; i++) {
+                double open = close;
+                close = Math.max(1d, open + (random.nextDouble() - 0.5d) * 4d);
+                double high = Math.max(open, close) + random.nextDouble();
+                double low = Math.min(open, close) - random.nextDouble();
+                candlesticks.add(new Candlestick(from.plusMinutes(i), from.plusMinutes(i + 1L).minusNanos(1_000_000L),
+                        decimal(open), decimal(close), decimal(high), decimal(low)));
+            }
+            ReplayExchange.write(directory, pair(p), candlesticks);
+        }
+    }
+
+    @NotNull
+    private static String pair(int index) {
+        return "C" + index + "/USDT";
+    }
+
+    // half range alerts and half trend alerts, spread over the users and the pairs
+    private static void addAlerts(@NotNull Context context, @NotNull Random random, @NotNull List<String> pairs, int alerts) {
+        var creationDate = START.minusDays(3L);
+        context.transaction(txCtx -> {
+            var userSettingsDao = txCtx.userSettingsDao();
+            for(long userId = 1L; userId <= USERS; userId++) {
+                userSettingsDao.addSettings(UserSettings.ofDiscordUser(userId, Locale.UK, DEFAULT_TIMEZONE, creationDate));
+            }
+            var alertsDao = txCtx.alertsDao();
+            for(int i = 0; i < alerts; i++) {
+                long userId = 1L + i % USERS;
+                var pair = pairs.get(random.nextInt(pairs.size()));
+                BigDecimal fromPrice = price(random, 800d, 1200d);
+                BigDecimal margin = price(random, 0d, 2d);
+                if(0 == i % 2) {
+                    alertsDao.addAlert(new RangeAlert(0L, DISCORD, userId, 0L, creationDate, creationDate, EXCHANGE, pair, "",
+                            fromPrice, fromPrice.add(price(random, 0d, 5d)), null, null, null, margin, (short) 10, (short) 8));
+                } else {
+                    alertsDao.addAlert(new TrendAlert(0L, DISCORD, userId, 0L, creationDate, creationDate, EXCHANGE, pair, "",
+                            fromPrice, price(random, 800d, 1200d), START.minusDays(2L), START.minusDays(1L), null, margin, (short) 10, (short) 8));
+                }
+            }
+        });
+    }
+
+    @NotNull
+    private static BigDecimal price(@NotNull Random random, double from, double to) {
+        return decimal(from + random.nextDouble() * (to - from));
+    }
+
+    @NotNull
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(Math.round(value * 100d), 2);
+    }
+
+    private static void report(@NotNull List<CheckTimings> timings, @NotNull List<Pass> passes, int alerts, int days, long elapsedMillis, long notifications) {
+        long matchingAlerts = timings.stream().mapToLong(CheckTimings::matchingAlerts).sum();
+        System.out.printf("Replayed %d days in %.1fs, %d checks, x%d real time%n",
+                days, elapsedMillis / 1000d, timings.size(), Duration.ofDays(days).toMillis() / elapsedMillis);
+        System.out.printf("Throughput : %.1f checks/s, %.0f alerts checked/s, %d matching alerts, %d notifications%n",
+                timings.size() * 1000d / elapsedMillis, (double) alerts * timings.size() * 1000d / elapsedMillis, matchingAlerts, notifications);
+        System.out.printf("%-10s %8s %8s %8s %8s%n", "phase (ms)", "avg", "p50", "p99", "max");
+        printPhase(timings, "selection", CheckTimings::selectionMillis);
+        printPhase(timings, "matching", CheckTimings::matchingMillis);
+        printPhase(timings, "total", CheckTimings::totalMillis);
+        System.out.printf("%-10s %8s %8s %10s %8s%n", "stage", "items", "failed", "busy (ms)", "max queue");
+        timings.stream().flatMap(checkTimings -> checkTimings.stages().stream())
+                .collect(groupingBy(Metrics::name, LinkedHashMap::new, toList()))
+                .forEach((stage, metrics) -> System.out.printf("%-10s %8d %8d %10d %8d%n", stage,
+                        metrics.stream().mapToLong(Metrics::consumed).sum(), metrics.stream().mapToLong(Metrics::failed).sum(),
+                        metrics.stream().mapToLong(Metrics::busyMillis).sum(), metrics.stream().mapToInt(Metrics::maxQueueDepth).max().orElse(0)));
+        System.out.printf("Housekeeping : %d passes, %d chunks, %d rows deleted, busy %dms, max pass %dms%n", passes.size(),
+                passes.stream().mapToLong(Pass::chunks).sum(), passes.stream().mapToLong(Pass::deleted).sum(),
+                passes.stream().mapToLong(Pass::busyMillis).sum(), passes.stream().mapToLong(Pass::elapsedMillis).max().orElse(0L));
+    }
+
+    private static void printPhase(@NotNull List<CheckTimings> timings, @NotNull String phase, @NotNull ToLongFunction<CheckTimings> millis) {
+        long[] values = timings.stream().mapToLong(millis).sorted().toArray();
+        if(values.length > 0) {
+            System.out.printf("%-10s %8.1f %8d %8d %8d%n", phase, average(values),
+                    percentile(values, 0.5d), percentile(values, 0.99d), values[values.length - 1]);
+        }
+    }
+
+    private static double average(long[] values) {
+        long sum = 0L;
+        for(long value : values) {
+            sum += value;
+        }
+        return (double) sum / values.length;
+    }
+
+    // nearest rank percentile of these sorted values
+    private static long percentile(long[] sortedValues, double percentile) {
+        return sortedValues[Math.max(0, (int) Math.ceil(percentile * sortedValues.length) - 1)];
+    }
+}
@@ -0,0 +1,96 @@
+package org.sbot.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.TimeUnit;
+
+/*
+    MutableDecimal arithmetic against the BigDecimal one, on prices that fit or not the same exponent.
+    A MutableDecimal operation updates its value in place, so the buffer is reset before each one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutableDecimalBenchmark {
+
+    @Param({"1234.56:78.9", "0.00012345:0.0000987", "98765432.1:12345.678901"})
+    public String values;
+
+    private BigDecimal a;
+    private BigDecimal b;
+    private MutableDecimal mutableA;
+    private MutableDecimal mutableB;
+    private final MutableDecimal buffer = MutableDecimal.empty();
+
+    @Setup
+    public void setup() {
+        var split = values.split(":");
+        a = new BigDecimal(split[0]);
+        b = new BigDecimal(split[1]);
+        mutableA = MutableDecimal.of(a);
+        mutableB = MutableDecimal.of(b);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAdd() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public MutableDecimal mutableDecimalAdd() {
+        buffer.set(mutableA.mantissa(), mutableA.exp());
+        buffer.addCaped(mutableB);
+        return buffer;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSubtract() {
+        return a.subtract(b);
+    }
+
+    @Benchmark
+    public MutableDecimal mutableDecimalSubtract() {
+        buffer.set(mutableA.mantissa(), mutableA.exp());
+        buffer.subtractCaped(mutableB);
+        return buffer;
+    }
+
+    @Benchmark
+    public int bigDecimalCompare() {
+        return a.compareTo(b);
+    }
+
+    @Benchmark
+    public int mutableDecimalCompare() {
+        return mutableA.compareTo(mutableB);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalMultiply() {
+        return a.multiply(b, MathContext.DECIMAL64);
+    }
+
+    @Benchmark
+    public MutableDecimal mutableDecimalMultiply() {
+        buffer.set(mutableA.mantissa(), mutableA.exp());
+        buffer.multiplyCaped(mutableB);
+        return buffer;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDivide() {
+        return a.divide(b, MathContext.DECIMAL64);
+    }
+
+    @Benchmark
+    public MutableDecimal mutableDecimalDivide() {
+        buffer.set(mutableA.mantissa(), mutableA.exp());
+        buffer.divideCaped(mutableB);
+        return buffer;
+    }
+}
@@ -0,0 +1,37 @@
+package org.sbot.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// parsing of prices as received from the exchanges, into a reused MutableDecimal buffer or a new BigDecimal
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutableDecimalParserBenchmark {
+
+    @Param({"42", "64123.45000000", "0.00001234", "123456789.123456789"})
+    public String value;
+
+    private final MutableDecimal buffer = MutableDecimal.empty();
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return new BigDecimal(value);
+    }
+
+    @Benchmark
+    public MutableDecimal mutableDecimalParse() {
+        return MutableDecimalParser.parse(value);
+    }
+
+    @Benchmark
+    public MutableDecimal mutableDecimalParseBuffer() {
+        MutableDecimalParser.parse(value, buffer, 0, value.length());
+        return buffer;
+    }
+}
@@ -0,0 +1,41 @@
+package org.sbot.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// throughput of the stream partitioning used to batch the alerts updates, with and without sub list recycling
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionSpliteratorBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"100", "4096"})
+    public int splitSize;
+
+    private List<Integer> values;
+
+    @Setup
+    public void setup() {
+        values = IntStream.range(0, size).boxed().toList();
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        PartitionSpliterator.split(splitSize, false, values.stream()).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void splitRecycled(Blackhole blackhole) {
+        PartitionSpliterator.split(splitSize, true, values.stream()).forEach(blackhole::consume);
+    }
+}
@@ -101,6 +101,9 @@ public class SpotBot {
         return (() -> {
             LOGGER.info("Entering infinite loop to check prices and send alerts. Scheduling plan (UTC time) : {}",
                     schedulingPlan(nowUtc(context.clock()), context.parameters().checkPeriodMin(), context.parameters().hourlySyncDeltaMin()));
+            context.shardsRing().start(); // before the first check, that only checks the pairs of this node
+            context.alertsWatcher().watchRemainders();
+            context.housekeeping().start();
 
             while(!Thread.currentThread().isInterrupted()) {
                 LOGGER.info("SpotBot thread [{}] now checking alerts...", Thread.currentThread().getName());
@@ -111,11 +114,15 @@ public class SpotBot {
         });
     }
 
+    // returns the minutes until the next periodic check, or until the next due pair when it comes sooner, 1 minute min
     static long checkAlerts(@NotNull Context context) {
         context.alertsWatcher().checkAlerts();
-        return minutesUntilNextCheck(nowUtc(context.clock()),
+        var now = nowUtc(context.clock());
+        long minutes = minutesUntilNextCheck(now,
                 context.parameters().checkPeriodMin(),
                 context.parameters().hourlySyncDeltaMin());
+        var nextCheck = context.alertsWatcher().nextCheck();
+        return null != nextCheck ? Math.min(minutes, Math.max(1L, Math.ceilDiv(Duration.between(now.toInstant(), nextCheck).toSeconds(), 60L))) : minutes;
     }
 
     @NotNull
@@ -184,7 +191,7 @@ public class SpotBot {
         return plan;
     }
 
-    static long minutesUntilNextCheck(@NotNull ZonedDateTime now, int checkPeriodMin, int hourlySyncDeltaMin) {
+    public static long minutesUntilNextCheck(@NotNull ZonedDateTime now, int checkPeriodMin, int hourlySyncDeltaMin) {
         long hourlyDelta = ChronoUnit.SECONDS.between(now, now.truncatedTo(HOURS).plusMinutes(requirePositive(hourlySyncDeltaMin)));
         if(hourlyDelta > 0) { // beginning of a new hour, wait until hourlySyncDeltaMin
             return Math.ceilDiv(hourlyDelta, 60);
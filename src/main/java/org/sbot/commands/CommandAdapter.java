@@ -30,6 +30,7 @@ import static org.sbot.commands.SecurityAccess.sameUser;
 import static org.sbot.commands.interactions.SelectEditInteraction.updateMenuOf;
 import static org.sbot.entities.alerts.Alert.Type.remainder;
 import static org.sbot.entities.alerts.Alert.isPrivate;
+import static org.sbot.utils.ArgumentValidator.requireExchangePair;
 import static org.sbot.utils.ArgumentValidator.requireOneItem;
 import static org.sbot.utils.ArgumentValidator.requirePositive;
 
@@ -53,8 +54,8 @@ public abstract class CommandAdapter implements CommandListener {
     protected static final String TICKER_PAIR_ARGUMENT = "ticker_pair";
     protected static final String OFFSET_ARGUMENT = "offset";
     protected static final String OWNER_ARGUMENT = "owner";
-    protected static final String EXCHANGE_ARGUMENT = "exchange";
-    protected static final String PAIR_ARGUMENT = "pair";
+    public static final String EXCHANGE_ARGUMENT = "exchange";
+    public static final String PAIR_ARGUMENT = "pair";
     public static final String MESSAGE_ARGUMENT = "message";
     protected static final String LOW_ARGUMENT = "low";
     protected static final String HIGH_ARGUMENT = "high";
@@ -121,6 +122,12 @@ public abstract class CommandAdapter implements CommandListener {
         return new OptionData(type, name, description, isRequired);
     }
 
+    // a pair not listed by the exchange is rejected, any pair of the expected format is accepted until its pairs are known
+    @NotNull
+    protected static String requireListedPair(@NotNull CommandContext context, @NotNull String exchange, @NotNull String pair) {
+        return context.exchanges().get(exchange).map(xchange -> requireExchangePair(xchange, pair)).orElse(pair);
+    }
+
     protected static Message securedAlertAccess(long alertId, @NotNull CommandContext context, @NotNull BiFunction<Alert, AlertsDao, Message> readHandler) {
         LOGGER.debug("securedAlertAccess, alertId : {}, user : {}, server : {}", alertId, context.userId, context.serverId());
         requireNonNull(readHandler);
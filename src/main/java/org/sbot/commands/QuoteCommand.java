@@ -10,9 +10,8 @@ import org.sbot.entities.chart.Candlestick;
 import org.sbot.entities.chart.TimeFrame;
 import org.sbot.utils.Dates;
 
-import java.util.List;
+import java.util.Optional;
 
-import static java.util.Comparator.comparing;
 import static net.dv8tion.jda.api.interactions.commands.OptionType.STRING;
 import static org.sbot.utils.Tickers.formatPrice;
 import static org.sbot.exchanges.Exchanges.SUPPORTED_EXCHANGES;
@@ -29,7 +28,7 @@ public final class QuoteCommand extends CommandAdapter {
                 option(STRING, EXCHANGE_ARGUMENT, "the exchange, like binance", true)
                         .addChoices(SUPPORTED_EXCHANGES.stream().map(e -> new Command.Choice(e, e)).toList()),
                 option(STRING, PAIR_ARGUMENT, "the pair, like EUR/USDT", true)
-                        .setMinLength(PAIR_MIN_LENGTH).setMaxLength(PAIR_MAX_LENGTH));
+                        .setMinLength(PAIR_MIN_LENGTH).setMaxLength(PAIR_MAX_LENGTH).setAutoComplete(true));
 
     record Arguments(String exchange, String pair) {}
 
@@ -53,19 +52,17 @@ public final class QuoteCommand extends CommandAdapter {
     }
 
     private Message quote(@NotNull CommandContext context, @NotNull String exchange, @NotNull String pair) {
-        return Message.of(embedBuilder(" ", OK_COLOR, parseCandlestick(pair, context.exchanges().get(exchange)
-                .orElseThrow(() -> new IllegalArgumentException("Unsupported exchange : " + exchange))
-                .getCandlesticks(pair, TimeFrame.ONE_MINUTE, 1))));
+        var xchange = context.exchanges().get(exchange).orElseThrow(() -> new IllegalArgumentException("Unsupported exchange : " + exchange));
+        var listedPair = requireExchangePair(xchange, pair);
+        return Message.of(embedBuilder(" ", OK_COLOR, parseCandlestick(listedPair, context.candlesticksCache().getLast(xchange, listedPair, TimeFrame.ONE_MINUTE))));
     }
 
     @NotNull
-    private static String parseCandlestick(@NotNull String pair, @NotNull List<Candlestick> candlestick) {
+    private static String parseCandlestick(@NotNull String pair, @NotNull Optional<Candlestick> candlestick) {
         String ticker2 = pair.substring(pair.indexOf('/') + 1);
-        return candlestick.stream()
-                .sorted(comparing(Candlestick::closeTime).reversed())
-                .map(c ->
+        return candlestick.map(c ->
                 "**[" + pair + "]**\n\n> " + formatPrice(c.close(), ticker2) +
                 "\n\n" + Dates.formatDiscordRelative(c.closeTime()))
-                .findFirst().orElse("No market data found for pair " + pair);
+                .orElse("No market data found for pair " + pair);
     }
 }
@@ -32,7 +32,7 @@ public final class RangeCommand extends CommandAdapter {
             option(STRING, EXCHANGE_ARGUMENT, "the exchange, like binance", true)
                     .addChoices(SUPPORTED_EXCHANGES.stream().map(e -> new Choice(e, e)).toList()),
             option(STRING, PAIR_ARGUMENT, "the pair, like EUR/USDT", true)
-                    .setMinLength(PAIR_MIN_LENGTH).setMaxLength(PAIR_MAX_LENGTH),
+                    .setMinLength(PAIR_MIN_LENGTH).setMaxLength(PAIR_MAX_LENGTH).setAutoComplete(true),
             option(STRING, MESSAGE_ARGUMENT, "a message to show when the alert is raised : add a link to your AT ! (" + MESSAGE_MAX_LENGTH + " chars max)", true)
                     .setMaxLength(MESSAGE_MAX_LENGTH),
             option(NUMBER, LOW_ARGUMENT, "the low range price", true)
@@ -111,10 +111,11 @@ public final class RangeCommand extends CommandAdapter {
             fromDate = toDate;
             toDate = arguments.fromDate;
         }
+        String pair = requireListedPair(context, arguments.exchange, arguments.pair);
         RangeAlert rangeAlert = new RangeAlert(NEW_ALERT_ID, context.clientType, context.userId,
                 context.serverId(), now, // creation date
                 null != fromDate && fromDate.isAfter(now) ? fromDate : now, // listening date
-                arguments.exchange, arguments.pair, arguments.message, low, high, fromDate, toDate,
+                arguments.exchange, pair, arguments.message, low, high, fromDate, toDate,
                 null, MARGIN_DISABLED, DEFAULT_REPEAT, DEFAULT_SNOOZE_HOURS);
         return saveAlert(context, rangeAlert).map(alert -> createdAlertMessage(context, now, alert))
                 .orElse(userSetupNeeded(context.name, "Unable to create a new alert :"));
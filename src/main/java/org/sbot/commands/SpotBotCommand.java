@@ -29,7 +29,7 @@ import static net.dv8tion.jda.api.interactions.commands.OptionType.STRING;
 import static org.sbot.commands.Commands.SPOTBOT_COMMANDS;
 import static org.sbot.entities.alerts.Alert.DEFAULT_REPEAT;
 import static org.sbot.entities.alerts.Alert.DEFAULT_SNOOZE_HOURS;
-import static org.sbot.services.AlertsWatcher.DONE_ALERTS_DELAY_WEEKS;
+import static org.sbot.services.Housekeeping.DONE_ALERTS_DELAY_WEEKS;
 import static org.sbot.services.discord.CommandListener.optionsDescription;
 import static org.sbot.utils.PartitionSpliterator.split;
 
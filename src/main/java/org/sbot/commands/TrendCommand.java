@@ -37,7 +37,7 @@ public final class TrendCommand extends CommandAdapter {
             option(STRING, EXCHANGE_ARGUMENT, "the exchange, like binance", true)
                     .addChoices(SUPPORTED_EXCHANGES.stream().map(e -> new Choice(e, e)).toList()),
             option(STRING, PAIR_ARGUMENT, "the pair, like EUR/USDT", true)
-                    .setMinLength(PAIR_MIN_LENGTH).setMaxLength(PAIR_MAX_LENGTH),
+                    .setMinLength(PAIR_MIN_LENGTH).setMaxLength(PAIR_MAX_LENGTH).setAutoComplete(true),
             option(STRING, MESSAGE_ARGUMENT, "a message to show when the alert is raised : add a link to your AT ! (" + MESSAGE_MAX_LENGTH + " chars max)", true)
                     .setMaxLength(MESSAGE_MAX_LENGTH),
             option(NUMBER, FROM_PRICE_ARGUMENT, "the 1st price", true)
@@ -107,10 +107,11 @@ public final class TrendCommand extends CommandAdapter {
             toPrice = arguments.fromPrice;
         }
         var now = Dates.nowUtc(context.clock());
+        String pair = requireListedPair(context, arguments.exchange, arguments.pair);
         TrendAlert trendAlert = new TrendAlert(NEW_ALERT_ID, context.clientType, context.userId,
                 context.serverId(), now, // creation date
                 now, // listening date
-                arguments.exchange, arguments.pair, arguments.message, fromPrice, toPrice, fromDate, toDate,
+                arguments.exchange, pair, arguments.message, fromPrice, toPrice, fromDate, toDate,
                 null, MARGIN_DISABLED, DEFAULT_REPEAT, DEFAULT_SNOOZE_HOURS);
 
         return saveAlert(context, trendAlert).map(alert -> createdAlertMessage(context, now, alert))
@@ -25,8 +25,8 @@ import static org.sbot.entities.FieldParser.Type.*;
 import static org.sbot.entities.settings.UserSettings.NO_ID;
 import static org.sbot.entities.alerts.Alert.Field.*;
 import static org.sbot.entities.alerts.Alert.Type.trend;
-import static org.sbot.services.AlertsWatcher.DONE_ALERTS_DELAY_WEEKS;
-import static org.sbot.services.AlertsWatcher.EXPIRED_ALERTS_DELAY_WEEKS;
+import static org.sbot.services.Housekeeping.DONE_ALERTS_DELAY_WEEKS;
+import static org.sbot.services.Housekeeping.EXPIRED_ALERTS_DELAY_WEEKS;
 import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.NOT_MATCHING;
 import static org.sbot.utils.ArgumentValidator.*;
 import static org.sbot.utils.Dates.formatDiscordRelative;
@@ -104,7 +104,6 @@ public abstract class Alert {
     public final short repeat;
     public final short snooze;
 
-
     protected Alert(long id, @NotNull Type type, @NotNull ClientType clientType, long userId, long serverId,
                     @NotNull ZonedDateTime creationDate, @Nullable ZonedDateTime listeningDate,
                     @NotNull String exchange, @NotNull String pair, @NotNull String message,
@@ -312,6 +311,14 @@ public abstract class Alert {
                         null != fromDate && listeningDate.isAfter(fromDate)); // alert should be active
     }
 
+    // compiled form used by the allocation free matching on klines, this builds a new one on each call,
+    // the alerts indexes and the matching service keep the forms they compile by alert id.
+    // returns null for a remainder alert or when the prices or margin are not representable on 18 digits
+    @Nullable
+    public final CompiledAlert compile() {
+        return CompiledAlert.of(this);
+    }
+
     protected boolean isListenableCandleStick(@NotNull Candlestick candlestick) {
         return null != listeningDate && (!listeningDate.isAfter(candlestick.openTime()));
     }
@@ -0,0 +1,241 @@
+package org.sbot.entities.alerts;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.KLine;
+import org.sbot.services.MatchingService.MatchingAlert.MatchingStatus;
+import org.sbot.services.MatchingService.MatchingBuffers;
+import org.sbot.utils.MutableDecimal;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.sbot.entities.alerts.RangeAlert.datesInLimits;
+import static org.sbot.entities.alerts.RangeAlert.priceCrossedRange;
+import static org.sbot.entities.alerts.RangeAlert.priceInRange;
+import static org.sbot.entities.alerts.TrendAlert.secondsBetween;
+import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.*;
+
+/*
+    Compiled form of a range or trend alert, used by the allocation free matching on klines. This is built on demand from an alert
+    and only holds primitives : epoch ms dates, prices as compact values and scales, the margin band of a range or the slope of a trend.
+    It is a few dozen bytes against the ZonedDateTime and BigDecimal fields of an Alert, so the alerts indexes keep the compiled alerts
+    across the checks and an Alert only needs to be loaded once its compiled form matches.
+ */
+public abstract sealed class CompiledAlert permits CompiledAlert.Range, CompiledAlert.Trend {
+
+    public final long id;
+    final long listeningDateMs; // Long.MAX_VALUE when disabled
+    final long fromDateMs; // Long.MIN_VALUE when missing
+    final long toDateMs; // Long.MAX_VALUE when missing
+    final long fromPriceValue;
+    final byte fromPriceScale;
+    final long toPriceValue;
+    final byte toPriceScale;
+
+    private CompiledAlert(@NotNull Alert alert, @NotNull MutableDecimal fromPrice, @NotNull MutableDecimal toPrice) {
+        this.id = alert.id;
+        this.listeningDateMs = null != alert.listeningDate ? alert.listeningDate.toInstant().toEpochMilli() : Long.MAX_VALUE;
+        this.fromDateMs = null != alert.fromDate ? alert.fromDate.toInstant().toEpochMilli() : Long.MIN_VALUE;
+        this.toDateMs = null != alert.toDate ? alert.toDate.toInstant().toEpochMilli() : Long.MAX_VALUE;
+        this.fromPriceValue = fromPrice.mantissa();
+        this.fromPriceScale = fromPrice.exp();
+        this.toPriceValue = toPrice.mantissa();
+        this.toPriceScale = toPrice.exp();
+    }
+
+    // returns null for a remainder alert, or if the prices or the margin are not representable on 18 digits
+    @Nullable
+    static CompiledAlert of(@NotNull Alert alert) {
+        var fromPrice = compactValueOf(alert.fromPrice);
+        var toPrice = compactValueOf(alert.toPrice);
+        var margin = compactValueOf(alert.margin);
+        if(null == fromPrice || null == toPrice || null == margin) {
+            return null;
+        }
+        return switch (alert.type) {
+            case range -> new Range(alert, fromPrice, toPrice, margin);
+            case trend -> new Trend(alert, fromPrice, toPrice, margin);
+            case remainder -> null;
+        };
+    }
+
+    @Nullable
+    private static MutableDecimal compactValueOf(@Nullable BigDecimal value) {
+        try {
+            return null != value ? MutableDecimal.of(value) : null;
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    // true if this form was compiled from the dates of this alert, they are compared on their epoch ms without allocation
+    public final boolean hasDatesOf(@NotNull Alert alert) {
+        return id == alert.id &&
+                listeningDateMs == epochMs(alert.listeningDate, Long.MAX_VALUE) &&
+                fromDateMs == epochMs(alert.fromDate, Long.MIN_VALUE) &&
+                toDateMs == epochMs(alert.toDate, Long.MAX_VALUE);
+    }
+
+    private static long epochMs(@Nullable ZonedDateTime date, long missing) {
+        return null != date ? date.toEpochSecond() * 1000L + date.getNano() / 1_000_000 : missing;
+    }
+
+    // the index of the matching kline is set into the buffers when the alert matches
+    @NotNull
+    public abstract MatchingStatus match(@NotNull List<KLine> kLines, @Nullable KLine previousKLine, @NotNull MatchingBuffers buffers);
+
+    // false if the alert can't match any of the klines of this envelope, in O(1)
+    public abstract boolean mayMatch(@NotNull KLine envelope, @NotNull MatchingBuffers buffers);
+
+    final boolean isListenableKLine(@NotNull KLine kLine) {
+        return listeningDateMs <= kLine.openTime();
+    }
+
+    static boolean isNewerKLine(@NotNull KLine kLine, @Nullable KLine previousKLine) {
+        return null == previousKLine || kLine.closeTime() > previousKLine.closeTime();
+    }
+
+    @Nullable
+    final KLine filterListenableKLine(@Nullable KLine previousKLine) {
+        return null == previousKLine || isListenableKLine(previousKLine) ? previousKLine : null;
+    }
+
+    public static final class Range extends CompiledAlert {
+
+        // margin band [fromPrice - margin, toPrice + margin]
+        final long lowMarginValue;
+        final byte lowMarginScale;
+        final long highMarginValue;
+        final byte highMarginScale;
+
+        private Range(@NotNull Alert alert, @NotNull MutableDecimal fromPrice, @NotNull MutableDecimal toPrice, @NotNull MutableDecimal margin) {
+            super(alert, fromPrice, toPrice);
+            var band = fromPrice.copy();
+            band.subtractCaped(margin);
+            this.lowMarginValue = band.mantissa();
+            this.lowMarginScale = band.exp();
+            band.set(toPrice.mantissa(), toPrice.exp()).addCaped(margin);
+            this.highMarginValue = band.mantissa();
+            this.highMarginScale = band.exp();
+        }
+
+        @NotNull
+        @Override
+        public MatchingStatus match(@NotNull List<KLine> kLines, @Nullable KLine previousKLine, @NotNull MatchingBuffers buffers) {
+            var low = buffers.low.set(fromPriceValue, fromPriceScale);
+            var high = buffers.high.set(toPriceValue, toPriceScale);
+            var lowMargin = buffers.lowMargin.set(lowMarginValue, lowMarginScale);
+            var highMargin = buffers.highMargin.set(highMarginValue, highMarginScale);
+            for (int i = 0; i < kLines.size(); i++) { // no iterator
+                var kLine = kLines.get(i);
+                if (isListenableKLine(kLine) && isNewerKLine(kLine, previousKLine)) {
+                    if (datesInLimits(kLine, fromDateMs, toDateMs)) {
+                        if (priceInRange(kLine, low, high) ||
+                                priceCrossedRange(kLine, low, high, filterListenableKLine(previousKLine))) {
+                            buffers.matchingIndex = i;
+                            return MATCHED;
+                        } else if (priceInRange(kLine, lowMargin, highMargin)) {
+                            buffers.matchingIndex = i;
+                            return MARGIN;
+                        }
+                    }
+                    previousKLine = kLine;
+                }
+            }
+            return NOT_MATCHING;
+        }
+
+        @Override
+        public boolean mayMatch(@NotNull KLine envelope, @NotNull MatchingBuffers buffers) {
+            if (listeningDateMs > envelope.closeTime() || fromDateMs > envelope.closeTime() || toDateMs <= envelope.openTime()) {
+                return false;
+            }
+            return priceInRange(envelope, buffers.lowMargin.set(lowMarginValue, lowMarginScale), buffers.highMargin.set(highMarginValue, highMarginScale));
+        }
+    }
+
+    public static final class Trend extends CompiledAlert {
+
+        final long marginValue;
+        final byte marginScale;
+        // slope of the line as a fixed point price delta by second slopeValue / slopeSeconds. The price delta is expanded to 18 digits,
+        // the division is only done by trendPriceAt, after the multiplication on 128 bits
+        final long slopeValue;
+        final byte slopeScale;
+        final long slopeSeconds;
+
+        private Trend(@NotNull Alert alert, @NotNull MutableDecimal fromPrice, @NotNull MutableDecimal toPrice, @NotNull MutableDecimal margin) {
+            super(alert, fromPrice, toPrice);
+            this.marginValue = margin.mantissa();
+            this.marginScale = margin.exp();
+            var priceDelta = toPrice.copy();
+            priceDelta.subtractCaped(fromPrice);
+            priceDelta.expandMantissa();
+            this.slopeValue = priceDelta.mantissa();
+            this.slopeScale = priceDelta.exp();
+            this.slopeSeconds = Math.max(1L, secondsBetween(fromDateMs, toDateMs));
+        }
+
+        @NotNull
+        @Override
+        public MatchingStatus match(@NotNull List<KLine> kLines, @Nullable KLine previousKLine, @NotNull MatchingBuffers buffers) {
+            for (int i = 0; i < kLines.size(); i++) { // no iterator
+                var kLine = kLines.get(i);
+                if (isListenableKLine(kLine) && isNewerKLine(kLine, previousKLine)) {
+                    // precision is limited to the candlestick timeframe
+                    var lowPrice = trendPriceAt(buffers.low, kLine.openTime());
+                    var highPrice = trendPriceAt(buffers.high, kLine.closeTime());
+                    if (lowPrice.compareTo(highPrice) > 0) {
+                        lowPrice = buffers.high;
+                        highPrice = buffers.low;
+                    }
+                    if (priceInRange(kLine, lowPrice, highPrice) ||
+                            priceCrossedRange(kLine, lowPrice, highPrice, filterListenableKLine(previousKLine))) {
+                        buffers.matchingIndex = i;
+                        return MATCHED;
+                    }
+                    setMargins(buffers, lowPrice, highPrice);
+                    if (priceInRange(kLine, buffers.lowMargin, buffers.highMargin)) {
+                        buffers.matchingIndex = i;
+                        return MARGIN;
+                    }
+                    previousKLine = kLine;
+                }
+            }
+            return NOT_MATCHING;
+        }
+
+        @Override
+        public boolean mayMatch(@NotNull KLine envelope, @NotNull MatchingBuffers buffers) {
+            if (listeningDateMs > envelope.closeTime()) {
+                return false;
+            }
+            // the trend is a line, its lowest and highest prices are reached at the envelope bounds
+            var lowPrice = trendPriceAt(buffers.low, envelope.openTime());
+            var highPrice = trendPriceAt(buffers.high, envelope.closeTime());
+            if (lowPrice.compareTo(highPrice) > 0) {
+                lowPrice = buffers.high;
+                highPrice = buffers.low;
+            }
+            setMargins(buffers, lowPrice, highPrice);
+            return priceInRange(envelope, buffers.lowMargin, buffers.highMargin);
+        }
+
+        private void setMargins(@NotNull MatchingBuffers buffers, @NotNull MutableDecimal low, @NotNull MutableDecimal high) {
+            buffers.lowMargin.set(low.mantissa(), low.exp()).subtractCaped(marginValue, marginScale);
+            buffers.highMargin.set(high.mantissa(), high.exp()).addCaped(marginValue, marginScale);
+        }
+
+        // same as TrendAlert.trendPriceAt on BigDecimal using the precomputed slope, the division is done on 18 digits instead of a scale of 16
+        @NotNull
+        public MutableDecimal trendPriceAt(@NotNull MutableDecimal price, long dateMs) {
+            price.set(slopeValue, slopeScale);
+            price.multiplyDivideCaped(secondsBetween(fromDateMs, dateMs), slopeSeconds);
+            price.addCaped(fromPriceValue, fromPriceScale);
+            price.max(0L);
+            return price;
+        }
+    }
+}
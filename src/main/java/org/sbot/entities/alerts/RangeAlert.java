@@ -6,8 +6,10 @@ import org.jetbrains.annotations.Nullable;
 import org.sbot.entities.FieldParser;
 import org.sbot.entities.chart.Candlestick;
 import org.sbot.entities.chart.DatedPrice;
+import org.sbot.entities.chart.KLine;
 import org.sbot.services.MatchingService.MatchingAlert;
 import org.sbot.services.MatchingService.MatchingAlert.MatchingStatus;
+import org.sbot.utils.MutableDecimal;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -80,6 +82,22 @@ public final class RangeAlert extends Alert {
         return new MatchingAlert(this, NOT_MATCHING, null);
     }
 
+    // klines versions of the candlesticks matching functions, used by the compiled alerts
+    static boolean datesInLimits(@NotNull KLine kLine, long fromDateMs, long toDateMs) {
+        return fromDateMs <= kLine.closeTime() && toDateMs > kLine.closeTime();
+    }
+
+    static boolean priceInRange(@NotNull KLine kLine, @NotNull MutableDecimal low, @NotNull MutableDecimal high) {
+        return high.compareTo(kLine.lowValue(), kLine.lowScale()) >= 0 &&
+                low.compareTo(kLine.highValue(), kLine.highScale()) <= 0;
+    }
+
+    static boolean priceCrossedRange(@NotNull KLine kLine, @NotNull MutableDecimal low, @NotNull MutableDecimal high, @Nullable KLine previousKLine) {
+        return null != previousKLine &&
+                (high.compareTo(previousKLine.lowValue(), previousKLine.lowScale()) > 0 || high.compareTo(kLine.lowValue(), kLine.lowScale()) >= 0) &&
+                (low.compareTo(previousKLine.highValue(), previousKLine.highScale()) < 0 || low.compareTo(kLine.highValue(), kLine.highScale()) <= 0);
+    }
+
     static boolean datesInLimits(@NotNull Candlestick candlestick, @Nullable ZonedDateTime fromDate, @Nullable ZonedDateTime toDate) {
         return (null == fromDate || !fromDate.isAfter(candlestick.closeTime())) &&
                 (null == toDate || toDate.isAfter(candlestick.closeTime()));
@@ -0,0 +1,118 @@
+package org.sbot.entities.alerts;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.KLine;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    Columnar copy of a batch of range alerts to match on some klines. The alerts bands with margin and the klines prices
+    are stored into long arrays at a common exponent, along with the dates, then scanned without walking the Alert objects.
+    The scan returns the positions of the alerts that may match, this is a superset as a crossing is checked against
+    the hull of a kline and its previous one, the candidates still need to be matched one by one.
+ */
+public final class RangeAlertsColumns {
+
+    private final int size;
+    private final long[] lows;
+    private final long[] highs;
+    private final long[] listeningDates;
+    private final long[] fromDates;
+    private final long[] toDates;
+
+    private final long[] kLinesLows;
+    private final long[] kLinesHighs;
+    private final long[] openTimes;
+    private final long[] closeTimes;
+
+    private RangeAlertsColumns(int size, int kLinesSize) {
+        this.size = size;
+        lows = new long[size];
+        highs = new long[size];
+        listeningDates = new long[size];
+        fromDates = new long[size];
+        toDates = new long[size];
+        kLinesLows = new long[kLinesSize];
+        kLinesHighs = new long[kLinesSize];
+        openTimes = new long[kLinesSize];
+        closeTimes = new long[kLinesSize];
+    }
+
+    // returns null if the prices can't be set to a common exponent
+    @Nullable
+    public static RangeAlertsColumns of(@NotNull List<CompiledAlert.Range> alerts, @NotNull List<KLine> kLines, @Nullable KLine previousKLine) {
+        requireNonNull(alerts); requireNonNull(kLines);
+        int exp = Byte.MAX_VALUE;
+        for (var alert : alerts) {
+            exp = Math.min(exp, Math.min(alert.lowMarginScale, alert.highMarginScale));
+        }
+        for (var kLine : kLines) {
+            exp = Math.min(exp, Math.min(kLine.lowScale(), kLine.highScale()));
+        }
+        if (null != previousKLine) {
+            exp = Math.min(exp, Math.min(previousKLine.lowScale(), previousKLine.highScale()));
+        }
+        try {
+            var columns = new RangeAlertsColumns(alerts.size(), kLines.size());
+            for (int i = 0; i < alerts.size(); i++) {
+                var alert = alerts.get(i);
+                columns.lows[i] = scaled(alert.lowMarginValue, alert.lowMarginScale, exp);
+                columns.highs[i] = scaled(alert.highMarginValue, alert.highMarginScale, exp);
+                columns.listeningDates[i] = alert.listeningDateMs;
+                columns.fromDates[i] = alert.fromDateMs;
+                columns.toDates[i] = alert.toDateMs;
+            }
+            for (int i = 0; i < kLines.size(); i++) {
+                var kLine = kLines.get(i);
+                var previous = null != previousKLine ? previousKLine : kLine;
+                columns.kLinesLows[i] = Math.min(scaled(kLine.lowValue(), kLine.lowScale(), exp), scaled(previous.lowValue(), previous.lowScale(), exp));
+                columns.kLinesHighs[i] = Math.max(scaled(kLine.highValue(), kLine.highScale(), exp), scaled(previous.highValue(), previous.highScale(), exp));
+                columns.openTimes[i] = kLine.openTime();
+                columns.closeTimes[i] = kLine.closeTime();
+                previousKLine = kLine;
+            }
+            return columns;
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static long scaled(long mantissa, byte exp, int commonExp) {
+        for (int shift = exp - commonExp; shift-- != 0;) {
+            mantissa = Math.multiplyExact(mantissa, 10L);
+        }
+        return mantissa;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // returns the positions in the alerts list of the ones that may match
+    @NotNull
+    public BitSet scan() {
+        boolean[] hits = new boolean[size];
+        for (int k = 0; k < kLinesLows.length; k++) {
+            long low = kLinesLows[k];
+            long high = kLinesHighs[k];
+            long openTime = openTimes[k];
+            long closeTime = closeTimes[k];
+            // no branch nor object access, this loop can be unrolled and vectorized by the JIT
+            for (int i = 0; i < size; i++) {
+                hits[i] |= lows[i] <= high & highs[i] >= low &
+                        listeningDates[i] <= openTime & fromDates[i] <= closeTime & toDates[i] > closeTime;
+            }
+        }
+        var candidates = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (hits[i]) {
+                candidates.set(i);
+            }
+        }
+        return candidates;
+    }
+}
@@ -86,6 +86,11 @@ public final class TrendAlert extends Alert {
         return new MatchingAlert(this, NOT_MATCHING, null);
     }
 
+    // same as Duration.toSeconds, rounded toward negative infinity
+    static long secondsBetween(long fromDateMs, long dateMs) {
+        return Math.floorDiv(dateMs - fromDateMs, 1000L);
+    }
+
     @NotNull
     public static BigDecimal trendPriceAt(@NotNull ZonedDateTime dateTime, @NotNull Alert alert) {
         return trendPriceAt(dateTime, alert.fromPrice, alert.fromDate,
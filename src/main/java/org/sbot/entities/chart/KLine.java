@@ -3,8 +3,11 @@ package org.sbot.entities.chart;
 import org.jetbrains.annotations.NotNull;
 import org.sbot.utils.MutableDecimal;
 
+import java.time.Instant;
+
 import static org.sbot.utils.ArgumentValidator.requireEpoch;
 import static org.sbot.utils.ArgumentValidator.requirePositive;
+import static org.sbot.utils.Dates.UTC;
 
 public abstract class KLine {
 
@@ -244,6 +247,38 @@ public abstract class KLine {
         return new KLineImpl();
     }
 
+    // @throws ArithmeticException if a price doesn't fit into a compact decimal
+    @NotNull
+    public static KLine of(@NotNull Candlestick candlestick) {
+        var kLine = empty();
+        kLine.openTime(candlestick.openTime().toInstant().toEpochMilli());
+        kLine.closeTime(candlestick.closeTime().toInstant().toEpochMilli());
+        var price = MutableDecimal.of(candlestick.open());
+        kLine.openValue(price.mantissa());
+        kLine.openScale(price.exp());
+        price = MutableDecimal.of(candlestick.close());
+        kLine.closeValue(price.mantissa());
+        kLine.closeScale(price.exp());
+        price = MutableDecimal.of(candlestick.high());
+        kLine.highValue(price.mantissa());
+        kLine.highScale(price.exp());
+        price = MutableDecimal.of(candlestick.low());
+        kLine.lowValue(price.mantissa());
+        kLine.lowScale(price.exp());
+        return kLine;
+    }
+
+    @NotNull
+    public final Candlestick candlestick() {
+        return new Candlestick(
+                Instant.ofEpochMilli(openTime()).atZone(UTC),
+                Instant.ofEpochMilli(closeTime()).atZone(UTC),
+                MutableDecimal.of(openValue(), openScale()).bigDecimal(),
+                MutableDecimal.of(closeValue(), closeScale()).bigDecimal(),
+                MutableDecimal.of(highValue(), highScale()).bigDecimal(),
+                MutableDecimal.of(lowValue(), lowScale()).bigDecimal());
+    }
+
     public abstract long openTime();
 
     public abstract void openTime(long openTime);
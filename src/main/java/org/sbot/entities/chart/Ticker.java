@@ -0,0 +1,19 @@
+package org.sbot.entities.chart;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import static java.util.Objects.requireNonNull;
+
+// last price of a pair and its price range over a rolling window, like the binance 24h ticker
+public record Ticker(@NotNull ZonedDateTime openTime, @NotNull ZonedDateTime closeTime, @NotNull BigDecimal lastPrice, @NotNull BigDecimal low, @NotNull BigDecimal high) {
+    public Ticker {
+        requireNonNull(openTime); requireNonNull(closeTime);
+        requireNonNull(lastPrice); requireNonNull(low); requireNonNull(high);
+        if(openTime.isAfter(closeTime) || low.compareTo(high) > 0) {
+            throw new IllegalArgumentException("Invalid ticker : " + openTime + ", " + closeTime + ", " + low + ", " + high);
+        }
+    }
+}
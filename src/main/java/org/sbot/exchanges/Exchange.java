@@ -1,28 +1,86 @@
 package org.sbot.exchanges;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.Ticker;
 import org.sbot.entities.chart.TimeFrame;
 
+import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.sbot.exchanges.Exchanges.VIRTUAL_EXCHANGES;
+import static org.sbot.utils.ArgumentValidator.PAIR_PATTERN;
 
 public interface Exchange {
 
+    // receives the one minute candlesticks of the subscribed pairs once they are closed, this is called from the exchange stream thread
+    @FunctionalInterface
+    interface CandlestickListener {
+        void onClosedCandlestick(@NotNull String pair, @NotNull Candlestick candlestick);
+    }
+
     @NotNull
     String name();
 
     @NotNull
     List<Candlestick> getCandlesticks(@NotNull String pair, @NotNull TimeFrame timeFrame, long limit);
 
+    // candlesticks opened after this date until now, from the oldest, the exchange pages its requests if needed
+    @NotNull
+    List<Candlestick> getCandlesticksSince(@NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull ZonedDateTime since);
+
+    // bounds the concurrent fetches of the pairs and the requests weight sent to this exchange
+    @NotNull
+    default FetchScheduler fetchScheduler() {
+        return FetchScheduler.UNLIMITED;
+    }
+
+    // tickers of these pairs by pair, from one bulk request, the pairs unknown to the exchange are missing.
+    // an exchange without bulk tickers returns an empty map, its pairs candlesticks are then always requested
+    @NotNull
+    default Map<String, Ticker> getTickers(@NotNull Set<String> pairs) {
+        return Collections.emptyMap();
+    }
+
+    // the pairs listed by this exchange, sorted, empty if unknown
     @NotNull
     default List<String> getAvailablePairs() {
-        return Collections.emptyList(); //TODO
+        return Collections.emptyList();
+    }
+
+    // the listed pairs starting with this prefix, sorted, up to limit pairs
+    @NotNull
+    default List<String> getAvailablePairs(@NotNull String prefix, int limit) {
+        return getAvailablePairs().stream().filter(pair -> pair.startsWith(prefix)).limit(Math.max(0, limit)).toList();
+    }
+
+    // the listed pair equal to this one, or null if this exchange does not list it.
+    // an exchange that can't tell its pairs accepts any pair of the expected format
+    @Nullable
+    default String getPair(@NotNull String pair) {
+        return PAIR_PATTERN.matcher(pair).matches() ? pair : null;
     }
 
     default boolean isVirtual() {
         return VIRTUAL_EXCHANGES.contains(name());
     }
+
+    // true if this exchange can push the closed candlesticks of some pairs instead of being polled for them
+    default boolean isStreaming() {
+        return false;
+    }
+
+    // replaces the pairs subscribed by the previous call, an empty set closes the stream
+    default void subscribe(@NotNull Set<String> pairs, @NotNull CandlestickListener listener) {
+        throw new UnsupportedOperationException("Exchange " + name() + " does not support streaming");
+    }
+
+    // true if the stream is up and the pair is subscribed, the candlesticks of the other pairs need to be polled
+    default boolean isSubscribed(@NotNull String pair) {
+        return false;
+    }
 }
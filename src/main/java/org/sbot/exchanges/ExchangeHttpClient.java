@@ -0,0 +1,196 @@
+package org.sbot.exchanges;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    One http client shared by the exchanges rest requests and streams, so their connections are kept alive and reused
+    across the pairs fetches instead of a new tls handshake by exchange client. Http/2 is negotiated when the host supports it,
+    the gzip responses are decoded, and each host has its own concurrent requests limit, a request timeout and latency metrics.
+ */
+public final class ExchangeHttpClient {
+
+    private static final Logger LOGGER = LogManager.getLogger(ExchangeHttpClient.class);
+
+    public record Response(int statusCode, @NotNull HttpHeaders headers, @NotNull byte[] body) {
+        public Response {
+            requireNonNull(headers);
+            requireNonNull(body);
+        }
+
+        public boolean isSuccessful() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+
+        @NotNull
+        public Optional<String> header(@NotNull String name) {
+            return headers.firstValue(name);
+        }
+
+        @NotNull
+        public OptionalLong longHeader(@NotNull String name) {
+            try {
+                return headers.firstValueAsLong(name);
+            } catch (NumberFormatException e) {
+                return OptionalLong.empty();
+            }
+        }
+
+        @NotNull
+        public String bodyAsString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    public record HostMetrics(long requests, long errors, long averageLatencyMillis, long maxLatencyMillis) {}
+
+    private static final class Host {
+        private final Semaphore permits;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0L);
+
+        private Host(int maxConcurrency) {
+            permits = new Semaphore(maxConcurrency, true);
+        }
+
+        private HostMetrics metrics() {
+            long requests = this.requests.sum();
+            return new HostMetrics(requests, errors.sum(),
+                    requests > 0 ? TimeUnit.NANOSECONDS.toMillis(latencyNanos.sum() / requests) : 0L,
+                    TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxConcurrencyByHost;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public ExchangeHttpClient(@NotNull Duration connectTimeout, @NotNull Duration requestTimeout, int maxConcurrencyByHost) {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(requireNonNull(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build(), requestTimeout, maxConcurrencyByHost);
+    }
+
+    ExchangeHttpClient(@NotNull HttpClient httpClient, @NotNull Duration requestTimeout, int maxConcurrencyByHost) {
+        if(maxConcurrencyByHost <= 0) {
+            throw new IllegalArgumentException("Invalid max concurrency by host : " + maxConcurrencyByHost);
+        } else if(requestTimeout.isNegative() || requestTimeout.isZero()) {
+            throw new IllegalArgumentException("Invalid request timeout : " + requestTimeout);
+        }
+        this.httpClient = requireNonNull(httpClient);
+        this.requestTimeout = requestTimeout;
+        this.maxConcurrencyByHost = maxConcurrencyByHost;
+    }
+
+    // the underlying client, to open the exchanges websockets over the same connections pool
+    @NotNull
+    public HttpClient httpClient() {
+        return httpClient;
+    }
+
+    // sends a GET request once a permit of its host is available, and returns the response whatever its status code
+    @NotNull
+    public Response get(@NotNull URI uri) {
+        var request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET().build();
+        var host = hosts.computeIfAbsent(String.valueOf(uri.getHost()), h -> new Host(maxConcurrencyByHost));
+        try {
+            host.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request permit of " + uri.getHost(), e);
+        }
+        long start = System.nanoTime();
+        try {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            var body = decode(response.headers(), response.body());
+            if(response.statusCode() >= 400) {
+                host.errors.increment();
+            }
+            return new Response(response.statusCode(), response.headers(), body);
+        } catch (IOException e) {
+            host.errors.increment();
+            throw new UncheckedIOException("Request failed : " + uri, e);
+        } catch (InterruptedException e) {
+            host.errors.increment();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while requesting " + uri, e);
+        } finally {
+            long latency = System.nanoTime() - start;
+            host.permits.release();
+            host.requests.increment();
+            host.latencyNanos.add(latency);
+            host.maxLatencyNanos.accumulate(latency);
+        }
+    }
+
+    // metrics by host since this client was created
+    @NotNull
+    public Map<String, HostMetrics> metrics() {
+        return hosts.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().metrics()));
+    }
+
+    public void logMetrics() {
+        if(LOGGER.isDebugEnabled()) {
+            metrics().forEach((host, metrics) -> LOGGER.debug("Http requests to {} : {}, errors : {}, average latency : {}ms, max latency : {}ms",
+                    host, metrics.requests(), metrics.errors(), metrics.averageLatencyMillis(), metrics.maxLatencyMillis()));
+        }
+    }
+
+    // builds an uri from this url and these query parameters, in their iteration order
+    @NotNull
+    public static URI uri(@NotNull String url, @NotNull Map<String, ?> parameters) {
+        if(parameters.isEmpty()) {
+            return URI.create(url);
+        }
+        return URI.create(url + '?' + parameters.entrySet().stream()
+                .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + '=' +
+                        URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&")));
+    }
+
+    @NotNull
+    static byte[] decode(@NotNull HttpHeaders headers, @NotNull byte[] body) throws IOException {
+        if(body.length > 0 && headers.firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+            try (var gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return gzip.readAllBytes();
+            }
+        }
+        return body;
+    }
+}
@@ -3,18 +3,26 @@ package org.sbot.exchanges;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.sbot.entities.alerts.RemainderAlert;
 import org.sbot.entities.chart.Candlestick;
 import org.sbot.entities.chart.TimeFrame;
 import org.sbot.exchanges.binance.BinanceClient;
+import org.sbot.exchanges.replay.ReplayExchange;
 import org.sbot.utils.PropertiesReader;
 
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static org.sbot.utils.PropertiesReader.loadProperties;
 import static org.sbot.utils.PropertiesReader.readFile;
@@ -27,33 +35,80 @@ public final class Exchanges {
 
     private static final String BINANCE_API_KEY = properties.get("binance.api.key");
     private static final String BINANCE_API_SECRET_FILE = "binance.token";
+    // optional, the binance pairs are only polled if missing
+    private static final String BINANCE_STREAM_URL = properties.getOr("binance.stream.url", null);
+    // binance allows a weight of 6000 by minute and by ip, the budget leaves some room for the other requests
+    private static final int BINANCE_FETCH_CONCURRENCY = Math.max(1, properties.getIntOr("binance.fetch.concurrency", 16));
+    private static final int BINANCE_FETCH_WEIGHT_BY_MINUTE = Math.max(1, properties.getIntOr("binance.fetch.weight.minute", 4800));
+    private static final int BINANCE_FETCH_BACKOFF_SECONDS = Math.max(1, properties.getIntOr("binance.fetch.backoff.seconds", 10));
+    private static final int BINANCE_FETCH_MAX_BACKOFF_SECONDS = Math.max(BINANCE_FETCH_BACKOFF_SECONDS, properties.getIntOr("binance.fetch.backoff.max.seconds", 300));
+    // one http client for all the exchanges, with a concurrent requests limit by host
+    private static final int HTTP_CONNECT_TIMEOUT_SECONDS = Math.max(1, properties.getIntOr("exchanges.http.connect.timeout.seconds", 10));
+    private static final int HTTP_REQUEST_TIMEOUT_SECONDS = Math.max(1, properties.getIntOr("exchanges.http.request.timeout.seconds", 30));
+    private static final int HTTP_MAX_CONCURRENCY_BY_HOST = Math.max(1, properties.getIntOr("exchanges.http.host.concurrency", 32));
+    // the listed pairs are refreshed to see the new and delisted ones
+    private static final int BINANCE_PAIRS_REFRESH_MINUTES = Math.max(1, properties.getIntOr("binance.pairs.refresh.minutes", 60));
+    // optional, for load testing, the exchanges are then replayed from the files recorded in a sub directory by exchange
+    private static final String REPLAY_DIRECTORY = properties.getOr("replay.directory", null);
 
 
     public static final List<String> SUPPORTED_EXCHANGES = List.of(BinanceClient.NAME);
     public static final List<String> VIRTUAL_EXCHANGES = List.of(RemainderAlert.REMAINDER_VIRTUAL_EXCHANGE);
 
     private final Map<String, Exchange> exchanges = new ConcurrentHashMap<>();
+    private final ExchangeHttpClient httpClient = new ExchangeHttpClient(Duration.ofSeconds(HTTP_CONNECT_TIMEOUT_SECONDS),
+            Duration.ofSeconds(HTTP_REQUEST_TIMEOUT_SECONDS), HTTP_MAX_CONCURRENCY_BY_HOST);
 
-    public Exchanges() {
+    private final Clock clock;
+    @Nullable
+    private final Path replayDirectory;
+
+    public Exchanges(@NotNull Clock clock) {
+        this(clock, null != REPLAY_DIRECTORY ? Path.of(REPLAY_DIRECTORY) : null);
+    }
+
+    // with a replay directory, the candlesticks of the exchanges are read from their recorded files, up to the clock time
+    public Exchanges(@NotNull Clock clock, @Nullable Path replayDirectory) {
+        this.clock = requireNonNull(clock);
+        this.replayDirectory = replayDirectory;
         VIRTUAL_EXCHANGES.forEach(exchangeName -> exchanges.put(exchangeName, new Exchange() {
             @Override @NotNull public String name() { return exchangeName; }
             @Override @NotNull public List<Candlestick> getCandlesticks(@NotNull String pair, @NotNull TimeFrame timeFrame, long limit) { return emptyList(); }
+            @Override @NotNull public List<Candlestick> getCandlesticksSince(@NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull ZonedDateTime since) { return emptyList(); }
         }));
     }
 
+    // the exchanges loaded so far, virtual ones included
+    @NotNull
+    public List<Exchange> loaded() {
+        return List.copyOf(exchanges.values());
+    }
+
+    @NotNull
+    public ExchangeHttpClient httpClient() {
+        return httpClient;
+    }
+
     public Optional<Exchange> get(@NotNull String exchange) {
         try {
-            return Optional.of(exchanges.computeIfAbsent(exchange, Exchanges::loadExchange));
+            return Optional.of(exchanges.computeIfAbsent(exchange, this::loadExchange));
         } catch (RuntimeException e) {
             LOGGER.error("Unable to load exchange " + exchange, e);
             return empty();
         }
     }
 
-    private static Exchange loadExchange(@NotNull String exchange) {
+    private Exchange loadExchange(@NotNull String exchange) {
         LOGGER.debug("Loading exchange {}...", exchange);
+        if(null != replayDirectory && SUPPORTED_EXCHANGES.contains(exchange)) {
+            return new ReplayExchange(exchange, replayDirectory.resolve(exchange), clock);
+        }
         return switch (exchange) {
-            case BinanceClient.NAME -> new BinanceClient(BINANCE_API_KEY, readFile(BINANCE_API_SECRET_FILE));
+            case BinanceClient.NAME -> new BinanceClient(BINANCE_API_KEY, readFile(BINANCE_API_SECRET_FILE),
+                    null != BINANCE_STREAM_URL ? URI.create(BINANCE_STREAM_URL) : null, httpClient,
+                    new FetchScheduler(BinanceClient.NAME, BINANCE_FETCH_CONCURRENCY, BINANCE_FETCH_WEIGHT_BY_MINUTE,
+                            Duration.ofSeconds(BINANCE_FETCH_BACKOFF_SECONDS), Duration.ofSeconds(BINANCE_FETCH_MAX_BACKOFF_SECONDS)),
+                    Duration.ofMinutes(BINANCE_PAIRS_REFRESH_MINUTES));
             default -> throw new IllegalArgumentException("Unsupported exchange : " + exchange);
         };
     }
@@ -0,0 +1,133 @@
+package org.sbot.exchanges;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    Bounds the requests sent to an exchange, shared by all the threads fetching its pairs.
+    The concurrent fetches are limited by a number of permits, and the requests weight by a token bucket
+    refilled continuously up to the exchange budget by minute, that the exchange can resync with the weight it reports as used.
+    Once the exchange answers it is rate limited, all the requests are paused until the given date or for an increasing backoff.
+ */
+public final class FetchScheduler {
+
+    private static final Logger LOGGER = LogManager.getLogger(FetchScheduler.class);
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    // no limit, for the exchanges that don't have a fetch policy
+    public static final FetchScheduler UNLIMITED = new FetchScheduler("unlimited", Integer.MAX_VALUE, 0, Duration.ZERO, Duration.ZERO, Clock.systemUTC());
+
+    private final String name;
+    private final Semaphore permits;
+    private final int weightByMinute;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final Clock clock;
+
+    // guarded by this
+    private double availableWeight;
+    private long lastRefill;
+    private long pausedUntil;
+    private Duration backoff;
+
+    public FetchScheduler(@NotNull String name, int maxConcurrency, int weightByMinute, @NotNull Duration minBackoff, @NotNull Duration maxBackoff) {
+        this(name, maxConcurrency, weightByMinute, minBackoff, maxBackoff, Clock.systemUTC());
+    }
+
+    FetchScheduler(@NotNull String name, int maxConcurrency, int weightByMinute, @NotNull Duration minBackoff, @NotNull Duration maxBackoff, @NotNull Clock clock) {
+        if(maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Invalid max concurrency : " + maxConcurrency);
+        }
+        this.name = requireNonNull(name);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.weightByMinute = Math.max(0, weightByMinute);
+        this.minBackoff = requireNonNull(minBackoff);
+        this.maxBackoff = requireNonNull(maxBackoff);
+        this.clock = requireNonNull(clock);
+        this.availableWeight = this.weightByMinute;
+        this.lastRefill = clock.millis();
+        this.backoff = minBackoff;
+    }
+
+    // runs a whole fetch task of one pair, once a concurrency permit is available
+    public <T> T fetch(@NotNull Callable<T> task) throws Exception {
+        permits.acquire();
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // sends one request of this weight, once the weight budget allows it and the exchange is not paused
+    public <T> T request(int weight, @NotNull Supplier<T> request) {
+        try {
+            for(long delay; (delay = reserve(weight, clock.millis())) > 0; ) {
+                LOGGER.debug("Waiting {}ms for {} request weight budget", delay, name);
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name + " request weight budget", e);
+        }
+        T result = request.get();
+        synchronized (this) {
+            backoff = minBackoff;
+        }
+        return result;
+    }
+
+    // the weight used during the current minute as reported by the exchange, this accounts for the requests sent by other clients
+    public synchronized void usedWeight(long usedWeight) {
+        if(weightByMinute > 0) {
+            refill(clock.millis());
+            availableWeight = Math.min(availableWeight, weightByMinute - usedWeight);
+        }
+    }
+
+    // pauses all the requests until this date if provided, or for the current backoff, which is doubled up to the max backoff
+    public synchronized void rateLimited(@Nullable Instant retryAt) {
+        long now = clock.millis();
+        refill(now);
+        long until = null != retryAt ? retryAt.toEpochMilli() : now + backoff.toMillis();
+        pausedUntil = Math.max(pausedUntil, until);
+        availableWeight = Math.min(availableWeight, 0d);
+        backoff = backoff.multipliedBy(2L).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2L);
+        LOGGER.warn("{} rate limit reached, requests paused for {}ms", name, pausedUntil - now);
+    }
+
+    // takes this weight from the bucket if available and returns 0, or the delay to wait before a new try
+    synchronized long reserve(int weight, long now) {
+        if(now < pausedUntil) {
+            return pausedUntil - now;
+        } else if(weightByMinute <= 0) {
+            return 0L;
+        }
+        refill(now);
+        weight = Math.min(weight, weightByMinute);
+        if(availableWeight >= weight) {
+            availableWeight -= weight;
+            return 0L;
+        }
+        return Math.max(1L, (long) Math.ceil((weight - availableWeight) * MINUTE_MILLIS / weightByMinute));
+    }
+
+    private void refill(long now) {
+        if(now > lastRefill) {
+            availableWeight = Math.min(weightByMinute, availableWeight + (double) (now - lastRefill) * weightByMinute / MINUTE_MILLIS);
+            lastRefill = now;
+        }
+    }
+}
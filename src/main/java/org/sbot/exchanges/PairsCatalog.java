@@ -0,0 +1,134 @@
+package org.sbot.exchanges;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    Pairs listed by an exchange with their exchange symbols, loaded on first use then refreshed in the background once outdated.
+    A snapshot keeps the pairs sorted in one array and their symbols in a parallel one, so a pair or the range of pairs
+    starting with a prefix is found by binary search, without a map entry or a tree node by pair.
+    Until a first load succeeds the catalog is empty and not loaded, the exchange then falls back to the pair format,
+    and a failed or empty refresh keeps the previous pairs.
+ */
+public final class PairsCatalog {
+
+    private static final Logger LOGGER = LogManager.getLogger(PairsCatalog.class);
+
+    private record Snapshot(@NotNull String[] pairs, @NotNull String[] symbols) {}
+
+    private static final Snapshot NOT_LOADED = new Snapshot(new String[0], new String[0]);
+
+    private final String name;
+    // exchange symbols by pair
+    private final Supplier<Map<String, String>> loader;
+    private final Duration refreshPeriod;
+    private final Duration retryDelay;
+    private final Clock clock;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = NOT_LOADED;
+    private volatile long nextLoad = Long.MIN_VALUE;
+
+    public PairsCatalog(@NotNull String name, @NotNull Supplier<Map<String, String>> loader, @NotNull Duration refreshPeriod, @NotNull Duration retryDelay) {
+        this(name, loader, refreshPeriod, retryDelay, Clock.systemUTC());
+    }
+
+    PairsCatalog(@NotNull String name, @NotNull Supplier<Map<String, String>> loader, @NotNull Duration refreshPeriod, @NotNull Duration retryDelay, @NotNull Clock clock) {
+        if(refreshPeriod.isNegative() || retryDelay.isNegative()) {
+            throw new IllegalArgumentException("Invalid refresh period or retry delay : " + refreshPeriod + ", " + retryDelay);
+        }
+        this.name = requireNonNull(name);
+        this.loader = requireNonNull(loader);
+        this.refreshPeriod = refreshPeriod;
+        this.retryDelay = retryDelay;
+        this.clock = requireNonNull(clock);
+    }
+
+    public boolean isLoaded() {
+        return snapshot() != NOT_LOADED;
+    }
+
+    // the listed pair equal to this one, or null if not listed
+    @Nullable
+    public String pair(@NotNull String pair) {
+        var pairs = snapshot().pairs();
+        int index = Arrays.binarySearch(pairs, pair);
+        return index >= 0 ? pairs[index] : null;
+    }
+
+    // the exchange symbol of this pair, or null if not listed
+    @Nullable
+    public String symbol(@NotNull String pair) {
+        var snapshot = snapshot();
+        int index = Arrays.binarySearch(snapshot.pairs(), pair);
+        return index >= 0 ? snapshot.symbols()[index] : null;
+    }
+
+    // all the listed pairs, sorted
+    @NotNull
+    public List<String> pairs() {
+        return List.of(snapshot().pairs());
+    }
+
+    // the listed pairs starting with this prefix, sorted, up to limit pairs
+    @NotNull
+    public List<String> pairsStartingWith(@NotNull String prefix, int limit) {
+        var pairs = snapshot().pairs();
+        int index = Arrays.binarySearch(pairs, prefix);
+        var result = new ArrayList<String>(Math.min(Math.max(0, limit), 32));
+        for(int i = index >= 0 ? index : -index - 1; i < pairs.length && result.size() < limit && pairs[i].startsWith(prefix); i++) {
+            result.add(pairs[i]);
+        }
+        return result;
+    }
+
+    // the first load is done by the calling thread, the next ones by a virtual thread while the current pairs remain available
+    @NotNull
+    private Snapshot snapshot() {
+        var current = snapshot;
+        if(clock.millis() >= nextLoad && loading.compareAndSet(false, true)) {
+            if(NOT_LOADED == current) {
+                load();
+                return snapshot;
+            }
+            Thread.ofVirtual().name(name + "-pairs-catalog").start(this::load);
+        }
+        return current;
+    }
+
+    private void load() {
+        try {
+            var symbols = loader.get();
+            if(symbols.isEmpty()) {
+                throw new IllegalStateException("No pairs listed");
+            }
+            var pairs = symbols.keySet().toArray(String[]::new);
+            Arrays.sort(pairs);
+            var pairSymbols = new String[pairs.length];
+            for(int i = 0; i < pairs.length; i++) {
+                pairSymbols[i] = requireNonNull(symbols.get(pairs[i]));
+            }
+            snapshot = new Snapshot(pairs, pairSymbols);
+            nextLoad = clock.millis() + refreshPeriod.toMillis();
+            LOGGER.info("Loaded {} pairs of exchange {}", pairs.length, name);
+        } catch (RuntimeException e) {
+            nextLoad = clock.millis() + retryDelay.toMillis();
+            LOGGER.warn("Unable to load the pairs of exchange " + name + ", retry in " + retryDelay, e);
+        } finally {
+            loading.set(false);
+        }
+    }
+}
@@ -1,37 +1,96 @@
 package org.sbot.exchanges.binance;
 
 import com.binance.api.client.BinanceApiClientFactory;
+import com.binance.api.client.BinanceApiError;
 import com.binance.api.client.BinanceApiRestClient;
-import com.binance.api.client.domain.market.Candlestick;
+import com.binance.api.client.exception.BinanceApiException;
+import com.binance.api.client.domain.general.SymbolStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.Unpooled;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.KLine;
+import org.sbot.entities.chart.Ticker;
 import org.sbot.entities.chart.TimeFrame;
 import org.sbot.exchanges.Exchange;
+import org.sbot.exchanges.ExchangeHttpClient;
+import org.sbot.exchanges.FetchScheduler;
+import org.sbot.exchanges.PairsCatalog;
+import org.sbot.utils.ByteBufferWrapper;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.binance.api.client.BinanceApiClientFactory.newInstance;
 import static java.util.Objects.requireNonNull;
 import static org.sbot.exchanges.binance.BinanceMapper.map;
+import static org.sbot.utils.ArgumentValidator.PAIR_PATTERN;
 
 public class BinanceClient implements Exchange {
 
     public static final String NAME = "binance";
+    static final String REST_URL = "https://api.binance.com";
+    static final String KLINES_PATH = "/api/v3/klines";
+    // weight used by this ip during the current minute, returned with each response
+    static final String USED_WEIGHT_HEADER = "X-MBX-USED-WEIGHT-1M";
     private static final Logger LOGGER = LogManager.getLogger(BinanceClient.class);
 
+    // binance klines page size, and the maximum pages requested for one gap
+    static final int MAX_LIMIT = 1000;
+    static final int MAX_PAGES = 10;
+    // request weight of a klines request, and the error code of a rate limited request, either http 429 or 418 once banned
+    static final int KLINES_WEIGHT = 2;
+    static final int TICKERS_WEIGHT = 80;
+    static final int EXCHANGE_INFO_WEIGHT = 20;
+    static final int TOO_MANY_REQUESTS_CODE = -1003;
+    private static final Duration PAIRS_RETRY_DELAY = Duration.ofMinutes(1L);
+    private static final Pattern BANNED_UNTIL = Pattern.compile("banned until (\\d+)");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final BinanceApiRestClient binanceApiClient;
+    private final ExchangeHttpClient httpClient;
+    @Nullable
+    private final BinanceStream binanceStream;
+    private final FetchScheduler fetchScheduler;
+    private final PairsCatalog pairsCatalog;
 
-    public BinanceClient(@NotNull String apiKey, @NotNull String apiSecret) {
+    public BinanceClient(@NotNull String apiKey, @NotNull String apiSecret, @Nullable URI streamUrl, @NotNull ExchangeHttpClient httpClient,
+                         @NotNull FetchScheduler fetchScheduler, @NotNull Duration pairsRefreshPeriod) {
         LOGGER.info("Loading binance connection...");
         BinanceApiClientFactory factory = newInstance(requireNonNull(apiKey, "missing binance api key"),
                 requireNonNull(apiSecret, "missing binance api secret"));
         binanceApiClient = factory.newRestClient();
+        this.httpClient = requireNonNull(httpClient);
+        binanceStream = null != streamUrl ? new BinanceStream(streamUrl, httpClient.httpClient()) : null;
+        this.fetchScheduler = requireNonNull(fetchScheduler);
+        pairsCatalog = new PairsCatalog(NAME, this::loadPairs, pairsRefreshPeriod, PAIRS_RETRY_DELAY);
         LOGGER.info("Binance connection loaded");
     }
 
+    BinanceClient(@NotNull BinanceApiRestClient binanceApiClient, @NotNull ExchangeHttpClient httpClient, @Nullable BinanceStream binanceStream,
+                  @NotNull FetchScheduler fetchScheduler, @NotNull Duration pairsRefreshPeriod) {
+        this.binanceApiClient = requireNonNull(binanceApiClient);
+        this.httpClient = requireNonNull(httpClient);
+        this.binanceStream = binanceStream;
+        this.fetchScheduler = requireNonNull(fetchScheduler);
+        pairsCatalog = new PairsCatalog(NAME, this::loadPairs, pairsRefreshPeriod, PAIRS_RETRY_DELAY);
+    }
+
     @Override
     @NotNull
     public String name() {
@@ -40,17 +99,183 @@ public class BinanceClient implements Exchange {
 
     @Override
     @NotNull
-    public List<org.sbot.entities.chart.Candlestick> getCandlesticks(@NotNull String pair, @NotNull TimeFrame timeFrame, long limit) {
-        //TODO use limit on api call, check open/close time order of responses
+    public FetchScheduler fetchScheduler() {
+        return fetchScheduler;
+    }
+
+    // binance returns the candlesticks sorted by open time, the last one may not be closed yet
+    @Override
+    @NotNull
+    public List<Candlestick> getCandlesticks(@NotNull String pair, @NotNull TimeFrame timeFrame, long limit) {
         LOGGER.debug("Requesting binance candlestick for pair {} and time frame {} and limit {}...", pair, timeFrame, limit);
-        var candlesticks = binanceApiClient.getCandlestickBars(pair.replace("/", ""), map(timeFrame));
+        var kLines = getKLines(pair, timeFrame, (int) Math.clamp(limit, 1L, MAX_LIMIT), null);
+        return kLines.stream().map(KLine::candlestick).toList();
+    }
+
+    @Override
+    @NotNull
+    public List<Candlestick> getCandlesticksSince(@NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull ZonedDateTime since) {
+        LOGGER.debug("Requesting binance candlestick for pair {} and time frame {} since {}...", pair, timeFrame, since);
+        var candlesticks = new ArrayList<Candlestick>();
+        long startTime = since.toInstant().toEpochMilli() + 1L;
+        for(int pages = 1; ; pages++) {
+            var page = getKLines(pair, timeFrame, MAX_LIMIT, startTime);
+            page.forEach(kLine -> candlesticks.add(kLine.candlestick()));
+            if(page.size() < MAX_LIMIT || pages >= MAX_PAGES || page.getLast().openTime() < startTime) {
+                if(pages >= MAX_PAGES) {
+                    LOGGER.warn("Too many binance candlesticks for pair {} and time frame {} since {}, truncated to {}", pair, timeFrame, since, candlesticks.size());
+                }
+                return candlesticks;
+            }
+            startTime = page.getLast().openTime() + 1L;
+        }
+    }
+
+    // the klines are requested through the shared http client and decoded in place, the used weight it returns resyncs the fetch scheduler
+    @NotNull
+    private List<KLine> getKLines(@NotNull String pair, @NotNull TimeFrame timeFrame, int limit, @Nullable Long startTime) {
+        var parameters = new LinkedHashMap<String, Object>();
+        parameters.put("symbol", symbol(pair));
+        parameters.put("interval", map(timeFrame).getIntervalId());
+        parameters.put("limit", limit);
+        if(null != startTime) {
+            parameters.put("startTime", startTime);
+        }
+        var uri = ExchangeHttpClient.uri(REST_URL + KLINES_PATH, parameters);
+        var response = request(KLINES_WEIGHT, () -> {
+            var httpResponse = httpClient.get(uri);
+            httpResponse.longHeader(USED_WEIGHT_HEADER).ifPresent(fetchScheduler::usedWeight);
+            if(!httpResponse.isSuccessful()) {
+                throw apiException(httpResponse);
+            }
+            return httpResponse;
+        });
+        var wrapper = new ByteBufferWrapper();
+        wrapper.setBuffer(Unpooled.wrappedBuffer(response.body()));
+        var kLines = new ArrayList<KLine>();
+        new BinanceKLinesDecoder().decodeKLines(wrapper, kLines);
+        logKLines(pair, timeFrame, kLines);
+        return kLines;
+    }
+
+    // the binance error of a failed request, a rate limited request may have no error code in its body
+    @NotNull
+    static BinanceApiException apiException(@NotNull ExchangeHttpClient.Response response) {
+        BinanceApiError error;
+        try {
+            error = OBJECT_MAPPER.readValue(response.body(), BinanceApiError.class);
+        } catch (IOException e) {
+            error = new BinanceApiError();
+            error.setMsg("Http status " + response.statusCode() + " : " + response.bodyAsString());
+        }
+        if(error.getCode() == 0 && (response.statusCode() == 429 || response.statusCode() == 418)) {
+            error.setCode(TOO_MANY_REQUESTS_CODE);
+        }
+        return new BinanceApiException(error);
+    }
+
+    // one request for the 24h tickers of all the binance symbols, the ones of these pairs are returned
+    @Override
+    @NotNull
+    public Map<String, Ticker> getTickers(@NotNull Set<String> pairs) {
+        LOGGER.debug("Requesting binance 24h tickers for {} pairs...", pairs.size());
+        var symbols = new HashMap<String, String>(pairs.size());
+        pairs.forEach(pair -> symbols.put(symbol(pair), pair));
+        var tickers = new HashMap<String, Ticker>(pairs.size());
+        for(var ticker : request(TICKERS_WEIGHT, binanceApiClient::getAll24HrPriceStatistics)) {
+            var pair = symbols.get(ticker.getSymbol());
+            if(null != pair) {
+                try {
+                    tickers.put(pair, map(ticker));
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Invalid binance ticker for pair {} : {}", pair, ticker);
+                }
+            }
+        }
+        return tickers;
+    }
+
+    @Override
+    @NotNull
+    public List<String> getAvailablePairs() {
+        return pairsCatalog.pairs();
+    }
+
+    @Override
+    @NotNull
+    public List<String> getAvailablePairs(@NotNull String prefix, int limit) {
+        return pairsCatalog.pairsStartingWith(prefix, limit);
+    }
+
+    // until the binance pairs are loaded, any pair of the expected format is accepted
+    @Override
+    @Nullable
+    public String getPair(@NotNull String pair) {
+        return pairsCatalog.isLoaded() ? pairsCatalog.pair(pair) : Exchange.super.getPair(pair);
+    }
+
+    // the binance symbols being traded, by pair built from their base and quote assets
+    @NotNull
+    Map<String, String> loadPairs() {
+        LOGGER.debug("Requesting binance exchange info...");
+        var symbols = new HashMap<String, String>();
+        for(var symbol : request(EXCHANGE_INFO_WEIGHT, binanceApiClient::getExchangeInfo).getSymbols()) {
+            var pair = symbol.getBaseAsset() + '/' + symbol.getQuoteAsset();
+            if(SymbolStatus.TRADING == symbol.getStatus() && PAIR_PATTERN.matcher(pair).matches()) {
+                symbols.put(pair, symbol.getSymbol());
+            }
+        }
+        return symbols;
+    }
+
+    // the requests sent by the binance api client don't expose their response headers, only the klines responses resync the used weight
+    @NotNull
+    private <T> T request(int weight, @NotNull Supplier<T> request) {
+        try {
+            return fetchScheduler.request(weight, request);
+        } catch (BinanceApiException e) {
+            if(null != e.getError() && e.getError().getCode() == TOO_MANY_REQUESTS_CODE) {
+                fetchScheduler.rateLimited(retryAt(e.getError().getMsg()));
+            }
+            throw e;
+        }
+    }
+
+    // a banned ip error message provides the date the ban ends, like : Way too many requests; IP banned until 1507470553000.
+    @Nullable
+    static Instant retryAt(@Nullable String errorMessage) {
+        var matcher = null != errorMessage ? BANNED_UNTIL.matcher(errorMessage) : null;
+        return null != matcher && matcher.find() ? Instant.ofEpochMilli(Long.parseLong(matcher.group(1))) : null;
+    }
+
+    @NotNull
+    private String symbol(@NotNull String pair) {
+        var symbol = pairsCatalog.symbol(pair);
+        return null != symbol ? symbol : pair.replace("/", "");
+    }
+
+    private static void logKLines(@NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull List<KLine> kLines) {
         if(LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Received binance candlestick for pair " + pair + " and time frame " + timeFrame + " and limit " + limit + ":\n" +
-                    candlesticks.stream().map(Candlestick::toString).collect(Collectors.joining("\n")));
+            LOGGER.debug("Received binance candlestick for pair " + pair + " and time frame " + timeFrame + ":\n" +
+                    kLines.stream().map(KLine::toString).collect(Collectors.joining("\n")));
         }
-        return candlesticks.stream()
-                .sorted(Comparator.comparing(Candlestick::getCloseTime))
-                .limit(limit)
-                .map(BinanceMapper::map).toList();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return null != binanceStream;
+    }
+
+    @Override
+    public void subscribe(@NotNull Set<String> pairs, @NotNull CandlestickListener listener) {
+        if(null == binanceStream) {
+            throw new UnsupportedOperationException("Binance stream is not configured");
+        }
+        binanceStream.subscribe(pairs, listener);
+    }
+
+    @Override
+    public boolean isSubscribed(@NotNull String pair) {
+        return null != binanceStream && binanceStream.isSubscribed(pair);
     }
 }
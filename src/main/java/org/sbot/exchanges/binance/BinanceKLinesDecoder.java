@@ -0,0 +1,206 @@
+package org.sbot.exchanges.binance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.KLine;
+import org.sbot.utils.MutableDecimal;
+import org.sbot.utils.MutableDecimalParser;
+
+import java.util.List;
+
+/*
+    Decoder of the binance klines json messages into reusable KLine instances, without any intermediate String nor BigDecimal.
+    Messages are read as a CharSequence, like a ByteBufferWrapper over the received bytes or the websocket text buffer,
+    and the prices are parsed in place by MutableDecimalParser. This is not a json parser, it only expects the binance klines formats :
+    rest klines : [[1499040000000,"0.01634790","0.80000000","0.01575800","0.01577100","148976.11427815",1499644799999,"2434.19055334",308,"1756.87402397","28.46694368","0"],...]
+    stream kline event : {"stream":"btcusdt@kline_1m","data":{"e":"kline","E":1,"s":"BTCUSDT","k":{"t":0,"T":59999,"s":"BTCUSDT","i":"1m","o":"1.0","c":"2.0","h":"3.0","l":"0.5","x":true,...}}}
+    An instance is not thread safe.
+ */
+public final class BinanceKLinesDecoder {
+
+    private static final String STREAM_FIELD = "\"stream\":";
+    private static final String KLINE_FIELD = "\"k\":";
+
+    // start and end of the last value read, the end being the index after the value
+    private int valueStart;
+    private int valueEnd;
+    private final MutableDecimal priceBuffer = MutableDecimal.empty();
+
+    // decodes a rest klines response into the klines of this list, it is extended when too short and the klines after the returned count are left unchanged
+    public int decodeKLines(@NotNull CharSequence json, @NotNull List<KLine> kLines) {
+        int index = expect(json, skipWhitespaces(json, 0), '[');
+        if(charAt(json, skipWhitespaces(json, index)) == ']') {
+            return 0;
+        }
+        for(int count = 1; ; count++) {
+            if(kLines.size() < count) {
+                kLines.add(KLine.empty());
+            }
+            index = skipWhitespaces(json, decodeKLine(json, skipWhitespaces(json, index), kLines.get(count - 1)));
+            char c = charAt(json, index++);
+            if(c == ']') {
+                return count;
+            } else if(c != ',') {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at index " + (index - 1));
+            }
+        }
+    }
+
+    // decodes the kline of a stream event, returns true if it is closed
+    public boolean decodeKLineEvent(@NotNull CharSequence json, @NotNull KLine kLine) {
+        int index = indexOf(json, KLINE_FIELD, 0);
+        if(index < 0) {
+            throw new IllegalArgumentException("Missing kline in message");
+        }
+        index = expect(json, skipWhitespaces(json, index + KLINE_FIELD.length()), '{');
+        boolean closed = false;
+        int fields = 0;
+        while(true) {
+            index = expect(json, skipWhitespaces(json, index), '"');
+            char key = charAt(json, index);
+            boolean singleCharKey = charAt(json, index + 1) == '"';
+            index = indexOf(json, '"', index);
+            index = skipWhitespaces(json, expect(json, skipWhitespaces(json, index + 1), ':'));
+            index = skipWhitespaces(json, readValue(json, index));
+            if(singleCharKey) {
+                fields++;
+                switch (key) {
+                    case 't' -> kLine.openTime(parseLong(json, valueStart, valueEnd));
+                    case 'T' -> kLine.closeTime(parseLong(json, valueStart, valueEnd));
+                    case 'o' -> { parsePrice(json); kLine.openValue(priceBuffer.mantissa()); kLine.openScale(priceBuffer.exp()); }
+                    case 'c' -> { parsePrice(json); kLine.closeValue(priceBuffer.mantissa()); kLine.closeScale(priceBuffer.exp()); }
+                    case 'h' -> { parsePrice(json); kLine.highValue(priceBuffer.mantissa()); kLine.highScale(priceBuffer.exp()); }
+                    case 'l' -> { parsePrice(json); kLine.lowValue(priceBuffer.mantissa()); kLine.lowScale(priceBuffer.exp()); }
+                    case 'x' -> closed = charAt(json, valueStart) == 't';
+                    default -> fields--;
+                }
+            }
+            char c = charAt(json, index++);
+            if(c == '}') {
+                if(fields < 7) {
+                    throw new IllegalArgumentException("Missing kline fields in message");
+                }
+                return closed;
+            } else if(c != ',') {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at index " + (index - 1));
+            }
+        }
+    }
+
+    // stream name of a stream message, or null for the responses to the subscription requests
+    @Nullable
+    public String streamName(@NotNull CharSequence json) {
+        int index = indexOf(json, STREAM_FIELD, 0);
+        if(index < 0) {
+            return null;
+        }
+        readValue(json, skipWhitespaces(json, index + STREAM_FIELD.length()));
+        return json.subSequence(valueStart, valueEnd).toString();
+    }
+
+    // one rest kline array, returns the index after it
+    private int decodeKLine(@NotNull CharSequence json, int index, @NotNull KLine kLine) {
+        index = expect(json, index, '[');
+        for(int field = 0; ; field++) {
+            index = skipWhitespaces(json, readValue(json, skipWhitespaces(json, index)));
+            switch (field) {
+                case 0 -> kLine.openTime(parseLong(json, valueStart, valueEnd));
+                case 1 -> { parsePrice(json); kLine.openValue(priceBuffer.mantissa()); kLine.openScale(priceBuffer.exp()); }
+                case 2 -> { parsePrice(json); kLine.highValue(priceBuffer.mantissa()); kLine.highScale(priceBuffer.exp()); }
+                case 3 -> { parsePrice(json); kLine.lowValue(priceBuffer.mantissa()); kLine.lowScale(priceBuffer.exp()); }
+                case 4 -> { parsePrice(json); kLine.closeValue(priceBuffer.mantissa()); kLine.closeScale(priceBuffer.exp()); }
+                case 6 -> kLine.closeTime(parseLong(json, valueStart, valueEnd));
+                default -> {} // volumes and trades
+            }
+            char c = charAt(json, index++);
+            if(c == ']') {
+                if(field < 6) {
+                    throw new IllegalArgumentException("Missing kline fields at index " + (index - 1));
+                }
+                return index;
+            } else if(c != ',') {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at index " + (index - 1));
+            }
+        }
+    }
+
+    // sets the bounds of the value at this index, without its quotes, and returns the index after it
+    private int readValue(@NotNull CharSequence json, int index) {
+        if(charAt(json, index) == '"') {
+            valueStart = index + 1;
+            valueEnd = indexOf(json, '"', valueStart);
+            return valueEnd + 1;
+        }
+        valueStart = index;
+        while(index < json.length() && ",]} \t\r\n".indexOf(json.charAt(index)) < 0) {
+            index++;
+        }
+        valueEnd = index;
+        if(valueStart == valueEnd) {
+            throw new IllegalArgumentException("Missing value at index " + index);
+        }
+        return index;
+    }
+
+    private void parsePrice(@NotNull CharSequence json) {
+        MutableDecimalParser.parse(json, priceBuffer, valueStart, valueEnd - valueStart);
+    }
+
+    static long parseLong(@NotNull CharSequence json, int start, int end) {
+        if(start >= end || end - start > 18) {
+            throw new NumberFormatException("Invalid epoch at index " + start);
+        }
+        long value = 0L;
+        for(int i = start; i < end; i++) {
+            int digit = json.charAt(i) - '0';
+            if(digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid epoch at index " + start);
+            }
+            value = value * 10L + digit;
+        }
+        return value;
+    }
+
+    private static char charAt(@NotNull CharSequence json, int index) {
+        if(index >= json.length()) {
+            throw new IllegalArgumentException("Unexpected end of message at index " + index);
+        }
+        return json.charAt(index);
+    }
+
+    private static int skipWhitespaces(@NotNull CharSequence json, int index) {
+        while(index < json.length() && Character.isWhitespace(json.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int expect(@NotNull CharSequence json, int index, char expected) {
+        if(index >= json.length() || json.charAt(index) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at index " + index);
+        }
+        return index + 1;
+    }
+
+    private static int indexOf(@NotNull CharSequence json, char c, int from) {
+        for(int i = from; i < json.length(); i++) {
+            if(json.charAt(i) == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing '" + c + "' after index " + from);
+    }
+
+    static int indexOf(@NotNull CharSequence json, @NotNull String value, int from) {
+        for(int i = from, last = json.length() - value.length(); i <= last; i++) {
+            int j = 0;
+            while(j < value.length() && json.charAt(i + j) == value.charAt(j)) {
+                j++;
+            }
+            if(j == value.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,7 +2,9 @@ package org.sbot.exchanges.binance;
 
 import com.binance.api.client.domain.market.Candlestick;
 import com.binance.api.client.domain.market.CandlestickInterval;
+import com.binance.api.client.domain.market.TickerStatistics;
 import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.chart.Ticker;
 import org.sbot.entities.chart.TimeFrame;
 import org.sbot.utils.Dates;
 
@@ -21,6 +23,15 @@ public interface BinanceMapper {
                 new BigDecimal(candlestick.getLow()));
     }
 
+    static Ticker map(@NotNull TickerStatistics ticker) {
+        return new Ticker(
+                Instant.ofEpochMilli(ticker.getOpenTime()).atZone(Dates.UTC),
+                Instant.ofEpochMilli(ticker.getCloseTime()).atZone(Dates.UTC),
+                new BigDecimal(ticker.getLastPrice()),
+                new BigDecimal(ticker.getLowPrice()),
+                new BigDecimal(ticker.getHighPrice()));
+    }
+
     static CandlestickInterval map(@NotNull TimeFrame timeFrame) {
         return switch (timeFrame) {
             case ONE_MINUTE -> CandlestickInterval.ONE_MINUTE;
@@ -0,0 +1,183 @@
+package org.sbot.exchanges.binance;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.KLine;
+import org.sbot.exchanges.Exchange.CandlestickListener;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+import static org.sbot.utils.PartitionSpliterator.split;
+
+/*
+    Websocket stream of the closed one minute klines of a set of pairs, using the combined streams endpoint of binance.
+    There is no reconnection loop, a lost connection is opened again by the next call to subscribe, which is done on each alerts check,
+    and until then the pairs are reported as not subscribed so that they are polled.
+ */
+public final class BinanceStream implements WebSocket.Listener {
+
+    private static final Logger LOGGER = LogManager.getLogger(BinanceStream.class);
+
+    // binance limits a connection to 1024 streams, and to 5 incoming messages by second
+    static final int MAX_STREAMS = 1024;
+    private static final int MAX_STREAMS_BY_REQUEST = 200;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final URI url;
+    private final HttpClient httpClient;
+    private final AtomicLong requestId = new AtomicLong();
+    private final Map<String, String> streamPairs = new ConcurrentHashMap<>(); // stream name -> pair
+    // the messages are decoded from their text buffer into a reused kline, by the websocket thread
+    private final StringBuilder message = new StringBuilder();
+    private final BinanceKLinesDecoder decoder = new BinanceKLinesDecoder();
+    private final KLine kLine = KLine.empty();
+    private volatile CandlestickListener listener;
+    private volatile WebSocket webSocket;
+
+    public BinanceStream(@NotNull URI url) {
+        this(url, HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build());
+    }
+
+    public BinanceStream(@NotNull URI url, @NotNull HttpClient httpClient) {
+        this.url = requireNonNull(url);
+        this.httpClient = requireNonNull(httpClient);
+    }
+
+    @NotNull
+    static String streamName(@NotNull String pair) {
+        return pair.replace("/", "").toLowerCase(Locale.ROOT) + "@kline_1m";
+    }
+
+    public boolean isSubscribed(@NotNull String pair) {
+        return isOpen() && streamPairs.containsKey(streamName(pair));
+    }
+
+    private boolean isOpen() {
+        var webSocket = this.webSocket;
+        return null != webSocket && !webSocket.isInputClosed() && !webSocket.isOutputClosed();
+    }
+
+    public synchronized void subscribe(@NotNull Set<String> pairs, @NotNull CandlestickListener listener) {
+        this.listener = requireNonNull(listener);
+        var streams = new HashMap<String, String>();
+        pairs.stream().limit(MAX_STREAMS).forEach(pair -> streams.put(streamName(pair), pair));
+        if(pairs.size() > MAX_STREAMS) {
+            LOGGER.warn("Too many pairs to stream, {} of them will be polled", pairs.size() - MAX_STREAMS);
+        }
+        if(streams.isEmpty()) {
+            close();
+            return;
+        }
+        if(!isOpen()) {
+            connect();
+        }
+        var removed = streamPairs.keySet().stream().filter(stream -> !streams.containsKey(stream)).toList();
+        var added = streams.keySet().stream().filter(stream -> !streamPairs.containsKey(stream)).toList();
+        send("UNSUBSCRIBE", removed);
+        streamPairs.keySet().removeAll(removed);
+        streams.keySet().retainAll(added);
+        streamPairs.putAll(streams); // before the subscription, so the first klines are not dropped
+        send("SUBSCRIBE", added);
+        LOGGER.debug("Binance stream subscribed to {} pairs, {} added and {} removed", streamPairs.size(), added.size(), removed.size());
+    }
+
+    public synchronized void close() {
+        var webSocket = this.webSocket;
+        this.webSocket = null;
+        streamPairs.clear();
+        if(null != webSocket) {
+            LOGGER.info("Closing binance stream");
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").exceptionally(e -> null);
+        }
+    }
+
+    private void connect() {
+        LOGGER.info("Opening binance stream {}...", url);
+        streamPairs.clear();
+        try {
+            webSocket = httpClient.newWebSocketBuilder().connectTimeout(CONNECT_TIMEOUT)
+                    .buildAsync(url, this).get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening binance stream " + url, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to open binance stream " + url, e);
+        }
+    }
+
+    private void send(@NotNull String method, @NotNull List<String> streams) {
+        split(MAX_STREAMS_BY_REQUEST, false, streams.stream()).forEach(params -> {
+            var request = "{\"method\":\"" + method + "\",\"params\":[\"" + String.join("\",\"", params) + "\"],\"id\":" + requestId.incrementAndGet() + '}';
+            LOGGER.trace("Sending binance stream request {}", request);
+            webSocket.sendText(request, true).join();
+        });
+    }
+
+    @Override
+    public void onOpen(@NotNull WebSocket webSocket) {
+        LOGGER.info("Binance stream opened");
+        message.setLength(0); // drop any partial message of a lost connection
+        webSocket.request(1);
+    }
+
+    @Override
+    @Nullable
+    public CompletionStage<?> onText(@NotNull WebSocket webSocket, @NotNull CharSequence data, boolean last) {
+        message.append(data);
+        if(last) {
+            try {
+                onMessage(message);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to process binance stream message " + message, e);
+            } finally {
+                message.setLength(0);
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    void onMessage(@NotNull CharSequence message) {
+        var stream = decoder.streamName(message);
+        if(null == stream) {
+            LOGGER.debug("Binance stream response : {}", message);
+            return;
+        }
+        var pair = streamPairs.get(stream);
+        if(null != pair && decoder.decodeKLineEvent(message, kLine)) {
+            LOGGER.trace("Binance stream closed kline for pair {} : {}", pair, kLine);
+            listener.onClosedCandlestick(pair, kLine.candlestick());
+        }
+    }
+
+    @Override
+    @Nullable
+    public CompletionStage<?> onBinary(@NotNull WebSocket webSocket, @NotNull ByteBuffer data, boolean last) {
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public CompletionStage<?> onClose(@NotNull WebSocket webSocket, int statusCode, @NotNull String reason) {
+        LOGGER.warn("Binance stream closed by the server, status {} : {}", statusCode, reason);
+        return null;
+    }
+
+    @Override
+    public void onError(@NotNull WebSocket webSocket, @NotNull Throwable error) {
+        LOGGER.error("Binance stream error", error);
+    }
+}
@@ -0,0 +1,315 @@
+package org.sbot.exchanges.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.exchanges.Exchange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static org.sbot.utils.ArgumentValidator.PAIR_PATTERN;
+import static org.sbot.utils.Dates.UTC;
+
+/*
+    An exchange that replays some recorded one minute candlesticks instead of requesting them, to load test the alerts checks
+    without any network access. Each pair has its own file in the exchange directory, named like ETH_USDT.klines,
+    made of fixed size records sorted by open time, which is mapped in memory on first use and searched by binary search.
+    Only the candlesticks closed before the clock time are served, so a simulated clock moving faster than real time
+    replays the recorded period. The other time frames are aggregated from the one minute candlesticks.
+ */
+public final class ReplayExchange implements Exchange {
+
+    private static final Logger LOGGER = LogManager.getLogger(ReplayExchange.class);
+
+    public static final String FILE_EXTENSION = ".klines";
+
+    // open time, close time, then open, close, high, low prices as an unscaled value and a scale
+    static final int RECORD_SIZE = 2 * Long.BYTES + 4 * (Long.BYTES + Integer.BYTES);
+
+    private static final long MINUTE = Duration.ofMinutes(1L).toMillis();
+    private static final long DAY = Duration.ofDays(1L).toMillis();
+    private static final long FIRST_MONDAY = 4 * DAY; // epoch is a thursday
+
+    private record KLinesFile(@NotNull MappedByteBuffer buffer, int size) {
+
+        private long openTime(int index) {
+            return buffer.getLong(index * RECORD_SIZE);
+        }
+
+        private long closeTime(int index) {
+            return buffer.getLong(index * RECORD_SIZE + Long.BYTES);
+        }
+
+        @NotNull
+        private BigDecimal price(int index, int field) {
+            int offset = index * RECORD_SIZE + 2 * Long.BYTES + field * (Long.BYTES + Integer.BYTES);
+            return BigDecimal.valueOf(buffer.getLong(offset), buffer.getInt(offset + Long.BYTES));
+        }
+
+        @NotNull
+        private Candlestick candlestick(int index) {
+            return new Candlestick(dateTime(openTime(index)), dateTime(closeTime(index)),
+                    price(index, 0), price(index, 1), price(index, 2), price(index, 3));
+        }
+
+        // index of the first record opened at or after this time, or size if none
+        private int openedFrom(long millis) {
+            int low = 0, high = size;
+            while(low < high) {
+                int mid = (low + high) >>> 1;
+                if(openTime(mid) < millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // number of records closed before this time
+        private int closedBefore(long millis) {
+            int low = 0, high = size;
+            while(low < high) {
+                int mid = (low + high) >>> 1;
+                if(closeTime(mid) < millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final String name;
+    private final Path directory;
+    private final Clock clock;
+    private final List<String> pairs;
+    private final Map<String, KLinesFile> files = new ConcurrentHashMap<>();
+
+    public ReplayExchange(@NotNull String name, @NotNull Path directory, @NotNull Clock clock) {
+        this.name = requireNonNull(name);
+        this.directory = requireNonNull(directory);
+        this.clock = requireNonNull(clock);
+        if(!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Missing replay directory for exchange " + name + " : " + directory);
+        }
+        try (var paths = Files.list(directory)) {
+            pairs = paths.map(path -> pair(path.getFileName().toString()))
+                    .filter(pair -> null != pair && PAIR_PATTERN.matcher(pair).matches())
+                    .sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list the replay files of exchange " + name + " in " + directory, e);
+        }
+        LOGGER.info("Replaying {} pairs of exchange {} from {}", pairs.size(), name, directory);
+    }
+
+    @NotNull
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getAvailablePairs() {
+        return pairs;
+    }
+
+    @Nullable
+    @Override
+    public String getPair(@NotNull String pair) {
+        int index = Collections.binarySearch(pairs, pair);
+        return index >= 0 ? pairs.get(index) : null;
+    }
+
+    @NotNull
+    @Override
+    public List<Candlestick> getCandlesticks(@NotNull String pair, @NotNull TimeFrame timeFrame, long limit) {
+        var file = file(pair);
+        if(null == file || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int to = file.closedBefore(clock.millis());
+        if(TimeFrame.ONE_MINUTE == timeFrame || 0 == to) {
+            return candlesticks(file, (int) Math.max(0L, to - limit), to);
+        }
+        long firstBucket = plusBuckets(bucketStart(file.openTime(to - 1), timeFrame), timeFrame, 1L - limit);
+        return aggregate(file, timeFrame, file.openedFrom(firstBucket), to);
+    }
+
+    @NotNull
+    @Override
+    public List<Candlestick> getCandlesticksSince(@NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull ZonedDateTime since) {
+        var file = file(pair);
+        if(null == file) {
+            return Collections.emptyList();
+        }
+        long sinceMillis = since.toInstant().toEpochMilli();
+        int to = file.closedBefore(clock.millis());
+        if(TimeFrame.ONE_MINUTE == timeFrame) {
+            return candlesticks(file, Math.min(to, file.openedFrom(sinceMillis + 1L)), to);
+        }
+        long firstBucket = plusBuckets(bucketStart(sinceMillis, timeFrame), timeFrame, 1L);
+        return aggregate(file, timeFrame, Math.min(to, file.openedFrom(firstBucket)), to);
+    }
+
+    @Nullable
+    private KLinesFile file(@NotNull String pair) {
+        return null == getPair(pair) ? null : files.computeIfAbsent(pair, p -> map(directory.resolve(fileName(p))));
+    }
+
+    @NotNull
+    private static KLinesFile map(@NotNull Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(0 != size % RECORD_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Invalid replay file size " + size + " : " + path);
+            }
+            LOGGER.debug("Mapping replay file {} of {} candlesticks", path, size / RECORD_SIZE);
+            return new KLinesFile(channel.map(FileChannel.MapMode.READ_ONLY, 0L, size), (int) (size / RECORD_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map replay file " + path, e);
+        }
+    }
+
+    @NotNull
+    private static List<Candlestick> candlesticks(@NotNull KLinesFile file, int from, int to) {
+        var candlesticks = new ArrayList<Candlestick>(Math.max(0, to - from));
+        for(int i = from; i < to; i++) {
+            candlesticks.add(file.candlestick(i));
+        }
+        return candlesticks;
+    }
+
+    // one candlestick by time frame period from the one minute candlesticks, the last one may be still open
+    @NotNull
+    private static List<Candlestick> aggregate(@NotNull KLinesFile file, @NotNull TimeFrame timeFrame, int from, int to) {
+        var candlesticks = new ArrayList<Candlestick>();
+        for(int i = from; i < to;) {
+            long start = bucketStart(file.openTime(i), timeFrame);
+            long end = plusBuckets(start, timeFrame, 1L);
+            BigDecimal open = file.price(i, 0), close = file.price(i, 1), high = file.price(i, 2), low = file.price(i, 3);
+            while(++i < to && file.openTime(i) < end) {
+                close = file.price(i, 1);
+                high = high.max(file.price(i, 2));
+                low = low.min(file.price(i, 3));
+            }
+            candlesticks.add(new Candlestick(dateTime(start), dateTime(end - 1L), open, close, high, low));
+        }
+        return candlesticks;
+    }
+
+    static long bucketStart(long millis, @NotNull TimeFrame timeFrame) {
+        return switch (timeFrame) {
+            case WEEKLY -> millis - Math.floorMod(millis - FIRST_MONDAY, 7 * DAY);
+            case MONTHLY -> dateTime(millis).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli();
+            default -> millis - Math.floorMod(millis, duration(timeFrame));
+        };
+    }
+
+    static long plusBuckets(long bucketStart, @NotNull TimeFrame timeFrame, long count) {
+        return switch (timeFrame) {
+            case WEEKLY -> bucketStart + count * 7 * DAY;
+            case MONTHLY -> dateTime(bucketStart).plusMonths(count).toInstant().toEpochMilli();
+            default -> bucketStart + count * duration(timeFrame);
+        };
+    }
+
+    private static long duration(@NotNull TimeFrame timeFrame) {
+        return switch (timeFrame) {
+            case ONE_MINUTE -> MINUTE;
+            case THREE_MINUTES -> 3 * MINUTE;
+            case FIVE_MINUTES -> 5 * MINUTE;
+            case FIFTEEN_MINUTES -> 15 * MINUTE;
+            case HALF_HOURLY -> 30 * MINUTE;
+            case HOURLY -> 60 * MINUTE;
+            case TWO_HOURLY -> 2 * 60 * MINUTE;
+            case FOUR_HOURLY -> 4 * 60 * MINUTE;
+            case SIX_HOURLY -> 6 * 60 * MINUTE;
+            case EIGHT_HOURLY -> 8 * 60 * MINUTE;
+            case TWELVE_HOURLY -> 12 * 60 * MINUTE;
+            case DAILY -> DAY;
+            case THREE_DAILY -> 3 * DAY;
+            case WEEKLY -> 7 * DAY;
+            default -> throw new IllegalArgumentException("Unsupported replay time frame : " + timeFrame);
+        };
+    }
+
+    @NotNull
+    private static ZonedDateTime dateTime(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(UTC);
+    }
+
+    @NotNull
+    static String fileName(@NotNull String pair) {
+        return pair.replace('/', '_') + FILE_EXTENSION;
+    }
+
+    @Nullable
+    static String pair(@NotNull String fileName) {
+        return fileName.endsWith(FILE_EXTENSION) && fileName.indexOf('_') > 0 ?
+                fileName.substring(0, fileName.length() - FILE_EXTENSION.length()).replace('_', '/') : null;
+    }
+
+    // writes the replay file of this pair in this directory, replacing any previous one.
+    // the candlesticks need to be sorted by open time, without overlap, with prices having a long unscaled value
+    public static void write(@NotNull Path directory, @NotNull String pair, @NotNull List<Candlestick> candlesticks) throws IOException {
+        var buffer = ByteBuffer.allocate(candlesticks.size() * RECORD_SIZE);
+        long previousCloseTime = Long.MIN_VALUE;
+        for(var candlestick : candlesticks) {
+            long openTime = candlestick.openTime().toInstant().toEpochMilli();
+            long closeTime = candlestick.closeTime().toInstant().toEpochMilli();
+            if(openTime <= previousCloseTime || closeTime < openTime) {
+                throw new IllegalArgumentException("Unsorted or overlapping candlestick for pair " + pair + " : " + candlestick);
+            }
+            previousCloseTime = closeTime;
+            buffer.putLong(openTime).putLong(closeTime);
+            Stream.of(candlestick.open(), candlestick.close(), candlestick.high(), candlestick.low())
+                    .forEach(price -> buffer.putLong(price.unscaledValue().longValueExact()).putInt(price.scale()));
+        }
+        Files.createDirectories(directory);
+        try (var channel = FileChannel.open(directory.resolve(fileName(pair)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // records the closed one minute candlesticks of a pair from an exchange, opened after since and closed before until,
+    // into the replay file of this pair, returns the number of candlesticks recorded
+    public static int record(@NotNull Exchange exchange, @NotNull String pair, @NotNull ZonedDateTime since, @NotNull ZonedDateTime until, @NotNull Path directory) throws IOException {
+        var candlesticks = exchange.getCandlesticksSince(pair, TimeFrame.ONE_MINUTE, since).stream()
+                .filter(candlestick -> candlestick.closeTime().isBefore(until))
+                .sorted(comparing(Candlestick::openTime)).toList();
+        write(directory, pair, candlesticks);
+        LOGGER.info("Recorded {} candlesticks of pair {} on exchange {} into {}", candlesticks.size(), pair, exchange.name(), directory);
+        return candlesticks.size();
+    }
+}
@@ -0,0 +1,277 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.Alert.Type;
+import org.sbot.entities.alerts.CompiledAlert;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.services.dao.AlertsDao;
+import org.sbot.services.dao.AlertsDao.UpdateField;
+import org.sbot.services.dao.AlertsListener;
+import org.sbot.utils.IntervalTree;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    In memory index of the price intervals an alert type can reach during a time window, by exchange and pair.
+    This returns the ids of the alerts that may match some prices, an alert still needs to be loaded
+    from the dao (that applies the listening date and expiration filters) then matched.
+    The index is a superset of the stored alerts : changes notified by the dao only widen the indexed intervals,
+    deleted alerts are removed lazily, when a pair index gets rebuilt after too many changes or at the end of its time window.
+    The compiled forms of the alerts are kept along their intervals, so the candidates can be matched on the prices
+    across the checks before any Alert is loaded. A changed alert keeps its previous forms until the next rebuild, for the same reason.
+ */
+public abstract class AlertsIndex implements AlertsListener {
+
+    private static final Logger LOGGER = LogManager.getLogger(AlertsIndex.class);
+
+    private static final int MIN_CHANGES_BEFORE_REBUILD = 64;
+
+    // time span and price envelope of some candlesticks
+    public record PriceBox(long fromMs, long toMs, @NotNull BigDecimal low, @NotNull BigDecimal high) {
+
+        public PriceBox {
+            requireNonNull(low); requireNonNull(high);
+            if(fromMs > toMs || low.compareTo(high) > 0) {
+                throw new IllegalArgumentException("Invalid price box : " + fromMs + ", " + toMs + ", " + low + ", " + high);
+            }
+        }
+
+        @NotNull
+        public static PriceBox of(@NotNull List<Candlestick> candlesticks, @Nullable Candlestick previousCandlestick) {
+            var first = null != previousCandlestick ? previousCandlestick : candlesticks.getFirst();
+            long fromMs = first.openTime().toInstant().toEpochMilli();
+            long toMs = first.closeTime().toInstant().toEpochMilli();
+            BigDecimal low = first.low(), high = first.high();
+            for(var candlestick : candlesticks) {
+                fromMs = Math.min(fromMs, candlestick.openTime().toInstant().toEpochMilli());
+                toMs = Math.max(toMs, candlestick.closeTime().toInstant().toEpochMilli());
+                low = low.min(candlestick.low());
+                high = high.max(candlestick.high());
+            }
+            return new PriceBox(fromMs, toMs, low, high);
+        }
+    }
+
+    // an alert without compact values has no compiled form, it is always a candidate
+    private static final CompiledAlert[] NOT_COMPILED = new CompiledAlert[] {null};
+
+    private final class PairIndex {
+        private IntervalTree tree = new IntervalTree();
+        private Map<Long, CompiledAlert[]> compiledAlerts = new HashMap<>();
+        private long windowStart;
+        private long windowEnd;
+        // alerts notified since the two last rebuilds, to be kept by the next one as their transaction may not be committed yet
+        private Map<Long, List<Alert>> previousChanges = new HashMap<>();
+        private Map<Long, List<Alert>> changes = new HashMap<>();
+        private boolean built;
+        private int staleCount;
+
+        private void put(@NotNull Alert alert) {
+            changes.computeIfAbsent(alert.id, id -> new ArrayList<>(1)).add(alert);
+            if(built) {
+                putHull(alert);
+                staleCount++;
+            }
+        }
+
+        private void putHull(@NotNull Alert alert) {
+            double[] interval = intervalOf(alert, windowStart, windowEnd);
+            double low = interval[0], high = interval[1];
+            var previous = tree.interval(alert.id); // previous interval may still be the stored one
+            if(null != previous) {
+                low = Math.min(low, previous[0]);
+                high = Math.max(high, previous[1]);
+            }
+            tree.put(alert.id, low, high);
+            compiledAlerts.merge(alert.id, new CompiledAlert[] {alert.compile()}, (forms, form) -> {
+                var merged = Arrays.copyOf(forms, forms.length + 1);
+                merged[forms.length] = form[0];
+                return merged;
+            });
+        }
+
+        private boolean mayMatch(long alertId, @NotNull Predicate<CompiledAlert> mayMatch) {
+            for(var compiled : compiledAlerts.getOrDefault(alertId, NOT_COMPILED)) {
+                if(null == compiled || mayMatch.test(compiled)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void replace(@NotNull IntervalTree tree, @NotNull Map<Long, CompiledAlert[]> compiledAlerts, long windowStart, long windowEnd) {
+            this.tree = tree;
+            this.compiledAlerts = compiledAlerts;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            previousChanges.values().forEach(alerts -> alerts.forEach(this::putHull));
+            changes.values().forEach(alerts -> alerts.forEach(this::putHull));
+            previousChanges = changes;
+            changes = new HashMap<>();
+            staleCount = 0;
+            built = true;
+        }
+
+        private boolean needRebuild(long toMs) {
+            return !built || toMs > windowEnd || staleCount > Math.max(MIN_CHANGES_BEFORE_REBUILD, tree.size() / 4);
+        }
+    }
+
+    private final Type type;
+    private final long windowMs;
+    private final Map<String, PairIndex> indexes = new ConcurrentHashMap<>();
+
+    // an index is built for the time window [now - windowMs, now + windowMs], Long.MAX_VALUE for an unbounded window
+    protected AlertsIndex(@NotNull Type type, long windowMs) {
+        this.type = requireNonNull(type);
+        if(windowMs <= 0) {
+            throw new IllegalArgumentException("Invalid index time window : " + windowMs);
+        }
+        this.windowMs = windowMs;
+    }
+
+    // returns the price interval {low, high} an alert can reach with its margin between fromMs and toMs
+    @NotNull
+    protected abstract double[] intervalOf(@NotNull Alert alert, long fromMs, long toMs);
+
+    @NotNull
+    public final Type type() {
+        return type;
+    }
+
+    @NotNull
+    private static String key(@NotNull String exchange, @NotNull String pair) {
+        return exchange + ':' + pair;
+    }
+
+    // returns the ids of the alerts of this exchange and pair that may match some prices of the box,
+    // or null if the box time span is before the index time window
+    @Nullable
+    public final LongStream candidates(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now, @NotNull String exchange, @NotNull String pair, @NotNull PriceBox box) {
+        return candidates(alertsDao, now, exchange, pair, box, compiled -> true);
+    }
+
+    // same as above, the candidates are also filtered by their compiled forms
+    @Nullable
+    public final LongStream candidates(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now, @NotNull String exchange, @NotNull String pair, @NotNull PriceBox box, @NotNull Predicate<CompiledAlert> mayMatch) {
+        requireNonNull(mayMatch);
+        var pairIndex = pairIndex(alertsDao, now, exchange, pair, box);
+        synchronized (pairIndex) {
+            if(box.fromMs() < pairIndex.windowStart) {
+                LOGGER.debug("Prices before {} index time window of exchange {} and pair {}, from {}", type, exchange, pair, box.fromMs());
+                return null;
+            }
+            var ids = LongStream.builder();
+            long[] matching = new long[1];
+            long found = pairIndex.tree.overlapping(Math.nextDown(box.low().doubleValue()), Math.nextUp(box.high().doubleValue()), id -> {
+                if(pairIndex.mayMatch(id, mayMatch)) {
+                    ids.add(id);
+                    matching[0]++;
+                }
+            });
+            LOGGER.debug("Found {} {} alerts candidates on {} intervals for exchange {} and pair {}, prices [{}, {}], {} may match", found, type, pairIndex.tree.size(), exchange, pair, box.low(), box.high(), matching[0]);
+            return ids.build();
+        }
+    }
+
+    // returns the distance from the price to the nearest interval the alerts of this exchange and pair can reach now,
+    // 0 if some may match this price, or infinity if there are none
+    public final double distance(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now, @NotNull String exchange, @NotNull String pair, @NotNull BigDecimal price) {
+        long nowMs = now.toInstant().toEpochMilli();
+        var pairIndex = pairIndex(alertsDao, now, exchange, pair, new PriceBox(nowMs, nowMs, price, price));
+        synchronized (pairIndex) {
+            return pairIndex.tree.distance(price.doubleValue());
+        }
+    }
+
+    // returns the index of this exchange and pair, rebuilt first if its time window doesn't cover the box or it has too many changes
+    @NotNull
+    private PairIndex pairIndex(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now, @NotNull String exchange, @NotNull String pair, @NotNull PriceBox box) {
+        requireNonNull(alertsDao); requireNonNull(now); requireNonNull(box);
+        var pairIndex = indexes.computeIfAbsent(key(exchange, pair), k -> new PairIndex());
+        boolean needRebuild;
+        synchronized (pairIndex) {
+            needRebuild = pairIndex.needRebuild(box.toMs());
+        }
+        if(needRebuild) {
+            // the dao is read without holding the index lock, as the listeners are called from others transactions
+            long nowMs = now.toInstant().toEpochMilli();
+            long windowStart = Long.MAX_VALUE == windowMs ? Long.MIN_VALUE : Math.min(nowMs, box.fromMs()) - windowMs;
+            long windowEnd = Long.MAX_VALUE == windowMs ? Long.MAX_VALUE : Math.max(nowMs, box.toMs()) + windowMs;
+            var compiledAlerts = new HashMap<Long, CompiledAlert[]>();
+            var tree = load(alertsDao, now, exchange, pair, windowStart, windowEnd, compiledAlerts);
+            synchronized (pairIndex) {
+                pairIndex.replace(tree, compiledAlerts, windowStart, windowEnd);
+            }
+        }
+        return pairIndex;
+    }
+
+    @NotNull
+    private IntervalTree load(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now, @NotNull String exchange, @NotNull String pair, long windowStart, long windowEnd, @NotNull Map<Long, CompiledAlert[]> compiledAlerts) {
+        var tree = new IntervalTree();
+        long read = alertsDao.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, pair, type, now,
+                alerts -> alerts.forEach(alert -> {
+                    double[] interval = intervalOf(alert, windowStart, windowEnd);
+                    tree.put(alert.id, interval[0], interval[1]);
+                    compiledAlerts.put(alert.id, new CompiledAlert[] {alert.compile()});
+                }));
+        LOGGER.debug("Loaded {} alerts index of exchange {} and pair {}, {} alerts read", type, exchange, pair, read);
+        return tree;
+    }
+
+    private void put(@NotNull Alert alert) {
+        if(type == alert.type) {
+            var pairIndex = indexes.computeIfAbsent(key(alert.exchange, alert.pair), k -> new PairIndex());
+            synchronized (pairIndex) {
+                pairIndex.put(alert);
+            }
+        }
+    }
+
+    @Override
+    public void onAdd(@NotNull Alert alert) {
+        put(alert);
+    }
+
+    @Override
+    public void onUpdate(@NotNull Alert alert, @NotNull Set<UpdateField> fields) {
+        put(alert);
+    }
+
+    @Override
+    public void onDelete(long alertId) {
+        indexes.values().forEach(pairIndex -> {
+            synchronized (pairIndex) {
+                if(pairIndex.tree.contains(alertId)) {
+                    pairIndex.staleCount++;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onInvalidate() {
+        indexes.values().forEach(pairIndex -> {
+            synchronized (pairIndex) {
+                pairIndex.built = false;
+            }
+        });
+    }
+}
@@ -4,96 +4,214 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.sbot.entities.settings.UserSettings;
 import org.sbot.entities.alerts.Alert;
-import org.sbot.entities.alerts.ClientType;
+import org.sbot.entities.alerts.CompiledAlert;
 import org.sbot.entities.chart.Candlestick;
 import org.sbot.entities.chart.Candlestick.CandlestickPeriod;
+import org.sbot.entities.chart.Ticker;
 import org.sbot.entities.chart.TimeFrame;
-import org.sbot.entities.notifications.DeletedNotification;
 import org.sbot.entities.notifications.MatchingNotification;
 import org.sbot.exchanges.Exchange;
+import org.sbot.services.AlertsIndex.PriceBox;
+import org.sbot.services.LastCandlesticksCache.LastCandlesticks;
 import org.sbot.services.MatchingService.MatchingAlert;
+import org.sbot.services.MatchingService.Prices;
 import org.sbot.services.context.Context;
 import org.sbot.services.context.TransactionalContext;
 import org.sbot.services.dao.*;
 import org.sbot.services.dao.UserSettingsDao.ClientTypeUserId;
-import org.sbot.services.discord.Discord;
+import org.sbot.utils.BoundedStage;
+import org.sbot.utils.BoundedStage.Metrics;
 import org.sbot.utils.Dates;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toSet;
 import static org.sbot.SpotBot.appProperties;
+import static org.sbot.SpotBot.minutesUntilNextCheck;
 import static org.sbot.entities.settings.UserSettings.DEFAULT_LOCALE;
-import static org.sbot.entities.alerts.Alert.Type.range;
-import static org.sbot.entities.alerts.Alert.Type.trend;
-import static org.sbot.entities.alerts.Alert.isPrivate;
 import static org.sbot.entities.alerts.RemainderAlert.REMAINDER_VIRTUAL_EXCHANGE;
 import static org.sbot.entities.chart.Candlestick.periodSince;
+import static org.sbot.services.MatchingService.MATCHING_BATCH_SIZE;
 import static org.sbot.services.discord.Discord.MESSAGE_PAGE_SIZE;
 import static org.sbot.utils.PartitionSpliterator.split;
 
 public final class AlertsWatcher {
 
+    // durations of the phases of an alerts check : the selection of the pairs to check,
+    // then the candlesticks fetches and the alerts matching, which run concurrently, with the metrics of these two stages
+    public record CheckTimings(long selectionMillis, long matchingMillis, long matchingAlerts, @NotNull List<Metrics> stages) {
+        public CheckTimings {
+            stages = List.copyOf(stages);
+        }
+
+        public long totalMillis() {
+            return selectionMillis + matchingMillis;
+        }
+    }
+
     private static final Logger LOGGER = LogManager.getLogger(AlertsWatcher.class);
 
     private static final int MAX_DBMS_SQL_IN_CLAUSE_VALUES = 1000;
     private static final int STREAM_BUFFER_SIZE = Math.min(MAX_DBMS_SQL_IN_CLAUSE_VALUES, MESSAGE_PAGE_SIZE);
 
-    public static final int DONE_ALERTS_DELAY_WEEKS = Math.max(1, appProperties.getIntOr("alerts.done.drop.delay.weeks", 1));
-    public static final int EXPIRED_ALERTS_DELAY_WEEKS = Math.max(1, appProperties.getIntOr("alerts.expired.drop.delay.weeks", 2));
-    private static final int NOTIFICATIONS_DELETE_DELAY_MONTHS = Math.max(1, appProperties.getIntOr("notifications.delete.delay.months", 6));
-    private static final int USERS_LAST_ACCESS_DELAY_MONTHS = Math.max(1, appProperties.getIntOr("settings.users.last-access.drop.delay.months", 6));
-    private static final int SERVERS_LAST_ACCESS_DELAY_MONTHS = Math.max(1, appProperties.getIntOr("settings.servers.last-access.drop.delay.months", 12));
+    // above this gap since the last price, like after a long shutdown, daily and hourly candlesticks are requested instead of one minute ones
+    private static final int MINUTES_MAX_GAP_HOURS = Math.max(1, appProperties.getIntOr("alerts.check.minutes.max-gap.hours", 24));
+    private static final int STREAM_MAX_DELAY_MINUTES = Math.max(1, appProperties.getIntOr("alerts.stream.max-delay.minutes", 2));
+    // below this number of polled pairs on an exchange, its bulk tickers request costs more than the candlesticks requests it saves
+    private static final int TICKERS_MIN_PAIRS = Math.max(1, appProperties.getIntOr("alerts.check.tickers.min-pairs", 40));
+    // the fetched prices wait in this bounded queue for their matching, the fetches are blocked while it is full
+    private static final int MATCHING_STAGE_CAPACITY = Math.max(1, appProperties.getIntOr("alerts.check.matching.stage.capacity", 256));
+    private static final int MATCHING_STAGE_CONCURRENCY = Math.max(1, appProperties.getIntOr("alerts.check.matching.stage.concurrency", 4));
+
+    // pairs to check selected by a periodic check, reused by the checks of the due pairs until the next periodic one
+    private record Selection(@NotNull Map<String, Set<String>> exchangePairs, long nextSelectionMs) {}
 
     private final Context context;
+    // a pair is processed by either the periodic check or its stream, one at a time. The lock of a pair is taken by the callers,
+    // the methods reading or updating the last prices of a pair expect it to be held
+    private final Map<String, ReentrantLock> pairLocks = new ConcurrentHashMap<>();
+    // pairs no longer listed by their exchange, their alerts are not checked until the pair is listed again
+    private final Set<String> delistedPairs = ConcurrentHashMap.newKeySet();
+    private volatile CheckTimings lastCheckTimings;
+    @Nullable
+    private volatile Selection selection;
+    // the housekeeping waits for the end of a running check before its next chunk
+    private volatile boolean checking;
+    // once the remainders thread runs, the periodic checks skip the remainder alerts
+    private volatile Thread remaindersThread;
 
     public AlertsWatcher(Context context) {
         this.context = requireNonNull(context);
     }
 
-    // this splits in tasks by exchanges and pairs, one rest call must be done by each task to retrieve the candlesticks
+    // timings of the last completed alerts check, or null if none
+    @Nullable
+    public CheckTimings lastCheckTimings() {
+        return lastCheckTimings;
+    }
+
+    // true while an alerts check is running
+    public boolean isChecking() {
+        return checking;
+    }
+
+    // time of the next check a polled pair is due, or null if none is scheduled
+    @Nullable
+    public Instant nextCheck() {
+        return context.pairsScheduler().nextCheck();
+    }
+
+    // this splits in tasks by exchanges and pairs, one rest call must be done by each task to retrieve the candlesticks,
+    // the tasks of an exchange run concurrently within its fetch scheduler limits,
+    // except for the pairs an exchange stream is up to date with, these ones are matched as soon as a candlestick is received.
+    // The fetched prices are matched and persisted by the matching stage, the notifications are sent as soon as some alerts match,
+    // a slow matching blocks the fetches holding an exchange permit instead of buffering the prices of every pair
     public void checkAlerts() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
+        checking = true;
         try {
             ZonedDateTime now = Dates.nowUtc(context.clock());
-            context.transaction(txCtx -> expiredNotificationsCleanup(txCtx.notificationsDao(), now));
-            context.transaction(txCtx -> expiredSettingsCleanup(txCtx.userSettingsDao(), txCtx.serverSettingsDao(), now));
-            if(context.transactional(txCtx -> expiredAlertsCleanup(txCtx, now)) > 0) {
-                context.notificationService().sendNotifications();
-            }
-
-            var exchangePairs = context.transactional(txCtx -> {
-                var pairs = pairsToCheck(txCtx.alertsDao(), now);
-                removeUnusedLastCandlestick(txCtx, pairs);
-                return pairs;
-            });
+            long nowMs = now.toInstant().toEpochMilli();
+            var pairsScheduler = context.pairsScheduler();
+            var exchangePairs = selectPairs(now);
+            context.candlesticksCache().evictExpired();
+            long selectionEnd = System.nanoTime();
             var matchingAlerts = new AtomicLong(0L);
+            var fetched = new LongAdder();
+            var fetchFailed = new LongAdder();
+            var fetchEmpty = new LongAdder();
+            var fetchNanos = new LongAdder();
+            // fetches waiting for a concurrency permit of their exchange
+            var fetchQueueDepth = new AtomicInteger();
+            var fetchMaxQueueDepth = new AtomicInteger();
             var tasks = new ArrayList<Callable<Void>>(exchangePairs.size());
-            exchangePairs.forEach((xchange, pairs) -> context.exchanges().get(xchange).ifPresentOrElse(exchange -> {
-                if (exchange.isVirtual()) {
-                    tasks.add(() -> { pairs.forEach(pair -> matchingAlerts.addAndGet(raiseAlerts(now, exchange, pair))); return null; });
-                } else { // one task by exchange
-                    tasks.add(() -> { pairs.forEach(pair -> matchingAlerts.addAndGet(getPricesAndRaiseAlerts(now, exchange, pair))); return null; });
-                }
-            }, () -> LOGGER.warn("Unknown exchange : {}", xchange)));
-            try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try(var matchingStage = new BoundedStage<FetchedPrices>("matching", MATCHING_STAGE_CAPACITY, MATCHING_STAGE_CONCURRENCY, prices -> {
+                    long matching = withPairLock(prices.exchange(), prices.pair(), () -> matchPrices(now, prices));
+                    if(matching > 0L) {
+                        matchingAlerts.addAndGet(matching);
+                        context.notificationService().sendNotifications();
+                    }
+                }); var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                exchangePairs.forEach((xchange, pairs) -> context.exchanges().get(xchange).ifPresentOrElse(exchange -> {
+                    if (null != remaindersThread && REMAINDER_VIRTUAL_EXCHANGE.equals(xchange)) {
+                        LOGGER.debug("Skipping the remainder alerts, they are fired by the remainders thread");
+                    } else if (exchange.isVirtual()) {
+                        tasks.add(() -> { pairs.forEach(pair -> matchingAlerts.addAndGet(raiseAlerts(now, exchange, pair))); return null; });
+                    } else { // one task by pair
+                        var fetchScheduler = exchange.fetchScheduler();
+                        var polledPairs = pairs.stream().filter(pair -> isListed(exchange, pair) && !isStreamed(now, exchange, pair) &&
+                                pairsScheduler.isDue(exchange.name(), pair, nowMs)).toList();
+                        var tickers = getTickers(exchange, polledPairs);
+                        polledPairs.forEach(pair -> tasks.add(() -> {
+                            fetchMaxQueueDepth.accumulateAndGet(fetchQueueDepth.incrementAndGet(), Math::max);
+                            return fetchScheduler.fetch(() -> {
+                                fetchQueueDepth.decrementAndGet();
+                                long begin = System.nanoTime();
+                                FetchedPrices prices;
+                                try {
+                                    prices = withPairLock(exchange, pair, () -> fetchPrices(now, exchange, pair, tickers.get(pair)));
+                                } catch (RuntimeException e) {
+                                    LOGGER.error("Exception thrown while retrieving prices for " + pair + " on exchange " + exchange, e);
+                                    fetchFailed.increment();
+                                    return null;
+                                } finally {
+                                    fetchNanos.add(System.nanoTime() - begin);
+                                    fetched.increment();
+                                }
+                                if(null != prices) {
+                                    matchingStage.submit(prices);
+                                } else { // a quiet market, not a failure
+                                    fetchEmpty.increment();
+                                }
+                                return null; });
+                        }));
+                    }
+                }, () -> LOGGER.warn("Unknown exchange : {}", xchange)));
+                updateStreams(exchangePairs);
+                long fetchStart = System.nanoTime();
                 executor.invokeAll(tasks);
-                LOGGER.info("Alerts check done, {}ms. Found {} matching alerts", System.currentTimeMillis() - start, matchingAlerts.get());
+                long fetchEnd = System.nanoTime();
+                matchingStage.close(); // waits for the fetched prices to be matched
+                long matchingNanos = System.nanoTime() - selectionEnd;
+                var fetchStage = new Metrics("fetch", fetched.sum(), fetchFailed.sum(), fetchMaxQueueDepth.get(),
+                        NANOSECONDS.toMillis(fetchNanos.sum()), NANOSECONDS.toMillis(fetchEnd - fetchStart));
+                var timings = new CheckTimings(NANOSECONDS.toMillis(selectionEnd - start),
+                        NANOSECONDS.toMillis(matchingNanos), matchingAlerts.get(), List.of(fetchStage, matchingStage.metrics()));
+                lastCheckTimings = timings;
+                LOGGER.info("Alerts check done, {}ms (selection {}ms, matching {}ms). Found {} matching alerts, {} pairs without new prices",
+                        timings.totalMillis(), timings.selectionMillis(), timings.matchingMillis(), timings.matchingAlerts(), fetchEmpty.sum());
+                timings.stages().forEach(stage -> LOGGER.info("Stage {} : {} items, {} failed, {} items/s, max queue depth {}, busy {}ms",
+                        stage.name(), stage.consumed(), stage.failed(), String.format("%.1f", stage.throughput()), stage.maxQueueDepth(), stage.busyMillis()));
+                context.exchanges().httpClient().logMetrics();
             } finally {
                 if(matchingAlerts.get() > 0) {
                     context.notificationService().sendNotifications();
@@ -101,66 +219,94 @@ public final class AlertsWatcher {
             }
         } catch (Exception e) {
             LOGGER.error("Exception thrown while performing check alerts task", e);
+        } finally {
+            checking = false;
         }
     }
 
-    void expiredNotificationsCleanup(@NotNull NotificationsDao notificationsDao, @NotNull ZonedDateTime now) {
-        ZonedDateTime expirationDate = now.minusMonths(NOTIFICATIONS_DELETE_DELAY_MONTHS);
-        long deleted = notificationsDao.deleteHavingCreationDateBefore(expirationDate);
-        LOGGER.debug("Deleting {} notifications with creation date < {}", deleted, expirationDate);
-    }
-
-    void expiredSettingsCleanup(@NotNull UserSettingsDao userSettingsDao, @NotNull ServerSettingsDao serverSettingsDao, @NotNull ZonedDateTime now) {
-        ZonedDateTime usersExpirationDate = now.minusMonths(USERS_LAST_ACCESS_DELAY_MONTHS);
-        ZonedDateTime serversExpirationDate = now.minusMonths(SERVERS_LAST_ACCESS_DELAY_MONTHS);
-        long usersDeleted = 0L;
-        long serversDeleted = 0L;
-        for (var clientType : ClientType.values()) {
-            usersDeleted += userSettingsDao.deleteHavingLastAccessBeforeAndNotInAlerts(clientType, usersExpirationDate);
-            serversDeleted += serverSettingsDao.deleteHavingLastAccessBeforeAndNotInAlerts(clientType, serversExpirationDate);
+    // starts the thread that fires the remainder alerts at their minute, instead of the periodic checks at +- half a check period
+    public synchronized void watchRemainders() {
+        if(null == remaindersThread) {
+            remaindersThread = Thread.ofVirtual().name("remainders").start(() -> {
+                long minuteMs = Duration.ofMinutes(1L).toMillis();
+                while(!Thread.currentThread().isInterrupted()) {
+                    raiseRemainders();
+                    LockSupport.parkNanos(MILLISECONDS.toNanos(minuteMs - Math.floorMod(context.clock().millis(), minuteMs)));
+                }
+            });
         }
-        LOGGER.debug("Deleting {} users with last access < {}, and {} servers with last access < {}", usersDeleted, usersExpirationDate, serversDeleted, serversExpirationDate);
     }
 
-    long expiredAlertsCleanup(@NotNull TransactionalContext txCtx, @NotNull ZonedDateTime now) {
-        var alertsDao = txCtx.alertsDao();
-        Consumer<Stream<Alert>> alertsDeleter = alertDeleter(now, alertsDao, txCtx.notificationsDao(), txCtx.userSettingsDao());
-        ZonedDateTime expirationDate = now.minusWeeks(DONE_ALERTS_DELAY_WEEKS);
-        // filter by repeat < 0 instead of listeningDate null to distinguish case where user disabled the alert but want to keep it
-        long total;
-        long deleted = total = alertsDao.fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(expirationDate, alertsDeleter);
-        LOGGER.debug("Deleting {} alerts with repeat < 0 and lastTrigger or creation date < {}", deleted, expirationDate);
-        expirationDate = now.minusWeeks(EXPIRED_ALERTS_DELAY_WEEKS);
-        total += deleted = alertsDao.fetchAlertsWithoutMessageByTypeHavingToDateBefore(trend, expirationDate, alertsDeleter);
-        LOGGER.debug("Deleting {} trend alerts with toDate < {}", deleted, expirationDate);
-        total += deleted = alertsDao.fetchAlertsWithoutMessageByTypeHavingToDateBefore(range, expirationDate, alertsDeleter);
-        LOGGER.debug("Deleting {} range alerts with toDate < {}", deleted, expirationDate);
-        return total;
+    // advances the remainders wheel to the current minute and processes the remainder alerts it fires
+    void raiseRemainders() {
+        var remaindersWheel = context.remaindersWheel();
+        try {
+            var now = Dates.nowUtc(context.clock());
+            if(!remaindersWheel.isLoaded()) {
+                context.transaction(txCtx -> remaindersWheel.load(txCtx.alertsDao(), now));
+            }
+            long[] alertIds = remaindersWheel.advance(now);
+            if(alertIds.length > 0) {
+                long matching = context.transactional(txCtx -> processRemainderAlerts(txCtx, now, alertIds));
+                remaindersWheel.release(alertIds);
+                if(matching > 0) {
+                    context.notificationService().sendNotifications();
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Exception thrown while processing the remainder alerts", e);
+            remaindersWheel.onInvalidate(); // the wheel may have been updated by a rolled back transaction
+        }
     }
 
+    // the pairs to check are selected and the unused last candlesticks removed on the periodic checks cadence only,
+    // the checks of the due pairs in between reuse the last selection. A pair of a new alert waits for the next periodic check.
+    // The owned pairs are filtered on each check, as the nodes ring may change in between
     @NotNull
-    private Consumer<Stream<Alert>> alertDeleter(@NotNull ZonedDateTime now, @NotNull AlertsDao alertsDao, @NotNull NotificationsDao notificationsDao, @NotNull UserSettingsDao userSettingsDao) {
-        var userLocales = new HashMap<ClientTypeUserId, Locale>();
-        var guildNames = new HashMap<Long, String>();
-        Function<ClientTypeUserId, Locale> userLocale = id -> userSettingsDao.getUserSettings(id.clientType(), id.userId())
-                .map(UserSettings::locale).orElse(DEFAULT_LOCALE);
-        Function<Long, String> guildName = id -> context.discord().guildServer(id).map(Discord::guildName).orElse("unknown");
-        return alerts -> alertsDao.delete(deleter ->
-                        alerts.forEach(alert -> {
-                            var locale = userLocales.computeIfAbsent(ClientTypeUserId.of(alert.clientType, alert.userId), userLocale);
-                            var serverName = switch (alert.clientType) {
-                                case DISCORD -> isPrivate(alert.serverId) ? null : guildNames.computeIfAbsent(alert.serverId, guildName);
-                            };
-                            notificationsDao.addNotification(DeletedNotification.of(alert.clientType, now, locale, alert.userId, alert.id, alert.type, alert.pair, serverName, 1L, true));
-                            deleter.batchId(alert.id);
-                        }));
+    private Map<String, Set<String>> selectPairs(@NotNull ZonedDateTime now) {
+        long nowMs = now.toInstant().toEpochMilli();
+        var selection = this.selection;
+        if(null != selection && nowMs < selection.nextSelectionMs()) {
+            LOGGER.debug("Reusing the pairs selected by the last periodic check");
+            return ownedPairs(selection.exchangePairs());
+        }
+        var pairsToCheck = context.transactional(txCtx -> {
+            var pairs = pairsToCheck(txCtx.alertsDao(), now);
+            removeUnusedLastCandlestick(txCtx, pairs);
+            return pairs;
+        });
+        long minutes = minutesUntilNextCheck(now, context.parameters().checkPeriodMin(), context.parameters().hourlySyncDeltaMin());
+        this.selection = new Selection(pairsToCheck, nowMs + Duration.ofMinutes(minutes).toMillis());
+        var exchangePairs = ownedPairs(pairsToCheck);
+        context.pairsScheduler().retain(exchangePairs);
+        return exchangePairs;
     }
 
     private Map<String, Set<String>> pairsToCheck(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now) {
         return alertsDao.getPairsByExchangesHavingPastListeningDateWithActiveRange(now, context.parameters().checkPeriodMin());
     }
 
+    // the pairs this node is in charge of, the other ones are checked by the other nodes sharing the database
+    private Map<String, Set<String>> ownedPairs(@NotNull Map<String, Set<String>> exchangePairs) {
+        var shardsRing = context.shardsRing();
+        if(!shardsRing.isEnabled()) {
+            return exchangePairs;
+        }
+        var ownedPairs = new HashMap<String, Set<String>>();
+        exchangePairs.forEach((exchange, pairs) -> {
+            var owned = pairs.stream().filter(pair -> shardsRing.owns(exchange, pair)).collect(toSet());
+            if(!owned.isEmpty()) {
+                ownedPairs.put(exchange, owned);
+            }
+        });
+        LOGGER.debug("Node {} checks {} of the {} pairs to check", shardsRing.nodeId(),
+                ownedPairs.values().stream().mapToInt(Set::size).sum(), exchangePairs.values().stream().mapToInt(Set::size).sum());
+        return ownedPairs;
+    }
+
+    // the last candlesticks of all the pairs to check are kept, whatever node checks them
     private void removeUnusedLastCandlestick(@NotNull TransactionalContext txCtx, @NotNull Map<String, Set<String>> activeExchangePairs) {
+        context.lastCandlesticksCache().retain(activeExchangePairs);
         var candlesticks = txCtx.lastCandlesticksDao().getPairsByExchanges();
         txCtx.lastCandlesticksService().delete(deleter ->
                 candlesticks.forEach((exchange, pairs) -> {
@@ -173,6 +319,91 @@ public final class AlertsWatcher {
                 }));
     }
 
+    // the streams follow the pairs to check, an exchange without any pair to check closes its stream
+    private void updateStreams(@NotNull Map<String, Set<String>> exchangePairs) {
+        context.exchanges().loaded().stream().filter(Exchange::isStreaming).forEach(exchange -> {
+            try {
+                exchange.subscribe(exchangePairs.getOrDefault(exchange.name(), emptySet()),
+                        (pair, candlestick) -> onClosedCandlestick(exchange, pair, candlestick));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to subscribe to the stream of exchange " + exchange.name() + ", its pairs will be polled", e);
+            }
+        });
+    }
+
+    // an exchange that delisted a pair would answer an error for each request of its candlesticks, its alerts are suspended instead
+    private boolean isListed(@NotNull Exchange exchange, @NotNull String pair) {
+        var key = exchange.name() + ':' + pair;
+        if(null != exchange.getPair(pair)) {
+            if(delistedPairs.remove(key)) {
+                LOGGER.info("Pair {} is listed again on exchange {}, its alerts are resumed", pair, exchange.name());
+            }
+            return true;
+        } else if(delistedPairs.add(key)) {
+            LOGGER.warn("Pair {} is not listed on exchange {}, its alerts are suspended", pair, exchange.name());
+        }
+        return false;
+    }
+
+    // a subscribed pair is still polled if its last candlestick is late, to recover the gap of a stream that was down
+    private boolean isStreamed(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair) {
+        if(!exchange.isSubscribed(pair)) {
+            return false;
+        }
+        var lastCandlesticks = context.lastCandlesticksCache().get(exchange.name(), pair);
+        return null != lastCandlesticks && lastCandlesticks.last().closeTime().isAfter(now.minusMinutes(STREAM_MAX_DELAY_MINUTES));
+    }
+
+    @NotNull
+    private ReentrantLock pairLock(@NotNull Exchange exchange, @NotNull String pair) {
+        return pairLocks.computeIfAbsent(exchange.name() + ':' + pair, key -> new ReentrantLock());
+    }
+
+    private <T> T withPairLock(@NotNull Exchange exchange, @NotNull String pair, @NotNull Supplier<T> action) {
+        var pairLock = pairLock(exchange, pair);
+        pairLock.lock();
+        try {
+            return action.get();
+        } finally {
+            pairLock.unlock();
+        }
+    }
+
+    // called from the exchange stream thread, the matching is done on a virtual thread
+    private void onClosedCandlestick(@NotNull Exchange exchange, @NotNull String pair, @NotNull Candlestick candlestick) {
+        Thread.ofVirtual().start(() -> raiseStreamedAlerts(exchange, pair, candlestick));
+    }
+
+    private long raiseStreamedAlerts(@NotNull Exchange exchange, @NotNull String pair, @NotNull Candlestick candlestick) {
+        LOGGER.debug("Processing streamed candlestick of pair [{}] on {}...", pair, exchange.name());
+        if(!context.shardsRing().owns(exchange.name(), pair)) { // until the next check unsubscribes it
+            LOGGER.debug("Skipping streamed candlestick of pair [{}] on {}, checked by another node", pair, exchange.name());
+            return 0L;
+        }
+        long matching = 0L;
+        var pairLock = pairLock(exchange, pair);
+        pairLock.lock();
+        try {
+            ZonedDateTime now = Dates.nowUtc(context.clock());
+            var lastCandlesticks = context.lastCandlesticksCache().get(exchange.name(), pair);
+            if(null == lastCandlesticks || candlestick.openTime().isAfter(lastCandlesticks.last().closeTime().plusSeconds(1L))) {
+                LOGGER.debug("Missing candlesticks before the streamed one of pair [{}] on {}, polling the exchange", pair, exchange.name());
+                matching = getPricesAndRaiseAlerts(now, exchange, pair, null);
+            } else if(candlestick.closeTime().isAfter(lastCandlesticks.last().closeTime())) {
+                storeHistory(exchange, pair, List.of(candlestick));
+                matching = raiseAlerts(now, exchange, pair, List.of(candlestick), lastCandlesticks, false);
+            } // else already processed by a check
+        } catch (RuntimeException e) {
+            LOGGER.error("Exception thrown while processing streamed alerts for " + pair + " on exchange " + exchange, e);
+        } finally {
+            pairLock.unlock();
+        }
+        if(matching > 0) {
+            context.notificationService().sendNotifications();
+        }
+        return matching;
+    }
+
     private long raiseAlerts(@NotNull ZonedDateTime now, @NotNull Exchange virtualExchange, @NotNull String pair) {
         if(LOGGER.isDebugEnabled()) {
             LOGGER.debug("Processing pair [{}] on virtual exchange {}{}...", pair,
@@ -186,26 +417,74 @@ public final class AlertsWatcher {
         }
     }
 
-    private long getPricesAndRaiseAlerts(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair) {
+    // the tickers pre-screen the pairs, no alert can match the ones that stayed far from every alert band since their last check
+    @NotNull
+    private Map<String, Ticker> getTickers(@NotNull Exchange exchange, @NotNull List<String> pairs) {
+        if(pairs.size() < TICKERS_MIN_PAIRS) {
+            return emptyMap();
+        }
         try {
-            LOGGER.debug("Retrieving last price for pair [{}] on {}...", pair, exchange);
+            return exchange.getTickers(Set.copyOf(pairs));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to retrieve the tickers of exchange " + exchange.name() + ", all its pairs will be requested", e);
+            return emptyMap();
+        }
+    }
+
+    // prices of a pair fetched by a check, waiting for their matching, lastClose is the close time of the pair last price when they were fetched,
+    // fromTicker is true for the ticker last price, that is not a real candlestick
+    record FetchedPrices(@NotNull Exchange exchange, @NotNull String pair, @Nullable ZonedDateTime lastClose, @NotNull List<Candlestick> prices, boolean fromTicker) {
+        FetchedPrices {
+            requireNonNull(exchange);
+            requireNonNull(pair);
+            requireNonNull(prices);
+        }
+    }
+
+    // called holding the pair lock
+    private long getPricesAndRaiseAlerts(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @Nullable Ticker ticker) {
+        var fetched = fetchPrices(now, exchange, pair, ticker);
+        return null != fetched ? matchPrices(now, fetched) : 0L;
+    }
+
+    // retrieves the new prices of this pair, or null if there are none, called holding the pair lock.
+    // @throws RuntimeException on error, so the callers can tell a failed fetch from a quiet market
+    @Nullable
+    private FetchedPrices fetchPrices(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @Nullable Ticker ticker) {
+        LOGGER.debug("Retrieving last price for pair [{}] on {}...", pair, exchange);
 
-            // retrieve all the candlesticks since the last check occurred from now, or since the last hour,
-            // lastClose database read don't need to be part of the following alerts update transaction
-            var lastClose = context.transactional(ctx -> ctx.lastCandlesticksDao().getLastCandlestickCloseTime(exchange.name(), pair).orElse(null));
-            List<Candlestick> prices = getCandlesticksSince(lastClose, now, exchange, pair);
+        // retrieve all the candlesticks since the last check occurred from now, or since the last hour,
+        // the last candlestick is read from the database only for the pairs not yet in memory,
+        // lastClose database read don't need to be part of the following alerts update transaction
+        var lastCandlesticks = context.lastCandlesticksCache().get(exchange.name(), pair);
+        var lastClose = null != lastCandlesticks ? lastCandlesticks.last().closeTime() :
+                context.transactional(ctx -> ctx.lastCandlesticksDao().getLastCandlestickCloseTime(exchange.name(), pair).orElse(null));
+        List<Candlestick> prices = null != ticker && null != lastCandlesticks ?
+                tickerPrices(now, exchange, pair, ticker, lastCandlesticks.last()) : null;
+        boolean fromTicker = null != prices;
+        if(!fromTicker) {
+            prices = getCandlesticksSince(lastClose, now, exchange, pair);
+        }
+        if(!prices.isEmpty()) {
+            return new FetchedPrices(exchange, pair, lastClose, prices, fromTicker);
+        }
+        LOGGER.debug("No market data found for {} on exchange {}", pair, exchange); // counted by the check
+        return null;
+    }
 
+    // matches the alerts of a pair with its fetched prices, then persists its new last candlesticks, called holding the pair lock.
+    // the pair may have been updated by its stream since the prices were fetched, only the newer ones are matched
+    private long matchPrices(@NotNull ZonedDateTime now, @NotNull FetchedPrices fetched) {
+        var exchange = fetched.exchange();
+        var pair = fetched.pair();
+        try {
+            var lastCandlesticks = context.lastCandlesticksCache().get(exchange.name(), pair);
+            var prices = null == lastCandlesticks || (null != fetched.lastClose() && lastCandlesticks.last().closeTime().isEqual(fetched.lastClose())) ? fetched.prices() :
+                    fetched.prices().stream().filter(candlestick -> candlestick.closeTime().isAfter(lastCandlesticks.last().closeTime())).toList();
             if(!prices.isEmpty()) {
-                // load, notify, and update alerts that matches
-                return context.transactional(txContext -> {
-                    var lastCandlesticksService = txContext.lastCandlesticksService();
-                    Candlestick previousPrice = lastCandlesticksService.getLastCandlestick(exchange.name(), pair).orElse(null);
-                    long matching = processMatchingAlerts(txContext, now, exchange, pair, prices, previousPrice);
-                    lastCandlesticksService.updateLastCandlestick(exchange.name(), pair, previousPrice, prices.get(prices.size() - 1));
-                    return matching;
-                });
-            } else {
-                LOGGER.warn("No market data found for {} on exchange {}", pair, exchange);
+                long matching = raiseAlerts(now, exchange, pair, prices, lastCandlesticks, fetched.fromTicker());
+                scheduleNextCheck(now, exchange, pair, prices, fetched.fromTicker());
+                return matching;
             }
         } catch(RuntimeException e) {
             LOGGER.error("Exception thrown while processing alerts for " + pair + " on exchange " + exchange, e);
@@ -213,10 +492,116 @@ public final class AlertsWatcher {
         return 0L;
     }
 
+    // the next check of a pair comes sooner as its last price gets closer to the prices its alerts can reach,
+    // a ticker price has no range, it keeps the volatility of the pair
+    private void scheduleNextCheck(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @NotNull List<Candlestick> prices, boolean fromTicker) {
+        var pairsScheduler = context.pairsScheduler();
+        if(pairsScheduler.isEnabled()) {
+            var lastPrice = prices.getLast().close();
+            double distance = context.transactional(txCtx -> Math.min(
+                    context.rangeAlertsIndex().distance(txCtx.alertsDao(), now, exchange.name(), pair, lastPrice),
+                    context.trendAlertsIndex().distance(txCtx.alertsDao(), now, exchange.name(), pair, lastPrice)));
+            if(fromTicker) {
+                pairsScheduler.schedule(exchange.name(), pair, now.toInstant().toEpochMilli(), distance);
+            } else {
+                pairsScheduler.schedule(exchange.name(), pair, now.toInstant().toEpochMilli(), prices, distance);
+            }
+        }
+    }
+
+    // load, notify, and update alerts that matches, then update the last candlestick of the pair.
+    // a ticker price only updates the last candlestick in memory, it is neither stored as a checkpoint nor shown by the commands
+    private long raiseAlerts(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @NotNull List<Candlestick> prices, @Nullable LastCandlesticks lastCandlesticks, boolean fromTicker) {
+        var lastCandlesticksCache = context.lastCandlesticksCache();
+        var lastPrice = prices.getLast();
+        Candlestick[] storedPrice = new Candlestick[1];
+        long matching = context.transactional(txContext -> {
+            var lastCandlesticksService = txContext.lastCandlesticksService();
+            Candlestick previousPrice = null != lastCandlesticks ? lastCandlesticks.last() :
+                    lastCandlesticksService.getLastCandlestick(exchange.name(), pair).orElse(null);
+            storedPrice[0] = null != lastCandlesticks ? lastCandlesticks.stored() : previousPrice;
+            long matchingAlerts = processMatchingAlerts(txContext, now, exchange, pair, prices, previousPrice);
+            if(!fromTicker && lastCandlesticksCache.isCheckpointDue(storedPrice[0], lastPrice)) {
+                lastCandlesticksService.updateLastCandlestick(exchange.name(), pair, storedPrice[0], lastPrice);
+                storedPrice[0] = lastPrice;
+            }
+            return matchingAlerts;
+        });
+        lastCandlesticksCache.put(exchange.name(), pair, lastPrice, storedPrice[0]);
+        if(!fromTicker) { // the commands showing the price of this pair can reuse it
+            context.candlesticksCache().put(exchange.name(), pair, TimeFrame.ONE_MINUTE, lastPrice);
+        }
+        return matching;
+    }
+
+    // when the ticker window covers the prices since the previous candlestick and no indexed alert interval overlaps them,
+    // the candlesticks are not requested, the ticker last price is matched instead as a candlestick closed before the current minute,
+    // so that the next requested candlesticks still include this minute. Returns null if the candlesticks are needed.
+    @Nullable
+    private List<Candlestick> tickerPrices(@NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @NotNull Ticker ticker, @NotNull Candlestick previousPrice) {
+        var closeTime = ticker.closeTime().truncatedTo(ChronoUnit.MINUTES).minus(1L, ChronoUnit.MILLIS);
+        if(ticker.openTime().isAfter(previousPrice.closeTime()) || !closeTime.isAfter(previousPrice.closeTime())) {
+            return null;
+        }
+        var lastPrice = ticker.lastPrice();
+        var priceBox = new PriceBox(previousPrice.openTime().toInstant().toEpochMilli(), ticker.closeTime().toInstant().toEpochMilli(),
+                ticker.low().min(lastPrice).min(previousPrice.low()), ticker.high().max(lastPrice).max(previousPrice.high()));
+        if(context.transactional(txCtx -> mayMatch(txCtx.alertsDao(), context.rangeAlertsIndex(), now, exchange, pair, priceBox) ||
+                mayMatch(txCtx.alertsDao(), context.trendAlertsIndex(), now, exchange, pair, priceBox))) {
+            return null;
+        }
+        LOGGER.debug("No alert can reach the prices of pair [{}] on {} since {}, matching the ticker last price {}", pair, exchange.name(), previousPrice.closeTime(), lastPrice);
+        return List.of(new Candlestick(previousPrice.closeTime().plus(1L, ChronoUnit.MILLIS), closeTime, lastPrice, lastPrice, lastPrice, lastPrice));
+    }
+
+    private static boolean mayMatch(@NotNull AlertsDao alertsDao, @NotNull AlertsIndex alertsIndex, @NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @NotNull PriceBox priceBox) {
+        var candidates = alertsIndex.candidates(alertsDao, now, exchange.name(), pair, priceBox);
+        return null == candidates || candidates.findAny().isPresent();
+    }
+
+    // the candlesticks already stored in the local history are read first, then only the following ones are requested.
+    // the history returns the one minute candlesticks, or the hourly and daily ones compacted from them once the minutes expired
     private List<Candlestick> getCandlesticksSince(@Nullable ZonedDateTime previousCloseTime, @NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair) {
-        CandlestickPeriod period = Optional.ofNullable(previousCloseTime)
-                .map(close -> periodSince(close, now))
-                .orElse(CandlestickPeriod.ONE_MINUTE); //TODO retrieve since last period
+        var history = context.candlesticksHistory();
+        List<Candlestick> stored = null != previousCloseTime && history.isEnabled() ?
+                history.getCandlesticksSince(exchange.name(), pair, previousCloseTime) : emptyList();
+        if(!stored.isEmpty()) {
+            LOGGER.debug("Read {} candlesticks of pair [{}] on {} from the history since {}", stored.size(), pair, exchange.name(), previousCloseTime);
+        }
+        var requested = requestCandlesticksSince(stored.isEmpty() ? previousCloseTime : stored.getLast().closeTime(), now, exchange, pair);
+        storeHistory(exchange, pair, requested);
+        if(stored.isEmpty()) {
+            return requested;
+        }
+        var prices = new ArrayList<Candlestick>(stored.size() + requested.size());
+        prices.addAll(stored);
+        prices.addAll(requested);
+        return prices;
+    }
+
+    // only the one minute candlesticks are stored, the longer ones of a gap recovery are mixed with them
+    private void storeHistory(@NotNull Exchange exchange, @NotNull String pair, @NotNull List<Candlestick> candlesticks) {
+        var history = context.candlesticksHistory();
+        if(history.isEnabled()) {
+            try {
+                history.append(exchange.name(), pair, TimeFrame.ONE_MINUTE, candlesticks.stream()
+                        .filter(candlestick -> candlestick.closeTime().isBefore(candlestick.openTime().plusMinutes(1L))).toList());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to store the candlesticks history of " + pair + " on exchange " + exchange.name(), e);
+            }
+        }
+    }
+
+    private List<Candlestick> requestCandlesticksSince(@Nullable ZonedDateTime previousCloseTime, @NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair) {
+        if(null == previousCloseTime) { // first check of this pair, there is nothing to cross from
+            return getCandlesticks(exchange, pair, TimeFrame.ONE_MINUTE, 1);
+        } else if(previousCloseTime.isAfter(now.minusHours(MINUTES_MAX_GAP_HOURS))) {
+            // usual case, only the one minute candlesticks since the last one are requested
+            LOGGER.debug("Requesting one minute candlesticks since the last price close time {}", previousCloseTime);
+            return exchange.getCandlesticksSince(pair, TimeFrame.ONE_MINUTE, previousCloseTime).stream()
+                    .sorted(comparing(Candlestick::closeTime)).toList();
+        }
+        CandlestickPeriod period = periodSince(previousCloseTime, now);
         LOGGER.debug("Computed {} daily, {} hourly and {} one minute candlesticks since the last price close time {}",
                 period.daily(), period.hourly(), period.minutes(), previousCloseTime);
 
@@ -234,8 +619,7 @@ public final class AlertsWatcher {
             // this is best effort for retrieving quotes since a long shutdown, where longer timeframe are likely to overlap
             // before the alert listening date, in which case they are ignored
             // one minute timeframe quote won't be available for many days in the past
-            // Usually only bulks of one minute quote are requested, on following checks, hence no overlap issue.
-            // check period should remains below one hour to ensure use of one minute timeframe.
+            // Usually only one minute quotes are requested, see above, hence no overlap issue.
             //
             prices.addAll(daily.get().stream().sorted(comparing(Candlestick::closeTime)).toList());
             prices.addAll(hourly.get().stream().sorted(comparing(Candlestick::closeTime)).toList());
@@ -256,21 +640,74 @@ public final class AlertsWatcher {
 
     private long processMatchingAlerts(@NotNull TransactionalContext context, @NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @NotNull List<Candlestick> prices, @Nullable Candlestick previousPrice) {
         var alertsDao = context.alertsDao();
-        var notificationsDao = context.notificationsDao();
-        var userSettingsDao = context.userSettingsDao();
         var matchingService = context.matchingService();
+        var matchingPrices = Prices.of(prices, previousPrice);
         long[] matching = new long[1];
-        long read = alertsDao.fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(exchange.name(), pair, now, context.parameters().checkPeriodMin(),
-                alerts -> batchAlertsUpdates(alertsDao, now,
-                        split(STREAM_BUFFER_SIZE, true, alerts
-                                .map(alert -> matchingService.match(now, alert, prices, previousPrice))
-                                .filter(alert -> alert.hasMatch() && ++matching[0] != 0))
-                        .map(matchingAlerts -> fetchAlertsMessage(alertsDao, matchingAlerts))
-                        .flatMap(matchingAlerts -> sendNotifications(now, notificationsDao, userSettingsDao, matchingAlerts))));
+        var alertsProcessor = alertsProcessor(context, now, matchingPrices, matching);
+        int checkPeriodMin = context.parameters().checkPeriodMin();
+        long read;
+        if(exchange.isVirtual() || prices.isEmpty()) {
+            read = alertsDao.fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(exchange.name(), pair, now, checkPeriodMin, alertsProcessor);
+        } else {
+            var priceBox = PriceBox.of(prices, previousPrice);
+            Predicate<CompiledAlert> mayMatch = compiled -> matchingService.mayMatch(compiled, matchingPrices);
+            read = fetchIndexedAlerts(context, context.rangeAlertsIndex(), now, exchange, pair, priceBox, mayMatch, alertsProcessor) +
+                    fetchIndexedAlerts(context, context.trendAlertsIndex(), now, exchange, pair, priceBox, mayMatch, alertsProcessor);
+        }
         LOGGER.debug("Processed {} alerts on exchange {} and pair {}, found {} matching", read, exchange.name(), pair, matching[0]);
         return matching[0];
     }
 
+    // the fired remainder alerts are read by ids, the dao filters out the ones no longer due, and the ones of the other nodes are skipped
+    private long processRemainderAlerts(@NotNull TransactionalContext context, @NotNull ZonedDateTime now, @NotNull long[] alertIds) {
+        long[] matching = new long[1];
+        var shardsRing = context.shardsRing();
+        var alertsProcessor = alertsProcessor(context, now, Prices.of(emptyList(), null), matching);
+        long read = fetchAlertsByIds(context.alertsDao(), LongStream.of(alertIds), now, context.parameters().checkPeriodMin(),
+                alerts -> alertsProcessor.accept(alerts.filter(alert -> shardsRing.owns(alert.exchange, alert.pair))));
+        LOGGER.debug("Processed {} remainder alerts, found {} matching", read, matching[0]);
+        return matching[0];
+    }
+
+    // matches the alerts, updates the matching ones then sends their notifications, by batches, counting the matching ones into matching[0]
+    private Consumer<Stream<Alert>> alertsProcessor(@NotNull TransactionalContext context, @NotNull ZonedDateTime now, @NotNull Prices matchingPrices, long[] matching) {
+        var alertsDao = context.alertsDao();
+        var notificationsDao = context.notificationsDao();
+        var userSettingsDao = context.userSettingsDao();
+        var matchingService = context.matchingService();
+        return alerts -> batchAlertsUpdates(alertsDao, now,
+                split(STREAM_BUFFER_SIZE, true, split(MATCHING_BATCH_SIZE, false, alerts)
+                        .flatMap(alertsBatch -> matchingService.match(now, alertsBatch, matchingPrices))
+                        .filter(matchingAlert -> ++matching[0] != 0))
+                .map(matchingAlerts -> fetchAlertsMessage(alertsDao, matchingAlerts))
+                .flatMap(matchingAlerts -> sendNotifications(now, notificationsDao, userSettingsDao, matchingAlerts)));
+    }
+
+    // alerts can only match if the prices they can reach with their margin intersect the price box of the candlesticks,
+    // and if their compiled form kept by the index matches the candlesticks, only these ones are loaded from the dao
+    private long fetchIndexedAlerts(@NotNull TransactionalContext context, @NotNull AlertsIndex alertsIndex, @NotNull ZonedDateTime now, @NotNull Exchange exchange, @NotNull String pair, @NotNull PriceBox priceBox, @NotNull Predicate<CompiledAlert> mayMatch, @NotNull Consumer<Stream<Alert>> alertsProcessor) {
+        var alertsDao = context.alertsDao();
+        int checkPeriodMin = context.parameters().checkPeriodMin();
+        var candidates = alertsIndex.candidates(alertsDao, now, exchange.name(), pair, priceBox, mayMatch);
+        return null != candidates ?
+                fetchAlertsByIds(alertsDao, candidates, now, checkPeriodMin, alertsProcessor) :
+                alertsDao.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange.name(), pair, alertsIndex.type(), now, checkPeriodMin, alertsProcessor);
+    }
+
+    // the ids are read by chunks that fit into a sql IN clause, each chunk is a stream of the alerts consumer
+    private static long fetchAlertsByIds(@NotNull AlertsDao alertsDao, @NotNull LongStream alertIds, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        long[] ids = alertIds.toArray();
+        if(ids.length <= MAX_DBMS_SQL_IN_CLAUSE_VALUES) {
+            return alertsDao.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.of(ids), now, checkPeriodMin, alertsConsumer);
+        }
+        long read = 0L;
+        for(int from = 0; from < ids.length; from += MAX_DBMS_SQL_IN_CLAUSE_VALUES) {
+            var chunk = Arrays.stream(ids, from, Math.min(ids.length, from + MAX_DBMS_SQL_IN_CLAUSE_VALUES));
+            read += alertsDao.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(chunk, now, checkPeriodMin, alertsConsumer);
+        }
+        return read;
+    }
+
     private void batchAlertsUpdates(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now, @NotNull Stream<MatchingAlert> matchingAlerts) {
         alertsDao.matchedAlertBatchUpdates(now, matchedUpdater ->
                 alertsDao.marginAlertBatchUpdates(now, marginUpdater ->
@@ -0,0 +1,169 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.exchanges.Exchange;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.sbot.SpotBot.appProperties;
+
+/*
+    Shared cache of the last candlestick of each exchange, pair and time frame, read by the commands that show a price,
+    and fed by the alerts watcher with the candlesticks it fetched or received from a stream.
+    An entry expires after the max ttl, or before once its candlestick closes, as a new one is then opened.
+    Concurrent misses of the same entry are coalesced into one exchange request, the other callers waiting for its result.
+    A miss first reads the last candlestick stored in the local history, it is returned without any exchange request
+    if it closed within the max ttl, like the ones fed by the alerts watcher. When the exchange request fails, the stored one is returned if any.
+ */
+public final class CandlesticksCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(CandlesticksCache.class);
+
+    private static final int MAX_TTL_SECONDS = Math.max(0, appProperties.getIntOr("candlesticks.cache.ttl.seconds", 10));
+
+    private record Key(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame) {}
+
+    // an entry being loaded never expires, it is replaced or removed once its request is done
+    private record Entry(@NotNull CompletableFuture<Optional<Candlestick>> candlestick, long expiresAt) {}
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final Duration maxTtl;
+    private final CandlesticksHistory history;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CandlesticksCache(@NotNull Clock clock) {
+        this(clock, CandlesticksHistory.DISABLED);
+    }
+
+    public CandlesticksCache(@NotNull Clock clock, @NotNull CandlesticksHistory history) {
+        this(clock, Duration.ofSeconds(MAX_TTL_SECONDS), history);
+    }
+
+    CandlesticksCache(@NotNull Clock clock, @NotNull Duration maxTtl) {
+        this(clock, maxTtl, CandlesticksHistory.DISABLED);
+    }
+
+    CandlesticksCache(@NotNull Clock clock, @NotNull Duration maxTtl, @NotNull CandlesticksHistory history) {
+        if(maxTtl.isNegative()) {
+            throw new IllegalArgumentException("Invalid max ttl : " + maxTtl);
+        }
+        this.clock = requireNonNull(clock);
+        this.maxTtl = maxTtl;
+        this.history = requireNonNull(history);
+    }
+
+    // returns the last candlestick of this pair, from the cache or else requested to the exchange
+    @NotNull
+    public Optional<Candlestick> getLast(@NotNull Exchange exchange, @NotNull String pair, @NotNull TimeFrame timeFrame) {
+        var key = new Key(exchange.name(), pair, timeFrame);
+        long now = clock.millis();
+        var loader = new CompletableFuture<Optional<Candlestick>>();
+        var entry = entries.compute(key, (k, current) -> null != current && now < current.expiresAt() ? current : new Entry(loader, Long.MAX_VALUE));
+        if(entry.candlestick() != loader) {
+            (entry.candlestick().isDone() ? hits : coalesced).increment();
+            return join(entry.candlestick());
+        }
+        misses.increment();
+        var recent = recentStored(exchange.name(), pair, timeFrame, now);
+        if(recent.isPresent()) {
+            entries.replace(key, entry, new Entry(loader, recent.get().closeTime().toInstant().toEpochMilli() + maxTtl.toMillis()));
+            loader.complete(recent);
+            return recent;
+        }
+        try {
+            var candlestick = exchange.getCandlesticks(pair, timeFrame, 1).stream().max(comparing(Candlestick::closeTime));
+            entries.replace(key, entry, new Entry(loader, expiresAt(clock.millis(), candlestick.orElse(null))));
+            loader.complete(candlestick);
+            return candlestick;
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            var stored = history.isEnabled() ? history.getLast(exchange.name(), pair, timeFrame) : Optional.<Candlestick>empty();
+            if(stored.isPresent()) {
+                LOGGER.warn("Failed to request the last candlestick of " + pair + " on exchange " + exchange.name() + ", returning the stored one", e);
+                loader.complete(stored);
+                return stored;
+            }
+            loader.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // updates the last candlestick of this pair, unless the cached one is newer
+    public void put(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull Candlestick candlestick) {
+        var update = new Entry(completedFuture(Optional.of(candlestick)), expiresAt(clock.millis(), candlestick));
+        entries.merge(new Key(exchange, pair, timeFrame), update, (current, newEntry) ->
+                current.candlestick().isDone() && current.candlestick().getNow(Optional.empty())
+                        .filter(cached -> cached.closeTime().isAfter(candlestick.closeTime())).isPresent() ? current : newEntry);
+    }
+
+    public void evictExpired() {
+        long now = clock.millis();
+        int size = entries.size();
+        entries.values().removeIf(entry -> now >= entry.expiresAt());
+        LOGGER.debug("Removed {} expired candlesticks from the cache, hits : {}, misses : {}, coalesced : {}",
+                size - entries.size(), hits(), misses(), coalesced());
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // requests that waited for the same request of another caller
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    // the last candlestick stored in the local history, if it closed within the max ttl
+    @NotNull
+    private Optional<Candlestick> recentStored(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame, long now) {
+        if(!history.isEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            return history.getLast(exchange, pair, timeFrame)
+                    .filter(candlestick -> now < candlestick.closeTime().toInstant().toEpochMilli() + maxTtl.toMillis());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to read the last stored candlestick of " + pair + " on exchange " + exchange, e);
+            return Optional.empty();
+        }
+    }
+
+    private long expiresAt(long now, @Nullable Candlestick candlestick) {
+        long expiresAt = now + maxTtl.toMillis();
+        if(null != candlestick) {
+            long closeTime = candlestick.closeTime().toInstant().toEpochMilli();
+            return closeTime > now ? Math.min(expiresAt, closeTime + 1L) : expiresAt;
+        }
+        return expiresAt;
+    }
+
+    private static Optional<Candlestick> join(@NotNull CompletableFuture<Optional<Candlestick>> candlestick) {
+        try {
+            return candlestick.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
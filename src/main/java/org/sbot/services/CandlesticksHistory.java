@@ -0,0 +1,567 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.KLine;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.utils.MutableDecimal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardOpenOption.*;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static org.sbot.SpotBot.appProperties;
+import static org.sbot.entities.chart.TimeFrame.*;
+import static org.sbot.utils.Dates.UTC;
+
+/*
+    Local history of the closed candlesticks of each exchange, pair and time frame, so the candlesticks already received are read back
+    from the disk instead of being requested again, like the ones since an outdated last candlestick checkpoint after a restart.
+    A series is stored in append only segment files, one by period of SEGMENT_PERIODS candlesticks, in a directory by exchange, pair and time frame.
+    Each record is delta and varint encoded against the previous one of its segment, so a segment decodes alone, and it is memory mapped to be read.
+    The one minute candlesticks are compacted into hourly then daily ones once their hour or day ended, only the complete ones,
+    so the gaps older than the one minute retention are still read back from the hourly and daily series.
+    The segments older than the retention of their time frame are deleted. Without a directory the history is disabled.
+ */
+public final class CandlesticksHistory {
+
+    private static final Logger LOGGER = LogManager.getLogger(CandlesticksHistory.class);
+
+    private static final String DIRECTORY = appProperties.getOr("candlesticks.history.directory", null);
+    private static final int MINUTES_RETENTION_DAYS = Math.max(1, appProperties.getIntOr("candlesticks.history.minutes.retention.days", 7));
+    private static final int HOURS_RETENTION_DAYS = Math.max(1, appProperties.getIntOr("candlesticks.history.hours.retention.days", 90));
+    private static final int DAYS_RETENTION_DAYS = Math.max(1, appProperties.getIntOr("candlesticks.history.days.retention.days", 730));
+
+    public static final CandlesticksHistory DISABLED = new CandlesticksHistory(null, Clock.systemUTC(), Map.of());
+
+    static final List<TimeFrame> TIME_FRAMES = List.of(ONE_MINUTE, HOURLY, DAILY);
+
+    static final String SEGMENT_EXTENSION = ".seg";
+    // one day of one minute candlesticks, 60 days of hourly ones
+    static final int SEGMENT_PERIODS = 1440;
+    // two times and four prices of a varint scale and a varint value, a varint being 10 bytes max
+    private static final int MAX_RECORD_BYTES = 10 * (2 + 4 * 2);
+    private static final long COMPACTION_PERIOD_MILLIS = Duration.ofHours(1L).toMillis();
+    private static final long NONE = Long.MIN_VALUE;
+
+    private record Key(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame) {}
+
+    // the candlesticks of a segment, and its size up to the last complete record
+    record Segment(@NotNull List<KLine> kLines, int validBytes) {}
+
+    // the segments of a series by start time and its last candlestick, guarded by the series monitor
+    private static final class Series {
+        private final Path directory;
+        private final NavigableSet<Long> segments = new TreeSet<>();
+        @Nullable
+        private KLine last;
+        // the candlesticks opened before this time were already read by the aggregation into the next time frame, NONE since the series load
+        private long aggregated = NONE;
+
+        private Series(@NotNull Path directory) {
+            this.directory = requireNonNull(directory);
+        }
+
+        @NotNull
+        private Path segmentFile(long segmentStart) {
+            return directory.resolve(segmentStart + SEGMENT_EXTENSION);
+        }
+    }
+
+    @Nullable
+    private final Path directory;
+    private final Clock clock;
+    private final Map<TimeFrame, Duration> retention;
+    private final Map<Key, Series> series = new ConcurrentHashMap<>();
+    private volatile long nextCompaction = NONE;
+
+    public CandlesticksHistory(@NotNull Clock clock) {
+        this(null != DIRECTORY ? Path.of(DIRECTORY) : null, clock, Map.of(
+                ONE_MINUTE, Duration.ofDays(MINUTES_RETENTION_DAYS),
+                HOURLY, Duration.ofDays(HOURS_RETENTION_DAYS),
+                DAILY, Duration.ofDays(DAYS_RETENTION_DAYS)));
+    }
+
+    CandlesticksHistory(@Nullable Path directory, @NotNull Clock clock, @NotNull Map<TimeFrame, Duration> retention) {
+        this.directory = directory;
+        this.clock = requireNonNull(clock);
+        this.retention = requireNonNull(retention);
+        if(null != directory) {
+            LOGGER.info("Candlesticks history stored in {}", directory);
+        }
+    }
+
+    public boolean isEnabled() {
+        return null != directory;
+    }
+
+    // appends the closed candlesticks opened after the last one of this series, returns the number of candlesticks appended.
+    // @throws IllegalArgumentException if the time frame is not one minute, hourly or daily
+    public int append(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull List<Candlestick> candlesticks) {
+        long period = period(timeFrame);
+        if(null == directory || candlesticks.isEmpty()) {
+            return 0;
+        }
+        long now = clock.millis();
+        var key = new Key(exchange, pair, timeFrame);
+        var series = series(key);
+        synchronized (series) {
+            var buffer = ByteBuffer.allocate(MAX_RECORD_BYTES * candlesticks.size());
+            long segmentStart = NONE;
+            KLine previous = series.last;
+            int appended = 0;
+            try {
+                for(var candlestick : candlesticks.stream().sorted(comparing(Candlestick::openTime)).toList()) {
+                    if(candlestick.closeTime().toInstant().toEpochMilli() >= now ||
+                            (null != previous && candlestick.openTime().toInstant().toEpochMilli() <= previous.openTime())) {
+                        continue; // still open or already stored
+                    }
+                    var kLine = kLine(candlestick);
+                    if(null == kLine) {
+                        continue;
+                    }
+                    long kLineSegmentStart = segmentStart(kLine.openTime(), period);
+                    if(kLineSegmentStart != segmentStart) {
+                        write(series, segmentStart, buffer, previous);
+                        segmentStart = kLineSegmentStart;
+                    }
+                    encode(buffer, kLine, null != previous && segmentStart(previous.openTime(), period) == segmentStart ? previous : null, segmentStart);
+                    previous = kLine;
+                    appended++;
+                }
+                write(series, segmentStart, buffer, previous);
+            } catch (IOException e) {
+                this.series.remove(key, series); // reloaded from the disk on next use
+                throw new UncheckedIOException("Unable to append the " + timeFrame + " candlesticks history of " + pair + " on exchange " + exchange, e);
+            }
+            return appended;
+        }
+    }
+
+    // the stored candlesticks following the one closed at this date, from the oldest, up to the first missing one.
+    // @throws IllegalArgumentException if the time frame is not one minute, hourly or daily
+    @NotNull
+    public List<Candlestick> getCandlesticksSince(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame, @NotNull ZonedDateTime since) {
+        long period = period(timeFrame);
+        if(null == directory) {
+            return Collections.emptyList();
+        }
+        long expectedOpenTime = since.toInstant().toEpochMilli() + 1L;
+        var candlesticks = new ArrayList<Candlestick>();
+        var series = series(new Key(exchange, pair, timeFrame));
+        synchronized (series) {
+            for(var kLine : read(series, expectedOpenTime, period)) {
+                if(kLine.openTime() != expectedOpenTime) {
+                    break; // missing candlestick
+                }
+                candlesticks.add(kLine.candlestick());
+                expectedOpenTime = kLine.closeTime() + 1L;
+            }
+        }
+        return candlesticks;
+    }
+
+    // the stored candlesticks following the one closed at this date, from the oldest, up to the first missing one,
+    // each one being the one minute candlestick if stored, or else the hourly then the daily one opened at the same time
+    @NotNull
+    public List<Candlestick> getCandlesticksSince(@NotNull String exchange, @NotNull String pair, @NotNull ZonedDateTime since) {
+        if(null == directory) {
+            return Collections.emptyList();
+        }
+        long expectedOpenTime = since.toInstant().toEpochMilli() + 1L;
+        // from the shortest time frame
+        var series = new ArrayList<List<KLine>>(TIME_FRAMES.size());
+        for(var timeFrame : TIME_FRAMES) {
+            var timeFrameSeries = series(new Key(exchange, pair, timeFrame));
+            synchronized (timeFrameSeries) {
+                series.add(read(timeFrameSeries, expectedOpenTime, period(timeFrame)));
+            }
+        }
+        var candlesticks = new ArrayList<Candlestick>();
+        int[] positions = new int[series.size()];
+        for(KLine next = null;; next = null) {
+            for(int i = 0; i < series.size() && null == next; i++) {
+                var kLines = series.get(i);
+                while(positions[i] < kLines.size() && kLines.get(positions[i]).openTime() < expectedOpenTime) {
+                    positions[i]++;
+                }
+                if(positions[i] < kLines.size() && kLines.get(positions[i]).openTime() == expectedOpenTime) {
+                    next = kLines.get(positions[i]);
+                }
+            }
+            if(null == next) {
+                return candlesticks; // missing candlestick
+            }
+            candlesticks.add(next.candlestick());
+            expectedOpenTime = next.closeTime() + 1L;
+        }
+    }
+
+    // the last stored candlestick of this series, empty for the time frames not stored
+    @NotNull
+    public Optional<Candlestick> getLast(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame timeFrame) {
+        if(null == directory || !TIME_FRAMES.contains(timeFrame)) {
+            return Optional.empty();
+        }
+        var series = series(new Key(exchange, pair, timeFrame));
+        synchronized (series) {
+            return Optional.ofNullable(series.last).map(KLine::candlestick);
+        }
+    }
+
+    // compacts and applies the retention once by compaction period, errors are only logged
+    public void compactIfDue() {
+        long now = clock.millis();
+        if(null == directory || now < nextCompaction) {
+            return;
+        }
+        nextCompaction = now + COMPACTION_PERIOD_MILLIS;
+        try {
+            compact(now);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to compact the candlesticks history", e);
+        }
+    }
+
+    // aggregates the ended hours and days of the series stored on the disk, then deletes their expired segments
+    void compact(long now) {
+        if(null == directory || !Files.isDirectory(directory)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        for(var exchangeDirectory : list(directory)) {
+            for(var pairDirectory : list(exchangeDirectory)) {
+                var exchange = exchangeDirectory.getFileName().toString();
+                var pair = pairDirectory.getFileName().toString().replace('_', '/');
+                aggregate(exchange, pair, ONE_MINUTE, HOURLY);
+                aggregate(exchange, pair, HOURLY, DAILY);
+                for(var timeFrame : TIME_FRAMES) {
+                    deleteExpired(series(new Key(exchange, pair, timeFrame)), timeFrame, now);
+                }
+            }
+        }
+        LOGGER.debug("Candlesticks history compacted in {}ms", System.currentTimeMillis() - start);
+    }
+
+    // an hour or a day is aggregated only if all its candlesticks are stored, an incomplete one is missing from the target series.
+    // The candlesticks are only appended after the last one of a series, so an ended hour or day can't change and is read only once,
+    // a gap in the source series doesn't make the next compactions read it again from the start
+    private void aggregate(@NotNull String exchange, @NotNull String pair, @NotNull TimeFrame from, @NotNull TimeFrame to) {
+        var target = series(new Key(exchange, pair, to));
+        long after;
+        synchronized (target) {
+            after = null != target.last ? target.last.closeTime() + 1L : NONE;
+        }
+        var source = series(new Key(exchange, pair, from));
+        List<KLine> kLines;
+        long end;
+        synchronized (source) {
+            if(null == source.last) {
+                return;
+            }
+            end = source.last.closeTime() + 1L;
+            kLines = read(source, Math.max(after, source.aggregated), period(from));
+        }
+        long period = period(to);
+        var candlesticks = new ArrayList<Candlestick>();
+        Candlestick current = null;
+        long bucket = NONE;
+        long expectedOpenTime = NONE;
+        for(var kLine : kLines) {
+            long kLineBucket = Math.floorDiv(kLine.openTime(), period) * period;
+            if(kLineBucket + period > end) {
+                break; // not ended
+            }
+            if(kLineBucket != bucket) {
+                addIfComplete(candlesticks, current, expectedOpenTime);
+                bucket = kLineBucket;
+                current = null;
+                expectedOpenTime = kLineBucket;
+            }
+            if(kLine.openTime() != expectedOpenTime) {
+                expectedOpenTime = NONE; // missing candlestick, the remaining ones of this bucket are skipped
+                continue;
+            }
+            var candlestick = kLine.candlestick();
+            current = null == current ?
+                    new Candlestick(dateTime(bucket), dateTime(bucket + period - 1L), candlestick.open(), candlestick.close(), candlestick.high(), candlestick.low()) :
+                    new Candlestick(current.openTime(), current.closeTime(), current.open(), candlestick.close(),
+                            current.high().max(candlestick.high()), current.low().min(candlestick.low()));
+            expectedOpenTime = kLine.closeTime() + 1L;
+        }
+        addIfComplete(candlesticks, current, expectedOpenTime);
+        append(exchange, pair, to, candlesticks);
+        synchronized (source) {
+            source.aggregated = Math.max(source.aggregated, Math.floorDiv(end, period) * period);
+        }
+    }
+
+    // a bucket is complete if its candlesticks follow each other from its start up to its end
+    private static void addIfComplete(@NotNull List<Candlestick> candlesticks, @Nullable Candlestick bucket, long expectedOpenTime) {
+        if(null != bucket && NONE != expectedOpenTime && bucket.closeTime().toInstant().toEpochMilli() + 1L == expectedOpenTime) {
+            candlesticks.add(bucket);
+        }
+    }
+
+    private void deleteExpired(@NotNull Series series, @NotNull TimeFrame timeFrame, long now) {
+        var keep = retention.get(timeFrame);
+        if(null == keep) {
+            return;
+        }
+        long segmentPeriod = SEGMENT_PERIODS * period(timeFrame);
+        long expiration = now - keep.toMillis();
+        synchronized (series) {
+            for(var segments = series.segments.iterator(); segments.hasNext();) {
+                long segmentStart = segments.next();
+                if(segmentStart + segmentPeriod > expiration) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(series.segmentFile(segmentStart));
+                    segments.remove();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to delete the expired candlesticks history segment " + series.segmentFile(segmentStart), e);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private Series series(@NotNull Key key) {
+        return series.computeIfAbsent(key, k -> load(requireNonNull(directory).resolve(k.exchange())
+                .resolve(k.pair().replace('/', '_')).resolve(k.timeFrame().symbol)));
+    }
+
+    // loads the segments of a series and its last candlestick, an incomplete record written at the end is truncated
+    @NotNull
+    private static Series load(@NotNull Path seriesDirectory) {
+        var series = new Series(seriesDirectory);
+        if(!Files.isDirectory(seriesDirectory)) {
+            return series;
+        }
+        try (var files = Files.list(seriesDirectory)) {
+            files.map(file -> segmentStart(file.getFileName().toString())).filter(Objects::nonNull).forEach(series.segments::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list the candlesticks history directory " + seriesDirectory, e);
+        }
+        for(long segmentStart : series.segments.descendingSet()) {
+            var file = series.segmentFile(segmentStart);
+            var segment = read(file, segmentStart);
+            try (var channel = FileChannel.open(file, WRITE)) {
+                if(segment.validBytes() < channel.size()) {
+                    LOGGER.warn("Truncating the incomplete last record of candlesticks history segment {}", file);
+                    channel.truncate(segment.validBytes());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to truncate candlesticks history segment " + file, e);
+            }
+            if(!segment.kLines().isEmpty()) {
+                series.last = segment.kLines().getLast();
+                break;
+            }
+        }
+        return series;
+    }
+
+    // the stored candlesticks opened from this time, NONE for all of them
+    @NotNull
+    private static List<KLine> read(@NotNull Series series, long fromOpenTime, long period) {
+        if(null == series.last || series.last.openTime() < fromOpenTime) {
+            return Collections.emptyList();
+        }
+        var segments = NONE == fromOpenTime ? series.segments : series.segments.tailSet(segmentStart(fromOpenTime, period), true);
+        var kLines = new ArrayList<KLine>();
+        for(long segmentStart : segments) {
+            for(var kLine : read(series.segmentFile(segmentStart), segmentStart).kLines()) {
+                if(kLine.openTime() >= fromOpenTime) {
+                    kLines.add(kLine);
+                }
+            }
+        }
+        return kLines;
+    }
+
+    @NotNull
+    private static Segment read(@NotNull Path file, long segmentStart) {
+        try (var channel = FileChannel.open(file, READ)) {
+            long size = channel.size();
+            return 0L == size ? new Segment(Collections.emptyList(), 0) :
+                    decode(channel.map(FileChannel.MapMode.READ_ONLY, 0L, size), segmentStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read candlesticks history segment " + file, e);
+        }
+    }
+
+    private static void write(@NotNull Series series, long segmentStart, @NotNull ByteBuffer buffer, @Nullable KLine last) throws IOException {
+        if(buffer.position() > 0) {
+            var file = series.segmentFile(segmentStart);
+            Files.createDirectories(series.directory);
+            try (var channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+                buffer.flip();
+                while(buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            series.segments.add(segmentStart);
+            series.last = last;
+            buffer.clear();
+        }
+    }
+
+    @Nullable
+    private static KLine kLine(@NotNull Candlestick candlestick) {
+        try {
+            return KLine.of(candlestick);
+        } catch (ArithmeticException e) {
+            LOGGER.debug("Candlestick not stored, a price doesn't fit into a compact decimal : {}", candlestick);
+            return null;
+        }
+    }
+
+    // times are encoded as the delta from the previous open time, or the segment start, then the duration,
+    // the open price as a delta from the previous close price and the others from the close price, when their scales are the same
+    static void encode(@NotNull ByteBuffer buffer, @NotNull KLine kLine, @Nullable KLine previous, long segmentStart) {
+        putVarLong(buffer, zigZag(kLine.openTime() - (null != previous ? previous.openTime() : segmentStart)));
+        putVarLong(buffer, zigZag(kLine.closeTime() - kLine.openTime()));
+        if(null != previous) {
+            putPrice(buffer, kLine.openValue(), kLine.openScale(), previous.closeValue(), previous.closeScale());
+        } else {
+            putPrice(buffer, kLine.openValue(), kLine.openScale(), 0L, Byte.MIN_VALUE);
+        }
+        putPrice(buffer, kLine.closeValue(), kLine.closeScale(), kLine.openValue(), kLine.openScale());
+        putPrice(buffer, kLine.highValue(), kLine.highScale(), kLine.closeValue(), kLine.closeScale());
+        putPrice(buffer, kLine.lowValue(), kLine.lowScale(), kLine.closeValue(), kLine.closeScale());
+    }
+
+    // decodes the records of a segment up to the last complete one
+    @NotNull
+    static Segment decode(@NotNull ByteBuffer buffer, long segmentStart) {
+        var kLines = new ArrayList<KLine>();
+        var price = MutableDecimal.empty();
+        KLine previous = null;
+        int validBytes = 0;
+        try {
+            while(buffer.hasRemaining()) {
+                var kLine = KLine.empty();
+                kLine.openTime((null != previous ? previous.openTime() : segmentStart) + unZigZag(getVarLong(buffer)));
+                kLine.closeTime(kLine.openTime() + unZigZag(getVarLong(buffer)));
+                getPrice(buffer, price, null != previous ? previous.closeValue() : 0L);
+                kLine.openValue(price.mantissa());
+                kLine.openScale(price.exp());
+                getPrice(buffer, price, kLine.openValue());
+                kLine.closeValue(price.mantissa());
+                kLine.closeScale(price.exp());
+                getPrice(buffer, price, kLine.closeValue());
+                kLine.highValue(price.mantissa());
+                kLine.highScale(price.exp());
+                getPrice(buffer, price, kLine.closeValue());
+                kLine.lowValue(price.mantissa());
+                kLine.lowScale(price.exp());
+                kLines.add(kLine);
+                previous = kLine;
+                validBytes = buffer.position();
+            }
+        } catch (BufferUnderflowException e) {
+            LOGGER.debug("Incomplete last record in candlesticks history segment {}", segmentStart);
+        }
+        return new Segment(kLines, validBytes);
+    }
+
+    // the scale is written with a flag telling if the value is a delta from the reference value
+    private static void putPrice(@NotNull ByteBuffer buffer, long value, byte scale, long referenceValue, byte referenceScale) {
+        boolean delta = scale == referenceScale;
+        putVarLong(buffer, zigZag(scale) << 1 | (delta ? 1L : 0L));
+        putVarLong(buffer, zigZag(delta ? value - referenceValue : value));
+    }
+
+    private static void getPrice(@NotNull ByteBuffer buffer, @NotNull MutableDecimal price, long referenceValue) {
+        long header = getVarLong(buffer);
+        long value = unZigZag(getVarLong(buffer));
+        price.set(0L != (header & 1L) ? value + referenceValue : value, (byte) unZigZag(header >>> 1));
+    }
+
+    static void putVarLong(@NotNull ByteBuffer buffer, long value) {
+        while((value & ~0x7FL) != 0L) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(@NotNull ByteBuffer buffer) {
+        long value = 0L;
+        for(int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in candlesticks history");
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    static long segmentStart(long openTime, long period) {
+        long segmentPeriod = SEGMENT_PERIODS * period;
+        return Math.floorDiv(openTime, segmentPeriod) * segmentPeriod;
+    }
+
+    @Nullable
+    static Long segmentStart(@NotNull String fileName) {
+        if(fileName.endsWith(SEGMENT_EXTENSION)) {
+            try {
+                return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_EXTENSION.length()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static long period(@NotNull TimeFrame timeFrame) {
+        return switch (timeFrame) {
+            case ONE_MINUTE -> Duration.ofMinutes(1L).toMillis();
+            case HOURLY -> Duration.ofHours(1L).toMillis();
+            case DAILY -> Duration.ofDays(1L).toMillis();
+            default -> throw new IllegalArgumentException("Unsupported candlesticks history time frame : " + timeFrame);
+        };
+    }
+
+    // the sub directories
+    @NotNull
+    private static List<Path> list(@NotNull Path directory) {
+        try (var paths = Files.list(directory)) {
+            return paths.filter(Files::isDirectory).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list the candlesticks history directory " + directory, e);
+        }
+    }
+
+    @NotNull
+    private static ZonedDateTime dateTime(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(UTC);
+    }
+}
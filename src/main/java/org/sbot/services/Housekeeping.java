@@ -0,0 +1,210 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.ClientType;
+import org.sbot.entities.notifications.DeletedNotification;
+import org.sbot.entities.settings.UserSettings;
+import org.sbot.services.context.Context;
+import org.sbot.services.context.TransactionalContext;
+import org.sbot.services.dao.AlertsDao;
+import org.sbot.services.dao.UserSettingsDao.ClientTypeUserId;
+import org.sbot.services.discord.Discord;
+import org.sbot.utils.Dates;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.sbot.SpotBot.appProperties;
+import static org.sbot.entities.alerts.Alert.Type.range;
+import static org.sbot.entities.alerts.Alert.Type.trend;
+import static org.sbot.entities.alerts.Alert.isPrivate;
+import static org.sbot.entities.settings.UserSettings.DEFAULT_LOCALE;
+
+/*
+    Drops the expired notifications, settings and alerts, then compacts the candlesticks history, on its own thread and period.
+    The rows are deleted by chunks of at most CHUNK_SIZE, one transaction by chunk, so that a large backlog never holds
+    the database for long, and a chunk waits for the end of a running alerts check, after a pause following the previous one.
+ */
+public final class Housekeeping {
+
+    // rows deleted by a housekeeping pass, with its number of chunks, the time spent in their transactions and the pass duration
+    public record Pass(long notifications, long users, long servers, long alerts, long chunks, long busyMillis, long elapsedMillis) {
+        public long deleted() {
+            return notifications + users + servers + alerts;
+        }
+    }
+
+    private static final Logger LOGGER = LogManager.getLogger(Housekeeping.class);
+
+    public static final int DONE_ALERTS_DELAY_WEEKS = Math.max(1, appProperties.getIntOr("alerts.done.drop.delay.weeks", 1));
+    public static final int EXPIRED_ALERTS_DELAY_WEEKS = Math.max(1, appProperties.getIntOr("alerts.expired.drop.delay.weeks", 2));
+    private static final int NOTIFICATIONS_DELETE_DELAY_MONTHS = Math.max(1, appProperties.getIntOr("notifications.delete.delay.months", 6));
+    private static final int USERS_LAST_ACCESS_DELAY_MONTHS = Math.max(1, appProperties.getIntOr("settings.users.last-access.drop.delay.months", 6));
+    private static final int SERVERS_LAST_ACCESS_DELAY_MONTHS = Math.max(1, appProperties.getIntOr("settings.servers.last-access.drop.delay.months", 12));
+    static final int CHUNK_SIZE = Math.max(1, appProperties.getIntOr("housekeeping.chunk.size", 500));
+    private static final int CHUNK_PAUSE_MILLIS = Math.max(0, appProperties.getIntOr("housekeeping.chunk.pause.millis", 100));
+    private static final int PERIOD_MINUTES = Math.max(1, appProperties.getIntOr("housekeeping.period.minutes", 60));
+    private static final long CHECK_WAIT_NANOS = MILLISECONDS.toNanos(Math.max(10, CHUNK_PAUSE_MILLIS));
+    // when several nodes share the database, the node owning this key cleans it up
+    static final String SHARD_KEY = "housekeeping";
+
+    // chunks done by a pass and the time spent in their transactions
+    private static final class Progress {
+        private long chunks;
+        private long busyNanos;
+    }
+
+    private final Context context;
+    private volatile Pass lastPass;
+    private Thread thread;
+
+    public Housekeeping(@NotNull Context context) {
+        this.context = requireNonNull(context);
+    }
+
+    // the last completed pass, or null if none
+    @Nullable
+    public Pass lastPass() {
+        return lastPass;
+    }
+
+    // starts the housekeeping thread, which does a first pass at once, then one by period
+    public synchronized void start() {
+        if(null == thread) {
+            thread = Thread.ofVirtual().name("housekeeping").start(() -> {
+                while(!Thread.currentThread().isInterrupted()) {
+                    run();
+                    LockSupport.parkNanos(Duration.ofMinutes(PERIOD_MINUTES).toNanos());
+                }
+            });
+        }
+    }
+
+    // one pass over the expired data, a failing chunk is logged and its kind of data skipped until the next pass
+    @NotNull
+    Pass run() {
+        long start = System.nanoTime();
+        if(!context.shardsRing().owns(SHARD_KEY)) {
+            LOGGER.debug("Housekeeping of the database done by another node");
+            context.candlesticksHistory().compactIfDue(); // the history is local to each node
+            return lastPass = new Pass(0L, 0L, 0L, 0L, 0L, 0L, NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        ZonedDateTime now = Dates.nowUtc(context.clock());
+        var progress = new Progress();
+
+        ZonedDateTime notificationsExpirationDate = now.minusMonths(NOTIFICATIONS_DELETE_DELAY_MONTHS);
+        long notifications = deleteByChunks("notifications", progress, txCtx ->
+                txCtx.notificationsDao().deleteHavingCreationDateBefore(notificationsExpirationDate, CHUNK_SIZE));
+
+        ZonedDateTime usersExpirationDate = now.minusMonths(USERS_LAST_ACCESS_DELAY_MONTHS);
+        ZonedDateTime serversExpirationDate = now.minusMonths(SERVERS_LAST_ACCESS_DELAY_MONTHS);
+        long users = 0L;
+        long servers = 0L;
+        for (var clientType : ClientType.values()) {
+            users += deleteByChunks("users", progress, txCtx ->
+                    txCtx.userSettingsDao().deleteHavingLastAccessBeforeAndNotInAlerts(clientType, usersExpirationDate, CHUNK_SIZE));
+            servers += deleteByChunks("servers", progress, txCtx ->
+                    txCtx.serverSettingsDao().deleteHavingLastAccessBeforeAndNotInAlerts(clientType, serversExpirationDate, CHUNK_SIZE));
+        }
+
+        // filter by repeat < 0 instead of listeningDate null to distinguish case where user disabled the alert but want to keep it
+        ZonedDateTime doneExpirationDate = now.minusWeeks(DONE_ALERTS_DELAY_WEEKS);
+        long alerts = deleteAlertsByChunks("done alerts", progress, now, (alertsDao, alertsDeleter) ->
+                alertsDao.fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(doneExpirationDate, alertsDeleter));
+        ZonedDateTime expirationDate = now.minusWeeks(EXPIRED_ALERTS_DELAY_WEEKS);
+        alerts += deleteAlertsByChunks("expired trend alerts", progress, now, (alertsDao, alertsDeleter) ->
+                alertsDao.fetchAlertsWithoutMessageByTypeHavingToDateBefore(trend, expirationDate, alertsDeleter));
+        alerts += deleteAlertsByChunks("expired range alerts", progress, now, (alertsDao, alertsDeleter) ->
+                alertsDao.fetchAlertsWithoutMessageByTypeHavingToDateBefore(range, expirationDate, alertsDeleter));
+        if(alerts > 0L) {
+            context.notificationService().sendNotifications();
+        }
+        context.candlesticksHistory().compactIfDue();
+
+        var pass = new Pass(notifications, users, servers, alerts, progress.chunks,
+                NANOSECONDS.toMillis(progress.busyNanos), NANOSECONDS.toMillis(System.nanoTime() - start));
+        lastPass = pass;
+        LOGGER.info("Housekeeping done, {}ms ({}ms in {} chunks). Deleted {} notifications, {} users, {} servers, {} alerts",
+                pass.elapsedMillis(), pass.busyMillis(), pass.chunks(), pass.notifications(), pass.users(), pass.servers(), pass.alerts());
+        return pass;
+    }
+
+    // runs the chunk deleter in its own transaction until it deletes less than a chunk, returns the total deleted
+    private long deleteByChunks(@NotNull String kind, @NotNull Progress progress, @NotNull ToLongFunction<TransactionalContext> chunkDeleter) {
+        long total = 0L;
+        try {
+            long deleted;
+            do {
+                pause(progress.chunks > 0L);
+                long begin = System.nanoTime();
+                deleted = context.transactional(chunkDeleter::applyAsLong);
+                progress.busyNanos += System.nanoTime() - begin;
+                progress.chunks++;
+                total += deleted;
+                LOGGER.debug("Housekeeping chunk {} deleted {} {}, {} so far", progress.chunks, deleted, kind, total);
+            } while(deleted >= CHUNK_SIZE && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            LOGGER.error("Exception thrown while deleting the " + kind + " by chunks, " + total + " deleted", e);
+        }
+        return total;
+    }
+
+    // the alerts fetched by a chunk are read up to its size, the dao returns the number of alerts read, that are deleted
+    private long deleteAlertsByChunks(@NotNull String kind, @NotNull Progress progress, @NotNull ZonedDateTime now,
+                                      @NotNull BiFunction<AlertsDao, Consumer<Stream<Alert>>, Long> alertsFetcher) {
+        return deleteByChunks(kind, progress, txCtx -> {
+            var alertsDeleter = alertDeleter(now, txCtx);
+            return alertsFetcher.apply(txCtx.alertsDao(), alerts -> alertsDeleter.accept(alerts.limit(CHUNK_SIZE)));
+        });
+    }
+
+    @NotNull
+    private Consumer<Stream<Alert>> alertDeleter(@NotNull ZonedDateTime now, @NotNull TransactionalContext txCtx) {
+        var alertsDao = txCtx.alertsDao();
+        var notificationsDao = txCtx.notificationsDao();
+        var userSettingsDao = txCtx.userSettingsDao();
+        var userLocales = new HashMap<ClientTypeUserId, Locale>();
+        var guildNames = new HashMap<Long, String>();
+        Function<ClientTypeUserId, Locale> userLocale = id -> userSettingsDao.getUserSettings(id.clientType(), id.userId())
+                .map(UserSettings::locale).orElse(DEFAULT_LOCALE);
+        Function<Long, String> guildName = id -> context.discord().guildServer(id).map(Discord::guildName).orElse("unknown");
+        return alerts -> alertsDao.delete(deleter ->
+                        alerts.forEach(alert -> {
+                            var locale = userLocales.computeIfAbsent(ClientTypeUserId.of(alert.clientType, alert.userId), userLocale);
+                            var serverName = switch (alert.clientType) {
+                                case DISCORD -> isPrivate(alert.serverId) ? null : guildNames.computeIfAbsent(alert.serverId, guildName);
+                            };
+                            notificationsDao.addNotification(DeletedNotification.of(alert.clientType, now, locale, alert.userId, alert.id, alert.type, alert.pair, serverName, 1L, true));
+                            deleter.batchId(alert.id);
+                        }));
+    }
+
+    // leaves the database to the other threads after a chunk, then waits for the end of a running alerts check before the next one
+    private void pause(boolean afterChunk) {
+        if(afterChunk) {
+            if(CHUNK_PAUSE_MILLIS > 0) {
+                LockSupport.parkNanos(MILLISECONDS.toNanos(CHUNK_PAUSE_MILLIS));
+            } else {
+                Thread.yield();
+            }
+        }
+        while(context.alertsWatcher().isChecking() && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(CHECK_WAIT_NANOS);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.chart.Candlestick;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+import static java.util.Objects.requireNonNull;
+import static org.sbot.SpotBot.appProperties;
+
+/*
+    In memory last candlestick of each exchange and pair, the crossing of an alert band is detected from the side of this candlestick
+    to the band and the side of the new ones. The last_candlesticks table is only a checkpoint of this cache : it is written once
+    the cached candlestick is newer than the stored one by the checkpoint period, and read back for the pairs not in memory, like after a restart.
+    An outdated checkpoint only makes the next check fetch and match again some candlesticks, matched alerts being filtered by their listening date.
+ */
+public final class LastCandlesticksCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(LastCandlesticksCache.class);
+
+    private static final int CHECKPOINT_PERIOD_MINUTES = Math.max(0, appProperties.getIntOr("alerts.last-candlestick.checkpoint.minutes", 60));
+
+    // last candlestick of a pair, and the one stored in the database if any
+    public record LastCandlesticks(@NotNull Candlestick last, @Nullable Candlestick stored) {
+        public LastCandlesticks {
+            requireNonNull(last);
+        }
+    }
+
+    private final Map<String, LastCandlesticks> candlesticks = new ConcurrentHashMap<>();
+    private final Duration checkpointPeriod;
+
+    public LastCandlesticksCache() {
+        this(Duration.ofMinutes(CHECKPOINT_PERIOD_MINUTES));
+    }
+
+    LastCandlesticksCache(@NotNull Duration checkpointPeriod) {
+        if(checkpointPeriod.isNegative()) {
+            throw new IllegalArgumentException("Invalid checkpoint period : " + checkpointPeriod);
+        }
+        this.checkpointPeriod = checkpointPeriod;
+    }
+
+    @NotNull
+    private static String key(@NotNull String exchange, @NotNull String pair) {
+        return exchange + ':' + pair;
+    }
+
+    // returns the last candlesticks of this exchange and pair, or null if they were not loaded yet
+    @Nullable
+    public LastCandlesticks get(@NotNull String exchange, @NotNull String pair) {
+        return candlesticks.get(key(exchange, pair));
+    }
+
+    // true if the last candlestick should be written to the database
+    public boolean isCheckpointDue(@Nullable Candlestick stored, @NotNull Candlestick last) {
+        return null == stored || !stored.closeTime().plus(checkpointPeriod).isAfter(last.closeTime());
+    }
+
+    // this should be called once the transaction that may have stored a candlestick is committed
+    public void put(@NotNull String exchange, @NotNull String pair, @NotNull Candlestick last, @Nullable Candlestick stored) {
+        var lastCandlesticks = new LastCandlesticks(last, stored);
+        candlesticks.merge(key(exchange, pair), lastCandlesticks, (previous, update) ->
+                previous.last().closeTime().isAfter(update.last().closeTime()) ?
+                        new LastCandlesticks(previous.last(), update.stored()) : update);
+    }
+
+    // drop the pairs that are not checked anymore, their stored candlestick are deleted
+    public void retain(@NotNull Map<String, Set<String>> activeExchangePairs) {
+        retain((exchange, pair) -> {
+            var pairs = activeExchangePairs.get(exchange);
+            return null != pairs && pairs.contains(pair);
+        });
+    }
+
+    // drop the pairs of the exchanges this filter rejects, like the ones checked by another node
+    public void retain(@NotNull BiPredicate<String, String> exchangePairFilter) {
+        int size = candlesticks.size();
+        candlesticks.keySet().removeIf(key -> {
+            int separator = key.indexOf(':');
+            return !exchangePairFilter.test(key.substring(0, separator), key.substring(separator + 1));
+        });
+        LOGGER.debug("Removed {} unused last candlesticks from the cache", size - candlesticks.size());
+    }
+}
@@ -1,20 +1,39 @@
 package org.sbot.services;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.CompiledAlert;
 import org.sbot.entities.alerts.RangeAlert;
+import org.sbot.entities.alerts.RangeAlertsColumns;
 import org.sbot.entities.alerts.RemainderAlert;
 import org.sbot.entities.alerts.TrendAlert;
 import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.KLine;
 import org.sbot.services.context.Context;
+import org.sbot.services.dao.AlertsListener;
+import org.sbot.utils.MutableDecimal;
 
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
+import static org.sbot.SpotBot.appProperties;
+import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.NOT_MATCHING;
 
-public final class MatchingService {
+public final class MatchingService implements AlertsListener {
+
+    private static final Logger LOGGER = LogManager.getLogger(MatchingService.class);
 
     public record MatchingAlert(@NotNull Alert alert, @NotNull MatchingStatus status, @Nullable Candlestick matchingCandlestick) {
 
@@ -45,10 +64,141 @@ public final class MatchingService {
         }
     }
 
+    // candlesticks to match, with their klines copies when the prices fit into compact decimals,
+    // and the envelope of these klines : a kline from the first open time to the last close time, with their lowest and highest prices
+    public record Prices(@NotNull List<Candlestick> candlesticks, @Nullable Candlestick previousCandlestick,
+                         @Nullable List<KLine> kLines, @Nullable KLine previousKLine, @Nullable KLine envelope) {
+
+        public Prices {
+            requireNonNull(candlesticks);
+            if(null != kLines && kLines.size() != candlesticks.size()) {
+                throw new IllegalArgumentException("klines and candlesticks sizes mismatch");
+            }
+        }
+
+        @NotNull
+        public static Prices of(@NotNull List<Candlestick> candlesticks, @Nullable Candlestick previousCandlestick) {
+            try {
+                var kLines = new ArrayList<KLine>(candlesticks.size());
+                candlesticks.forEach(candlestick -> kLines.add(KLine.of(candlestick)));
+                var previousKLine = null != previousCandlestick ? KLine.of(previousCandlestick) : null;
+                return new Prices(candlesticks, previousCandlestick, kLines, previousKLine, envelopeOf(kLines, previousKLine));
+            } catch (ArithmeticException e) {
+                LOGGER.debug("Candlesticks prices don't fit into compact decimals, klines matching disabled", e);
+                return new Prices(candlesticks, previousCandlestick, null, null, null);
+            }
+        }
+
+        // the previous kline is part of the envelope as an alert can match by crossing its prices
+        @Nullable
+        static KLine envelopeOf(@NotNull List<KLine> kLines, @Nullable KLine previousKLine) {
+            if(kLines.isEmpty()) {
+                return null;
+            }
+            var envelope = KLine.empty().withValues(null != previousKLine ? previousKLine : kLines.getFirst());
+            var price = MutableDecimal.empty();
+            for(var kLine : kLines) {
+                envelope.openTime(Math.min(envelope.openTime(), kLine.openTime()));
+                envelope.closeTime(Math.max(envelope.closeTime(), kLine.closeTime()));
+                if(envelope.getLow(price).compareTo(kLine.lowValue(), kLine.lowScale()) > 0) {
+                    envelope.lowValue(kLine.lowValue());
+                    envelope.lowScale(kLine.lowScale());
+                }
+                if(envelope.getHigh(price).compareTo(kLine.highValue(), kLine.highScale()) < 0) {
+                    envelope.highValue(kLine.highValue());
+                    envelope.highScale(kLine.highScale());
+                }
+            }
+            var last = kLines.getLast();
+            envelope.closeValue(last.closeValue());
+            envelope.closeScale(last.closeScale());
+            return envelope;
+        }
+    }
+
+    // scratch decimals of the klines matching, reused by a thread for all the alerts it matches
+    public static final class MatchingBuffers {
+        public final MutableDecimal low = MutableDecimal.empty();
+        public final MutableDecimal high = MutableDecimal.empty();
+        public final MutableDecimal lowMargin = MutableDecimal.empty();
+        public final MutableDecimal highMargin = MutableDecimal.empty();
+        public int matchingIndex; // index of the matching kline, set when an alert matches
+    }
+
+    private static final ThreadLocal<MatchingBuffers> MATCHING_BUFFERS = ThreadLocal.withInitial(MatchingBuffers::new);
+
+    // compiled form of an alert with the prices it was compiled from, the alerts are loaded again on each check
+    // so a form is reused as long as the loaded alert has the same dates and prices, compared without allocation
+    private record CachedForm(@NotNull CompiledAlert compiled, @NotNull BigDecimal fromPrice, @NotNull BigDecimal toPrice, @NotNull BigDecimal margin) {
+
+        private boolean isFormOf(@NotNull Alert alert) {
+            return compiled.hasDatesOf(alert) && fromPrice.equals(alert.fromPrice) && toPrice.equals(alert.toPrice) && margin.equals(alert.margin);
+        }
+    }
+
+    public static final int MATCHING_BATCH_SIZE = 4096;
+    private static final int COLUMNAR_MATCHING_THRESHOLD = Math.max(1, appProperties.getIntOr("alerts.matching.columnar.threshold", 1024));
+    private static final int MATCHING_PARALLELISM = Math.max(1, appProperties.getIntOr("alerts.matching.parallelism", 1));
+    private static final int PARALLEL_MATCHING_CHUNK_SIZE = Math.max(1, appProperties.getIntOr("alerts.matching.parallel.chunk.size", 512));
+
     private final Context context;
+    private final int columnarThreshold;
+    private final int parallelChunkSize;
+    @Nullable
+    private final ForkJoinPool matchingPool; // null when the matching is sequential
+    private final Map<Long, CachedForm> compiledAlerts = new ConcurrentHashMap<>();
 
     public MatchingService(@NotNull Context context) {
+        this(context, COLUMNAR_MATCHING_THRESHOLD, MATCHING_PARALLELISM, PARALLEL_MATCHING_CHUNK_SIZE);
+    }
+
+    MatchingService(@NotNull Context context, int columnarThreshold) {
+        this(context, columnarThreshold, 1, PARALLEL_MATCHING_CHUNK_SIZE);
+    }
+
+    MatchingService(@NotNull Context context, int columnarThreshold, int parallelism, int parallelChunkSize) {
         this.context = requireNonNull(context);
+        this.columnarThreshold = columnarThreshold;
+        if(parallelChunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid parallel matching chunk size : " + parallelChunkSize);
+        }
+        this.parallelChunkSize = parallelChunkSize;
+        this.matchingPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    // match a list of alerts by chunks, the left chunk is forked while the right one is computed by the current thread.
+    // chunk results are concatenated in the alerts order, so the matching alerts are the same and in the same order as a sequential match
+    private final class MatchingTask extends RecursiveTask<List<MatchingAlert>> {
+        private final ZonedDateTime now;
+        private final List<? extends Alert> alerts;
+        private final Prices prices;
+
+        private MatchingTask(@NotNull ZonedDateTime now, @NotNull List<? extends Alert> alerts, @NotNull Prices prices) {
+            this.now = now;
+            this.alerts = alerts;
+            this.prices = prices;
+        }
+
+        @Override
+        protected List<MatchingAlert> compute() {
+            if(alerts.size() <= parallelChunkSize) {
+                return alerts.stream().map(alert -> match(now, alert, prices)).filter(Objects::nonNull).toList();
+            }
+            int middle = alerts.size() / 2;
+            var left = new MatchingTask(now, alerts.subList(0, middle), prices);
+            left.fork();
+            var right = new MatchingTask(now, alerts.subList(middle, alerts.size()), prices).compute();
+            var matchingAlerts = left.join();
+            if(right.isEmpty()) {
+                return matchingAlerts;
+            } else if(matchingAlerts.isEmpty()) {
+                return right;
+            }
+            var merged = new ArrayList<MatchingAlert>(matchingAlerts.size() + right.size());
+            merged.addAll(matchingAlerts);
+            merged.addAll(right);
+            return merged;
+        }
     }
 
     public MatchingAlert match(@NotNull ZonedDateTime now, @NotNull Alert alert, @NotNull List<Candlestick> candlesticks, @Nullable Candlestick previousCandlestick) {
@@ -59,4 +209,102 @@ public final class MatchingService {
             default -> throw new IllegalArgumentException("Unexpected alert type : " + alert);
         };
     }
+
+    // this match the range and trend alerts on the klines without allocation once their compiled forms are cached, apart from the boxed id lookup,
+    // a MatchingAlert is only created on a match, otherwise this returns null.
+    // Alerts or prices not available as compact decimals fall back to the candlesticks matching
+    @Nullable
+    public MatchingAlert match(@NotNull ZonedDateTime now, @NotNull Alert alert, @NotNull Prices prices) {
+        var kLines = prices.kLines();
+        var compiled = null != kLines ? compiled(alert) : null;
+        if(null == kLines || null == compiled) {
+            var matchingAlert = match(now, alert, prices.candlesticks(), prices.previousCandlestick());
+            return matchingAlert.hasMatch() ? matchingAlert : null;
+        }
+        var buffers = MATCHING_BUFFERS.get();
+        var status = match(compiled, kLines, prices, buffers);
+        return status.notMatching() ? null : new MatchingAlert(alert, status, prices.candlesticks().get(buffers.matchingIndex));
+    }
+
+    // returns the cached compiled form of this alert, the alert is only compiled on its first match or after a change
+    @Nullable
+    CompiledAlert compiled(@NotNull Alert alert) {
+        if(alert instanceof RemainderAlert) {
+            return null;
+        }
+        var cached = compiledAlerts.get(alert.id);
+        if(null != cached && cached.isFormOf(alert)) {
+            return cached.compiled();
+        }
+        var compiled = alert.compile();
+        if(null != compiled) {
+            compiledAlerts.put(alert.id, new CachedForm(compiled, alert.fromPrice, alert.toPrice, alert.margin));
+        }
+        return compiled;
+    }
+
+    @Override
+    public void onDelete(long alertId) {
+        compiledAlerts.remove(alertId);
+    }
+
+    @Override
+    public void onInvalidate() {
+        compiledAlerts.clear(); // deleted alerts may be unknown
+    }
+
+    // true if this compiled alert may match the prices, that is if it matches their klines or if they are not available
+    public boolean mayMatch(@NotNull CompiledAlert alert, @NotNull Prices prices) {
+        var kLines = prices.kLines();
+        return null == kLines || !match(alert, kLines, prices, MATCHING_BUFFERS.get()).notMatching();
+    }
+
+    // alerts that can't reach the klines envelope are rejected before walking the klines
+    @NotNull
+    private static MatchingAlert.MatchingStatus match(@NotNull CompiledAlert alert, @NotNull List<KLine> kLines, @NotNull Prices prices, @NotNull MatchingBuffers buffers) {
+        var envelope = prices.envelope();
+        return null == envelope || alert.mayMatch(envelope, buffers) ? alert.match(kLines, prices.previousKLine(), buffers) : NOT_MATCHING;
+    }
+
+    // match a batch of alerts and returns the matching ones. When the batch has enough range alerts,
+    // they are first filtered by a columnar scan on the klines, then the candidates are matched one by one,
+    // by chunks on the matching pool when a parallelism is configured
+    @NotNull
+    public Stream<MatchingAlert> match(@NotNull ZonedDateTime now, @NotNull List<Alert> alerts, @NotNull Prices prices) {
+        requireNonNull(now); requireNonNull(prices);
+        var kLines = prices.kLines();
+        if(null != kLines && alerts.size() >= columnarThreshold) {
+            // the cached forms of the range alerts are scanned, the candidates then get the same forms for their matching
+            var rangeAlerts = new ArrayList<Alert>(alerts.size());
+            var compiledRanges = new ArrayList<CompiledAlert.Range>(alerts.size());
+            var otherAlerts = new ArrayList<Alert>();
+            for(var alert : alerts) {
+                if(alert instanceof RangeAlert && compiled(alert) instanceof CompiledAlert.Range compiled) {
+                    rangeAlerts.add(alert);
+                    compiledRanges.add(compiled);
+                } else {
+                    otherAlerts.add(alert);
+                }
+            }
+            var columns = compiledRanges.size() >= columnarThreshold ? RangeAlertsColumns.of(compiledRanges, kLines, prices.previousKLine()) : null;
+            if(null != columns) {
+                var candidates = columns.scan();
+                LOGGER.debug("Columnar scan of {} range alerts on {} klines found {} candidates", rangeAlerts.size(), kLines.size(), candidates.cardinality());
+                var alertsStream = Stream.concat(candidates.stream().mapToObj(rangeAlerts::get), otherAlerts.stream());
+                return null != matchingPool ? matchParallel(now, alertsStream.toList(), prices) :
+                        alertsStream.map(alert -> match(now, alert, prices)).filter(Objects::nonNull);
+            }
+        }
+        return null != matchingPool ? matchParallel(now, alerts, prices) :
+                alerts.stream().map(alert -> match(now, alert, prices)).filter(Objects::nonNull);
+    }
+
+    @NotNull
+    private Stream<MatchingAlert> matchParallel(@NotNull ZonedDateTime now, @NotNull List<? extends Alert> alerts, @NotNull Prices prices) {
+        if(alerts.size() <= parallelChunkSize) {
+            return alerts.stream().map(alert -> match(now, alert, prices)).filter(Objects::nonNull);
+        }
+        LOGGER.debug("Parallel matching of {} alerts by chunks of {}", alerts.size(), parallelChunkSize);
+        return requireNonNull(matchingPool).invoke(new MatchingTask(now, alerts, prices)).stream();
+    }
 }
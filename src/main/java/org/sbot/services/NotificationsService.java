@@ -41,6 +41,7 @@ import static org.sbot.entities.alerts.Alert.Field.USER_ID;
 import static org.sbot.entities.alerts.ClientType.DISCORD;
 import static org.sbot.entities.notifications.Notification.NotificationStatus.*;
 import static org.sbot.entities.notifications.RecipientType.DISCORD_USER;
+import static org.sbot.services.ShardsRing.SHARDED;
 
 public final class NotificationsService {
 
@@ -58,7 +59,9 @@ public final class NotificationsService {
     public NotificationsService(@NotNull Context context) {
         this.context = requireNonNull(context);
         waitAndSendNotifications = this::waitAndSendNotifications; // store a single instance of this method ref
-        sendNewNotifications(); // process any pending notifications on app start
+        if(!SHARDED) { // with sharding, the pending notifications of this node are sent once it joined the ring
+            sendNewNotifications(); // process any pending notifications on app start
+        }
         // this can't be done directly by notificationsThread due to a jdbi init thread sync issue (he should sleep a bit otherwise)
         Thread.ofVirtual().name("Notifications handler").start(this::notificationsThread);
     }
@@ -108,7 +111,8 @@ public final class NotificationsService {
     List<Notification> loadNewNotifications() {
         return context.transactional(txCtx -> {
             var dao = txCtx.notificationsDao();
-            var newNotifications = dao.getNewNotifications(BATCH_SIZE);
+            // each node sends the notifications of the recipients it is in charge of
+            var newNotifications = SHARDED ? dao.getNewNotifications(BATCH_SIZE, context.shardsRing()::owns) : dao.getNewNotifications(BATCH_SIZE);
             dao.statusBatchUpdate(SENDING, updater -> newNotifications.forEach(notification -> updater.batchId(notification.id)));
             return newNotifications;
         }, READ_UNCOMMITTED, false);
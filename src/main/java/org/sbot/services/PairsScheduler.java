@@ -0,0 +1,169 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.services.dao.AlertsDao.UpdateField;
+import org.sbot.services.dao.AlertsListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static java.util.Collections.emptySet;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.requireNonNull;
+import static org.sbot.SpotBot.appProperties;
+
+/*
+    Adaptive schedule of the checks of the polled pairs. A pair is checked again after an interval that grows with the distance
+    from its last price to the nearest price its alerts can reach, scaled by its recent volatility, so the pairs about to reach
+    an alert are checked every min interval and the pairs far from any alert every max interval, sparing their candlesticks requests.
+    A volatility move grows with the square root of the time, the interval is the time for the distance to be a few volatility moves.
+    The next check of a pair is reset by any change of its alerts. Without max interval every pair is always due.
+ */
+public final class PairsScheduler implements AlertsListener {
+
+    private static final Logger LOGGER = LogManager.getLogger(PairsScheduler.class);
+
+    private static final int MIN_INTERVAL_MINUTES = Math.max(1, appProperties.getIntOr("alerts.check.adaptive.min-interval.minutes", 1));
+    // 0 disables the adaptive scheduling, the pairs are checked at each check period
+    private static final int MAX_INTERVAL_MINUTES = Math.max(0, appProperties.getIntOr("alerts.check.adaptive.max-interval.minutes", 60));
+
+    // number of volatility moves the distance must span before the next check
+    static final double SAFETY_FACTOR = 3d;
+    // the volatility of a pair is the max of the one of its last prices and the previous one decayed by this factor
+    static final double VOLATILITY_DECAY = 0.5d;
+
+    private record Key(@NotNull String exchange, @NotNull String pair) {}
+
+    private record Due(@NotNull Key key, long atMs) {}
+
+    private static final class Schedule {
+        private long nextCheckMs;
+        private double volatility;
+    }
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final Map<Key, Schedule> schedules = new HashMap<>();
+    // next checks ordered by time, the ones outdated by a new schedule are removed once they reach the head
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(comparingLong(Due::atMs));
+
+    public PairsScheduler() {
+        this(Duration.ofMinutes(MIN_INTERVAL_MINUTES), Duration.ofMinutes(Math.max(MIN_INTERVAL_MINUTES, MAX_INTERVAL_MINUTES)), MAX_INTERVAL_MINUTES > 0);
+    }
+
+    PairsScheduler(@NotNull Duration minInterval, @NotNull Duration maxInterval, boolean enabled) {
+        if(!minInterval.isPositive() || maxInterval.compareTo(minInterval) < 0) {
+            throw new IllegalArgumentException("Invalid check intervals : " + minInterval + ", " + maxInterval);
+        }
+        this.minIntervalMs = minInterval.toMillis();
+        this.maxIntervalMs = enabled ? maxInterval.toMillis() : 0L;
+    }
+
+    public boolean isEnabled() {
+        return maxIntervalMs > 0L;
+    }
+
+    // true if this pair has to be checked now, a pair without schedule is always due
+    public synchronized boolean isDue(@NotNull String exchange, @NotNull String pair, long nowMs) {
+        if(!isEnabled()) {
+            return true;
+        }
+        var schedule = schedules.get(new Key(exchange, pair));
+        return null == schedule || schedule.nextCheckMs <= nowMs;
+    }
+
+    // schedules the next check of this pair from its last prices and the distance of the last one to the nearest alert interval,
+    // returns the next check time
+    public synchronized long schedule(@NotNull String exchange, @NotNull String pair, long nowMs, @NotNull List<Candlestick> prices, double distance) {
+        requireNonNull(prices);
+        return schedule(exchange, pair, nowMs, schedule -> schedule.volatility = Math.max(volatility(prices), schedule.volatility * VOLATILITY_DECAY), distance);
+    }
+
+    // schedules the next check of this pair from the distance of its last price, keeping its volatility,
+    // for a price that has no range of its own, like a ticker last price. A pair without schedule stays due
+    public synchronized long schedule(@NotNull String exchange, @NotNull String pair, long nowMs, double distance) {
+        return isEnabled() && !schedules.containsKey(new Key(exchange, pair)) ? nowMs :
+                schedule(exchange, pair, nowMs, schedule -> {}, distance);
+    }
+
+    private long schedule(@NotNull String exchange, @NotNull String pair, long nowMs, @NotNull Consumer<Schedule> volatilityUpdate, double distance) {
+        if(!isEnabled()) {
+            return nowMs;
+        }
+        var key = new Key(exchange, pair);
+        var schedule = schedules.computeIfAbsent(key, k -> new Schedule());
+        volatilityUpdate.accept(schedule);
+        schedule.nextCheckMs = nowMs + interval(distance, schedule.volatility);
+        queue.add(new Due(key, schedule.nextCheckMs));
+        LOGGER.debug("Next check of pair [{}] on {} in {}s, distance to alerts : {}, volatility : {}",
+                pair, exchange, (schedule.nextCheckMs - nowMs) / 1000L, distance, schedule.volatility);
+        return schedule.nextCheckMs;
+    }
+
+    // time of the earliest scheduled check, or null if none
+    @Nullable
+    public synchronized Instant nextCheck() {
+        for(var due = queue.peek(); null != due; due = queue.peek()) {
+            var schedule = schedules.get(due.key());
+            if(null != schedule && schedule.nextCheckMs == due.atMs()) {
+                return Instant.ofEpochMilli(due.atMs());
+            }
+            queue.poll();
+        }
+        return null;
+    }
+
+    // removes the schedules of the pairs no longer checked
+    public synchronized void retain(@NotNull Map<String, Set<String>> exchangePairs) {
+        schedules.keySet().removeIf(key -> !exchangePairs.getOrDefault(key.exchange(), emptySet()).contains(key.pair()));
+    }
+
+    long interval(double distance, double volatility) {
+        if(!(distance > 0d)) {
+            return minIntervalMs;
+        } else if(!(volatility > 0d)) {
+            return maxIntervalMs;
+        }
+        double minutes = Math.pow(distance / (SAFETY_FACTOR * volatility), 2d);
+        return Math.clamp((long) (minutes * Duration.ofMinutes(1L).toMillis()), minIntervalMs, maxIntervalMs);
+    }
+
+    // the largest price range of these candlesticks by minute, the range of a longer candlestick is divided by the square root of its minutes
+    static double volatility(@NotNull List<Candlestick> prices) {
+        double volatility = 0d;
+        for(var candlestick : prices) {
+            long durationMs = Duration.between(candlestick.openTime(), candlestick.closeTime()).toMillis() + 1L;
+            double minutes = Math.max(1d, durationMs / (double) Duration.ofMinutes(1L).toMillis());
+            volatility = Math.max(volatility, candlestick.high().subtract(candlestick.low()).doubleValue() / Math.sqrt(minutes));
+        }
+        return volatility;
+    }
+
+    private synchronized void reset(@NotNull Alert alert) {
+        requireNonNull(alert);
+        schedules.remove(new Key(alert.exchange, alert.pair));
+    }
+
+    @Override
+    public void onAdd(@NotNull Alert alert) {
+        reset(alert);
+    }
+
+    @Override
+    public void onUpdate(@NotNull Alert alert, @NotNull Set<UpdateField> fields) {
+        reset(alert);
+    }
+
+    @Override
+    public synchronized void onInvalidate() {
+        schedules.clear();
+        queue.clear();
+    }
+}
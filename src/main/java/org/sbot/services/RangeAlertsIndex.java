@@ -0,0 +1,32 @@
+package org.sbot.services;
+
+import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.RangeAlert;
+
+import java.math.BigDecimal;
+
+import static org.sbot.entities.alerts.Alert.Type.range;
+
+// index of the range alerts price intervals [fromPrice - margin, toPrice + margin], they don't depend on time
+public final class RangeAlertsIndex extends AlertsIndex {
+
+    public RangeAlertsIndex() {
+        super(range, Long.MAX_VALUE);
+    }
+
+    @NotNull
+    @Override
+    protected double[] intervalOf(@NotNull Alert alert, long fromMs, long toMs) {
+        return intervalOf((RangeAlert) alert);
+    }
+
+    @NotNull
+    static double[] intervalOf(@NotNull RangeAlert alert) {
+        BigDecimal low = alert.fromPrice.min(alert.toPrice);
+        BigDecimal high = alert.fromPrice.max(alert.toPrice);
+        BigDecimal margin = alert.margin.abs();
+        // widen the bounds to not lose any alert on the decimal to double conversion
+        return new double[] {Math.nextDown(low.subtract(margin).doubleValue()), Math.nextUp(high.add(margin).doubleValue())};
+    }
+}
@@ -0,0 +1,228 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.services.dao.AlertsDao;
+import org.sbot.services.dao.AlertsDao.UpdateField;
+import org.sbot.services.dao.AlertsListener;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+import static org.sbot.entities.alerts.Alert.Type.remainder;
+
+/*
+    Hierarchical timing wheel of the remainder alerts, each one is due at the minute of its date, or of its listening date when snoozed.
+    The wheel ticks every minute, a level spans SLOTS times the previous one, so 4 levels of 64 slots cover 32 years.
+    An alert is put in the lowest level having its due minute in its span, then moved to a lower level when its slot comes,
+    so that a tick costs the alerts it fires plus the rare cascades of the upper levels, whatever the number of remainders.
+    This is loaded once from the alerts dao, then kept in sync by the alerts changes, it may keep alerts no longer due,
+    like after a rollback, these ones are checked against the database when they fire.
+ */
+public final class RemaindersWheel implements AlertsListener {
+
+    private static final Logger LOGGER = LogManager.getLogger(RemaindersWheel.class);
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    private static final long SLOT_MASK = SLOTS - 1;
+    private static final long MINUTE_MS = Duration.ofMinutes(1L).toMillis();
+
+    // an entry is outdated once its alert is rescheduled or removed, it is then dropped when its slot comes
+    private record Entry(long alertId, long dueMinute, short repeat, short snooze) {}
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final List<List<Entry>> slots = new ArrayList<>(LEVELS * SLOTS);
+    // alerts due beyond the last level span
+    private final List<Entry> overflow = new ArrayList<>();
+    // alerts due at or before the current minute, fired on the next advance
+    private final List<Entry> expired = new ArrayList<>();
+    private long currentMinute = Long.MIN_VALUE;
+    private volatile boolean loaded;
+
+    public RemaindersWheel() {
+        for(int i = LEVELS * SLOTS; i-- > 0;) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    // false until the wheel is loaded from the dao, and after some alerts were changed without their ids being known
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // adds the enabled remainder alerts of the dao to the ones already known
+    public synchronized void load(@NotNull AlertsDao alertsDao, @NotNull ZonedDateTime now) {
+        loaded = true;
+        if(Long.MIN_VALUE == currentMinute) {
+            start(minute(now.toInstant().toEpochMilli()));
+        }
+        long read = alertsDao.fetchAlertsWithoutMessageByTypeHavingListeningDate(remainder, alerts -> alerts.forEach(this::schedule));
+        LOGGER.info("Loaded {} remainder alerts, {} scheduled", read, entries.size());
+    }
+
+    // moves the wheel up to the minute of now, returns the ids of the alerts that became due
+    public synchronized long[] advance(@NotNull ZonedDateTime now) {
+        long toMinute = minute(now.toInstant().toEpochMilli());
+        if(Long.MIN_VALUE == currentMinute || (entries.isEmpty() && toMinute > currentMinute)) {
+            start(toMinute);
+        }
+        var fired = new ArrayList<Entry>(expired);
+        expired.clear();
+        while(currentMinute < toMinute) {
+            tick(++currentMinute, fired);
+        }
+        return fired.stream().filter(entry -> entries.get(entry.alertId()) == entry)
+                .mapToLong(Entry::alertId).distinct().toArray();
+    }
+
+    // removes the fired alerts that were not rescheduled, once they were processed
+    public synchronized void release(@NotNull long[] alertIds) {
+        for(long alertId : alertIds) {
+            var entry = entries.get(alertId);
+            if(null != entry && entry.dueMinute() <= currentMinute) {
+                entries.remove(alertId);
+            }
+        }
+    }
+
+    // the alerts added before the wheel had a current minute are placed from this one
+    private void start(long minute) {
+        var pending = List.copyOf(expired);
+        slots.forEach(List::clear);
+        overflow.clear();
+        expired.clear();
+        currentMinute = minute;
+        pending.forEach(entry -> {
+            if(entries.get(entry.alertId()) == entry) {
+                place(entry);
+            }
+        });
+    }
+
+    private void tick(long minute, @NotNull List<Entry> fired) {
+        // the slots of the upper levels reached by this minute are moved down, from the top one
+        if(0L == (minute & ((1L << (SLOT_BITS * LEVELS)) - 1L))) {
+            cascade(overflow);
+        }
+        for(int level = LEVELS; --level > 0;) {
+            if(0L == (minute & ((1L << (SLOT_BITS * level)) - 1L))) {
+                cascade(slot(level, minute));
+            }
+        }
+        var slot = slot(0, minute);
+        fired.addAll(slot);
+        fired.addAll(expired);
+        slot.clear();
+        expired.clear();
+    }
+
+    private void cascade(@NotNull List<Entry> slot) {
+        var moved = List.copyOf(slot);
+        slot.clear();
+        moved.forEach(entry -> {
+            if(entries.get(entry.alertId()) == entry) {
+                place(entry);
+            }
+        });
+    }
+
+    private List<Entry> slot(int level, long minute) {
+        return slots.get(level * SLOTS + (int) ((minute >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    private void place(@NotNull Entry entry) {
+        if(entry.dueMinute() <= currentMinute) {
+            expired.add(entry);
+            return;
+        }
+        for(int level = 0; level < LEVELS; level++) {
+            int upperBits = SLOT_BITS * (level + 1);
+            if((entry.dueMinute() >>> upperBits) == (currentMinute >>> upperBits)) {
+                slot(level, entry.dueMinute()).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void schedule(@NotNull Alert alert) {
+        if(remainder == alert.type) {
+            if(null == alert.listeningDate) {
+                entries.remove(alert.id);
+            } else {
+                schedule(new Entry(alert.id, dueMinute(alert), alert.repeat, alert.snooze));
+            }
+        }
+    }
+
+    private void schedule(@NotNull Entry entry) {
+        entries.put(entry.alertId(), entry);
+        if(Long.MIN_VALUE != currentMinute) {
+            place(entry);
+        } else {
+            expired.add(entry);
+        }
+    }
+
+    // first minute starting after the date of this alert and its listening date
+    static long dueMinute(@NotNull Alert alert) {
+        long dueMs = alert.fromDate.toInstant().toEpochMilli();
+        if(null != alert.listeningDate) {
+            dueMs = Math.max(dueMs, alert.listeningDate.toInstant().toEpochMilli());
+        }
+        return Math.ceilDiv(dueMs, MINUTE_MS);
+    }
+
+    private static long minute(long epochMs) {
+        return Math.floorDiv(epochMs, MINUTE_MS);
+    }
+
+    @Override
+    public synchronized void onAdd(@NotNull Alert alert) {
+        schedule(requireNonNull(alert));
+    }
+
+    @Override
+    public synchronized void onUpdate(@NotNull Alert alert, @NotNull Set<UpdateField> fields) {
+        schedule(requireNonNull(alert));
+    }
+
+    @Override
+    public synchronized void onDelete(long alertId) {
+        entries.remove(alertId);
+    }
+
+    // a matched alert listens again after its snooze while it has some repeats left, like its listening date update
+    @Override
+    public synchronized void onMatched(long alertId, @NotNull ZonedDateTime now) {
+        var entry = entries.get(alertId);
+        if(null != entry) {
+            if(entry.repeat() > 0) {
+                long dueMinute = Math.max(currentMinute + 1L, Math.ceilDiv(now.plusHours(entry.snooze()).toInstant().toEpochMilli(), MINUTE_MS));
+                schedule(new Entry(alertId, dueMinute, (short) (entry.repeat() - 1), entry.snooze()));
+            } else {
+                entries.remove(alertId);
+            }
+        }
+    }
+
+    // the alerts are loaded again before the next advance, the unknown changes may have rescheduled some
+    @Override
+    public void onInvalidate() {
+        loaded = false;
+    }
+}
@@ -0,0 +1,240 @@
+package org.sbot.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.notifications.Notification;
+import org.sbot.services.context.Context;
+import org.sbot.services.dao.AlertsDao.UpdateField;
+import org.sbot.services.dao.AlertsListener;
+import org.sbot.services.dao.NodesDao.NodeLease;
+import org.sbot.utils.Dates;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+import static org.sbot.SpotBot.appProperties;
+import static org.sbot.utils.ArgumentValidator.requireStrictlyPositive;
+
+/*
+    Consistent hashing of the exchange pairs and of the notifications recipients over the SpotBot nodes sharing the database.
+    Each node renews its lease in the database every renew period and reads the leases of the other ones, a node whose lease
+    expired leaves the ring and its keys are taken over by the next nodes of the ring, the keys of the other nodes don't move.
+    A node is placed on the ring by several virtual nodes, so that the keys of a leaving node are spread over the remaining ones.
+    A node that failed to renew its lease owns no key once it expired, as the other nodes may have taken over its keys.
+    The alerts changes are counted by each node along its lease, a node reloads its alerts indexes when another one changed some alerts.
+    Without node id the sharding is disabled, this node owns every key.
+ */
+public final class ShardsRing implements AlertsListener {
+
+    private static final Logger LOGGER = LogManager.getLogger(ShardsRing.class);
+
+    // each node sharing the database needs a distinct node id, an unset one disables the sharding
+    private static final String NODE_ID = appProperties.getOr("sharding.node.id", null);
+    public static final boolean SHARDED = null != NODE_ID && !NODE_ID.isBlank();
+    private static final int LEASE_SECONDS = Math.max(2, appProperties.getIntOr("sharding.lease.seconds", 60));
+    // a lease is renewed at least twice during its duration, so that a slow renew doesn't expire it
+    private static final int RENEW_SECONDS = Math.clamp(appProperties.getIntOr("sharding.renew.seconds", 15), 1, LEASE_SECONDS / 2);
+    private static final int VIRTUAL_NODES = Math.max(1, appProperties.getIntOr("sharding.virtual-nodes", 64));
+
+    // live nodes ordered by id, and the hashes of their virtual nodes
+    private record Ring(@NotNull List<String> nodes, @NotNull NavigableMap<Long, String> points) {}
+
+    private final Context context;
+    private final String nodeId;
+    private final Duration lease;
+    private final int virtualNodes;
+    private final LongAdder alertsChanges = new LongAdder();
+    // the alerts changes published by the other nodes, read by the last refresh
+    private final Map<String, Long> nodesAlertsChanges = new HashMap<>();
+    // changes counted before the last refresh, their transactions are committed by the next one that publishes them
+    private long committedAlertsChanges;
+    private volatile Ring ring;
+    private volatile long leaseUntilMs;
+    private volatile long version;
+    private Thread thread;
+
+    public ShardsRing(@NotNull Context context) {
+        this(context, SHARDED ? NODE_ID : null, Duration.ofSeconds(LEASE_SECONDS), VIRTUAL_NODES);
+    }
+
+    ShardsRing(@NotNull Context context, @Nullable String nodeId, @NotNull Duration lease, int virtualNodes) {
+        this.context = requireNonNull(context);
+        if(!lease.isPositive()) {
+            throw new IllegalArgumentException("Invalid lease duration : " + lease);
+        }
+        this.nodeId = nodeId;
+        this.lease = lease;
+        this.virtualNodes = requireStrictlyPositive(virtualNodes);
+        this.ring = null != nodeId ? ring(List.of(nodeId)) : null;
+    }
+
+    public boolean isEnabled() {
+        return null != nodeId;
+    }
+
+    @Nullable
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // incremented at each change of the live nodes
+    public long version() {
+        return version;
+    }
+
+    @NotNull
+    public List<String> nodes() {
+        var ring = this.ring;
+        return null != ring ? ring.nodes() : emptyList();
+    }
+
+    public boolean owns(@NotNull String exchange, @NotNull String pair) {
+        return !isEnabled() || owns(exchange + ':' + pair);
+    }
+
+    public boolean owns(@NotNull Notification notification) {
+        return !isEnabled() || owns(notification.recipientType.shortName + ':' + notification.recipientId);
+    }
+
+    // true if this node is in charge of this key, and its lease is not expired
+    public boolean owns(@NotNull String key) {
+        return !isEnabled() || (context.clock().millis() < leaseUntilMs && nodeId.equals(owner(key)));
+    }
+
+    // the node in charge of this key, the first one having a virtual node at or after the key hash, or null if disabled
+    @Nullable
+    String owner(@NotNull String key) {
+        var ring = this.ring;
+        if(null == ring) {
+            return null;
+        }
+        var point = ring.points().ceilingEntry(hash(key));
+        return (null != point ? point : ring.points().firstEntry()).getValue();
+    }
+
+    // starts the lease thread, once the lease is taken and the ring loaded, so that the first checks know the pairs of this node
+    public synchronized void start() {
+        if(isEnabled() && null == thread) {
+            renew();
+            thread = Thread.ofVirtual().name("shards ring").start(() -> {
+                while(!Thread.currentThread().isInterrupted()) {
+                    LockSupport.parkNanos(Duration.ofSeconds(RENEW_SECONDS).toNanos());
+                    renew();
+                }
+            });
+        }
+    }
+
+    private void renew() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to renew the lease of node " + nodeId + ", it will own no key once expired", e);
+        }
+    }
+
+    // renews the lease of this node then loads the live nodes, returns true if they changed
+    synchronized boolean refresh() {
+        if(!isEnabled()) {
+            return false;
+        }
+        ZonedDateTime now = Dates.nowUtc(context.clock());
+        long alertsChanges = this.alertsChanges.sum();
+        var leases = context.transactional(txCtx -> {
+            var nodesDao = txCtx.nodesDao();
+            nodesDao.renewLease(nodeId, now.plus(lease), committedAlertsChanges);
+            nodesDao.deleteLeasesExpiredBefore(now.minus(lease));
+            return nodesDao.getLiveNodes(now);
+        });
+        committedAlertsChanges = alertsChanges;
+        boolean joined = 0L == leaseUntilMs;
+        // the keys of this node may have been taken over while its lease was expired
+        boolean rejoined = !joined && leaseUntilMs <= now.toInstant().toEpochMilli();
+        leaseUntilMs = now.plus(lease).toInstant().toEpochMilli();
+
+        var nodes = leases.stream().map(NodeLease::nodeId).toList();
+        boolean alertsChanged = false;
+        for(var nodeLease : leases) {
+            if(!nodeId.equals(nodeLease.nodeId())) {
+                var previous = nodesAlertsChanges.put(nodeLease.nodeId(), nodeLease.alertsChanges());
+                alertsChanged |= null != previous && previous != nodeLease.alertsChanges();
+            }
+        }
+        nodesAlertsChanges.keySet().retainAll(nodes);
+
+        boolean changed = rejoined || !nodes.equals(ring.nodes());
+        if(changed) {
+            LOGGER.info("Node {} : live nodes changed from {} to {}{}", nodeId, ring.nodes(), nodes, rejoined ? ", after its lease expired" : "");
+            ring = ring(nodes);
+            version++;
+            // a pair that moved to another node and back may have been checked by it since
+            context.lastCandlesticksCache().retain(this::owns);
+        }
+        if(changed || alertsChanged) {
+            LOGGER.debug("Node {} : reloading the alerts indexes", nodeId);
+            // this reloads the remainders wheel too, so the remainders of a leaving node are fired by the nodes taking over its pairs
+            context.dataServices().alertsListeners().stream()
+                    .filter(listener -> listener != this)
+                    .forEach(AlertsListener::onInvalidate);
+        }
+        if(changed || joined) { // the pending notifications of the recipients of this node, or taken over from a leaving one
+            context.notificationService().sendNotifications();
+        }
+        return changed;
+    }
+
+    @NotNull
+    private Ring ring(@NotNull List<String> nodes) {
+        var points = new TreeMap<Long, String>();
+        // nodes are ordered by id, a hash collision goes to the same node on every node
+        nodes.forEach(node -> {
+            for(int i = 0; i < virtualNodes; i++) {
+                points.putIfAbsent(hash(node + '#' + i), node);
+            }
+        });
+        return new Ring(List.copyOf(nodes), points);
+    }
+
+    // 64 bits FNV-1a of the key, then mixed so that the close keys spread over the ring.
+    // This is stable across the nodes and their restarts, unlike String.hashCode
+    static long hash(@NotNull String key) {
+        long hash = 0xcbf29ce484222325L;
+        for(int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    @Override
+    public void onAdd(@NotNull Alert alert) {
+        alertsChanges.increment();
+    }
+
+    @Override
+    public void onUpdate(@NotNull Alert alert, @NotNull Set<UpdateField> fields) {
+        alertsChanges.increment();
+    }
+
+    @Override
+    public void onDelete(long alertId) {
+        alertsChanges.increment();
+    }
+
+    @Override
+    public void onInvalidate() {
+        alertsChanges.increment();
+    }
+}
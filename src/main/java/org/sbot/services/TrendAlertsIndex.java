@@ -0,0 +1,49 @@
+package org.sbot.services;
+
+import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.alerts.Alert;
+
+import java.time.Duration;
+
+import static org.sbot.SpotBot.appProperties;
+import static org.sbot.entities.alerts.Alert.Type.trend;
+
+/*
+    Index of the trend alerts lines, each line is bounded by the prices it reaches during the index time window,
+    so steeper lines get larger intervals. A pair index is rebuilt once the prices to check go past its time window.
+ */
+public final class TrendAlertsIndex extends AlertsIndex {
+
+    private static final int TIME_WINDOW_HOURS = Math.max(1, appProperties.getIntOr("alerts.trend.index.window.hours", 12));
+
+    // relative error bound of the double computations, the BigDecimal ones are done on 16 digits
+    private static final double ERROR = 1e-9;
+
+    public TrendAlertsIndex() {
+        this(Duration.ofHours(TIME_WINDOW_HOURS));
+    }
+
+    TrendAlertsIndex(@NotNull Duration timeWindow) {
+        super(trend, timeWindow.toMillis());
+    }
+
+    @NotNull
+    @Override
+    protected double[] intervalOf(@NotNull Alert alert, long fromMs, long toMs) {
+        return intervalOf(alert, fromMs, toMs, alert.margin.abs().doubleValue());
+    }
+
+    @NotNull
+    static double[] intervalOf(@NotNull Alert alert, long fromMs, long toMs, double margin) {
+        double fromPrice = alert.fromPrice.doubleValue();
+        long fromDateMs = alert.fromDate.toInstant().toEpochMilli();
+        double slope = (alert.toPrice.doubleValue() - fromPrice) / Math.max(1L, alert.toDate.toInstant().toEpochMilli() - fromDateMs);
+        double fromTrendPrice = fromPrice + slope * (fromMs - fromDateMs);
+        double toTrendPrice = fromPrice + slope * (toMs - fromDateMs);
+        // the alert matching uses trend prices computed on seconds, one more second is added to cover the truncation
+        double error = ERROR * (Math.abs(fromPrice) + Math.abs(fromTrendPrice) + Math.abs(toTrendPrice)) + Math.abs(slope) * 1000d;
+        double low = Math.max(0d, Math.min(fromTrendPrice, toTrendPrice)) - margin - error;
+        double high = Math.max(0d, Math.max(fromTrendPrice, toTrendPrice)) + margin + error;
+        return new double[] {Math.nextDown(low), Math.nextUp(high)};
+    }
+}
@@ -9,6 +9,7 @@ import org.sbot.services.*;
 import org.sbot.services.dao.*;
 import org.sbot.services.dao.memory.AlertsMemory;
 import org.sbot.services.dao.memory.LastCandlesticksMemory;
+import org.sbot.services.dao.memory.NodesMemory;
 import org.sbot.services.dao.memory.NotificationsMemory;
 import org.sbot.services.dao.memory.ServerSettingsMemory;
 import org.sbot.services.dao.sql.*;
@@ -17,6 +18,8 @@ import org.sbot.services.dao.sql.jdbi.JDBITransactionHandler;
 import org.sbot.services.discord.Discord;
 
 import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -34,24 +37,32 @@ public interface Context {
                         @NotNull Function<JDBITransactionHandler, ServerSettingsDao> serverSettingsDao,
                         @NotNull Function<JDBITransactionHandler, AlertsDao> alertsDao,
                         @NotNull Function<JDBITransactionHandler, NotificationsDao> notificationsDao,
-                        @NotNull Function<JDBITransactionHandler, LastCandlesticksDao> lastCandlesticksDao) {
+                        @NotNull Function<JDBITransactionHandler, LastCandlesticksDao> lastCandlesticksDao,
+                        @NotNull Function<JDBITransactionHandler, NodesDao> nodesDao,
+                        @NotNull List<AlertsListener> alertsListeners) {
         @NotNull
         static DataServices load(@Nullable JDBIRepository repository) {
+            var alertsListeners = new CopyOnWriteArrayList<AlertsListener>();
             if(null == repository) {
                 LogManager.getLogger(DataServices.class).info("Loading data services in memory");
-                var alertsDao = new AlertsMemory(); // this load UserSettingsMemory
-                var serverSettingsDao = new ServerSettingsMemory(alertsDao);
+                var alertsMemory = new AlertsMemory(); // this load UserSettingsMemory
+                var alertsDao = new ListenableAlertsDao(alertsMemory, alertsListeners);
+                var serverSettingsDao = new ServerSettingsMemory(alertsMemory);
                 var notificationsDao = new NotificationsMemory();
                 var lastCandlesticksDao = new LastCandlesticksMemory();
-                return new DataServices(v -> alertsDao.userSettingsDao, v -> serverSettingsDao, v -> alertsDao, v -> notificationsDao, v -> lastCandlesticksDao);
+                var nodesDao = new NodesMemory();
+                return new DataServices(v -> alertsMemory.userSettingsDao, v -> serverSettingsDao, v -> alertsDao, v -> notificationsDao, v -> lastCandlesticksDao, v -> nodesDao, alertsListeners);
             }
             LogManager.getLogger(DataServices.class).info("Loading data services SQLite");
+            var alertsDao = new AlertsSQLite(repository);
             return new DataServices(
                     new UserSettingsSQLite(repository)::withHandler,
                     new ServerSettingsSQLite(repository)::withHandler,
-                    new AlertsSQLite(repository)::withHandler,
+                    transactionHandler -> new ListenableAlertsDao(alertsDao.withHandler(transactionHandler), alertsListeners),
                     new NotificationsSQLite(repository)::withHandler,
-                    new LastCandlesticksSQLite(repository)::withHandler);
+                    new LastCandlesticksSQLite(repository)::withHandler,
+                    new NodesSQLite(repository)::withHandler,
+                    alertsListeners);
         }
     }
 
@@ -61,16 +72,47 @@ public interface Context {
                     @NotNull MatchingService matchingService,
                     @NotNull NotificationsService notificationService,
                     @NotNull AlertsWatcher alertsWatcher,
+                    @NotNull RangeAlertsIndex rangeAlertsIndex,
+                    @NotNull TrendAlertsIndex trendAlertsIndex,
+                    @NotNull LastCandlesticksCache lastCandlesticksCache,
+                    @NotNull CandlesticksCache candlesticksCache,
+                    @NotNull CandlesticksHistory candlesticksHistory,
+                    @NotNull PairsScheduler pairsScheduler,
+                    @NotNull RemaindersWheel remaindersWheel,
+                    @NotNull Housekeeping housekeeping,
+                    @NotNull ShardsRing shardsRing,
                     @NotNull Function<TransactionalContext, LastCandlesticksService> lastCandlesticksService) {
         @NotNull
         static Services load(@NotNull Context context, @NotNull Function<Context, Discord> discordLoader) {
-            LogManager.getLogger(Services.class).info("Loading services Discord, MatchingService, AlertsWatcher, LastCandlesticksService");
+            LogManager.getLogger(Services.class).info("Loading services Discord, MatchingService, AlertsWatcher, RangeAlertsIndex, TrendAlertsIndex, LastCandlesticksCache, CandlesticksCache, CandlesticksHistory, PairsScheduler, RemaindersWheel, Housekeeping, ShardsRing, LastCandlesticksService");
+            var rangeAlertsIndex = new RangeAlertsIndex();
+            var trendAlertsIndex = new TrendAlertsIndex();
+            context.dataServices().alertsListeners().add(rangeAlertsIndex);
+            context.dataServices().alertsListeners().add(trendAlertsIndex);
+            var pairsScheduler = new PairsScheduler();
+            context.dataServices().alertsListeners().add(pairsScheduler);
+            var remaindersWheel = new RemaindersWheel();
+            context.dataServices().alertsListeners().add(remaindersWheel);
+            var shardsRing = new ShardsRing(context);
+            context.dataServices().alertsListeners().add(shardsRing);
+            var matchingService = new MatchingService(context);
+            context.dataServices().alertsListeners().add(matchingService);
+            var candlesticksHistory = new CandlesticksHistory(context.clock());
             return new Services(
                     new SettingsService(context),
                     requireNonNull(discordLoader.apply(context)),
-                    new MatchingService(context),
+                    matchingService,
                     new NotificationsService(context),
                     new AlertsWatcher(context),
+                    rangeAlertsIndex,
+                    trendAlertsIndex,
+                    new LastCandlesticksCache(),
+                    new CandlesticksCache(context.clock(), candlesticksHistory),
+                    candlesticksHistory,
+                    pairsScheduler,
+                    remaindersWheel,
+                    new Housekeeping(context),
+                    shardsRing,
                     LastCandlesticksService::new);
         }
     }
@@ -135,6 +177,51 @@ public interface Context {
         return services().alertsWatcher();
     }
 
+    @NotNull
+    default RangeAlertsIndex rangeAlertsIndex() {
+        return services().rangeAlertsIndex();
+    }
+
+    @NotNull
+    default TrendAlertsIndex trendAlertsIndex() {
+        return services().trendAlertsIndex();
+    }
+
+    @NotNull
+    default LastCandlesticksCache lastCandlesticksCache() {
+        return services().lastCandlesticksCache();
+    }
+
+    @NotNull
+    default CandlesticksCache candlesticksCache() {
+        return services().candlesticksCache();
+    }
+
+    @NotNull
+    default CandlesticksHistory candlesticksHistory() {
+        return services().candlesticksHistory();
+    }
+
+    @NotNull
+    default PairsScheduler pairsScheduler() {
+        return services().pairsScheduler();
+    }
+
+    @NotNull
+    default RemaindersWheel remaindersWheel() {
+        return services().remaindersWheel();
+    }
+
+    @NotNull
+    default Housekeeping housekeeping() {
+        return services().housekeeping();
+    }
+
+    @NotNull
+    default ShardsRing shardsRing() {
+        return services().shardsRing();
+    }
+
     default ThreadSafeTxContext asThreadSafeTxContext(@NotNull TransactionIsolationLevel isolationLevel, int countdown) {
         return new ThreadSafeTxContext(this, isolationLevel, countdown);
     }
@@ -164,7 +251,7 @@ public interface Context {
 
             private final DataServices dataServices = DataServices.load(repository);
             private final Services services = Services.load(this, discordLoader);
-            private final Exchanges exchanges = new Exchanges();
+            private final Exchanges exchanges = new Exchanges(clock);
 
             @NotNull
             @Override
@@ -64,6 +64,11 @@ public class TransactionalContext implements Context {
         return dataServices().lastCandlesticksDao().apply(transactionHandler);
     }
 
+    @NotNull
+    public NodesDao nodesDao() {
+        return dataServices().nodesDao().apply(transactionHandler);
+    }
+
     @NotNull
     public LastCandlesticksService lastCandlesticksService() {
         return services().lastCandlesticksService().apply(this);
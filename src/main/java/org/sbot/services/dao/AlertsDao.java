@@ -51,8 +51,14 @@ public interface AlertsDao {
     }
 
     long fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer);
+    long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer);
+    // this also returns the snoozed alerts (listening date in the future), but not the disabled ones (null listening date)
+    long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, @NotNull Consumer<Stream<Alert>> alertsConsumer);
+    long fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(@NotNull LongStream alertIds, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer);
     long fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(@NotNull ZonedDateTime expirationDate, @NotNull Consumer<Stream<Alert>> alertsConsumer);
     long fetchAlertsWithoutMessageByTypeHavingToDateBefore(@NotNull Type type, @NotNull ZonedDateTime expirationDate, @NotNull Consumer<Stream<Alert>> alertsConsumer);
+    // this returns the enabled alerts of this type, whatever their listening date
+    long fetchAlertsWithoutMessageByTypeHavingListeningDate(@NotNull Type type, @NotNull Consumer<Stream<Alert>> alertsConsumer);
 
     @NotNull
     Map<String, Set<String>> getPairsByExchangesHavingPastListeningDateWithActiveRange(@NotNull ZonedDateTime now, int checkPeriodMin);
@@ -0,0 +1,26 @@
+package org.sbot.services.dao;
+
+import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.services.dao.AlertsDao.UpdateField;
+
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+// receives the alerts changes done through an AlertsDao, this is notified before the enclosing transaction is committed,
+// so implementations should only keep a superset of the stored alerts state (a rollback can still occur)
+public interface AlertsListener {
+
+    default void onAdd(@NotNull Alert alert) {}
+
+    default void onUpdate(@NotNull Alert alert, @NotNull Set<UpdateField> fields) {}
+
+    default void onDelete(long alertId) {}
+
+    default void onMatched(long alertId, @NotNull ZonedDateTime now) {}
+
+    default void onMargin(long alertId, @NotNull ZonedDateTime now) {}
+
+    // some alerts were changed or deleted without their ids being known (selection filter updates)
+    default void onInvalidate() {}
+}
@@ -0,0 +1,168 @@
+package org.sbot.services.dao;
+
+import org.jetbrains.annotations.NotNull;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.Alert.Type;
+import org.sbot.entities.alerts.ClientType;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+// AlertsDao decorator that notifies the registered listeners of each alerts change
+public final class ListenableAlertsDao implements AlertsDao {
+
+    private final AlertsDao alertsDao;
+    private final List<AlertsListener> listeners;
+
+    public ListenableAlertsDao(@NotNull AlertsDao alertsDao, @NotNull List<AlertsListener> listeners) {
+        this.alertsDao = requireNonNull(alertsDao);
+        this.listeners = requireNonNull(listeners);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(exchange, pair, now, checkPeriodMin, alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, pair, type, now, checkPeriodMin, alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, pair, type, now, alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(@NotNull LongStream alertIds, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(alertIds, now, checkPeriodMin, alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(@NotNull ZonedDateTime expirationDate, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(expirationDate, alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByTypeHavingToDateBefore(@NotNull Type type, @NotNull ZonedDateTime expirationDate, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageByTypeHavingToDateBefore(type, expirationDate, alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByTypeHavingListeningDate(@NotNull Type type, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        return alertsDao.fetchAlertsWithoutMessageByTypeHavingListeningDate(type, alertsConsumer);
+    }
+
+    @NotNull
+    @Override
+    public Map<String, Set<String>> getPairsByExchangesHavingPastListeningDateWithActiveRange(@NotNull ZonedDateTime now, int checkPeriodMin) {
+        return alertsDao.getPairsByExchangesHavingPastListeningDateWithActiveRange(now, checkPeriodMin);
+    }
+
+    @NotNull
+    @Override
+    public List<Long> getUserIdsByServerId(@NotNull ClientType clientType, long serverId) {
+        return alertsDao.getUserIdsByServerId(clientType, serverId);
+    }
+
+    @Override
+    public Optional<Alert> getAlert(@NotNull ClientType clientType, long id) {
+        return alertsDao.getAlert(clientType, id);
+    }
+
+    @Override
+    public Optional<Alert> getAlertWithoutMessage(@NotNull ClientType clientType, long alertId) {
+        return alertsDao.getAlertWithoutMessage(clientType, alertId);
+    }
+
+    @NotNull
+    @Override
+    public Map<Long, String> getAlertMessages(@NotNull LongStream alertIds) {
+        return alertsDao.getAlertMessages(alertIds);
+    }
+
+    @Override
+    public long countAlerts(@NotNull SelectionFilter filter) {
+        return alertsDao.countAlerts(filter);
+    }
+
+    @NotNull
+    @Override
+    public List<Alert> getAlertsOrderByPairUserIdId(@NotNull SelectionFilter filter, long offset, long limit) {
+        return alertsDao.getAlertsOrderByPairUserIdId(filter, offset, limit);
+    }
+
+    @Override
+    public long addAlert(@NotNull Alert alert) {
+        long alertId = alertsDao.addAlert(alert);
+        var newAlert = alert.withId(() -> alertId);
+        listeners.forEach(listener -> listener.onAdd(newAlert));
+        return alertId;
+    }
+
+    @Override
+    public void update(@NotNull Alert alert, @NotNull Set<UpdateField> fields) {
+        alertsDao.update(alert, fields);
+        listeners.forEach(listener -> listener.onUpdate(alert, fields));
+    }
+
+    @Override
+    public long updateServerIdOf(@NotNull SelectionFilter filter, long newServerId) {
+        long updated = alertsDao.updateServerIdOf(filter, newServerId);
+        if(updated > 0) {
+            listeners.forEach(AlertsListener::onInvalidate);
+        }
+        return updated;
+    }
+
+    @Override
+    public void delete(@NotNull ClientType clientType, long alertId) {
+        alertsDao.delete(clientType, alertId);
+        listeners.forEach(listener -> listener.onDelete(alertId));
+    }
+
+    @Override
+    public long delete(@NotNull SelectionFilter filter) {
+        long deleted = alertsDao.delete(filter);
+        if(deleted > 0) {
+            listeners.forEach(AlertsListener::onInvalidate);
+        }
+        return deleted;
+    }
+
+    @Override
+    public void matchedAlertBatchUpdates(@NotNull ZonedDateTime now, @NotNull Consumer<BatchEntry> updater) {
+        alertsDao.matchedAlertBatchUpdates(now, batchEntry -> updater.accept(ids -> {
+            batchEntry.batch(ids);
+            long alertId = BatchEntry.longId(ids);
+            listeners.forEach(listener -> listener.onMatched(alertId, now));
+        }));
+    }
+
+    @Override
+    public void marginAlertBatchUpdates(@NotNull ZonedDateTime now, @NotNull Consumer<BatchEntry> updater) {
+        alertsDao.marginAlertBatchUpdates(now, batchEntry -> updater.accept(ids -> {
+            batchEntry.batch(ids);
+            long alertId = BatchEntry.longId(ids);
+            listeners.forEach(listener -> listener.onMargin(alertId, now));
+        }));
+    }
+
+    @Override
+    public void delete(@NotNull Consumer<BatchEntry> deleter) {
+        alertsDao.delete(batchEntry -> deleter.accept(ids -> {
+            batchEntry.batch(ids);
+            long alertId = BatchEntry.longId(ids);
+            listeners.forEach(listener -> listener.onDelete(alertId));
+        }));
+    }
+}
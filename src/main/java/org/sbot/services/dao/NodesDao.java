@@ -0,0 +1,29 @@
+package org.sbot.services.dao;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+// leases of the SpotBot nodes sharing the database, a node is alive while its lease is not expired
+public interface NodesDao {
+
+    // alertsChanges counts the alerts changes done by this node, so that the other nodes can reload their alerts indexes
+    record NodeLease(@NotNull String nodeId, @NotNull ZonedDateTime leaseUntil, long alertsChanges) {
+        public NodeLease {
+            requireNonNull(nodeId);
+            requireNonNull(leaseUntil);
+        }
+    }
+
+    // inserts the lease of this node, or extends it
+    void renewLease(@NotNull String nodeId, @NotNull ZonedDateTime leaseUntil, long alertsChanges);
+
+    // nodes having a lease after now, ordered by node id
+    @NotNull
+    List<NodeLease> getLiveNodes(@NotNull ZonedDateTime now);
+
+    long deleteLeasesExpiredBefore(@NotNull ZonedDateTime expirationDate);
+}
@@ -8,6 +8,7 @@ import org.sbot.entities.notifications.RecipientType;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface NotificationsDao {
 
@@ -16,6 +17,10 @@ public interface NotificationsDao {
     @NotNull
     List<Notification> getNewNotifications(long limit);
 
+    // the new notifications are read until limit of them pass the filter, like the ones of the recipients a node is in charge of
+    @NotNull
+    List<Notification> getNewNotifications(long limit, @NotNull Predicate<Notification> filter);
+
     long unblockStatusOfRecipient(@NotNull RecipientType recipientType, @NotNull String userId);
 
     void statusRecipientBatchUpdate(@NotNull NotificationStatus status, @NotNull String recipientId, @NotNull RecipientType recipientType, @NotNull Consumer<BatchEntry> updater);
@@ -24,5 +29,6 @@ public interface NotificationsDao {
 
     void delete(@NotNull Consumer<BatchEntry> deleter);
 
-    long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate);
+    // deletes at most limit notifications, so that a large backlog can be dropped by chunks
+    long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate, long limit);
 }
@@ -22,5 +22,6 @@ public interface ServerSettingsDao {
 
     void updateLastAccess(@NotNull ClientType clientType, long serverId, @NotNull ZonedDateTime lastAccess);
 
-    long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate);
+    // deletes at most limit settings, so that a large backlog can be dropped by chunks
+    long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate, long limit);
 }
@@ -39,5 +39,6 @@ public interface UserSettingsDao {
 
     void updateLastAccess(@NotNull ClientType clientType, long userId, @NotNull ZonedDateTime lastAccess);
 
-    long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate);
+    // deletes at most limit settings, so that a large backlog can be dropped by chunks
+    long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate, long limit);
 }
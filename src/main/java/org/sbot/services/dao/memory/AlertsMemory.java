@@ -12,6 +12,7 @@ import org.sbot.services.dao.UserSettingsDao;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -69,6 +70,41 @@ public final class AlertsMemory implements AlertsDao {
         return read[0];
     }
 
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        LOGGER.debug("fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange {} {} {} {} {}", exchange, pair, type, now, checkPeriodMin);
+        requireNonNull(exchange); requireNonNull(pair); requireNonNull(type);
+        long[] read = new long[] {0L};
+        alertsConsumer.accept(havingPastListeningDateWithActiveRange(now, checkPeriodMin, alerts.values().stream()
+                .filter(alert -> alert.type == type && alert.exchange.equals(exchange) && alert.pair.equals(pair)))
+                .filter(alert -> ++read[0] != 0));
+        return read[0];
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        LOGGER.debug("fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange {} {} {} {}", exchange, pair, type, now);
+        requireNonNull(exchange); requireNonNull(pair); requireNonNull(type); requireNonNull(now);
+        long[] read = new long[] {0L};
+        alertsConsumer.accept(alerts.values().stream()
+                .filter(alert -> alert.type == type && alert.exchange.equals(exchange) && alert.pair.equals(pair) &&
+                        null != alert.listeningDate &&
+                        (alert.type != range || (null == alert.toDate || alert.toDate.isAfter(now))))
+                .filter(alert -> ++read[0] != 0));
+        return read[0];
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(@NotNull LongStream alertIds, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        var alertIdSet = alertIds.boxed().collect(toSet());
+        LOGGER.debug("fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange {} {} {}", alertIdSet, now, checkPeriodMin);
+        long[] read = new long[] {0L};
+        alertsConsumer.accept(havingPastListeningDateWithActiveRange(now, checkPeriodMin, alertIdSet.stream()
+                .map(alerts::get).filter(Objects::nonNull))
+                .filter(alert -> ++read[0] != 0));
+        return read[0];
+    }
+
     @NotNull
     private Stream<Alert> havingPastListeningDateWithActiveRange(@NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Stream<Alert> alerts) {
         ZonedDateTime nowPlusOneSecond = now.plusSeconds(1L);
@@ -103,6 +139,16 @@ public final class AlertsMemory implements AlertsDao {
         return read[0];
     }
 
+    @Override
+    public long fetchAlertsWithoutMessageByTypeHavingListeningDate(@NotNull Type type, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        LOGGER.debug("fetchAlertsWithoutMessageByTypeHavingListeningDate {}", type);
+        requireNonNull(type);
+        long[] read = new long[] {0L};
+        Predicate<Alert> typeAndListeningDate = alert -> alert.type == type && null != alert.listeningDate && ++read[0] != 0;
+        alertsConsumer.accept(alerts.values().stream().filter(typeAndListeningDate));
+        return read[0];
+    }
+
     @Override
     @NotNull
     public Map<String, Set<String>> getPairsByExchangesHavingPastListeningDateWithActiveRange(@NotNull ZonedDateTime now, int checkPeriodMin) {
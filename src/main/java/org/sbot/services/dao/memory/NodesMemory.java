@@ -0,0 +1,52 @@
+package org.sbot.services.dao.memory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.sbot.services.dao.NodesDao;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static org.sbot.utils.ArgumentValidator.requireNotBlank;
+import static org.sbot.utils.ArgumentValidator.requirePositive;
+
+public final class NodesMemory implements NodesDao {
+
+    private static final Logger LOGGER = LogManager.getLogger(NodesMemory.class);
+
+    private final Map<String, NodeLease> leases = new ConcurrentHashMap<>();
+
+    public NodesMemory() {
+        LOGGER.debug("Loading memory storage for node_leases");
+    }
+
+    @Override
+    public void renewLease(@NotNull String nodeId, @NotNull ZonedDateTime leaseUntil, long alertsChanges) {
+        LOGGER.debug("renewLease {} {} {}", nodeId, leaseUntil, alertsChanges);
+        requireNotBlank(nodeId, "node id");
+        leases.put(nodeId, new NodeLease(nodeId, leaseUntil, requirePositive(alertsChanges)));
+    }
+
+    @Override
+    @NotNull
+    public List<NodeLease> getLiveNodes(@NotNull ZonedDateTime now) {
+        LOGGER.debug("getLiveNodes {}", now);
+        requireNonNull(now);
+        return leases.values().stream().filter(lease -> lease.leaseUntil().isAfter(now))
+                .sorted(comparing(NodeLease::nodeId)).toList();
+    }
+
+    @Override
+    public long deleteLeasesExpiredBefore(@NotNull ZonedDateTime expirationDate) {
+        LOGGER.debug("deleteLeasesExpiredBefore {}", expirationDate);
+        requireNonNull(expirationDate);
+        int size = leases.size();
+        leases.values().removeIf(lease -> lease.leaseUntil().isBefore(expirationDate));
+        return size - leases.size();
+    }
+}
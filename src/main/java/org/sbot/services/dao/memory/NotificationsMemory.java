@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static java.util.Objects.requireNonNull;
 import static org.sbot.entities.notifications.Notification.NEW_NOTIFICATION_ID;
@@ -51,6 +52,14 @@ public final class NotificationsMemory implements NotificationsDao {
         return notifications.values().stream().filter(Notification::isNew).limit(requireStrictlyPositive(limit)).toList();
     }
 
+    @Override
+    @NotNull
+    public List<Notification> getNewNotifications(long limit, @NotNull Predicate<Notification> filter) {
+        LOGGER.debug("getNewNotifications {} {}", limit, filter);
+        requireNonNull(filter);
+        return notifications.values().stream().filter(Notification::isNew).filter(filter).limit(requireStrictlyPositive(limit)).toList();
+    }
+
     @Override
     public long unblockStatusOfRecipient(@NotNull RecipientType recipientType, @NotNull String recipientId) {
         LOGGER.debug("unblockStatusOfRecipient {} {}", recipientType, recipientId);
@@ -90,11 +99,12 @@ public final class NotificationsMemory implements NotificationsDao {
     }
 
     @Override
-    public long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate) {
-        LOGGER.debug("deleteHavingCreationDateBefore {}", expirationDate);
+    public long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate, long limit) {
+        LOGGER.debug("deleteHavingCreationDateBefore {} {}", expirationDate, limit);
         requireNonNull(expirationDate);
+        requireStrictlyPositive(limit);
         var toDelete = notifications.values().stream()
-                .filter(notification -> notification.creationDate.isBefore(expirationDate)).toList();
+                .filter(notification -> notification.creationDate.isBefore(expirationDate)).limit(limit).toList();
         notifications.values().removeAll(toDelete);
         return toDelete.size();
     }
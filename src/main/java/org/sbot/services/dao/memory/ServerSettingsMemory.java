@@ -17,6 +17,7 @@ import java.util.function.BiFunction;
 
 import static java.util.Objects.requireNonNull;
 import static org.sbot.entities.settings.UserSettings.NO_ID;
+import static org.sbot.utils.ArgumentValidator.requireStrictlyPositive;
 
 public class ServerSettingsMemory implements ServerSettingsDao {
 
@@ -98,15 +99,16 @@ public class ServerSettingsMemory implements ServerSettingsDao {
     }
 
     @Override
-    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate) {
-        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {}", clientType, expirationDate);
+    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate, long limit) {
+        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {} {}", clientType, expirationDate, limit);
         requireNonNull(clientType);
         requireNonNull(expirationDate);
+        requireStrictlyPositive(limit);
         var toDelete = discordServerSettings.values().stream()
                 .filter(settings -> settings.lastAccess().isBefore(expirationDate) &&
                 alerts.getAlertsStream(SelectionFilter.ofServer(clientType, switch (clientType) {
                             case DISCORD -> settings.discordServerId();
-                        }, null)).findFirst().isEmpty()).toList();
+                        }, null)).findFirst().isEmpty()).limit(limit).toList();
         discordServerSettings.values().removeAll(toDelete);
         return toDelete.size();
     }
@@ -23,6 +23,7 @@ import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toMap;
 import static org.sbot.entities.settings.UserSettings.DEFAULT_LOCALE;
 import static org.sbot.entities.settings.UserSettings.NO_ID;
+import static org.sbot.utils.ArgumentValidator.requireStrictlyPositive;
 
 public class UserSettingsMemory implements UserSettingsDao {
 
@@ -107,15 +108,16 @@ public class UserSettingsMemory implements UserSettingsDao {
     }
 
     @Override
-    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate) {
-        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {}", clientType, expirationDate);
+    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate, long limit) {
+        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {} {}", clientType, expirationDate, limit);
         requireNonNull(clientType);
         requireNonNull(expirationDate);
+        requireStrictlyPositive(limit);
         var toDelete = discordUserSettings.values().stream()
                 .filter(settings -> settings.lastAccess().isBefore(expirationDate) &&
                 alerts.getAlertsStream(SelectionFilter.ofUser(clientType, switch (clientType) {
                             case DISCORD -> settings.discordUserId();
-                        }, null)).findFirst().isEmpty()).toList();
+                        }, null)).findFirst().isEmpty()).limit(limit).toList();
         discordUserSettings.values().removeAll(toDelete);
         return toDelete.size();
     }
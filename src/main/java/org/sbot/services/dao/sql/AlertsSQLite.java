@@ -121,8 +121,19 @@ public final class AlertsSQLite extends AbstractJDBI implements AlertsDao {
                 "SELECT id,creation_date,listening_date,type,client_type,user_id,server_id,exchange,pair,''AS message,last_trigger,margin,repeat,snooze,from_price,to_price,from_date,to_date FROM alerts " +
                 "WHERE exchange=:exchange AND pair=:pair AND " + PAST_LISTENING_DATE_WITH_ACTIVE_RANGE;
 
+        String SELECT_WITHOUT_MESSAGE_BY_EXCHANGE_AND_PAIR_AND_TYPE_HAVING_PAST_LISTENING_DATE_WITH_ACTIVE_RANGE =
+                SELECT_WITHOUT_MESSAGE_BY_EXCHANGE_AND_PAIR_HAVING_PAST_LISTENING_DATE_WITH_ACTIVE_RANGE + " AND type=:type";
+        String SELECT_WITHOUT_MESSAGE_BY_EXCHANGE_AND_PAIR_AND_TYPE_HAVING_LISTENING_DATE_WITH_ACTIVE_RANGE =
+                "SELECT id,creation_date,listening_date,type,client_type,user_id,server_id,exchange,pair,''AS message,last_trigger,margin,repeat,snooze,from_price,to_price,from_date,to_date FROM alerts " +
+                "WHERE exchange=:exchange AND pair=:pair AND type=:type AND listening_date NOT NULL AND " +
+                "(type!='range' OR (to_date IS NULL OR (to_date>:nowMs)))";
+        String SELECT_WITHOUT_MESSAGE_HAVING_ID_IN_AND_PAST_LISTENING_DATE_WITH_ACTIVE_RANGE =
+                "SELECT id,creation_date,listening_date,type,client_type,user_id,server_id,exchange,pair,''AS message,last_trigger,margin,repeat,snooze,from_price,to_price,from_date,to_date FROM alerts " +
+                "WHERE id IN (<ids>) AND " + PAST_LISTENING_DATE_WITH_ACTIVE_RANGE;
+
         String SELECT_WITHOUT_MESSAGE_HAVING_REPEAT_NEGATIVE_AND_LAST_TRIGGER_BEFORE_OR_NULL_AND_CREATION_BEFORE = "SELECT id,creation_date,listening_date,type,client_type,user_id,server_id,exchange,pair,''AS message,last_trigger,margin,repeat,snooze,from_price,to_price,from_date,to_date FROM alerts WHERE repeat<0 AND ((last_trigger IS NOT NULL AND last_trigger<:expirationDate) OR (last_trigger IS NULL AND creation_date<:expirationDate))";
         String SELECT_WITHOUT_MESSAGE_BY_TYPE_HAVING_TO_DATE_BEFORE = "SELECT id,creation_date,listening_date,type,client_type,user_id,server_id,exchange,pair,''AS message,last_trigger,margin,repeat,snooze,from_price,to_price,from_date,to_date FROM alerts WHERE type=:type AND to_date IS NOT NULL AND to_date<:expirationDate";
+        String SELECT_WITHOUT_MESSAGE_BY_TYPE_HAVING_LISTENING_DATE = "SELECT id,creation_date,listening_date,type,client_type,user_id,server_id,exchange,pair,''AS message,last_trigger,margin,repeat,snooze,from_price,to_price,from_date,to_date FROM alerts WHERE type=:type AND listening_date NOT NULL";
         String SELECT_PAIRS_EXCHANGES_HAVING_PAST_LISTENING_DATE_WITH_ACTIVE_RANGE =
                 "SELECT DISTINCT exchange,pair FROM alerts WHERE " + PAST_LISTENING_DATE_WITH_ACTIVE_RANGE;
         String COUNT_ALERTS_OF_SELECTION = "SELECT COUNT(*) FROM alerts WHERE ";
@@ -284,6 +295,36 @@ public final class AlertsSQLite extends AbstractJDBI implements AlertsDao {
                 Alert.class, Map.of(EXCHANGE, exchange, PAIR, pair, NOW_MS_ARGUMENT, nowMs, PERIOD_MS_ARGUMENT, 60_000L * Math.ceilDiv(requirePositive(checkPeriodMin), 2)), alertsConsumer);
     }
 
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        LOGGER.debug("fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange {} {} {} {} {}", exchange, pair, type, now, checkPeriodMin);
+        Long nowMs = now.toInstant().toEpochMilli();
+        return fetch(SQL.SELECT_WITHOUT_MESSAGE_BY_EXCHANGE_AND_PAIR_AND_TYPE_HAVING_PAST_LISTENING_DATE_WITH_ACTIVE_RANGE,
+                Alert.class, Map.of(EXCHANGE, exchange, PAIR, pair, TYPE, type, NOW_MS_ARGUMENT, nowMs, PERIOD_MS_ARGUMENT, 60_000L * Math.ceilDiv(requirePositive(checkPeriodMin), 2)), alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(@NotNull String exchange, @NotNull String pair, @NotNull Type type, @NotNull ZonedDateTime now, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        LOGGER.debug("fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange {} {} {} {}", exchange, pair, type, now);
+        Long nowMs = now.toInstant().toEpochMilli();
+        return fetch(SQL.SELECT_WITHOUT_MESSAGE_BY_EXCHANGE_AND_PAIR_AND_TYPE_HAVING_LISTENING_DATE_WITH_ACTIVE_RANGE,
+                Alert.class, Map.of(EXCHANGE, exchange, PAIR, pair, TYPE, type, NOW_MS_ARGUMENT, nowMs), alertsConsumer);
+    }
+
+    @Override
+    public long fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(@NotNull LongStream alertIds, @NotNull ZonedDateTime now, int checkPeriodMin, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        var alertIdList = alertIds.boxed().toList();
+        LOGGER.debug("fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange {} {} {}", alertIdList, now, checkPeriodMin);
+        if(alertIdList.isEmpty()) {
+            alertsConsumer.accept(Stream.empty());
+            return 0L;
+        }
+        Long nowMs = now.toInstant().toEpochMilli();
+        Long periodMs = 60_000L * Math.ceilDiv(requirePositive(checkPeriodMin), 2);
+        return fetch(SQL.SELECT_WITHOUT_MESSAGE_HAVING_ID_IN_AND_PAST_LISTENING_DATE_WITH_ACTIVE_RANGE, Alert.class,
+                query -> query.bindList("ids", alertIdList).bind(NOW_MS_ARGUMENT, nowMs).bind(PERIOD_MS_ARGUMENT, periodMs), alertsConsumer);
+    }
+
     @Override
     public long fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(@NotNull ZonedDateTime expirationDate, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
         LOGGER.debug("fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore {}", expirationDate);
@@ -298,6 +339,12 @@ public final class AlertsSQLite extends AbstractJDBI implements AlertsDao {
                 Map.of(TYPE, type, EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli()), alertsConsumer);
     }
 
+    @Override
+    public long fetchAlertsWithoutMessageByTypeHavingListeningDate(@NotNull Type type, @NotNull Consumer<Stream<Alert>> alertsConsumer) {
+        LOGGER.debug("fetchAlertsWithoutMessageByTypeHavingListeningDate {}", type);
+        return fetch(SQL.SELECT_WITHOUT_MESSAGE_BY_TYPE_HAVING_LISTENING_DATE, Alert.class, Map.of(TYPE, type), alertsConsumer);
+    }
+
     @Override
     @NotNull
     public Map<String, Set<String>> getPairsByExchangesHavingPastListeningDateWithActiveRange(@NotNull ZonedDateTime now, int checkPeriodMin) {
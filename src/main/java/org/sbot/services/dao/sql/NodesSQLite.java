@@ -0,0 +1,104 @@
+package org.sbot.services.dao.sql;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jetbrains.annotations.NotNull;
+import org.sbot.services.dao.NodesDao;
+import org.sbot.services.dao.sql.jdbi.AbstractJDBI;
+import org.sbot.services.dao.sql.jdbi.JDBIRepository;
+import org.sbot.services.dao.sql.jdbi.JDBITransactionHandler;
+import org.sbot.utils.Dates;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.sbot.services.dao.sql.NodesSQLite.SQL.EXPIRATION_DATE_ARGUMENT;
+import static org.sbot.services.dao.sql.NodesSQLite.SQL.Fields.*;
+import static org.sbot.services.dao.sql.NodesSQLite.SQL.NOW_ARGUMENT;
+import static org.sbot.utils.ArgumentValidator.requireNotBlank;
+import static org.sbot.utils.ArgumentValidator.requirePositive;
+
+public final class NodesSQLite extends AbstractJDBI implements NodesDao {
+
+    private static final Logger LOGGER = LogManager.getLogger(NodesSQLite.class);
+
+    interface SQL {
+
+        interface Fields {
+            String NODE_ID = "node_id";
+            String LEASE_UNTIL = "lease_until";
+            String ALERTS_CHANGES = "alerts_changes";
+        }
+
+        String NOW_ARGUMENT = "now";
+        String EXPIRATION_DATE_ARGUMENT = "expirationDate";
+
+        String CREATE_TABLE = """
+                CREATE TABLE IF NOT EXISTS node_leases (
+                node_id TEXT PRIMARY KEY,
+                lease_until INTEGER NOT NULL,
+                alerts_changes INTEGER NOT NULL) STRICT, WITHOUT ROWID
+                """;
+
+        String UPSERT_LEASE = "INSERT INTO node_leases (node_id,lease_until,alerts_changes) VALUES (:node_id,:lease_until,:alerts_changes) " +
+                "ON CONFLICT(node_id) DO UPDATE SET lease_until=excluded.lease_until,alerts_changes=excluded.alerts_changes";
+        String SELECT_HAVING_LEASE_AFTER = "SELECT node_id,lease_until,alerts_changes FROM node_leases WHERE lease_until>:now ORDER BY node_id";
+        String DELETE_HAVING_LEASE_BEFORE = "DELETE FROM node_leases WHERE lease_until<:expirationDate";
+    }
+
+    public static final class NodeLeaseMapper implements RowMapper<NodeLease> {
+        @Override
+        public NodeLease map(ResultSet rs, StatementContext ctx) throws SQLException {
+            var nodeId = rs.getString(NODE_ID);
+            var leaseUntil = ZonedDateTime.ofInstant(Instant.ofEpochMilli(rs.getLong(LEASE_UNTIL)), Dates.UTC);
+            long alertsChanges = rs.getLong(ALERTS_CHANGES);
+            return new NodeLease(nodeId, leaseUntil, alertsChanges);
+        }
+    }
+
+    public NodesSQLite(@NotNull JDBIRepository repository) {
+        super(repository, new NodeLeaseMapper());
+        LOGGER.debug("Loading SQLite storage for node_leases");
+    }
+
+    NodesSQLite(@NotNull AbstractJDBI abstractJDBI, @NotNull JDBITransactionHandler transactionHandler) {
+        super(abstractJDBI, transactionHandler);
+    }
+
+    @Override
+    public NodesSQLite withHandler(@NotNull JDBITransactionHandler transactionHandler) {
+        return new NodesSQLite(this, transactionHandler);
+    }
+
+    @Override
+    protected void setupTable(@NotNull Handle handle) {
+        handle.execute(SQL.CREATE_TABLE);
+    }
+
+    @Override
+    public void renewLease(@NotNull String nodeId, @NotNull ZonedDateTime leaseUntil, long alertsChanges) {
+        LOGGER.debug("renewLease {} {} {}", nodeId, leaseUntil, alertsChanges);
+        update(SQL.UPSERT_LEASE, Map.of(NODE_ID, requireNotBlank(nodeId, "node id"),
+                LEASE_UNTIL, leaseUntil.toInstant().toEpochMilli(), ALERTS_CHANGES, requirePositive(alertsChanges)));
+    }
+
+    @Override
+    @NotNull
+    public List<NodeLease> getLiveNodes(@NotNull ZonedDateTime now) {
+        LOGGER.debug("getLiveNodes {}", now);
+        return query(SQL.SELECT_HAVING_LEASE_AFTER, NodeLease.class, Map.of(NOW_ARGUMENT, now.toInstant().toEpochMilli()));
+    }
+
+    @Override
+    public long deleteLeasesExpiredBefore(@NotNull ZonedDateTime expirationDate) {
+        LOGGER.debug("deleteLeasesExpiredBefore {}", expirationDate);
+        return update(SQL.DELETE_HAVING_LEASE_BEFORE, Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli()));
+    }
+}
@@ -20,16 +20,20 @@ import org.sbot.services.dao.sql.jdbi.JDBITransactionHandler;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static java.util.Collections.emptyMap;
+import static java.util.Objects.requireNonNull;
 import static org.sbot.entities.notifications.Notification.NEW_NOTIFICATION_ID;
 import static org.sbot.entities.notifications.Notification.NotificationStatus.BLOCKED;
 import static org.sbot.entities.notifications.Notification.NotificationStatus.NEW;
+import static org.sbot.services.dao.sql.NotificationsSQLite.SQL.AFTER_ID_ARGUMENT;
 import static org.sbot.services.dao.sql.NotificationsSQLite.SQL.EXPIRATION_DATE_ARGUMENT;
 import static org.sbot.services.dao.sql.NotificationsSQLite.SQL.Fields.*;
 import static org.sbot.services.dao.sql.NotificationsSQLite.SQL.LIMIT_ARGUMENT;
@@ -55,6 +59,7 @@ public class NotificationsSQLite extends AbstractJDBI implements NotificationsDa
 
         String EXPIRATION_DATE_ARGUMENT = "expirationDate";
         String LIMIT_ARGUMENT = "limit";
+        String AFTER_ID_ARGUMENT = "afterId";
 
         String CREATE_TABLE = """
                 CREATE TABLE IF NOT EXISTS notifications (
@@ -74,11 +79,12 @@ public class NotificationsSQLite extends AbstractJDBI implements NotificationsDa
 
         String INSERT_NOTIFICATION = "INSERT INTO notifications (creation_date,type,status,recipient_type,recipient_id,locale,fields) VALUES (:creation_date,:type,:status,:recipient_type,:recipient_id,:locale,:fields)";
         String SELECT_HAVING_STATUS_NEW = "SELECT * FROM notifications WHERE status LIKE '" + NEW + "' LIMIT :limit";
+        String SELECT_HAVING_STATUS_NEW_AND_ID_AFTER = "SELECT * FROM notifications WHERE status LIKE '" + NEW + "' AND id>:afterId ORDER BY id LIMIT :limit";
         String UPDATE_STATUS_NEW_WHERE_BLOCKED_AND_RECIPIENT = "UPDATE notifications SET status='" + NEW + "' WHERE status='" + BLOCKED + "' AND recipient_id=:recipient_id AND recipient_type=:recipient_type";
         String UPDATE_STATUS_RECIPIENT = "UPDATE notifications SET status=:status,recipient_type=:recipient_type,recipient_id=:recipient_id WHERE id=:id";
         String UPDATE_STATUS_BY_ID = "UPDATE notifications SET status=:status WHERE id=:id";
         String DELETE_BY_ID = "DELETE FROM notifications WHERE id=:id";
-        String DELETE_HAVING_CREATION_DATE_BEFORE = "DELETE FROM notifications WHERE creation_date<:expirationDate";
+        String DELETE_HAVING_CREATION_DATE_BEFORE = "DELETE FROM notifications WHERE id IN (SELECT id FROM notifications WHERE creation_date<:expirationDate LIMIT :limit)";
     }
 
     public static final class NotificationMapper implements RowMapper<Notification> {
@@ -153,6 +159,26 @@ public class NotificationsSQLite extends AbstractJDBI implements NotificationsDa
                 Map.of(LIMIT_ARGUMENT, requireStrictlyPositive(limit)));
     }
 
+    // the new notifications are read by pages of limit rows ordered by id, until limit ones are accepted by the filter
+    @Override
+    @NotNull
+    public List<Notification> getNewNotifications(long limit, @NotNull Predicate<Notification> filter) {
+        LOGGER.debug("getNewNotifications {} {}", limit, filter);
+        requireStrictlyPositive(limit);
+        requireNonNull(filter);
+        List<Notification> notifications = new ArrayList<>();
+        long afterId = Long.MIN_VALUE;
+        for(List<Notification> page; notifications.size() < limit; afterId = page.getLast().id) {
+            page = query(SQL.SELECT_HAVING_STATUS_NEW_AND_ID_AFTER, Notification.class,
+                    Map.of(AFTER_ID_ARGUMENT, afterId, LIMIT_ARGUMENT, limit));
+            page.stream().filter(filter).limit(limit - notifications.size()).forEach(notifications::add);
+            if(page.size() < limit) {
+                break;
+            }
+        }
+        return notifications;
+    }
+
     @Override
     public long unblockStatusOfRecipient(@NotNull RecipientType recipientType, @NotNull String recipientId) {
         LOGGER.debug("unblockStatusOfRecipient {} {}", recipientType, recipientId);
@@ -180,9 +206,9 @@ public class NotificationsSQLite extends AbstractJDBI implements NotificationsDa
     }
 
     @Override
-    public long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate) {
-        LOGGER.debug("deleteHavingCreationDateBefore {}", expirationDate);
+    public long deleteHavingCreationDateBefore(@NotNull ZonedDateTime expirationDate, long limit) {
+        LOGGER.debug("deleteHavingCreationDateBefore {} {}", expirationDate, limit);
         return update(SQL.DELETE_HAVING_CREATION_DATE_BEFORE,
-                Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli()));
+                Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli(), LIMIT_ARGUMENT, requireStrictlyPositive(limit)));
     }
 }
@@ -29,7 +29,9 @@ import static org.sbot.entities.settings.ServerSettings.*;
 import static org.sbot.entities.settings.UserSettings.DEFAULT_TIMEZONE;
 import static org.sbot.entities.alerts.Alert.PRIVATE_MESSAGES;
 import static org.sbot.services.dao.sql.ServerSettingsSQLite.SQL.EXPIRATION_DATE_ARGUMENT;
+import static org.sbot.services.dao.sql.ServerSettingsSQLite.SQL.LIMIT_ARGUMENT;
 import static org.sbot.services.dao.sql.ServerSettingsSQLite.SQL.Fields.*;
+import static org.sbot.utils.ArgumentValidator.requireStrictlyPositive;
 import static org.sbot.utils.Dates.parseUtcDateTime;
 
 public class ServerSettingsSQLite extends AbstractJDBI implements ServerSettingsDao {
@@ -48,6 +50,7 @@ public class ServerSettingsSQLite extends AbstractJDBI implements ServerSettings
         }
 
         String EXPIRATION_DATE_ARGUMENT = "expirationDate";
+        String LIMIT_ARGUMENT = "limit";
 
         String CREATE_TABLE = """
                 CREATE TABLE IF NOT EXISTS server_settings (
@@ -70,7 +73,7 @@ public class ServerSettingsSQLite extends AbstractJDBI implements ServerSettings
         String UPDATE_ROLE_OF_DISCORD_SERVER_ID = "UPDATE server_settings SET role=:role WHERE discord_server_id=:discord_server_id";
         String UPDATE_ADMIN_ROLE_OF_DISCORD_SERVER_ID = "UPDATE server_settings SET admin_role=:admin_role WHERE discord_server_id=:discord_server_id";
         String UPDATE_LAST_ACCESS_OF_DISCORD_SERVER_ID = "UPDATE server_settings SET last_access=:last_access WHERE discord_server_id=:discord_server_id";
-        String DELETE_DISCORD_SERVERS_HAVING_LAST_ACCESS_BEFORE_AND_NOT_IN_ALERTS = "DELETE FROM server_settings WHERE last_access<:expirationDate AND discord_server_id NOT IN (SELECT a.server_id FROM alerts a)";
+        String DELETE_DISCORD_SERVERS_HAVING_LAST_ACCESS_BEFORE_AND_NOT_IN_ALERTS = "DELETE FROM server_settings WHERE discord_server_id IN (SELECT discord_server_id FROM server_settings WHERE last_access<:expirationDate AND discord_server_id NOT IN (SELECT a.server_id FROM alerts a) LIMIT :limit)";
     }
 
     public static final class ServerSettingsMapper implements RowMapper<ServerSettings> {
@@ -182,11 +185,11 @@ public class ServerSettingsSQLite extends AbstractJDBI implements ServerSettings
     }
 
     @Override
-    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate) {
-        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {}", clientType, expirationDate);
+    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate, long limit) {
+        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {} {}", clientType, expirationDate, limit);
         return switch (clientType) {
             case DISCORD -> update(SQL.DELETE_DISCORD_SERVERS_HAVING_LAST_ACCESS_BEFORE_AND_NOT_IN_ALERTS,
-                    Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli()));
+                    Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli(), LIMIT_ARGUMENT, requireStrictlyPositive(limit)));
         };
     }
 }
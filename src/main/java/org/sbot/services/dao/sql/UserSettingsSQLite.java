@@ -25,7 +25,9 @@ import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.groupingBy;
 import static org.sbot.services.dao.sql.UserSettingsSQLite.SQL.EXPIRATION_DATE_ARGUMENT;
+import static org.sbot.services.dao.sql.UserSettingsSQLite.SQL.LIMIT_ARGUMENT;
 import static org.sbot.services.dao.sql.UserSettingsSQLite.SQL.Fields.*;
+import static org.sbot.utils.ArgumentValidator.requireStrictlyPositive;
 import static org.sbot.utils.Dates.parseUtcDateTime;
 
 public class UserSettingsSQLite extends AbstractJDBI implements UserSettingsDao {
@@ -42,6 +44,7 @@ public class UserSettingsSQLite extends AbstractJDBI implements UserSettingsDao
         }
 
         String EXPIRATION_DATE_ARGUMENT = "expirationDate";
+        String LIMIT_ARGUMENT = "limit";
 
         String CREATE_TABLE = """
                 CREATE TABLE IF NOT EXISTS user_settings (
@@ -60,7 +63,7 @@ public class UserSettingsSQLite extends AbstractJDBI implements UserSettingsDao
         String UPDATE_LOCALE_OF_DISCORD_USER_ID = "UPDATE user_settings SET locale=:locale WHERE discord_user_id=:discord_user_id";
         String UPDATE_TIMEZONE_OF_DISCORD_USER_ID = "UPDATE user_settings SET timezone=:timezone WHERE discord_user_id=:discord_user_id";
         String UPDATE_LAST_ACCESS_OF_DISCORD_USER_ID = "UPDATE user_settings SET last_access=:last_access WHERE discord_user_id=:discord_user_id";
-        String DELETE_DISCORD_USERS_HAVING_LAST_ACCESS_BEFORE_AND_NOT_IN_ALERTS = "DELETE FROM user_settings WHERE last_access<:expirationDate AND discord_user_id NOT IN (SELECT a.user_id FROM alerts a)";
+        String DELETE_DISCORD_USERS_HAVING_LAST_ACCESS_BEFORE_AND_NOT_IN_ALERTS = "DELETE FROM user_settings WHERE discord_user_id IN (SELECT discord_user_id FROM user_settings WHERE last_access<:expirationDate AND discord_user_id NOT IN (SELECT a.user_id FROM alerts a) LIMIT :limit)";
     }
 
     public static final class UserSettingsMapper implements RowMapper<UserSettings> {
@@ -173,11 +176,11 @@ public class UserSettingsSQLite extends AbstractJDBI implements UserSettingsDao
     }
 
     @Override
-    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate) {
-        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {}", clientType, expirationDate);
+    public long deleteHavingLastAccessBeforeAndNotInAlerts(@NotNull ClientType clientType, @NotNull ZonedDateTime expirationDate, long limit) {
+        LOGGER.debug("deleteHavingLastAccessBeforeAndNotInAlerts {} {} {}", clientType, expirationDate, limit);
         return switch (clientType) {
             case DISCORD -> update(SQL.DELETE_DISCORD_USERS_HAVING_LAST_ACCESS_BEFORE_AND_NOT_IN_ALERTS,
-                    Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli()));
+                    Map.of(EXPIRATION_DATE_ARGUMENT, expirationDate.toInstant().toEpochMilli(), LIMIT_ARGUMENT, requireStrictlyPositive(limit)));
         };
     }
 }
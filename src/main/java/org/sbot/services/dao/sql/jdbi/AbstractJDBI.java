@@ -108,6 +108,11 @@ public abstract class AbstractJDBI {
         return sync(handle -> repository.fetch(handle, sql, type, parameters, streamConsumer));
     }
 
+    protected <T> long fetch(@NotNull String sql, @NotNull Class<T> type, @NotNull Consumer<Query> mapper, @NotNull Consumer<Stream<T>> streamConsumer) {
+        requireNonNull(sql); requireNonNull(type); requireNonNull(mapper); requireNonNull(streamConsumer);
+        return sync(handle -> repository.fetch(handle, sql, type, mapper, streamConsumer));
+    }
+
     protected <T> Optional<T> findOne(@NotNull String sql, @NotNull Class<T> type, @NotNull Map<String, ?> parameters) {
         requireNonNull(sql); requireNonNull(type); requireNonNull(parameters);
         return sync(handle -> repository.findOne(handle, sql, type, parameters));
@@ -125,6 +125,16 @@ public final class JDBIRepository {
         }
     }
 
+    <T> long fetch(@NotNull Handle handle, @NotNull String sql, @NotNull Class<T> type, @NotNull Consumer<Query> mapper, @NotNull Consumer<Stream<T>> streamConsumer) {
+        try (var query = handle.createQuery(sql)) {
+            mapper.accept(query);
+            long[] read = new long[] {0L};
+            streamConsumer.accept(query.mapTo(type)
+                    .stream().filter(v -> ++read[0] != 0));
+            return read[0];
+        }
+    }
+
     @NotNull
     <T> Optional<T> findOne(@NotNull Handle handle, @NotNull String sql, @NotNull Class<T> type, @NotNull Map<String, ?> parameters) {
         try (var query = handle.createQuery(sql)) {
@@ -12,11 +12,14 @@ import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.utils.MarkdownUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,12 +33,15 @@ import org.sbot.entities.notifications.MigratedNotification.Reason;
 import org.sbot.services.context.Context;
 
 import java.awt.Color;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
+import static org.sbot.commands.CommandAdapter.EXCHANGE_ARGUMENT;
+import static org.sbot.commands.CommandAdapter.PAIR_ARGUMENT;
 import static org.sbot.commands.CommandAdapter.embedBuilder;
 import static org.sbot.commands.MigrateCommand.migrateServerAlertsToPrivateChannel;
 import static org.sbot.commands.MigrateCommand.migrateUserAlertsToPrivateChannel;
@@ -45,6 +51,7 @@ import static org.sbot.entities.alerts.Alert.DISABLED_COLOR;
 import static org.sbot.entities.alerts.Alert.isPrivate;
 import static org.sbot.entities.alerts.ClientType.DISCORD;
 import static org.sbot.entities.notifications.RecipientType.DISCORD_USER;
+import static org.sbot.exchanges.Exchanges.SUPPORTED_EXCHANGES;
 import static org.sbot.services.discord.CommandListener.optionsDescription;
 import static org.sbot.utils.ArgumentValidator.START_WITH_DISCORD_USER_ID_PATTERN;
 
@@ -249,6 +256,23 @@ final class EventAdapter extends ListenerAdapter {
         }
     }
 
+    // suggests the pairs listed by the selected exchange that start with the typed value
+    @Override
+    public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
+        if(event.getUser().isBot() || !PAIR_ARGUMENT.equals(event.getFocusedOption().getName())) {
+            return;
+        }
+        try {
+            var prefix = event.getFocusedOption().getValue().toUpperCase();
+            var pairs = Optional.ofNullable(event.getOption(EXCHANGE_ARGUMENT)).map(OptionMapping::getAsString)
+                    .filter(SUPPORTED_EXCHANGES::contains).flatMap(context.exchanges()::get)
+                    .map(exchange -> exchange.getAvailablePairs(prefix, OptionData.MAX_CHOICES)).orElse(List.of());
+            event.replyChoiceStrings(pairs).queue();
+        } catch (RuntimeException e) {
+            LOGGER.warn(() -> "Internal error while processing discord auto complete interaction : " + event, e);
+        }
+    }
+
     @Override
     public void onStringSelectInteraction(@NotNull StringSelectInteractionEvent event) {
         onInteraction(event, event.getUser(), user -> CommandContext.of(context, user, event));
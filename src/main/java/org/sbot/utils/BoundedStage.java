@@ -0,0 +1,129 @@
+package org.sbot.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.sbot.utils.ArgumentValidator.requireStrictlyPositive;
+
+/*
+    Stage of a pipeline, its items are consumed by a fixed number of virtual threads from a bounded queue.
+    A full queue blocks the producers until some items are consumed, so a slow stage slows down the previous ones
+    instead of buffering all their items. Closing the stage waits for the submitted items to be consumed.
+    An exception thrown by the consumer is logged and counted, it doesn't stop the stage.
+ */
+public final class BoundedStage<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(BoundedStage.class);
+
+    // items consumed and failed since the stage start, the busy time is summed over the workers
+    public record Metrics(@NotNull String name, long consumed, long failed, int maxQueueDepth, long busyMillis, long elapsedMillis) {
+        public Metrics {
+            requireNonNull(name);
+        }
+
+        // items consumed by second
+        public double throughput() {
+            return elapsedMillis > 0L ? consumed * 1000d / elapsedMillis : 0d;
+        }
+    }
+
+    private static final Object END = new Object();
+
+    private final String name;
+    private final BlockingQueue<Object> queue;
+    private final Consumer<T> consumer;
+    private final List<Thread> workers;
+    private final long start = System.nanoTime();
+    private final LongAdder consumed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile long end;
+    private volatile boolean closed;
+
+    public BoundedStage(@NotNull String name, int capacity, int concurrency, @NotNull Consumer<T> consumer) {
+        this.name = requireNonNull(name);
+        this.queue = new ArrayBlockingQueue<>(requireStrictlyPositive(capacity));
+        this.consumer = requireNonNull(consumer);
+        this.workers = IntStream.range(0, requireStrictlyPositive(concurrency))
+                .mapToObj(i -> Thread.ofVirtual().name(name + " stage " + i).start(this::consume)).toList();
+    }
+
+    @NotNull
+    public String name() {
+        return name;
+    }
+
+    // blocks while the queue is full
+    public void submit(@NotNull T item) throws InterruptedException {
+        requireNonNull(item);
+        if(closed) {
+            throw new IllegalStateException("Stage " + name + " is closed");
+        }
+        queue.put(item);
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @NotNull
+    public Metrics metrics() {
+        long elapsed = (closed && 0L != end ? end : System.nanoTime()) - start;
+        return new Metrics(name, consumed.sum(), failed.sum(), maxQueueDepth.get(), NANOSECONDS.toMillis(busyNanos.sum()), NANOSECONDS.toMillis(elapsed));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume() {
+        try {
+            for(Object item; END != (item = queue.take());) {
+                long begin = System.nanoTime();
+                try {
+                    consumer.accept((T) item);
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    LOGGER.error("Stage " + name + " failed to consume an item", e);
+                } finally {
+                    consumed.increment();
+                    busyNanos.add(System.nanoTime() - begin);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // waits for the submitted items to be consumed, then stops the workers. Items can't be submitted anymore
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for(int i = workers.size(); i-- > 0;) {
+                queue.put(END);
+            }
+            for(var worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+        } finally {
+            end = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package org.sbot.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    Dynamic interval tree of closed intervals [low, high] identified by a long id, one interval per id.
+    This is a treap ordered by (low, id) where each node keeps the max high value of its subtree,
+    a stabbing or overlap query visits only the subtrees that may contain a matching interval.
+    Not thread safe.
+ */
+public final class IntervalTree {
+
+    private static final class Node {
+        private final double low;
+        private final double high;
+        private final long id;
+        private final int priority;
+        private double maxHigh;
+        private Node left;
+        private Node right;
+
+        private Node(double low, double high, long id, int priority) {
+            this.low = low;
+            this.high = high;
+            this.id = id;
+            this.priority = priority;
+            this.maxHigh = high;
+        }
+
+        private int compareTo(double low, long id) {
+            int cmp = Double.compare(this.low, low);
+            return 0 != cmp ? cmp : Long.compare(this.id, id);
+        }
+
+        private void update() {
+            double max = high;
+            if(null != left && left.maxHigh > max) {
+                max = left.maxHigh;
+            }
+            if(null != right && right.maxHigh > max) {
+                max = right.maxHigh;
+            }
+            maxHigh = max;
+        }
+    }
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom(1L);
+    private Node root;
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public boolean contains(long id) {
+        return nodes.containsKey(id);
+    }
+
+    // returns the interval {low, high} of the provided id, or null if not found
+    @Nullable
+    public double[] interval(long id) {
+        var node = nodes.get(id);
+        return null != node ? new double[] {node.low, node.high} : null;
+    }
+
+    // insert or replace the interval of the provided id
+    public void put(long id, double low, double high) {
+        if(Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            throw new IllegalArgumentException("Invalid interval [" + low + ", " + high + ']');
+        }
+        remove(id);
+        var node = new Node(low, high, id, random.nextInt());
+        root = insert(root, node);
+        nodes.put(id, node);
+    }
+
+    public boolean remove(long id) {
+        var node = nodes.remove(id);
+        if(null != node) {
+            root = remove(root, node.low, node.id);
+            return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    // call the consumer with each id whose interval intersects [low, high], returns the number of ids found
+    public long overlapping(double low, double high, @NotNull LongConsumer idConsumer) {
+        requireNonNull(idConsumer);
+        return low > high ? 0L : overlapping(root, low, high, idConsumer);
+    }
+
+    // call the consumer with each id whose interval contains the provided point
+    public long stabbing(double point, @NotNull LongConsumer idConsumer) {
+        return overlapping(point, point, idConsumer);
+    }
+
+    // returns the distance from the provided point to the nearest interval, 0 if an interval contains it, or infinity if the tree is empty
+    public double distance(double point) {
+        if(Double.isNaN(point)) {
+            throw new IllegalArgumentException("Invalid point : " + point);
+        }
+        double below = Double.NEGATIVE_INFINITY; // max high of the intervals starting at or before the point
+        double above = Double.POSITIVE_INFINITY; // min low of the intervals starting after the point
+        var node = root;
+        while(null != node) {
+            if(node.low <= point) {
+                below = Math.max(below, null != node.left ? Math.max(node.high, node.left.maxHigh) : node.high);
+                node = node.right;
+            } else {
+                above = Math.min(above, node.low);
+                node = node.left;
+            }
+        }
+        return below >= point ? 0d : Math.min(point - below, above - point);
+    }
+
+    private static long overlapping(@Nullable Node node, double low, double high, @NotNull LongConsumer idConsumer) {
+        long found = 0L;
+        while(null != node && node.maxHigh >= low) {
+            found += overlapping(node.left, low, high, idConsumer);
+            if(node.low > high) {
+                break; // right subtree nodes start after high
+            }
+            if(node.high >= low) {
+                idConsumer.accept(node.id);
+                found++;
+            }
+            node = node.right;
+        }
+        return found;
+    }
+
+    @NotNull
+    private static Node insert(@Nullable Node root, @NotNull Node node) {
+        if(null == root) {
+            return node;
+        }
+        if(root.compareTo(node.low, node.id) > 0) {
+            root.left = insert(root.left, node);
+            if(root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if(root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    @Nullable
+    private static Node remove(@Nullable Node root, double low, long id) {
+        if(null == root) {
+            return null;
+        }
+        int cmp = root.compareTo(low, id);
+        if(cmp > 0) {
+            root.left = remove(root.left, low, id);
+        } else if(cmp < 0) {
+            root.right = remove(root.right, low, id);
+        } else {
+            if(null == root.left) {
+                return root.right;
+            } else if(null == root.right) {
+                return root.left;
+            } else if(root.left.priority > root.right.priority) {
+                root = rotateRight(root);
+                root.right = remove(root.right, low, id);
+            } else {
+                root = rotateLeft(root);
+                root.left = remove(root.left, low, id);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    @NotNull
+    private static Node rotateRight(@NotNull Node node) {
+        var left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    @NotNull
+    private static Node rotateLeft(@NotNull Node node) {
+        var right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+}
@@ -24,6 +24,10 @@ public class MutableDecimal {
             this.exp = exp;
         }
 
+        public ImmutableDecimal(@NotNull MutableDecimal value) {
+            this(value.mantissa, value.exp);
+        }
+
         @Override
         public void mantissa(long mantissa) {
             throw new UnsupportedOperationException();
@@ -154,6 +158,20 @@ public class MutableDecimal {
         return empty().set(value, scale);
     }
 
+    // @throws ArithmeticException if the value has more than 18 significant digits or its exponent overflows
+    @NotNull
+    public static MutableDecimal of(@NotNull BigDecimal value) {
+        var stripped = value.stripTrailingZeros();
+        if(stripped.precision() > MutableDecimalParser.MAX_COMPACT_DIGITS) {
+            throw new OverflowException(false);
+        }
+        int exp = -stripped.scale();
+        if(exponentOverflow(exp)) {
+            throw new OverflowException(true);
+        }
+        return of(stripped.unscaledValue().longValue(), (byte) exp);
+    }
+
     @NotNull
     public final BigDecimal bigDecimal() {
         return BigDecimal.valueOf(mantissa, -exp);
@@ -201,6 +219,14 @@ public class MutableDecimal {
         }
     }
 
+    public final void expandMantissa() {
+        // expanded scale up to 18 digits keeping same value
+        while (exp > Byte.MIN_VALUE && 0L != mantissa && Long.MIN_VALUE != mantissa && Math.abs(mantissa) < LONG_TEN_POWERS_TABLE[17]) {
+            exp((byte) (exp - 1));
+            mantissa(mantissa * 10L);
+        }
+    }
+
     private static boolean exponentOverflow(int exp) {
         return (byte) exp != exp;
     }
@@ -539,6 +565,57 @@ public class MutableDecimal {
         divide(mantissa, exp, false);
     }
 
+    // multiply then divide by longs, the product is computed on 128 bits and the quotient rounded half up once.
+    // a multiplier smaller than the divisor is scaled up to keep the mantissa digits (so the mantissa should be expanded first),
+    // and the divisor is scaled up when the quotient won't fit into a long
+    public final void multiplyDivideCaped(long multiplier, long divisor) {
+        requireStrictlyPositive(divisor);
+        if(0L == multiplier || 0L == mantissa) {
+            mantissa(0L);
+            return;
+        }
+        byte exp = this.exp;
+        try {
+            if(Long.MIN_VALUE == multiplier || Long.MIN_VALUE == mantissa) { // can't be negated
+                throw new OverflowException(false);
+            }
+            long absMultiplier = Math.abs(multiplier);
+            long scaledDivisor = divisor;
+            int ratioDigits = digitLength(absMultiplier) - digitLength(divisor) + 1;
+            if(ratioDigits < 0) {
+                int scale = Math.min(-ratioDigits, exp - Byte.MIN_VALUE);
+                absMultiplier *= LONG_TEN_POWERS_TABLE[scale];
+                exp((byte) (exp - scale));
+            } else if(digitLength(mantissa) + ratioDigits > 19) {
+                int scale = digitLength(mantissa) + ratioDigits - 19;
+                if(scale >= LONG_TEN_POWERS_TABLE.length) {
+                    throw new OverflowException(false);
+                }
+                scaledDivisor = Math.multiplyExact(divisor, LONG_TEN_POWERS_TABLE[scale]);
+                exp(checkExponent(exp + scale));
+            }
+            boolean negative = mantissa < 0L != multiplier < 0L;
+            for(;;) {
+                try {
+                    long result = multiplyDivide128(multiplier < 0L ? -mantissa : mantissa, absMultiplier, scaledDivisor);
+                    if(0L == result || result < 0L == negative) {
+                        mantissa(result);
+                        shrinkMantissa();
+                        return;
+                    }
+                } catch (OverflowException e) { // quotient above 63 bits
+                }
+                // drop one more digit
+                scaledDivisor = Math.multiplyExact(scaledDivisor, 10L);
+                exp(checkExponent(this.exp + 1));
+            }
+        } catch (ArithmeticException e) { // exponent or divisor overflow
+            exp(exp);
+            multiplyCaped(multiplier);
+            divideCaped(divisor);
+        }
+    }
+
     private void divide(long mantissa1, byte exp1, boolean exact) {
         if(mantissa1 != Long.MAX_VALUE && (mantissa1 = divideTrivial(mantissa1)) == Long.MAX_VALUE) {
             return;
@@ -681,9 +758,9 @@ public static long failing = 0L;
         // add the value
         value = sign > 0 ? value : -value;
         lo0 = y + value;
-        if ((((y ^ lo0) & (value ^ lo0)) < 0) && (y < 0L || value < 0L)) { // TODO check, use add binary
-            // handle overflow only for underflow, one signed addition do not overflow one unsigned 64 bits
-            x++;
+        // the low bits are unsigned, adding a positive value may carry and a negative one may borrow from the high bits
+        if (value >= 0L ? Long.compareUnsigned(lo0, y) < 0 : Long.compareUnsigned(lo0, y) > 0) {
+            x += value >= 0L ? 1L : -1L;
         }
         lo0 += carry ? 1 : 0;//TODO check overflow ?
         y = lo0;
@@ -41,8 +41,8 @@ public interface MutableDecimalParser {
         int startingOffset = startingOffset(value, offset);
         len -= (startingOffset - offset);
         offset = startingOffset;
-        if(length - offset > MAX_COMPACT_DIGITS) {
-            throw new NumberFormatException ("Provided value '" + value + "'is too long : length " + value.length() + ", max : " + MAX_COMPACT_DIGITS);
+        if(len > MAX_COMPACT_DIGITS) { // offset is not 0 when parsing from a larger buffer
+            throw new NumberFormatException ("Provided value '" + value.subSequence(offset, offset + len) + "'is too long : length " + len + ", max : " + MAX_COMPACT_DIGITS);
         }
 
         long scale = 0;
@@ -104,8 +104,7 @@ public interface MutableDecimalParser {
             nfe.initCause(e);
             throw nfe;
         }
-        priceBuffer.value(intCompact);
-        priceBuffer.scale((byte) scale); // scale can not overflow here
+        priceBuffer.set(intCompact, (byte) -scale); // scale can not overflow here
     }
 
     // skip any heading zero, this could help the number to fit into compact format
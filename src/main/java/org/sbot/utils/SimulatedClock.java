@@ -0,0 +1,71 @@
+package org.sbot.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/*
+    A clock that only moves when told to, shared by the services of a simulation to replay some market data faster than real time.
+    The clocks with another zone returned by withZone share the same time.
+ */
+public final class SimulatedClock extends Clock {
+
+    private final AtomicLong millis;
+    private final ZoneId zone;
+
+    public SimulatedClock(@NotNull Instant start) {
+        this(new AtomicLong(start.toEpochMilli()), Dates.UTC);
+    }
+
+    private SimulatedClock(@NotNull AtomicLong millis, @NotNull ZoneId zone) {
+        this.millis = millis;
+        this.zone = requireNonNull(zone);
+    }
+
+    @NotNull
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @NotNull
+    @Override
+    public Clock withZone(@NotNull ZoneId zone) {
+        return zone.equals(this.zone) ? this : new SimulatedClock(millis, zone);
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @NotNull
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis.get());
+    }
+
+    // moves this clock forward, returns the new instant
+    @NotNull
+    public Instant advance(@NotNull Duration duration) {
+        if(duration.isNegative()) {
+            throw new IllegalArgumentException("Can't move the clock backward : " + duration);
+        }
+        return Instant.ofEpochMilli(millis.addAndGet(duration.toMillis()));
+    }
+
+    // sets this clock to this instant, which can't be before the current one
+    public void set(@NotNull Instant instant) {
+        long newMillis = instant.toEpochMilli();
+        long current = millis.getAndAccumulate(newMillis, Math::max);
+        if(newMillis < current) {
+            throw new IllegalArgumentException("Can't move the clock backward : " + instant + " is before " + Instant.ofEpochMilli(current));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.sbot;
 
 import org.junit.jupiter.api.Test;
 import org.sbot.services.AlertsWatcher;
+import org.sbot.services.Housekeeping;
+import org.sbot.services.ShardsRing;
 import org.sbot.services.context.Context;
 import org.sbot.services.context.Context.Parameters;
 import org.sbot.utils.Dates;
@@ -34,6 +36,10 @@ class SpotBotTest {
         Context context = mock();
         AlertsWatcher alertsWatcher = mock();
         when(context.alertsWatcher()).thenReturn(alertsWatcher);
+        Housekeeping housekeeping = mock();
+        when(context.housekeeping()).thenReturn(housekeeping);
+        ShardsRing shardsRing = mock();
+        when(context.shardsRing()).thenReturn(shardsRing);
 
         ZonedDateTime date = Dates.parseLocalDateTime(Locale.UK, "12/12/2012-10:00").atZone(UTC);
         when(context.clock()).thenReturn(Clock.fixed(date.toInstant(), UTC));
@@ -60,6 +66,9 @@ class SpotBotTest {
         lock.lock();
         assertTrue(check.get());
         verify(alertsWatcher).checkAlerts(); // this may sometime fails, perfectible test...
+        verify(alertsWatcher).watchRemainders();
+        verify(housekeeping).start();
+        verify(shardsRing).start();
     }
 
     @Test
@@ -75,6 +84,14 @@ class SpotBotTest {
         when(parameters.hourlySyncDeltaMin()).thenReturn(3);
         assertEquals(3, SpotBot.checkAlerts(context));
         verify(alertsWatcher).checkAlerts();
+
+        // a pair due before the next periodic check
+        when(alertsWatcher.nextCheck()).thenReturn(date.plusSeconds(61L).toInstant());
+        assertEquals(2, SpotBot.checkAlerts(context));
+        when(alertsWatcher.nextCheck()).thenReturn(date.minusMinutes(5L).toInstant());
+        assertEquals(1, SpotBot.checkAlerts(context));
+        when(alertsWatcher.nextCheck()).thenReturn(date.plusMinutes(5L).toInstant());
+        assertEquals(3, SpotBot.checkAlerts(context));
     }
 
     @Test
@@ -13,6 +13,7 @@ import org.sbot.entities.chart.TimeFrame;
 import org.sbot.exchanges.Exchange;
 import org.sbot.exchanges.Exchanges;
 import org.sbot.exchanges.binance.BinanceClient;
+import org.sbot.services.CandlesticksCache;
 import org.sbot.services.context.Context;
 import org.sbot.utils.DatesTest;
 
@@ -55,8 +56,19 @@ class QuoteCommandTest {
         var finalCommandContext = spy(CommandContext.of(context, settings, messageReceivedEvent, QuoteCommand.NAME + "  " + BinanceClient.NAME + " btc/usd"));
         assertExceptionContains(IllegalArgumentException.class, BinanceClient.NAME, () -> command.onCommand(finalCommandContext));
 
+        Context.Services services = mock();
+        when(context.services()).thenReturn(services);
+        when(services.candlesticksCache()).thenReturn(new CandlesticksCache(context.clock()));
         Exchange binance = mock();
+        when(binance.name()).thenReturn(BinanceClient.NAME);
         when(exchanges.get(BinanceClient.NAME)).thenReturn(Optional.of(binance));
+
+        // a pair not listed by the exchange
+        var unlistedCommandContext = spy(CommandContext.of(context, settings, messageReceivedEvent, QuoteCommand.NAME + "  " + BinanceClient.NAME + " btc/usd"));
+        assertExceptionContains(IllegalArgumentException.class, "BTC/USD", () -> command.onCommand(unlistedCommandContext));
+        verify(binance, never()).getCandlesticks(any(), any(), anyLong());
+
+        when(binance.getPair("BTC/USD")).thenReturn("BTC/USD");
         var commandContext = spy(CommandContext.of(context, settings, messageReceivedEvent, QuoteCommand.NAME + "  " + BinanceClient.NAME + " btc/usd"));
         doNothing().when(commandContext).reply(anyList(), anyInt());
         command.onCommand(commandContext);
@@ -69,6 +81,10 @@ class QuoteCommandTest {
         assertEquals(1, messages.get(0).embeds().size());
         var message = messages.get(0).embeds().get(0);
         assertTrue(message.getDescriptionBuilder().toString().contains("BTC/USD"));
+
+        // the last candlestick is cached
+        command.onCommand(commandContext);
+        verify(binance, times(1)).getCandlesticks("BTC/USD", TimeFrame.ONE_MINUTE, 1);
     }
 
     @Test
@@ -11,6 +11,8 @@ import org.sbot.entities.Message;
 import org.sbot.entities.settings.ServerSettings;
 import org.sbot.entities.settings.Settings;
 import org.sbot.entities.alerts.Alert;
+import org.sbot.exchanges.Exchange;
+import org.sbot.exchanges.Exchanges;
 import org.sbot.exchanges.binance.BinanceClient;
 import org.sbot.services.context.Context;
 import org.sbot.services.dao.AlertsDao;
@@ -23,6 +25,7 @@ import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -64,6 +67,11 @@ class RangeCommandTest {
         when(dataServices.userSettingsDao()).thenReturn(v -> settingsDao);
         when(dataServices.alertsDao()).thenReturn(v -> alertsDao);
         when(context.dataServices()).thenReturn(dataServices);
+        Exchanges exchanges = mock();
+        when(context.exchanges()).thenReturn(exchanges);
+        Exchange binance = mock();
+        when(binance.getPair(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(exchanges.get(BinanceClient.NAME)).thenReturn(Optional.of(binance));
 
         String dateFrom = Dates.formatUTC(DEFAULT_LOCALE, now.plusHours(3L).plusDays(2L));
         String dateTo = Dates.formatUTC(DEFAULT_LOCALE, now.plusHours(9L).plusDays(2L));
@@ -218,6 +226,12 @@ class RangeCommandTest {
         var fc4 = spy(CommandContext.of(context, settings, messageReceivedEvent, RangeCommand.NAME + " " + BinanceClient.NAME + " ada/btc 12,45 12/12/3012-21:00 12/12/3111-20:00"));
         doNothing().when(fc3).reply(anyList(), eq(command.responseTtlSeconds));
         assertThrows(IllegalArgumentException.class, () -> command.onCommand(fc4));
+
+        // pair not listed by the exchange
+        when(binance.getPair("ADA/BTC")).thenReturn(null);
+        var fc5 = spy(CommandContext.of(context, settings, messageReceivedEvent, RangeCommand.NAME + " " + BinanceClient.NAME + " ada/btc this is the message !! 12,45  23232.6 " + dateFrom + " " + dateTo));
+        doNothing().when(fc5).reply(anyList(), eq(command.responseTtlSeconds));
+        assertExceptionContains(IllegalArgumentException.class, "ADA/BTC", () -> command.onCommand(fc5));
     }
 
     @Test
@@ -12,6 +12,8 @@ import org.sbot.entities.Message;
 import org.sbot.entities.settings.ServerSettings;
 import org.sbot.entities.settings.Settings;
 import org.sbot.entities.alerts.Alert;
+import org.sbot.exchanges.Exchange;
+import org.sbot.exchanges.Exchanges;
 import org.sbot.exchanges.binance.BinanceClient;
 import org.sbot.services.context.Context;
 import org.sbot.services.dao.AlertsDao;
@@ -67,6 +69,11 @@ class TrendCommandTest {
         when(dataServices.userSettingsDao()).thenReturn(v -> settingsDao);
         when(dataServices.alertsDao()).thenReturn(v -> alertsDao);
         when(context.dataServices()).thenReturn(dataServices);
+        Exchanges exchanges = mock();
+        when(context.exchanges()).thenReturn(exchanges);
+        Exchange binance = mock();
+        when(binance.getPair(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(exchanges.get(BinanceClient.NAME)).thenReturn(Optional.of(binance));
 
         String dateFrom = Dates.formatUTC(DEFAULT_LOCALE, now.plusHours(3L).plusDays(2L));
         String dateTo = Dates.formatUTC(DEFAULT_LOCALE, now.plusHours(9L).plusDays(2L));
@@ -0,0 +1,105 @@
+package org.sbot.entities.alerts;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.utils.MutableDecimal;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static java.math.BigDecimal.*;
+import static java.util.Objects.requireNonNull;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.entities.alerts.AlertTest.TEST_FROM_DATE;
+import static org.sbot.entities.alerts.RangeAlertTest.createTestRangeAlert;
+import static org.sbot.entities.alerts.RemainderAlertTest.createTestRemainderAlert;
+import static org.sbot.entities.alerts.TrendAlertTest.createTestTrendAlert;
+
+class CompiledAlertTest {
+
+    private static CompiledAlert.Trend trend(Alert alert) {
+        return (CompiledAlert.Trend) alert.compile();
+    }
+
+    @Test
+    void of() {
+        assertNull(createTestRemainderAlert().compile());
+        assertNull(CompiledAlert.of(createTestRemainderAlert()));
+        assertInstanceOf(CompiledAlert.Range.class, createTestRangeAlert().compile());
+        assertInstanceOf(CompiledAlert.Trend.class, createTestTrendAlert().compile());
+
+        var alert = createTestRangeAlert().withFromDate(TEST_FROM_DATE).withToDate(null);
+        var compiled = alert.compile();
+        assertEquals(alert.id, compiled.id);
+        assertEquals(requireNonNull(alert.listeningDate).toInstant().toEpochMilli(), compiled.listeningDateMs);
+        assertEquals(TEST_FROM_DATE.toInstant().toEpochMilli(), compiled.fromDateMs);
+        assertEquals(Long.MAX_VALUE, compiled.toDateMs);
+        assertEquals(Long.MIN_VALUE, alert.withFromDate(null).compile().fromDateMs);
+        assertEquals(Long.MAX_VALUE, alert.withListeningDateRepeat(null, alert.repeat).compile().listeningDateMs);
+        assertEquals(0, alert.fromPrice.compareTo(BigDecimal.valueOf(compiled.fromPriceValue, -compiled.fromPriceScale)));
+        assertEquals(0, alert.toPrice.compareTo(BigDecimal.valueOf(compiled.toPriceValue, -compiled.toPriceScale)));
+    }
+
+    @Test
+    void rangeMarginBand() {
+        var range = (CompiledAlert.Range) createTestRangeAlert().withFromPrice(new BigDecimal("10.5")).withToPrice(new BigDecimal("20.25"))
+                .withMargin(new BigDecimal("0.125")).compile();
+        assertEquals(0, new BigDecimal("10.375").compareTo(BigDecimal.valueOf(range.lowMarginValue, -range.lowMarginScale)));
+        assertEquals(0, new BigDecimal("20.375").compareTo(BigDecimal.valueOf(range.highMarginValue, -range.highMarginScale)));
+        range = (CompiledAlert.Range) createTestRangeAlert().withFromPrice(ONE).withToPrice(TWO).withMargin(ZERO).compile();
+        assertEquals(0, ONE.compareTo(BigDecimal.valueOf(range.lowMarginValue, -range.lowMarginScale)));
+        assertEquals(0, TWO.compareTo(BigDecimal.valueOf(range.highMarginValue, -range.highMarginScale)));
+    }
+
+    @Test
+    void trendSlope() {
+        var alert = createTestTrendAlert().withFromDate(TEST_FROM_DATE).withToDate(TEST_FROM_DATE.plusHours(1L))
+                .withFromPrice(ONE).withToPrice(new BigDecimal("2.5")).withMargin(new BigDecimal("0.1"));
+        var trend = trend(alert);
+        assertEquals(3600L, trend.slopeSeconds);
+        assertEquals(0, new BigDecimal("1.5").compareTo(BigDecimal.valueOf(trend.slopeValue, -trend.slopeScale)));
+        assertTrue(Math.abs(trend.slopeValue) >= 100000000000000000L);
+        assertEquals(0, new BigDecimal("0.1").compareTo(BigDecimal.valueOf(trend.marginValue, -trend.marginScale)));
+        // decreasing trend, dates less than one second apart
+        trend = trend(alert.withFromPrice(TEN).withToDate(TEST_FROM_DATE.plusNanos(500_000_000L)));
+        assertEquals(1L, trend.slopeSeconds);
+        assertEquals(0, new BigDecimal("-7.5").compareTo(BigDecimal.valueOf(trend.slopeValue, -trend.slopeScale)));
+    }
+
+    @Test
+    void trendPriceAt() {
+        ZonedDateTime fromDate = TEST_FROM_DATE;
+        var alert = (TrendAlert) createTestTrendAlert().withFromDate(fromDate).withToDate(fromDate.plusHours(1L))
+                .withFromPrice(ONE).withToPrice(TWO);
+        long fromDateMs = fromDate.toInstant().toEpochMilli();
+        for(var date : List.of(fromDate, fromDate.plusMinutes(30L), fromDate.plusHours(1L), fromDate.plusMinutes(71L), fromDate.minusMinutes(13L), fromDate.minusHours(3L))) {
+            var expected = TrendAlert.trendPriceAt(date, alert);
+            var price = trend(alert).trendPriceAt(MutableDecimal.empty(), date.toInstant().toEpochMilli());
+            assertTrue(expected.subtract(price.bigDecimal()).abs().compareTo(new BigDecimal("1E-15")) < 0, expected + " <> " + price);
+        }
+        assertEquals(0, ZERO.compareTo(trend(alert).trendPriceAt(MutableDecimal.empty(), fromDateMs - Duration.ofHours(3L).toMillis()).bigDecimal()));
+        assertEquals(0, new BigDecimal("1.5").compareTo(trend(alert).trendPriceAt(MutableDecimal.empty(), fromDateMs + Duration.ofMinutes(30L).toMillis()).bigDecimal()));
+        assertEquals(0, new BigDecimal("1.5").compareTo(trend(alert).trendPriceAt(MutableDecimal.empty(), fromDateMs + Duration.ofMinutes(30L).toMillis() + 999L).bigDecimal()));
+        assertEquals(0, new BigDecimal("11").compareTo(trend(alert).trendPriceAt(MutableDecimal.empty(), fromDateMs + Duration.ofHours(10L).toMillis()).bigDecimal()));
+
+        // dates less than one second apart, the price delta is by second
+        alert = (TrendAlert) alert.withToDate(fromDate.plusNanos(500_000_000L));
+        assertEquals(0, new BigDecimal("3601").compareTo(trend(alert).trendPriceAt(MutableDecimal.empty(), fromDateMs + Duration.ofHours(1L).toMillis()).bigDecimal()));
+
+        // same results as the BigDecimal computations within their scale
+        var random = new Random(7L);
+        for(int i = 0; i < 1000; i++) {
+            var fromPrice = BigDecimal.valueOf(random.nextLong(1L, 100_000_000_000L), random.nextInt(12));
+            var toPrice = BigDecimal.valueOf(random.nextLong(1L, 100_000_000_000L), random.nextInt(12));
+            var toDate = fromDate.plusMinutes(random.nextLong(1L, 100_000L));
+            alert = (TrendAlert) createTestTrendAlert().withFromDate(fromDate).withToDate(toDate).withFromPrice(fromPrice).withToPrice(toPrice);
+            var date = fromDate.plusMinutes(random.nextLong(-200_000L, 200_000L));
+            var expected = TrendAlert.trendPriceAt(date, alert);
+            var price = trend(alert).trendPriceAt(MutableDecimal.empty(), date.toInstant().toEpochMilli()).bigDecimal();
+            var error = fromPrice.max(expected.subtract(fromPrice).abs()).multiply(new BigDecimal("1E-15")).max(new BigDecimal("1E-16"));
+            assertTrue(expected.subtract(price).abs().compareTo(error) <= 0, expected + " <> " + price);
+        }
+    }
+}
@@ -6,6 +6,9 @@ import net.dv8tion.jda.api.entities.MessageEmbed.Field;
 import org.junit.jupiter.api.Test;
 import org.sbot.entities.chart.Candlestick;
 import org.sbot.entities.chart.DatedPrice;
+import org.sbot.entities.chart.KLine;
+import org.sbot.entities.chart.KLineTest;
+import org.sbot.services.MatchingService.MatchingBuffers;
 import org.sbot.utils.Dates;
 
 import java.math.BigDecimal;
@@ -320,6 +323,114 @@ public class RangeAlertTest {
         assertEquals(NOT_MATCHING, alert.match(List.of(candlestick), previousCandlestick).status());
     }
 
+    // the klines matching should give the same result as the candlesticks one
+    static void assertKLinesMatch(Alert alert, List<Candlestick> candlesticks, Candlestick previousCandlestick) {
+        var expected = alert instanceof RangeAlert rangeAlert ? rangeAlert.match(candlesticks, previousCandlestick) :
+                ((TrendAlert) alert).match(candlesticks, previousCandlestick);
+        var kLines = candlesticks.stream().map(KLine::of).toList();
+        var previousKLine = null != previousCandlestick ? KLine.of(previousCandlestick) : null;
+        var buffers = new MatchingBuffers();
+        buffers.matchingIndex = -1;
+        var status = alert.compile().match(kLines, previousKLine, buffers);
+        assertEquals(expected.status(), status);
+        if(status.notMatching()) {
+            assertEquals(-1, buffers.matchingIndex);
+        } else {
+            assertSame(expected.matchingCandlestick(), candlesticks.get(buffers.matchingIndex));
+        }
+    }
+
+    @Test
+    void matchKLines() {
+        RangeAlert alert = createTestRangeAlert();
+        assertNotNull(alert.compile());
+        assertThrows(NullPointerException.class, () -> alert.compile().match(null, null, new MatchingBuffers()));
+        assertEquals(NOT_MATCHING, alert.compile().match(Collections.emptyList(), null, new MatchingBuffers()));
+
+        ZonedDateTime now = nowUtc();
+        var rangeAlert = (RangeAlert) alert.withFromDate(null).withToDate(null).withFromPrice(ONE).withToPrice(TWO).withMargin(ZERO);
+        Candlestick candlestick = new Candlestick(now, now, ONE, ONE, TWO, ONE);
+        Candlestick candlestick2 = new Candlestick(now, now.plusMinutes(1L), TWO, TWO, TEN, TWO);
+        Candlestick candlestick3 = new Candlestick(now.minusMinutes(2L), now.minusMinutes(1L), TEN, TEN, TEN, TWO.add(ONE));
+        assertKLinesMatch(rangeAlert, List.of(candlestick), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick2), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick3), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick, candlestick3, candlestick2), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick3, candlestick2), null);
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(now, now, TEN, TEN, TEN, TWO.add(ONE)), candlestick, candlestick2), null);
+
+        // listening date
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(rangeAlert.listeningDate, now, ONE, ONE, TWO, ONE)), null);
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(rangeAlert.listeningDate.minusSeconds(1L), now, ONE, ONE, TWO, ONE)), null);
+        assertKLinesMatch(rangeAlert.withListeningDateRepeat(null, rangeAlert.repeat), List.of(candlestick), null);
+
+        // crossed range
+        rangeAlert = (RangeAlert) rangeAlert.withFromPrice(BigDecimal.valueOf(5L)).withToPrice(BigDecimal.valueOf(6L));
+        candlestick = new Candlestick(now, now, BigDecimal.valueOf(7L), BigDecimal.valueOf(7L), BigDecimal.valueOf(8L), BigDecimal.valueOf(7L));
+        candlestick2 = new Candlestick(now, now.plusMinutes(1L), BigDecimal.valueOf(3L), BigDecimal.valueOf(4L), BigDecimal.valueOf(4L), BigDecimal.valueOf(3L));
+        assertKLinesMatch(rangeAlert, List.of(candlestick), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick, candlestick2), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick2, candlestick), null);
+        assertKLinesMatch(rangeAlert, List.of(candlestick2), candlestick);
+        assertKLinesMatch(rangeAlert, List.of(candlestick2), new Candlestick(now, now.plusMinutes(1L), ONE, ONE, ONE, ONE));
+
+        // margin
+        rangeAlert = (RangeAlert) rangeAlert.withMargin(new BigDecimal("1.5"));
+        assertKLinesMatch(rangeAlert, List.of(candlestick), null);
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(now, now, TEN, TEN, TEN, new BigDecimal("7.6"))), null);
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(now, now, TEN, TEN, TEN, new BigDecimal("7.5"))), null);
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(now, now, ONE, ONE, new BigDecimal("3.5"), ONE)), null);
+        assertKLinesMatch(rangeAlert, List.of(new Candlestick(now, now, ONE, ONE, new BigDecimal("3.4999"), ONE)), null);
+
+        // dates
+        assertKLinesMatch(rangeAlert.withFromDate(now.plusMinutes(1L)), List.of(candlestick), null);
+        assertKLinesMatch(rangeAlert.withFromDate(now), List.of(candlestick), null);
+        assertKLinesMatch(rangeAlert.withToDate(now), List.of(candlestick), null);
+        assertKLinesMatch(rangeAlert.withToDate(now.plusSeconds(1L)), List.of(candlestick), null);
+    }
+
+    @Test
+    void mayMatch() {
+        ZonedDateTime now = nowUtc();
+        var buffers = new MatchingBuffers();
+        // [5, 6] with a margin of 1
+        var alert = (RangeAlert) createTestRangeAlert().withFromDate(null).withToDate(null)
+                .withFromPrice(BigDecimal.valueOf(5L)).withToPrice(BigDecimal.valueOf(6L)).withMargin(ONE);
+        var envelope = KLine.of(new Candlestick(now, now.plusHours(1L), ONE, ONE, BigDecimal.valueOf(4L), ONE));
+        assertTrue(alert.compile().mayMatch(envelope, buffers));
+        assertFalse(alert.compile().mayMatch(KLine.of(new Candlestick(now, now.plusHours(1L), ONE, ONE, new BigDecimal("3.99"), ONE)), buffers));
+        assertTrue(alert.compile().mayMatch(KLine.of(new Candlestick(now, now.plusHours(1L), TEN, TEN, TEN, BigDecimal.valueOf(7L))), buffers));
+        assertFalse(alert.compile().mayMatch(KLine.of(new Candlestick(now, now.plusHours(1L), TEN, TEN, TEN, new BigDecimal("7.01"))), buffers));
+        assertTrue(alert.withMargin(ZERO).compile().mayMatch(KLine.of(new Candlestick(now, now.plusHours(1L), TEN, TEN, TEN, ONE)), buffers));
+
+        // dates
+        assertTrue(alert.withFromDate(now.plusHours(1L)).compile().mayMatch(envelope, buffers));
+        assertFalse(alert.withFromDate(now.plusHours(2L)).compile().mayMatch(envelope, buffers));
+        assertTrue(alert.withToDate(now.plusMinutes(1L)).compile().mayMatch(envelope, buffers));
+        assertFalse(alert.withToDate(now).compile().mayMatch(envelope, buffers));
+        assertFalse(alert.withListeningDateRepeat(null, alert.repeat).compile().mayMatch(envelope, buffers));
+
+        // an alert rejected by its envelope never matches the klines
+        var kLines = List.of(KLine.of(new Candlestick(now, now.plusMinutes(1L), TEN, TEN, TEN, TEN)),
+                KLine.of(new Candlestick(now.plusMinutes(1L), now.plusMinutes(2L), ONE, ONE, TWO, ONE)));
+        for (var price : List.of(0L, 1L, 2L, 3L, 5L, 9L, 10L, 11L, 12L, 20L)) {
+            var rangeAlert = (RangeAlert) alert.withFromPrice(BigDecimal.valueOf(price)).withToPrice(BigDecimal.valueOf(price));
+            if (!rangeAlert.compile().mayMatch(KLine.of(new Candlestick(now, now.plusMinutes(2L), ONE, ONE, TEN, ONE)), buffers)) {
+                assertEquals(NOT_MATCHING, rangeAlert.compile().match(kLines, null, buffers));
+            }
+        }
+    }
+
+    @Test
+    void datesInLimitsKLine() {
+        KLine kLine = KLineTest.of(1000L, 2000L, 1L, 1L, 1L, 1L);
+        assertTrue(RangeAlert.datesInLimits(kLine, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertTrue(RangeAlert.datesInLimits(kLine, 2000L, Long.MAX_VALUE));
+        assertFalse(RangeAlert.datesInLimits(kLine, 2001L, Long.MAX_VALUE));
+        assertFalse(RangeAlert.datesInLimits(kLine, Long.MIN_VALUE, 2000L));
+        assertTrue(RangeAlert.datesInLimits(kLine, Long.MIN_VALUE, 2001L));
+    }
+
     @Test
     void datesInLimits() {
         ZonedDateTime closeTime = now();
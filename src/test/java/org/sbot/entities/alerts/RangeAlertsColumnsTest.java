@@ -0,0 +1,90 @@
+package org.sbot.entities.alerts;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.KLine;
+import org.sbot.services.MatchingService.MatchingBuffers;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.math.BigDecimal.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.entities.alerts.RangeAlertTest.createTestRangeAlert;
+import static org.sbot.utils.DatesTest.nowUtc;
+
+class RangeAlertsColumnsTest {
+
+    private static RangeAlert rangeAlert(long low, long high, String margin) {
+        return (RangeAlert) createTestRangeAlert().withFromDate(null).withToDate(null)
+                .withFromPrice(BigDecimal.valueOf(low)).withToPrice(BigDecimal.valueOf(high)).withMargin(new BigDecimal(margin));
+    }
+
+    private static List<CompiledAlert.Range> compiled(List<RangeAlert> alerts) {
+        return alerts.stream().map(alert -> (CompiledAlert.Range) alert.compile()).toList();
+    }
+
+    private static KLine kLine(ZonedDateTime openTime, long low, long high) {
+        return KLine.of(new Candlestick(openTime, openTime.plusMinutes(1L), BigDecimal.valueOf(low), BigDecimal.valueOf(low), BigDecimal.valueOf(high), BigDecimal.valueOf(low)));
+    }
+
+    @Test
+    void of() {
+        assertThrows(NullPointerException.class, () -> RangeAlertsColumns.of(null, List.of(), null));
+        assertThrows(NullPointerException.class, () -> RangeAlertsColumns.of(List.of(), null, null));
+        var now = nowUtc();
+        assertEquals(0, RangeAlertsColumns.of(List.of(), List.of(), null).size());
+        assertEquals(2, RangeAlertsColumns.of(compiled(List.of(rangeAlert(1L, 2L, "0"), rangeAlert(3L, 4L, "0.5"))), List.of(kLine(now, 1L, 2L)), null).size());
+
+        // prices too far apart to fit a common exponent
+        var alert = rangeAlert(1L, 2L, "0.00000000000000001");
+        assertNull(RangeAlertsColumns.of(compiled(List.of(alert, rangeAlert(1L, 100000000000000L, "0"))), List.of(kLine(now, 1L, 2L)), null));
+    }
+
+    @Test
+    void scan() {
+        var now = nowUtc();
+        var alerts = List.of(rangeAlert(10L, 20L, "0"), rangeAlert(30L, 40L, "5"), rangeAlert(100L, 200L, "0.5"),
+                (RangeAlert) rangeAlert(10L, 20L, "0").withFromDate(now.plusHours(1L)),
+                (RangeAlert) rangeAlert(10L, 20L, "0").withToDate(now));
+        var kLines = List.of(kLine(now, 15L, 16L));
+        assertEquals(List.of(0), RangeAlertsColumns.of(compiled(alerts), kLines, null).scan().stream().boxed().toList());
+        kLines = List.of(kLine(now, 21L, 25L));
+        assertEquals(List.of(1), RangeAlertsColumns.of(compiled(alerts), kLines, null).scan().stream().boxed().toList());
+        // crossing with the previous kline
+        assertEquals(List.of(0, 1), RangeAlertsColumns.of(compiled(alerts), kLines, kLine(now.minusMinutes(1L), 5L, 6L)).scan().stream().boxed().toList());
+        kLines = List.of(kLine(now, 60L, 70L), kLine(now.plusMinutes(1L), 1000L, 2000L));
+        assertEquals(List.of(2), RangeAlertsColumns.of(compiled(alerts), kLines, null).scan().stream().boxed().toList());
+        assertEquals(List.of(), RangeAlertsColumns.of(compiled(alerts), List.of(), null).scan().stream().boxed().toList());
+        // listening date
+        var disabled = List.of((RangeAlert) rangeAlert(10L, 20L, "0").withListeningDateRepeat(null, (short) 1));
+        assertEquals(List.of(), RangeAlertsColumns.of(compiled(disabled), List.of(kLine(now, 15L, 16L)), null).scan().stream().boxed().toList());
+    }
+
+    @Test
+    void scanIsSuperset() {
+        var now = nowUtc();
+        var random = new Random(1234L);
+        var alerts = new ArrayList<RangeAlert>();
+        for (int i = 0; i < 500; i++) {
+            long low = random.nextLong(1000L);
+            alerts.add(rangeAlert(low, low + random.nextLong(50L), BigDecimal.valueOf(random.nextInt(100), 1).toPlainString()));
+        }
+        var kLines = new ArrayList<KLine>();
+        for (int i = 0; i < 20; i++) {
+            long low = random.nextLong(1000L);
+            kLines.add(kLine(now.plusMinutes(i), low, low + random.nextLong(20L)));
+        }
+        var candidates = RangeAlertsColumns.of(compiled(alerts), kLines, null).scan();
+        assertTrue(candidates.cardinality() < alerts.size());
+        var buffers = new MatchingBuffers();
+        for (int i = 0; i < alerts.size(); i++) {
+            if (!alerts.get(i).compile().match(kLines, null, buffers).notMatching()) {
+                assertTrue(candidates.get(i));
+            }
+        }
+    }
+}
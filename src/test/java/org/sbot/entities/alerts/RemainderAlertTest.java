@@ -19,9 +19,9 @@ import static org.sbot.entities.alerts.RemainderAlert.REMAINDER_VIRTUAL_EXCHANGE
 import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.*;
 import static org.sbot.utils.DatesTest.nowUtc;
 
-class RemainderAlertTest {
+public class RemainderAlertTest {
 
-    static RemainderAlert createTestRemainderAlert() {
+    public static RemainderAlert createTestRemainderAlert() {
         return new RemainderAlert(NEW_ALERT_ID, TEST_CLIENT_TYPE, TEST_USER_ID, TEST_SERVER_ID, TEST_FROM_DATE.minusMinutes(10L), TEST_FROM_DATE, TEST_PAIR, TEST_MESSAGE, TEST_FROM_DATE, TEST_LAST_TRIGGER, REMAINDER_DEFAULT_REPEAT, DEFAULT_SNOOZE_HOURS);
     }
 
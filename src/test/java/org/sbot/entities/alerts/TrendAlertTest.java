@@ -4,6 +4,8 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import org.junit.jupiter.api.Test;
 import org.sbot.entities.chart.Candlestick;
 import org.sbot.entities.chart.DatedPrice;
+import org.sbot.entities.chart.KLine;
+import org.sbot.services.MatchingService.MatchingBuffers;
 import org.sbot.utils.Dates;
 
 import java.math.BigDecimal;
@@ -19,6 +21,7 @@ import static org.mockito.Mockito.mock;
 import static org.sbot.entities.alerts.Alert.*;
 import static org.sbot.entities.alerts.Alert.Type.trend;
 import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.entities.alerts.RangeAlertTest.assertKLinesMatch;
 import static org.sbot.entities.alerts.RemainderAlert.REMAINDER_DEFAULT_REPEAT;
 import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.*;
 import static org.sbot.utils.Dates.UTC;
@@ -303,6 +306,94 @@ class TrendAlertTest {
         assertEquals(NOT_MATCHING, alert.match(List.of(candlestick), previousCandlestick).status());
     }
 
+    @Test
+    void matchKLines() {
+        TrendAlert alert = createTestTrendAlert();
+        assertNotNull(alert.compile());
+        assertThrows(NullPointerException.class, () -> alert.compile().match(null, null, new MatchingBuffers()));
+        assertEquals(NOT_MATCHING, alert.compile().match(Collections.emptyList(), null, new MatchingBuffers()));
+
+        ZonedDateTime actualTime = nowUtc();
+        // test alert increment 1 by hour
+        var trendAlert = (TrendAlert) alert.withToDate(actualTime.plusHours(1L)).withFromDate(actualTime)
+                .withFromPrice(TWO).withToPrice(BigDecimal.valueOf(3L)).withMargin(ZERO);
+        Candlestick candlestick = new Candlestick(actualTime, actualTime.plusMinutes(1L), ONE, ONE, new BigDecimal("2.5"), ONE);
+        Candlestick candlestick2 = new Candlestick(actualTime, actualTime.plusMinutes(1L), ONE, ONE, TWO.add(ONE), ONE);
+        Candlestick candlestick3 = new Candlestick(actualTime.minusMinutes(2L), actualTime.minusMinutes(1L), ONE, ONE, ONE, ONE);
+        assertKLinesMatch(trendAlert, List.of(candlestick), null);
+        assertKLinesMatch(trendAlert, List.of(candlestick2), null);
+        assertKLinesMatch(trendAlert, List.of(candlestick3), null);
+        assertKLinesMatch(trendAlert, List.of(candlestick3, candlestick, candlestick2), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, new BigDecimal("2.02"))), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, new BigDecimal("2.01"))), null);
+
+        // crossed trend, then previous candlestick
+        candlestick = new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, TEN);
+        candlestick2 = new Candlestick(actualTime.plusMinutes(1L), actualTime.plusMinutes(2L), ONE, ONE, ONE, ONE);
+        assertKLinesMatch(trendAlert, List.of(candlestick), null);
+        assertKLinesMatch(trendAlert, List.of(candlestick, candlestick2), null);
+        assertKLinesMatch(trendAlert, List.of(candlestick2), candlestick);
+
+        // margin, on a decreasing trend
+        trendAlert = (TrendAlert) trendAlert.withFromPrice(BigDecimal.valueOf(3L)).withToPrice(TWO).withMargin(new BigDecimal("0.5"));
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, new BigDecimal("3.4"))), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, new BigDecimal("3.5"))), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, new BigDecimal("3.51"))), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime.plusHours(1L), actualTime.plusHours(2L), ONE, ONE, new BigDecimal("1.51"), ONE)), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime.plusHours(1L), actualTime.plusHours(2L), ONE, ONE, new BigDecimal("1.49"), ONE)), null);
+
+        // trend price can't be negative
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime.plusHours(4L), actualTime.plusHours(5L), ONE, ONE, new BigDecimal("0.4"), new BigDecimal("0.1"))), null);
+        assertKLinesMatch(trendAlert, List.of(new Candlestick(actualTime.plusHours(4L), actualTime.plusHours(5L), ONE, ONE, new BigDecimal("0.6"), new BigDecimal("0.51"))), null);
+    }
+
+    @Test
+    void mayMatch() {
+        ZonedDateTime actualTime = nowUtc();
+        var buffers = new MatchingBuffers();
+        // from 2 to 3 in one hour, margin 0.5
+        var alert = (TrendAlert) createTestTrendAlert().withToDate(actualTime.plusHours(1L)).withFromDate(actualTime)
+                .withFromPrice(TWO).withToPrice(BigDecimal.valueOf(3L)).withMargin(new BigDecimal("0.5"));
+        // trend is [2, 2.5] during the first half hour, [1.5, 3] with margin
+        assertTrue(alert.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), ONE, ONE, new BigDecimal("1.5"), ONE)), buffers));
+        assertFalse(alert.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), ONE, ONE, new BigDecimal("1.49"), ONE)), buffers));
+        assertTrue(alert.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), TEN, TEN, TEN, BigDecimal.valueOf(3L))), buffers));
+        assertFalse(alert.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), TEN, TEN, TEN, new BigDecimal("3.01"))), buffers));
+        // decreasing trend
+        var decreasing = (TrendAlert) alert.withFromPrice(BigDecimal.valueOf(3L)).withToPrice(TWO);
+        assertTrue(decreasing.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), TEN, TEN, TEN, new BigDecimal("3.5"))), buffers));
+        assertFalse(decreasing.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), TEN, TEN, TEN, new BigDecimal("3.51"))), buffers));
+        assertFalse(decreasing.compile().mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), ONE, ONE, new BigDecimal("1.99"), ONE)), buffers));
+        // listening date
+        assertFalse(alert.withListeningDateRepeat(null, alert.repeat).compile()
+                .mayMatch(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(30L), TWO, TWO, TWO, TWO)), buffers));
+
+        // an alert rejected by its envelope never matches the klines
+        var kLines = List.of(KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(1L), TEN, TEN, TEN, TEN)),
+                KLine.of(new Candlestick(actualTime.plusMinutes(1L), actualTime.plusMinutes(2L), ONE, ONE, TWO, ONE)));
+        var envelope = KLine.of(new Candlestick(actualTime, actualTime.plusMinutes(2L), ONE, ONE, TEN, ONE));
+        for (var price : List.of(0L, 1L, 2L, 3L, 5L, 9L, 10L, 11L, 12L, 20L)) {
+            var trendAlert = (TrendAlert) alert.withFromPrice(BigDecimal.valueOf(price)).withToPrice(BigDecimal.valueOf(price + 1L));
+            if (!trendAlert.compile().mayMatch(envelope, buffers)) {
+                assertEquals(NOT_MATCHING, trendAlert.compile().match(kLines, null, buffers));
+            }
+        }
+    }
+
+    @Test
+    void secondsBetweenMs() {
+        assertEquals(0L, TrendAlert.secondsBetween(1000L, 1000L));
+        assertEquals(0L, TrendAlert.secondsBetween(1000L, 1999L));
+        assertEquals(1L, TrendAlert.secondsBetween(1000L, 2000L));
+        assertEquals(-1L, TrendAlert.secondsBetween(1000L, 999L));
+        assertEquals(-1L, TrendAlert.secondsBetween(1000L, 0L));
+        assertEquals(-2L, TrendAlert.secondsBetween(1000L, -1L));
+        ZonedDateTime fromDate = TEST_FROM_DATE;
+        for(var date : List.of(fromDate.plusMinutes(61L), fromDate.minusMinutes(132L), fromDate.minusNanos(500_000_000L), fromDate.plusNanos(1_500_000_000L))) {
+            assertEquals(TrendAlert.secondsBetween(fromDate, date).longValue(), TrendAlert.secondsBetween(fromDate.toInstant().toEpochMilli(), date.toInstant().toEpochMilli()));
+        }
+    }
+
     @Test
     void trendPriceAt() {
         ZonedDateTime fromDate = TEST_FROM_DATE;
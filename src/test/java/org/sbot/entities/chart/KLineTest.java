@@ -3,7 +3,12 @@ package org.sbot.entities.chart;
 import org.junit.jupiter.api.Test;
 import org.sbot.utils.MutableDecimal;
 
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import static java.math.BigDecimal.ONE;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.utils.Dates.UTC;
 
 public class KLineTest {
 
@@ -18,6 +23,38 @@ public class KLineTest {
         return kLine;
     }
 
+    @Test
+    void ofCandlestick() {
+        assertThrows(NullPointerException.class, () -> KLine.of(null));
+        var now = ZonedDateTime.now();
+        var candlestick = new Candlestick(now, now.plusMinutes(1L), new BigDecimal("1.5"), new BigDecimal("2"), new BigDecimal("30.00"), new BigDecimal("0.001"));
+        var kLine = KLine.of(candlestick);
+        assertEquals(now.toInstant().toEpochMilli(), kLine.openTime());
+        assertEquals(now.plusMinutes(1L).toInstant().toEpochMilli(), kLine.closeTime());
+        var decimal = MutableDecimal.empty();
+        assertEquals(0, new BigDecimal("1.5").compareTo(kLine.getOpen(decimal).bigDecimal()));
+        assertEquals(0, new BigDecimal("2").compareTo(kLine.getClose(decimal).bigDecimal()));
+        assertEquals(0, new BigDecimal("30").compareTo(kLine.getHigh(decimal).bigDecimal()));
+        assertEquals(0, new BigDecimal("0.001").compareTo(kLine.getLow(decimal).bigDecimal()));
+
+        var tooLong = new Candlestick(now, now.plusMinutes(1L), ONE, ONE, new BigDecimal("1234567890.123456789"), ONE);
+        assertThrows(ArithmeticException.class, () -> KLine.of(tooLong));
+    }
+
+    @Test
+    void candlestick() {
+        var openTime = ZonedDateTime.of(2024, 1, 1, 10, 30, 0, 0, UTC);
+        var candlestick = new Candlestick(openTime, openTime.plusSeconds(59L), new BigDecimal("1.5"), new BigDecimal("2"), new BigDecimal("30.00"), new BigDecimal("0.001"));
+        var result = KLine.of(candlestick).candlestick();
+        assertEquals(openTime, result.openTime());
+        assertEquals(openTime.plusSeconds(59L), result.closeTime());
+        assertEquals(0, new BigDecimal("1.5").compareTo(result.open()));
+        assertEquals(0, new BigDecimal("2").compareTo(result.close()));
+        assertEquals(0, new BigDecimal("30").compareTo(result.high()));
+        assertEquals(0, new BigDecimal("0.001").compareTo(result.low()));
+        assertEquals(KLine.of(candlestick), KLine.of(result));
+    }
+
     @Test
     void emptyVolatile() {
         assertNotNull(KLine.emptyVolatile());
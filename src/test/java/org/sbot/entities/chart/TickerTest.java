@@ -0,0 +1,33 @@
+package org.sbot.entities.chart;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.utils.DatesTest;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TWO;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickerTest {
+
+    @Test
+    void constructorCheck() {
+        var now = DatesTest.nowUtc();
+        var openTime = now.minusDays(1L);
+        assertDoesNotThrow(() -> new Ticker(openTime, now, ONE, ONE, TWO));
+        assertDoesNotThrow(() -> new Ticker(now, now, ONE, ONE, ONE));
+        assertThrows(NullPointerException.class, () -> new Ticker(null, now, ONE, ONE, TWO));
+        assertThrows(NullPointerException.class, () -> new Ticker(openTime, null, ONE, ONE, TWO));
+        assertThrows(NullPointerException.class, () -> new Ticker(openTime, now, null, ONE, TWO));
+        assertThrows(NullPointerException.class, () -> new Ticker(openTime, now, ONE, null, TWO));
+        assertThrows(NullPointerException.class, () -> new Ticker(openTime, now, ONE, ONE, null));
+        assertThrows(IllegalArgumentException.class, () -> new Ticker(now, openTime, ONE, ONE, TWO));
+        assertThrows(IllegalArgumentException.class, () -> new Ticker(openTime, now, ONE, TWO, ONE));
+
+        var ticker = new Ticker(openTime, now, TWO, ONE, TWO);
+        assertEquals(openTime, ticker.openTime());
+        assertEquals(now, ticker.closeTime());
+        assertEquals(TWO, ticker.lastPrice());
+        assertEquals(ONE, ticker.low());
+        assertEquals(TWO, ticker.high());
+    }
+}
@@ -0,0 +1,181 @@
+package org.sbot.exchanges;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeHttpClientTest {
+
+    private static HttpServer server() throws IOException {
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/plain", exchange -> {
+            var body = ("{\"query\":\"" + exchange.getRequestURI().getQuery() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Used-Weight", "42");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/gzip", exchange -> {
+            var bytes = new ByteArrayOutputStream();
+            try (var gzip = new GZIPOutputStream(bytes)) {
+                gzip.write("[1,2,3]".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, bytes.size());
+            exchange.getResponseBody().write(bytes.toByteArray());
+            exchange.close();
+        });
+        server.createContext("/error", exchange -> {
+            var body = "{\"code\":-1003,\"msg\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(429, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static URI uri(HttpServer server, String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private static ExchangeHttpClient client(int maxConcurrencyByHost) {
+        return new ExchangeHttpClient(Duration.ofSeconds(5L), Duration.ofSeconds(5L), maxConcurrencyByHost);
+    }
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new ExchangeHttpClient((Duration) null, Duration.ofSeconds(1L), 1));
+        assertThrows(NullPointerException.class, () -> new ExchangeHttpClient(Duration.ofSeconds(1L), null, 1));
+        assertThrows(NullPointerException.class, () -> new ExchangeHttpClient((HttpClient) null, Duration.ofSeconds(1L), 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExchangeHttpClient(Duration.ofSeconds(1L), Duration.ofSeconds(1L), 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExchangeHttpClient(Duration.ofSeconds(1L), Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExchangeHttpClient(HttpClient.newHttpClient(), Duration.ofSeconds(-1L), 1));
+        assertDoesNotThrow(() -> new ExchangeHttpClient(Duration.ofSeconds(1L), Duration.ofSeconds(1L), 1));
+    }
+
+    @Test
+    void get() throws IOException {
+        var server = server();
+        try {
+            var client = client(4);
+            var response = client.get(uri(server, "/plain?symbol=ETHUSDT&limit=1"));
+            assertTrue(response.isSuccessful());
+            assertEquals(200, response.statusCode());
+            assertEquals("{\"query\":\"symbol=ETHUSDT&limit=1\"}", response.bodyAsString());
+            assertEquals("42", response.header("X-Used-Weight").orElseThrow());
+            assertEquals(42L, response.longHeader("X-Used-Weight").orElseThrow());
+            assertTrue(response.header("X-Missing").isEmpty());
+            assertTrue(response.longHeader("X-Missing").isEmpty());
+
+            // gzip decoded
+            response = client.get(uri(server, "/gzip"));
+            assertEquals("[1,2,3]", response.bodyAsString());
+
+            // errors are returned
+            response = client.get(uri(server, "/error"));
+            assertFalse(response.isSuccessful());
+            assertEquals(429, response.statusCode());
+            assertTrue(response.bodyAsString().contains("-1003"));
+
+            var metrics = client.metrics().get("localhost");
+            assertEquals(3L, metrics.requests());
+            assertEquals(1L, metrics.errors());
+            assertTrue(metrics.maxLatencyMillis() >= metrics.averageLatencyMillis());
+            assertDoesNotThrow(client::logMetrics);
+        } finally {
+            server.stop(0);
+        }
+
+        var client = client(1);
+        var unreachable = uri(server, "/plain");
+        assertThrows(UncheckedIOException.class, () -> client.get(unreachable));
+        assertEquals(1L, client.metrics().get("localhost").errors());
+    }
+
+    @Test
+    void maxConcurrencyByHost() throws Exception {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/slow", exchange -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await(5L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var client = client(2);
+            var futures = IntStream.range(0, 6).mapToObj(i -> executor.submit(() -> client.get(uri(server, "/slow")))).toList();
+            long timeout = System.currentTimeMillis() + 5000L;
+            while(running.get() < 2 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(5L);
+            }
+            Thread.sleep(50L);
+            assertEquals(2, running.get());
+            release.countDown();
+            for(var future : futures) {
+                assertEquals(200, future.get(5L, TimeUnit.SECONDS).statusCode());
+            }
+            assertEquals(2, maxRunning.get());
+            assertEquals(6L, client.metrics().get("localhost").requests());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void uri() {
+        assertEquals(URI.create("https://api.binance.com/api/v3/klines"), ExchangeHttpClient.uri("https://api.binance.com/api/v3/klines", Map.of()));
+        var parameters = new LinkedHashMap<String, Object>();
+        parameters.put("symbol", "ETHUSDT");
+        parameters.put("interval", "1m");
+        parameters.put("limit", 1000);
+        parameters.put("symbols", List.of("A B"));
+        assertEquals(URI.create("https://api.binance.com/api/v3/klines?symbol=ETHUSDT&interval=1m&limit=1000&symbols=%5BA+B%5D"),
+                ExchangeHttpClient.uri("https://api.binance.com/api/v3/klines", parameters));
+    }
+
+    @Test
+    void decode() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            gzip.write("test".getBytes(StandardCharsets.UTF_8));
+        }
+        var gzipHeaders = HttpHeaders.of(Map.of("Content-Encoding", List.of("gzip")), (name, value) -> true);
+        var noHeaders = HttpHeaders.of(Map.of(), (name, value) -> true);
+        assertEquals("test", new String(ExchangeHttpClient.decode(gzipHeaders, bytes.toByteArray()), StandardCharsets.UTF_8));
+        assertArrayEquals(bytes.toByteArray(), ExchangeHttpClient.decode(noHeaders, bytes.toByteArray()));
+        assertArrayEquals(new byte[0], ExchangeHttpClient.decode(gzipHeaders, new byte[0]));
+        assertThrows(IOException.class, () -> ExchangeHttpClient.decode(gzipHeaders, "test".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,164 @@
+package org.sbot.exchanges;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchSchedulerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(0L), ZoneOffset.UTC);
+
+    private static FetchScheduler scheduler(int maxConcurrency, int weightByMinute) {
+        return new FetchScheduler("test", maxConcurrency, weightByMinute, Duration.ofSeconds(10L), Duration.ofSeconds(30L), CLOCK);
+    }
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new FetchScheduler(null, 1, 1, Duration.ZERO, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new FetchScheduler("test", 1, 1, null, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new FetchScheduler("test", 1, 1, Duration.ZERO, null));
+        assertThrows(IllegalArgumentException.class, () -> new FetchScheduler("test", 0, 1, Duration.ZERO, Duration.ZERO));
+        assertDoesNotThrow(() -> new FetchScheduler("test", 1, 0, Duration.ZERO, Duration.ZERO));
+    }
+
+    @Test
+    void reserve() {
+        var scheduler = scheduler(1, 60);
+        // 60 by minute, one weight by second
+        assertEquals(0L, scheduler.reserve(50, 0L));
+        assertEquals(0L, scheduler.reserve(10, 0L));
+        assertEquals(1000L, scheduler.reserve(1, 0L));
+        assertEquals(500L, scheduler.reserve(1, 500L));
+        assertEquals(0L, scheduler.reserve(1, 1000L));
+        assertEquals(5000L, scheduler.reserve(5, 1000L));
+        assertEquals(0L, scheduler.reserve(5, 6000L));
+
+        // the bucket is refilled up to the budget
+        assertEquals(0L, scheduler.reserve(60, 600_000L));
+        assertEquals(1000L, scheduler.reserve(1, 600_000L));
+
+        // a weight above the budget waits for a full bucket
+        assertEquals(0L, scheduler.reserve(100, 700_000L));
+
+        // no budget
+        scheduler = scheduler(1, 0);
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(0L, scheduler.reserve(100, 0L));
+        }
+    }
+
+    @Test
+    void usedWeight() {
+        var scheduler = scheduler(1, 60);
+        scheduler.usedWeight(50L);
+        assertEquals(0L, scheduler.reserve(10, 0L));
+        assertEquals(1000L, scheduler.reserve(1, 0L));
+
+        // the weight used by others can exceed this budget
+        scheduler = scheduler(1, 60);
+        scheduler.usedWeight(70L);
+        assertEquals(11000L, scheduler.reserve(1, 0L));
+
+        // a lower used weight does not add to the bucket
+        scheduler = scheduler(1, 60);
+        assertEquals(0L, scheduler.reserve(60, 0L));
+        scheduler.usedWeight(0L);
+        assertEquals(1000L, scheduler.reserve(1, 0L));
+
+        scheduler = scheduler(1, 0);
+        scheduler.usedWeight(100L);
+        assertEquals(0L, scheduler.reserve(100, 0L));
+    }
+
+    @Test
+    void rateLimited() {
+        var scheduler = scheduler(1, 60);
+        scheduler.rateLimited(Instant.ofEpochMilli(5000L));
+        assertEquals(5000L, scheduler.reserve(1, 0L));
+        assertEquals(1000L, scheduler.reserve(1, 4000L));
+        assertEquals(0L, scheduler.reserve(1, 5000L));
+
+        // increasing backoff without retry date, until the max backoff
+        scheduler = scheduler(1, 60);
+        scheduler.rateLimited(null);
+        assertEquals(10_000L, scheduler.reserve(1, 0L));
+        scheduler.rateLimited(null);
+        assertEquals(20_000L, scheduler.reserve(1, 0L));
+        scheduler.rateLimited(null);
+        assertEquals(30_000L, scheduler.reserve(1, 0L));
+        scheduler.rateLimited(null);
+        assertEquals(30_000L, scheduler.reserve(1, 0L));
+
+        // a successful request resets the backoff
+        var paused = scheduler(1, 0);
+        paused.rateLimited(Instant.ofEpochMilli(0L));
+        paused.rateLimited(Instant.ofEpochMilli(0L));
+        assertEquals("done", paused.request(1, () -> "done"));
+        paused.rateLimited(null);
+        assertEquals(10_000L, paused.reserve(1, 0L));
+
+        // a retry date never shortens the pause
+        scheduler = scheduler(1, 60);
+        scheduler.rateLimited(Instant.ofEpochMilli(5000L));
+        scheduler.rateLimited(Instant.ofEpochMilli(1000L));
+        assertEquals(5000L, scheduler.reserve(1, 0L));
+    }
+
+    @Test
+    void request() {
+        var scheduler = new FetchScheduler("test", 1, 60_000, Duration.ZERO, Duration.ZERO);
+        assertEquals("done", scheduler.request(1, () -> "done"));
+        assertThrows(IllegalStateException.class, () -> scheduler.request(1, () -> { throw new IllegalStateException(); }));
+
+        // waits for the budget, one weight by millisecond
+        long start = System.nanoTime();
+        IntStream.range(0, 60_000 / 50 + 20).forEach(i -> scheduler.request(50, () -> i));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900L));
+
+        Thread.currentThread().interrupt();
+        scheduler.rateLimited(Instant.now().plusSeconds(10L));
+        assertThrows(IllegalStateException.class, () -> scheduler.request(1, () -> 1));
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    void fetch() throws Exception {
+        var scheduler = scheduler(2, 0);
+        assertEquals("done", scheduler.fetch(() -> "done"));
+        assertThrows(UnsupportedOperationException.class, () -> scheduler.fetch(() -> { throw new UnsupportedOperationException(); }));
+
+        // at most 2 concurrent fetches
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+        try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = IntStream.range(0, 10).mapToObj(i -> executor.submit(() -> scheduler.fetch(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                release.await();
+                running.decrementAndGet();
+                return i;
+            }))).toList();
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+            Thread.sleep(50L);
+            assertEquals(2, running.get());
+            release.countDown();
+            for(Future<Integer> future : futures) {
+                assertNotNull(future.get(5L, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(2, maxRunning.get());
+    }
+}
@@ -0,0 +1,155 @@
+package org.sbot.exchanges;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairsCatalogTest {
+
+    private static final Map<String, String> SYMBOLS = Map.of(
+            "ETH/USDT", "ETHUSDT",
+            "ETH/BTC", "ETHBTC",
+            "BTC/USDT", "BTCUSDT",
+            "BTC/EUR", "BTCEUR",
+            "DOT/USDT", "DOTUSDT");
+
+    // a clock that can be moved forward
+    private static final class TestClock extends Clock {
+        private volatile long millis;
+        @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return Instant.ofEpochMilli(millis); }
+    }
+
+    private static PairsCatalog catalog(Map<String, String> symbols) {
+        return new PairsCatalog("test", () -> symbols, Duration.ofHours(1L), Duration.ofMinutes(1L), Clock.systemUTC());
+    }
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new PairsCatalog(null, Map::of, Duration.ZERO, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new PairsCatalog("test", null, Duration.ZERO, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new PairsCatalog("test", Map::of, null, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new PairsCatalog("test", Map::of, Duration.ZERO, null));
+        assertThrows(NullPointerException.class, () -> new PairsCatalog("test", Map::of, Duration.ZERO, Duration.ZERO, null));
+        assertThrows(IllegalArgumentException.class, () -> new PairsCatalog("test", Map::of, Duration.ofSeconds(-1L), Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new PairsCatalog("test", Map::of, Duration.ZERO, Duration.ofSeconds(-1L)));
+        assertDoesNotThrow(() -> new PairsCatalog("test", Map::of, Duration.ZERO, Duration.ZERO));
+    }
+
+    @Test
+    void pair() {
+        var catalog = catalog(SYMBOLS);
+        assertEquals("ETH/USDT", catalog.pair("ETH/USDT"));
+        assertEquals("BTC/EUR", catalog.pair("BTC/EUR"));
+        assertNull(catalog.pair("ETH/EUR"));
+        assertNull(catalog.pair("eth/usdt"));
+        assertNull(catalog.pair(""));
+        assertTrue(catalog.isLoaded());
+    }
+
+    @Test
+    void symbol() {
+        var catalog = catalog(SYMBOLS);
+        SYMBOLS.forEach((pair, symbol) -> assertEquals(symbol, catalog.symbol(pair)));
+        assertNull(catalog.symbol("ETH/EUR"));
+    }
+
+    @Test
+    void pairs() {
+        assertEquals(List.of("BTC/EUR", "BTC/USDT", "DOT/USDT", "ETH/BTC", "ETH/USDT"), catalog(SYMBOLS).pairs());
+    }
+
+    @Test
+    void pairsStartingWith() {
+        var catalog = catalog(SYMBOLS);
+        assertEquals(List.of("BTC/EUR", "BTC/USDT"), catalog.pairsStartingWith("BTC", 25));
+        assertEquals(List.of("BTC/EUR", "BTC/USDT"), catalog.pairsStartingWith("BTC/", 25));
+        assertEquals(List.of("BTC/USDT"), catalog.pairsStartingWith("BTC/U", 25));
+        assertEquals(List.of("ETH/USDT"), catalog.pairsStartingWith("ETH/USDT", 25));
+        assertEquals(List.of("BTC/EUR"), catalog.pairsStartingWith("B", 1));
+        assertEquals(catalog.pairs(), catalog.pairsStartingWith("", 25));
+        assertEquals(List.of("BTC/EUR", "BTC/USDT"), catalog.pairsStartingWith("", 2));
+        assertEquals(List.of(), catalog.pairsStartingWith("", 0));
+        assertEquals(List.of(), catalog.pairsStartingWith("XRP", 25));
+        assertEquals(List.of(), catalog.pairsStartingWith("ETH/USDTT", 25));
+        assertEquals(List.of(), catalog.pairsStartingWith("Z", 25));
+    }
+
+    @Test
+    void notLoaded() {
+        var loads = new AtomicInteger();
+        var clock = new TestClock();
+        var catalog = new PairsCatalog("test", () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("unavailable");
+        }, Duration.ofHours(1L), Duration.ofMinutes(1L), clock);
+
+        assertFalse(catalog.isLoaded());
+        assertNull(catalog.pair("ETH/USDT"));
+        assertTrue(catalog.pairs().isEmpty());
+        assertEquals(1, loads.get());
+
+        // retried after the retry delay
+        clock.millis = Duration.ofMinutes(1L).toMillis() - 1L;
+        assertFalse(catalog.isLoaded());
+        assertEquals(1, loads.get());
+        clock.millis = Duration.ofMinutes(1L).toMillis();
+        assertFalse(catalog.isLoaded());
+        assertEquals(2, loads.get());
+
+        // no pairs is a failure too
+        assertFalse(new PairsCatalog("test", Map::of, Duration.ZERO, Duration.ZERO).isLoaded());
+    }
+
+    @Test
+    void refresh() throws Exception {
+        var symbols = new AtomicReference<>(SYMBOLS);
+        var loads = new AtomicInteger();
+        var clock = new TestClock();
+        var catalog = new PairsCatalog("test", () -> {
+            loads.incrementAndGet();
+            return symbols.get();
+        }, Duration.ofHours(1L), Duration.ofMinutes(1L), clock);
+
+        assertEquals("DOT/USDT", catalog.pair("DOT/USDT"));
+        assertEquals(1, loads.get());
+        symbols.set(Map.of("ETH/USDT", "ETHUSDT", "XRP/USDT", "XRPUSDT"));
+        assertEquals("DOT/USDT", catalog.pair("DOT/USDT"));
+        assertEquals(1, loads.get());
+
+        // the outdated pairs are still returned while they are refreshed in the background
+        clock.millis = Duration.ofHours(1L).toMillis();
+        assertEquals("DOT/USDT", catalog.pair("DOT/USDT"));
+        long timeout = System.currentTimeMillis() + 5000L;
+        while(null != catalog.pair("DOT/USDT") && System.currentTimeMillis() < timeout) {
+            Thread.sleep(5L);
+        }
+        assertNull(catalog.pair("DOT/USDT"));
+        assertEquals("XRP/USDT", catalog.pair("XRP/USDT"));
+        assertEquals(2, loads.get());
+
+        // a failed refresh keeps the previous pairs
+        symbols.set(Map.of());
+        clock.millis = 2 * Duration.ofHours(1L).toMillis();
+        catalog.pair("XRP/USDT");
+        timeout = System.currentTimeMillis() + 5000L;
+        while(loads.get() < 3 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(5L);
+        }
+        Thread.sleep(20L);
+        assertEquals(3, loads.get());
+        assertEquals("XRP/USDT", catalog.pair("XRP/USDT"));
+        assertTrue(catalog.isLoaded());
+    }
+}
@@ -0,0 +1,282 @@
+package org.sbot.exchanges.binance;
+
+import com.binance.api.client.BinanceApiRestClient;
+import com.binance.api.client.domain.general.ExchangeInfo;
+import com.binance.api.client.domain.general.SymbolInfo;
+import com.binance.api.client.domain.general.SymbolStatus;
+import com.binance.api.client.domain.market.TickerStatistics;
+import com.binance.api.client.exception.BinanceApiException;
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.exchanges.ExchangeHttpClient;
+import org.sbot.exchanges.ExchangeHttpClient.Response;
+import org.sbot.exchanges.FetchScheduler;
+import org.sbot.utils.Dates;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.sbot.exchanges.binance.BinanceClient.*;
+
+class BinanceClientTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final Duration PAIRS_REFRESH = Duration.ofHours(1L);
+
+    private static String kLine(long openTime) {
+        return "[" + openTime + ",\"1\",\"3\",\"0.5\",\"2\",\"100\"," + (openTime + MINUTE - 1L) + ",\"0\",1,\"0\",\"0\",\"0\"]";
+    }
+
+    private static Response kLines(long fromOpenTime, int count) {
+        var json = LongStream.range(0, count).mapToObj(i -> kLine(fromOpenTime + i * MINUTE)).collect(Collectors.joining(",", "[", "]"));
+        return new Response(200, HttpHeaders.of(Map.of(USED_WEIGHT_HEADER, List.of("10")), (name, value) -> true), json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static URI kLinesUri(String symbol, String interval, int limit, Long startTime) {
+        return URI.create(REST_URL + KLINES_PATH + "?symbol=" + symbol + "&interval=" + interval + "&limit=" + limit + (null != startTime ? "&startTime=" + startTime : ""));
+    }
+
+    private static long startTime(URI uri) {
+        var matcher = Pattern.compile("startTime=(\\d+)").matcher(uri.getQuery());
+        assertTrue(matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    @Test
+    void getCandlesticks() {
+        ExchangeHttpClient httpClient = mock();
+        var client = new BinanceClient(mock(), httpClient, null, FetchScheduler.UNLIMITED, PAIRS_REFRESH);
+        when(httpClient.get(any())).thenReturn(kLines(0L, 3));
+
+        var candlesticks = client.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 3);
+        verify(httpClient).get(kLinesUri("ETHUSDT", "1m", 3, null));
+        assertEquals(3, candlesticks.size());
+        assertEquals(Instant.ofEpochMilli(2 * MINUTE).atZone(Dates.UTC), candlesticks.getLast().openTime());
+        assertEquals(Instant.ofEpochMilli(3 * MINUTE - 1L).atZone(Dates.UTC), candlesticks.getLast().closeTime());
+        assertEquals(0, new BigDecimal("1").compareTo(candlesticks.getLast().open()));
+        assertEquals(0, new BigDecimal("2").compareTo(candlesticks.getLast().close()));
+        assertEquals(0, new BigDecimal("3").compareTo(candlesticks.getLast().high()));
+        assertEquals(0, new BigDecimal("0.5").compareTo(candlesticks.getLast().low()));
+
+        client.getCandlesticks("ETH/USDT", TimeFrame.HOURLY, 0);
+        verify(httpClient).get(kLinesUri("ETHUSDT", "1h", 1, null));
+        client.getCandlesticks("ETH/USDT", TimeFrame.HOURLY, 5000);
+        verify(httpClient).get(kLinesUri("ETHUSDT", "1h", MAX_LIMIT, null));
+
+        when(httpClient.get(any())).thenReturn(new Response(200, HttpHeaders.of(Map.of(), (name, value) -> true), "[]".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(client.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1).isEmpty());
+    }
+
+    @Test
+    void getCandlesticksSince() {
+        ExchangeHttpClient httpClient = mock();
+        var client = new BinanceClient(mock(), httpClient, null, FetchScheduler.UNLIMITED, PAIRS_REFRESH);
+        long lastClose = 10 * MINUTE - 1L;
+        var since = Instant.ofEpochMilli(lastClose).atZone(Dates.UTC);
+
+        // one page
+        when(httpClient.get(any())).thenReturn(kLines(10 * MINUTE, 15));
+        var candlesticks = client.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, since);
+        verify(httpClient).get(kLinesUri("ETHUSDT", "1m", MAX_LIMIT, lastClose + 1L));
+        verifyNoMoreInteractions(httpClient);
+        assertEquals(15, candlesticks.size());
+        assertEquals(Instant.ofEpochMilli(10 * MINUTE).atZone(Dates.UTC), candlesticks.getFirst().openTime());
+
+        // nothing new
+        reset(httpClient);
+        when(httpClient.get(any())).thenReturn(kLines(0L, 0));
+        assertTrue(client.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, since).isEmpty());
+
+        // two pages
+        reset(httpClient);
+        long secondPage = 10 * MINUTE + MAX_LIMIT * MINUTE;
+        when(httpClient.get(kLinesUri("ETHUSDT", "1m", MAX_LIMIT, lastClose + 1L))).thenReturn(kLines(10 * MINUTE, MAX_LIMIT));
+        when(httpClient.get(kLinesUri("ETHUSDT", "1m", MAX_LIMIT, secondPage - MINUTE + 1L))).thenReturn(kLines(secondPage, 20));
+        candlesticks = client.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, since);
+        verify(httpClient, times(2)).get(any());
+        assertEquals(MAX_LIMIT + 20, candlesticks.size());
+        for(int i = 1; i < candlesticks.size(); i++) {
+            assertTrue(candlesticks.get(i).openTime().isAfter(candlesticks.get(i - 1).openTime()));
+        }
+
+        // too many pages
+        reset(httpClient);
+        when(httpClient.get(any())).thenAnswer(invocation -> kLines(startTime(invocation.getArgument(0)), MAX_LIMIT));
+        candlesticks = client.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, since);
+        verify(httpClient, times(MAX_PAGES)).get(any());
+        assertEquals(MAX_PAGES * MAX_LIMIT, candlesticks.size());
+    }
+
+    private static TickerStatistics ticker(String symbol, String lastPrice, String low, String high) {
+        var ticker = new TickerStatistics();
+        ticker.setSymbol(symbol);
+        ticker.setLastPrice(lastPrice);
+        ticker.setLowPrice(low);
+        ticker.setHighPrice(high);
+        ticker.setOpenTime(0L);
+        ticker.setCloseTime(24 * 60 * MINUTE);
+        return ticker;
+    }
+
+    @Test
+    void getTickers() {
+        BinanceApiRestClient restClient = mock();
+        FetchScheduler fetchScheduler = mock();
+        when(fetchScheduler.request(anyInt(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        var client = new BinanceClient(restClient, mock(), null, fetchScheduler, PAIRS_REFRESH);
+        when(restClient.getAll24HrPriceStatistics()).thenReturn(List.of(
+                ticker("ETHUSDT", "2000.5", "1900", "2100"),
+                ticker("BTCUSDT", "40000", "39000", "41000"),
+                ticker("DOTUSDT", "7", "6.5", "7.5"),
+                ticker("ADAUSDT", "1", "2", "1")));
+
+        var tickers = client.getTickers(Set.of("ETH/USDT", "DOT/USDT", "ADA/USDT", "XRP/USDT"));
+        verify(fetchScheduler).request(eq(TICKERS_WEIGHT), any());
+        assertEquals(Set.of("ETH/USDT", "DOT/USDT"), tickers.keySet());
+        var ticker = tickers.get("ETH/USDT");
+        assertEquals(Instant.EPOCH.atZone(Dates.UTC), ticker.openTime());
+        assertEquals(Instant.ofEpochMilli(24 * 60 * MINUTE).atZone(Dates.UTC), ticker.closeTime());
+        assertEquals(new BigDecimal("2000.5"), ticker.lastPrice());
+        assertEquals(new BigDecimal("1900"), ticker.low());
+        assertEquals(new BigDecimal("2100"), ticker.high());
+        assertTrue(client.getTickers(Set.of()).isEmpty());
+    }
+
+    @Test
+    void fetchScheduler() {
+        ExchangeHttpClient httpClient = mock();
+        FetchScheduler fetchScheduler = mock();
+        when(fetchScheduler.request(anyInt(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        var client = new BinanceClient(mock(), httpClient, null, fetchScheduler, PAIRS_REFRESH);
+        assertSame(fetchScheduler, client.fetchScheduler());
+
+        when(httpClient.get(any())).thenReturn(kLines(0L, 1));
+        client.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1);
+        verify(fetchScheduler).request(eq(KLINES_WEIGHT), any());
+        verify(fetchScheduler).usedWeight(10L);
+        verify(fetchScheduler, never()).rateLimited(any());
+
+        // rate limited, the requests are paused until the ban ends if known
+        when(httpClient.get(any())).thenReturn(error(418, "{\"code\":-1003,\"msg\":\"Way too many requests; IP banned until 1507470553000. Please use the websocket for live updates to avoid bans.\"}"));
+        assertThrows(BinanceApiException.class, () -> client.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1));
+        verify(fetchScheduler).rateLimited(Instant.ofEpochMilli(1507470553000L));
+
+        when(httpClient.get(any())).thenReturn(error(429, "{\"code\":-1003,\"msg\":\"Too many requests; current limit is 6000 request weight per 1 MINUTE.\"}"));
+        assertThrows(BinanceApiException.class, () -> client.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, Instant.EPOCH.atZone(Dates.UTC)));
+        verify(fetchScheduler).rateLimited(null);
+
+        // a rate limited response without binance error
+        when(httpClient.get(any())).thenReturn(error(429, ""));
+        assertThrows(BinanceApiException.class, () -> client.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1));
+        verify(fetchScheduler, times(2)).rateLimited(null);
+
+        // other errors
+        when(httpClient.get(any())).thenReturn(error(400, "{\"code\":-1121,\"msg\":\"Invalid symbol.\"}"));
+        var exception = assertThrows(BinanceApiException.class, () -> client.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1));
+        assertEquals(-1121, exception.getError().getCode());
+        verify(fetchScheduler, times(3)).rateLimited(any());
+    }
+
+    private static Response error(int statusCode, String body) {
+        return new Response(statusCode, HttpHeaders.of(Map.of(), (name, value) -> true), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void apiException() {
+        var exception = BinanceClient.apiException(error(400, "{\"code\":-1121,\"msg\":\"Invalid symbol.\"}"));
+        assertEquals(-1121, exception.getError().getCode());
+        assertEquals("Invalid symbol.", exception.getError().getMsg());
+        exception = BinanceClient.apiException(error(418, "banned"));
+        assertEquals(TOO_MANY_REQUESTS_CODE, exception.getError().getCode());
+        assertTrue(exception.getError().getMsg().contains("banned"));
+        exception = BinanceClient.apiException(error(500, "internal error"));
+        assertEquals(0, exception.getError().getCode());
+        assertTrue(exception.getError().getMsg().contains("500"));
+    }
+
+    private static SymbolInfo symbol(String symbol, String baseAsset, String quoteAsset, SymbolStatus status) {
+        var symbolInfo = new SymbolInfo();
+        symbolInfo.setSymbol(symbol);
+        symbolInfo.setBaseAsset(baseAsset);
+        symbolInfo.setQuoteAsset(quoteAsset);
+        symbolInfo.setStatus(status);
+        return symbolInfo;
+    }
+
+    @Test
+    void pairs() {
+        BinanceApiRestClient restClient = mock();
+        FetchScheduler fetchScheduler = mock();
+        when(fetchScheduler.request(anyInt(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        var exchangeInfo = new ExchangeInfo();
+        exchangeInfo.setSymbols(List.of(
+                symbol("ETHUSDT", "ETH", "USDT", SymbolStatus.TRADING),
+                symbol("ETHBTC", "ETH", "BTC", SymbolStatus.TRADING),
+                symbol("BTCUSDT", "BTC", "USDT", SymbolStatus.TRADING),
+                symbol("LUNAUSDT", "LUNA", "USDT", SymbolStatus.BREAK),
+                symbol("LONGASSETNAMEUSDT", "LONGASSETNAME", "USDT", SymbolStatus.TRADING)));
+        when(restClient.getExchangeInfo()).thenReturn(exchangeInfo);
+        ExchangeHttpClient httpClient = mock();
+        var client = new BinanceClient(restClient, httpClient, null, fetchScheduler, PAIRS_REFRESH);
+
+        assertEquals(List.of("BTC/USDT", "ETH/BTC", "ETH/USDT"), client.getAvailablePairs());
+        verify(fetchScheduler).request(eq(EXCHANGE_INFO_WEIGHT), any());
+        assertEquals(List.of("ETH/BTC", "ETH/USDT"), client.getAvailablePairs("ETH/", 25));
+        assertEquals(List.of("ETH/BTC"), client.getAvailablePairs("ETH", 1));
+        assertEquals(List.of(), client.getAvailablePairs("XRP", 25));
+        assertEquals("ETH/USDT", client.getPair("ETH/USDT"));
+        assertNull(client.getPair("LUNA/USDT"));
+        assertNull(client.getPair("XRP/USDT"));
+
+        when(httpClient.get(any())).thenReturn(kLines(0L, 1));
+        client.getCandlesticks("ETH/BTC", TimeFrame.ONE_MINUTE, 1);
+        verify(httpClient).get(kLinesUri("ETHBTC", "1m", 1, null));
+        verify(restClient, times(1)).getExchangeInfo();
+
+        // any pair of the expected format until the pairs are loaded
+        restClient = mock();
+        when(restClient.getExchangeInfo()).thenThrow(new BinanceApiException("unavailable"));
+        client = new BinanceClient(restClient, mock(), null, FetchScheduler.UNLIMITED, PAIRS_REFRESH);
+        assertEquals("XRP/USDT", client.getPair("XRP/USDT"));
+        assertNull(client.getPair("XRPUSDT"));
+        assertTrue(client.getAvailablePairs().isEmpty());
+        verify(restClient, times(1)).getExchangeInfo();
+    }
+
+    @Test
+    void retryAt() {
+        assertNull(BinanceClient.retryAt(null));
+        assertNull(BinanceClient.retryAt("Too many requests"));
+        assertEquals(Instant.ofEpochMilli(1507470553000L), BinanceClient.retryAt("Way too many requests; IP banned until 1507470553000. Please use the websocket"));
+    }
+
+    @Test
+    void streaming() {
+        var client = new BinanceClient(mock(BinanceApiRestClient.class), mock(), null, FetchScheduler.UNLIMITED, PAIRS_REFRESH);
+        assertFalse(client.isStreaming());
+        assertFalse(client.isSubscribed("ETH/USDT"));
+        assertThrows(UnsupportedOperationException.class, () -> client.subscribe(Set.of("ETH/USDT"), (pair, candlestick) -> {}));
+
+        BinanceStream stream = mock();
+        var streamingClient = new BinanceClient(mock(BinanceApiRestClient.class), mock(), stream, FetchScheduler.UNLIMITED, PAIRS_REFRESH);
+        assertTrue(streamingClient.isStreaming());
+        when(stream.isSubscribed("ETH/USDT")).thenReturn(true);
+        assertTrue(streamingClient.isSubscribed("ETH/USDT"));
+        streamingClient.subscribe(Set.of("ETH/USDT"), (pair, candlestick) -> {});
+        verify(stream).subscribe(eq(Set.of("ETH/USDT")), any());
+    }
+}
@@ -0,0 +1,115 @@
+package org.sbot.exchanges.binance;
+
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.KLine;
+import org.sbot.utils.ByteBufferWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.exchanges.binance.BinanceStreamTest.kLineMessage;
+
+class BinanceKLinesDecoderTest {
+
+    static final String KLINES = """
+            [
+              [1499040000000,"0.01634790","0.80000000","0.01575800","0.01577100","148976.11427815",1499644799999,"2434.19055334",308,"1756.87402397","28.46694368","0"],
+              [1499644800000, "64123.45000000", "64200", "64000.1", "64150.00000001", "1.5", 1499644859999, "2.0", 12, "1", "1", "0"]
+            ]""";
+
+    private static KLine kLine(long openTime, long closeTime, long open, int openExp, long close, int closeExp, long high, int highExp, long low, int lowExp) {
+        var kLine = KLine.empty();
+        kLine.openTime(openTime);
+        kLine.closeTime(closeTime);
+        kLine.openValue(open);
+        kLine.openScale((byte) openExp);
+        kLine.closeValue(close);
+        kLine.closeScale((byte) closeExp);
+        kLine.highValue(high);
+        kLine.highScale((byte) highExp);
+        kLine.lowValue(low);
+        kLine.lowScale((byte) lowExp);
+        return kLine;
+    }
+
+    private static ByteBufferWrapper wrap(String json) {
+        var wrapper = new ByteBufferWrapper();
+        wrapper.setBuffer(Unpooled.copiedBuffer(json, CharsetUtil.UTF_8));
+        return wrapper;
+    }
+
+    @Test
+    void decodeKLines() {
+        var decoder = new BinanceKLinesDecoder();
+        var expected = List.of(
+                kLine(1499040000000L, 1499644799999L, 1634790L, -8, 1577100L, -8, 80000000L, -8, 1575800L, -8),
+                kLine(1499644800000L, 1499644859999L, 6412345000000L, -8, 6415000000001L, -8, 64200L, 0, 640001L, -1));
+
+        List<KLine> kLines = new ArrayList<>();
+        assertEquals(2, decoder.decodeKLines(KLINES, kLines));
+        assertEquals(expected, kLines);
+
+        // klines are reused
+        var first = kLines.getFirst();
+        kLines.add(KLine.empty());
+        assertEquals(2, decoder.decodeKLines(wrap(KLINES), kLines));
+        assertEquals(3, kLines.size());
+        assertSame(first, kLines.getFirst());
+        assertEquals(expected, kLines.subList(0, 2));
+        assertEquals(KLine.empty(), kLines.get(2));
+
+        assertEquals(0, decoder.decodeKLines("[]", kLines));
+        assertEquals(0, decoder.decodeKLines(wrap(" [ ] "), kLines));
+
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLines("", new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLines("{}", new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLines("[[1499040000000,\"1\",\"2\",\"3\",\"4\",\"5\"]]", new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLines("[[1499040000000,\"1\",\"2\",\"3\",\"4\",\"5\",1499644799999];", new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLines("[[1499040000000,\"1\",\"2\",\"3\",\"4\",\"5\",1499644799999,]]", new ArrayList<>()));
+        assertThrows(NumberFormatException.class, () -> decoder.decodeKLines("[[1499040000000,\"1\",\"2x\",\"3\",\"4\",\"5\",1499644799999]]", new ArrayList<>()));
+        assertThrows(NumberFormatException.class, () -> decoder.decodeKLines("[[-1,\"1\",\"2\",\"3\",\"4\",\"5\",1499644799999]]", new ArrayList<>()));
+        assertThrows(NumberFormatException.class, () -> decoder.decodeKLines("[[1499040000000,\"1\",\"1234567890.1234567890\",\"3\",\"4\",\"5\",1499644799999]]", new ArrayList<>()));
+    }
+
+    @Test
+    void decodeKLineEvent() {
+        var decoder = new BinanceKLinesDecoder();
+        var kLine = KLine.empty();
+        long openTime = 1704067200000L;
+        var expected = kLine(openTime, openTime + 59999L, 200010L, -2, 20055L, -1, 201050L, -2, 1990L, 0);
+
+        assertTrue(decoder.decodeKLineEvent(kLineMessage("ethusdt@kline_1m", openTime, "2005.5", true), kLine));
+        assertEquals(expected, kLine);
+        kLine.reset();
+        assertFalse(decoder.decodeKLineEvent(wrap(kLineMessage("ethusdt@kline_1m", openTime, "2005.5", false)), kLine));
+        assertEquals(expected, kLine);
+        assertTrue(decoder.decodeKLineEvent("{\"k\": { \"t\": 0, \"T\": 59999, \"o\": \"1\", \"c\": \"2\", \"h\": \"3\", \"l\": \"1\", \"x\": true }}", kLine));
+        assertEquals(kLine(0L, 59999L, 1L, 0, 2L, 0, 3L, 0, 1L, 0), kLine);
+
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLineEvent("{\"stream\":\"ethusdt@kline_1m\",\"data\":{}}", kLine));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLineEvent("{\"k\":{\"x\":true}}", kLine));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLineEvent("{\"k\":[]}", kLine));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeKLineEvent("{\"k\":{\"t\":0", kLine));
+    }
+
+    @Test
+    void streamName() {
+        var decoder = new BinanceKLinesDecoder();
+        assertNull(decoder.streamName("{\"result\":null,\"id\":1}"));
+        assertEquals("ethusdt@kline_1m", decoder.streamName(kLineMessage("ethusdt@kline_1m", 0L, "1", true)));
+        assertEquals("btcusdt@kline_1m", decoder.streamName(wrap(kLineMessage("btcusdt@kline_1m", 0L, "1", true))));
+        assertThrows(IllegalArgumentException.class, () -> decoder.streamName("{\"stream\":\"ethusdt"));
+    }
+
+    @Test
+    void parseLong() {
+        assertEquals(0L, BinanceKLinesDecoder.parseLong("0", 0, 1));
+        assertEquals(1499040000000L, BinanceKLinesDecoder.parseLong("[1499040000000,", 1, 14));
+        assertThrows(NumberFormatException.class, () -> BinanceKLinesDecoder.parseLong("", 0, 0));
+        assertThrows(NumberFormatException.class, () -> BinanceKLinesDecoder.parseLong("1a", 0, 2));
+        assertThrows(NumberFormatException.class, () -> BinanceKLinesDecoder.parseLong("1".repeat(19), 0, 19));
+    }
+}
@@ -0,0 +1,119 @@
+package org.sbot.exchanges.binance;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.Candlestick;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.exchanges.binance.BinanceStream.MAX_STREAMS;
+import static org.sbot.exchanges.binance.BinanceStream.streamName;
+
+class BinanceStreamTest {
+
+    private record PairCandlestick(String pair, Candlestick candlestick) {}
+
+    static String kLineMessage(String stream, long openTime, String close, boolean closed) {
+        return "{\"stream\":\"" + stream + "\",\"data\":{\"e\":\"kline\",\"E\":" + (openTime + 1000L) + ",\"s\":\"ETHUSDT\",\"k\":{\"t\":" + openTime +
+                ",\"T\":" + (openTime + 59999L) + ",\"s\":\"ETHUSDT\",\"i\":\"1m\",\"f\":100,\"L\":200,\"o\":\"2000.10\",\"c\":\"" + close +
+                "\",\"h\":\"2010.50\",\"l\":\"1990\",\"v\":\"1000\",\"n\":100,\"x\":" + closed + ",\"q\":\"1.0000\",\"V\":\"500\",\"Q\":\"0.500\",\"B\":\"123456\"}}}";
+    }
+
+    @Test
+    void streamNameOf() {
+        assertEquals("ethusdt@kline_1m", streamName("ETH/USDT"));
+        assertEquals("btcusdt@kline_1m", streamName("BTCUSDT"));
+    }
+
+    @Test
+    void subscribe() throws Exception {
+        try (var server = new LocalWebSocketServer()) {
+            var stream = new BinanceStream(server.uri());
+            BlockingQueue<PairCandlestick> candlesticks = new LinkedBlockingQueue<>();
+            var pairs = new LinkedHashSet<>(Set.of("ETH/USDT", "BTC/USDT"));
+            stream.subscribe(pairs, (pair, candlestick) -> candlesticks.add(new PairCandlestick(pair, candlestick)));
+            assertTrue(server.awaitConnection());
+            var request = server.receive();
+            assertTrue(request.startsWith("{\"method\":\"SUBSCRIBE\",\"params\":[\""));
+            assertTrue(request.contains("\"ethusdt@kline_1m\""));
+            assertTrue(request.contains("\"btcusdt@kline_1m\""));
+            assertTrue(stream.isSubscribed("ETH/USDT"));
+            assertTrue(stream.isSubscribed("BTC/USDT"));
+            assertFalse(stream.isSubscribed("DOT/USDT"));
+
+            // only closed klines of the subscribed pairs are received
+            server.send("{\"result\":null,\"id\":1}");
+            server.send(kLineMessage("ethusdt@kline_1m", 0L, "2001", false));
+            server.send(kLineMessage("dotusdt@kline_1m", 0L, "2002", true));
+            server.send(kLineMessage("ethusdt@kline_1m", 0L, "2003", true));
+            var received = candlesticks.poll(5, TimeUnit.SECONDS);
+            assertNotNull(received);
+            assertEquals("ETH/USDT", received.pair());
+            assertEquals(new BigDecimal("2003"), received.candlestick().close());
+            assertNull(candlesticks.poll(100, TimeUnit.MILLISECONDS));
+
+            // the subscription follows the pairs
+            stream.subscribe(Set.of("ETH/USDT", "DOT/USDT"), (pair, candlestick) -> candlesticks.add(new PairCandlestick(pair, candlestick)));
+            assertEquals("{\"method\":\"UNSUBSCRIBE\",\"params\":[\"btcusdt@kline_1m\"],\"id\":2}", server.receive());
+            assertEquals("{\"method\":\"SUBSCRIBE\",\"params\":[\"dotusdt@kline_1m\"],\"id\":3}", server.receive());
+            assertTrue(stream.isSubscribed("ETH/USDT"));
+            assertFalse(stream.isSubscribed("BTC/USDT"));
+            assertTrue(stream.isSubscribed("DOT/USDT"));
+            server.send(kLineMessage("dotusdt@kline_1m", 60000L, "7", true));
+            received = candlesticks.poll(5, TimeUnit.SECONDS);
+            assertNotNull(received);
+            assertEquals("DOT/USDT", received.pair());
+
+            // lost connection, pairs are polled until the next subscription
+            server.disconnect();
+            long timeout = System.currentTimeMillis() + 5000L;
+            while(stream.isSubscribed("ETH/USDT") && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10L);
+            }
+            assertFalse(stream.isSubscribed("ETH/USDT"));
+            stream.subscribe(Set.of("ETH/USDT"), (pair, candlestick) -> candlesticks.add(new PairCandlestick(pair, candlestick)));
+            assertTrue(server.awaitConnection());
+            assertEquals("{\"method\":\"SUBSCRIBE\",\"params\":[\"ethusdt@kline_1m\"],\"id\":4}", server.receive());
+            assertTrue(stream.isSubscribed("ETH/USDT"));
+
+            stream.subscribe(emptySet(), (pair, candlestick) -> {});
+            assertFalse(stream.isSubscribed("ETH/USDT"));
+        }
+    }
+
+    @Test
+    void subscribeLimits() throws Exception {
+        try (var server = new LocalWebSocketServer()) {
+            var stream = new BinanceStream(server.uri());
+            var pairs = new LinkedHashSet<String>();
+            IntStream.range(0, MAX_STREAMS + 10).forEach(i -> pairs.add("P" + i + "/USDT"));
+            stream.subscribe(pairs, (pair, candlestick) -> {});
+            int subscribed = 0;
+            for(var request = server.receive(); null != request; request = server.receive()) {
+                assertTrue(request.startsWith("{\"method\":\"SUBSCRIBE\""));
+                subscribed += request.split("@kline_1m").length - 1;
+                if(subscribed == MAX_STREAMS) {
+                    break;
+                }
+            }
+            assertEquals(MAX_STREAMS, subscribed);
+            assertEquals(MAX_STREAMS, pairs.stream().filter(stream::isSubscribed).count());
+            stream.close();
+        }
+    }
+
+    @Test
+    void connectionFailure() {
+        var stream = new BinanceStream(URI.create("ws://localhost:1/stream"));
+        assertThrows(IllegalStateException.class, () -> stream.subscribe(Set.of("ETH/USDT"), (pair, candlestick) -> {}));
+        assertFalse(stream.isSubscribed("ETH/USDT"));
+    }
+}
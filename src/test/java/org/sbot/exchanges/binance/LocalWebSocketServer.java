@@ -0,0 +1,148 @@
+package org.sbot.exchanges.binance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// local stand-in of an exchange websocket server, one client at a time, text frames only (RFC 6455)
+final class LocalWebSocketServer implements AutoCloseable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Socket> connections = new LinkedBlockingQueue<>();
+    private volatile Socket client;
+
+    LocalWebSocketServer() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    @NotNull
+    URI uri() {
+        return URI.create("ws://localhost:" + serverSocket.getLocalPort() + "/stream");
+    }
+
+    // next text message sent by the client
+    String receive() throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+
+    // waits for a new client connection
+    boolean awaitConnection() throws InterruptedException {
+        return null != connections.poll(5, TimeUnit.SECONDS);
+    }
+
+    synchronized void send(@NotNull String message) throws IOException {
+        writeFrame(0x1, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // closes the current client connection, the server keeps accepting new ones
+    synchronized void disconnect() throws IOException {
+        writeFrame(0x8, new byte[] {0x03, (byte) 0xE9}); // going away
+        client.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        if(null != client) {
+            client.close();
+        }
+    }
+
+    private void accept() {
+        while(!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                handshake(socket);
+                client = socket;
+                connections.add(socket);
+                Thread.ofVirtual().start(() -> read(socket));
+            } catch (Exception e) {
+                // server closed
+            }
+        }
+    }
+
+    private static void handshake(@NotNull Socket socket) throws Exception {
+        var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+        String key = null;
+        for(String line = reader.readLine(); null != line && !line.isEmpty(); line = reader.readLine()) {
+            if(line.toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).strip();
+            }
+        }
+        var accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                .digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+        socket.getOutputStream().write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n" +
+                "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        socket.getOutputStream().flush();
+    }
+
+    // client frames are always masked
+    private void read(@NotNull Socket socket) {
+        try {
+            var input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while(!socket.isClosed()) {
+                int opcode = input.readUnsignedByte() & 0x0F;
+                int length = input.readUnsignedByte() & 0x7F;
+                long payloadLength = length == 126 ? input.readUnsignedShort() : length == 127 ? input.readLong() : length;
+                byte[] mask = input.readNBytes(4);
+                byte[] payload = input.readNBytes((int) payloadLength);
+                for(int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i % 4];
+                }
+                switch (opcode) {
+                    case 0x1 -> received.add(new String(payload, StandardCharsets.UTF_8));
+                    case 0x8 -> {
+                        synchronized (this) {
+                            if(socket == client) {
+                                writeFrame(0x8, payload);
+                            }
+                        }
+                        socket.close();
+                    }
+                    case 0x9 -> {
+                        synchronized (this) {
+                            writeFrame(0xA, payload);
+                        }
+                    }
+                    default -> {}
+                }
+            }
+        } catch (IOException e) {
+            // connection closed
+        }
+    }
+
+    private void writeFrame(int opcode, byte[] payload) throws IOException {
+        var output = client.getOutputStream();
+        output.write(0x80 | opcode);
+        if(payload.length < 126) {
+            output.write(payload.length);
+        } else if(payload.length <= 0xFFFF) {
+            output.write(126);
+            output.write(payload.length >>> 8);
+            output.write(payload.length & 0xFF);
+        } else {
+            output.write(127);
+            for(int shift = 56; shift >= 0; shift -= 8) {
+                output.write((int) ((long) payload.length >>> shift) & 0xFF);
+            }
+        }
+        output.write(payload);
+        output.flush();
+    }
+}
@@ -0,0 +1,157 @@
+package org.sbot.exchanges.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.utils.SimulatedClock;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.utils.Dates.UTC;
+
+class ReplayExchangeTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, UTC); // a monday
+
+    // one minute candlesticks from START, the price i is opened at i and closed at i + 1, with a high at i + 2 and a low at i / 2
+    private static List<Candlestick> candlesticks(int count) {
+        var candlesticks = new ArrayList<Candlestick>(count);
+        for(int i = 0; i < count; i++) {
+            candlesticks.add(new Candlestick(START.plusMinutes(i), START.plusMinutes(i + 1L).minusNanos(1_000_000L),
+                    BigDecimal.valueOf(i), BigDecimal.valueOf(i + 1L), BigDecimal.valueOf(i + 2L), BigDecimal.valueOf(i, 1)));
+        }
+        return candlesticks;
+    }
+
+    private static ReplayExchange exchange(Path directory, SimulatedClock clock, int count) throws IOException {
+        ReplayExchange.write(directory, "ETH/USDT", candlesticks(count));
+        return new ReplayExchange("test", directory, clock);
+    }
+
+    @Test
+    void constructor(@TempDir Path directory) throws IOException {
+        var clock = new SimulatedClock(START.toInstant());
+        assertThrows(NullPointerException.class, () -> new ReplayExchange(null, directory, clock));
+        assertThrows(NullPointerException.class, () -> new ReplayExchange("test", null, clock));
+        assertThrows(NullPointerException.class, () -> new ReplayExchange("test", directory, null));
+        assertThrows(IllegalArgumentException.class, () -> new ReplayExchange("test", directory.resolve("missing"), clock));
+
+        Files.writeString(directory.resolve("readme.txt"), "test");
+        Files.writeString(directory.resolve("invalid.klines"), "test");
+        ReplayExchange.write(directory, "ETH/USDT", candlesticks(1));
+        ReplayExchange.write(directory, "BTC/USDT", candlesticks(1));
+        var exchange = new ReplayExchange("test", directory, clock);
+        assertEquals("test", exchange.name());
+        assertFalse(exchange.isVirtual());
+        assertEquals(List.of("BTC/USDT", "ETH/USDT"), exchange.getAvailablePairs());
+        assertEquals("ETH/USDT", exchange.getPair("ETH/USDT"));
+        assertNull(exchange.getPair("DOT/USDT"));
+    }
+
+    @Test
+    void write(@TempDir Path directory) throws IOException {
+        ReplayExchange.write(directory, "ETH/USDT", candlesticks(3));
+        assertEquals(3L * ReplayExchange.RECORD_SIZE, Files.size(directory.resolve("ETH_USDT.klines")));
+        ReplayExchange.write(directory, "ETH/USDT", candlesticks(2));
+        assertEquals(2L * ReplayExchange.RECORD_SIZE, Files.size(directory.resolve("ETH_USDT.klines")));
+
+        var unsorted = new ArrayList<>(candlesticks(2));
+        unsorted.add(unsorted.getFirst());
+        assertThrows(IllegalArgumentException.class, () -> ReplayExchange.write(directory, "ETH/USDT", unsorted));
+        var tooLong = List.of(new Candlestick(START, START, BigDecimal.ONE, BigDecimal.ONE, new BigDecimal("123456789012345678901234567890"), BigDecimal.ONE));
+        assertThrows(ArithmeticException.class, () -> ReplayExchange.write(directory, "ETH/USDT", tooLong));
+    }
+
+    @Test
+    void fileName() {
+        assertEquals("ETH_USDT.klines", ReplayExchange.fileName("ETH/USDT"));
+        assertEquals("ETH/USDT", ReplayExchange.pair("ETH_USDT.klines"));
+        assertNull(ReplayExchange.pair("ETH_USDT.txt"));
+        assertNull(ReplayExchange.pair("_USDT.klines"));
+    }
+
+    @Test
+    void getCandlesticks(@TempDir Path directory) throws IOException {
+        var clock = new SimulatedClock(START.toInstant());
+        var exchange = exchange(directory, clock, 3 * 60);
+        var candlesticks = candlesticks(3 * 60);
+
+        assertEquals(List.of(), exchange.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 10));
+        assertEquals(List.of(), exchange.getCandlesticks("ETH/USDT", TimeFrame.HOURLY, 10));
+        assertEquals(List.of(), exchange.getCandlesticks("DOT/USDT", TimeFrame.ONE_MINUTE, 10));
+
+        // only the closed candlesticks are replayed
+        clock.advance(Duration.ofSeconds(90L));
+        assertEquals(candlesticks.subList(0, 1), exchange.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 10));
+        clock.advance(Duration.ofMinutes(10L));
+        assertEquals(candlesticks.subList(6, 11), exchange.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 5));
+        assertEquals(List.of(), exchange.getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 0));
+
+        // aggregated, the last one is still open
+        var fiveMinutes = exchange.getCandlesticks("ETH/USDT", TimeFrame.FIVE_MINUTES, 2);
+        assertEquals(2, fiveMinutes.size());
+        assertEquals(new Candlestick(START.plusMinutes(5L), START.plusMinutes(10L).minusNanos(1_000_000L),
+                BigDecimal.valueOf(5L), BigDecimal.valueOf(10L), BigDecimal.valueOf(11L), BigDecimal.valueOf(5L, 1)), fiveMinutes.getFirst());
+        assertEquals(new Candlestick(START.plusMinutes(10L), START.plusMinutes(15L).minusNanos(1_000_000L),
+                BigDecimal.valueOf(10L), BigDecimal.valueOf(11L), BigDecimal.valueOf(12L), BigDecimal.valueOf(10L, 1)), fiveMinutes.getLast());
+
+        // up to the end of the records
+        clock.set(START.plusDays(1L).toInstant());
+        var hourly = exchange.getCandlesticks("ETH/USDT", TimeFrame.HOURLY, 10);
+        assertEquals(3, hourly.size());
+        assertEquals(START.plusHours(2L), hourly.getLast().openTime());
+        assertEquals(BigDecimal.valueOf(3 * 60L), hourly.getLast().close());
+        var daily = exchange.getCandlesticks("ETH/USDT", TimeFrame.DAILY, 1);
+        assertEquals(1, daily.size());
+        assertEquals(new Candlestick(START, START.plusDays(1L).minusNanos(1_000_000L),
+                BigDecimal.ZERO, BigDecimal.valueOf(3 * 60L), BigDecimal.valueOf(3 * 60 + 1L), BigDecimal.valueOf(0L, 1)), daily.getFirst());
+        assertEquals(START, exchange.getCandlesticks("ETH/USDT", TimeFrame.WEEKLY, 1).getFirst().openTime());
+        assertEquals(START, exchange.getCandlesticks("ETH/USDT", TimeFrame.MONTHLY, 1).getFirst().openTime());
+        assertThrows(IllegalArgumentException.class, () -> exchange.getCandlesticks("ETH/USDT", TimeFrame.ONE_SECOND, 1));
+    }
+
+    @Test
+    void getCandlesticksSince(@TempDir Path directory) throws IOException {
+        var clock = new SimulatedClock(START.plusMinutes(10L).toInstant());
+        var exchange = exchange(directory, clock, 60);
+        var candlesticks = candlesticks(60);
+
+        assertEquals(candlesticks.subList(0, 10), exchange.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, START.minusDays(1L)));
+        assertEquals(candlesticks.subList(5, 10), exchange.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, candlesticks.get(4).closeTime()));
+        assertEquals(candlesticks.subList(6, 10), exchange.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, candlesticks.get(5).openTime()));
+        assertEquals(List.of(), exchange.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, START.plusHours(1L)));
+        assertEquals(List.of(), exchange.getCandlesticksSince("DOT/USDT", TimeFrame.ONE_MINUTE, START));
+
+        clock.advance(Duration.ofMinutes(5L));
+        assertEquals(candlesticks.subList(10, 15), exchange.getCandlesticksSince("ETH/USDT", TimeFrame.ONE_MINUTE, candlesticks.get(9).closeTime()));
+
+        var fiveMinutes = exchange.getCandlesticksSince("ETH/USDT", TimeFrame.FIVE_MINUTES, START.plusMinutes(2L));
+        assertEquals(List.of(START.plusMinutes(5L), START.plusMinutes(10L)), fiveMinutes.stream().map(Candlestick::openTime).toList());
+    }
+
+    @Test
+    void bucketStart() {
+        long monday = START.toInstant().toEpochMilli();
+        long wednesday = START.plusDays(2L).plusHours(5L).plusMinutes(7L).toInstant().toEpochMilli();
+        assertEquals(monday, ReplayExchange.bucketStart(wednesday, TimeFrame.WEEKLY));
+        assertEquals(START.plusDays(2L).toInstant().toEpochMilli(), ReplayExchange.bucketStart(wednesday, TimeFrame.DAILY));
+        assertEquals(START.plusDays(2L).plusHours(4L).toInstant().toEpochMilli(), ReplayExchange.bucketStart(wednesday, TimeFrame.FOUR_HOURLY));
+        assertEquals(START.plusDays(2L).plusHours(5L).plusMinutes(5L).toInstant().toEpochMilli(), ReplayExchange.bucketStart(wednesday, TimeFrame.FIVE_MINUTES));
+        assertEquals(monday, ReplayExchange.bucketStart(START.plusDays(20L).toInstant().toEpochMilli(), TimeFrame.MONTHLY));
+
+        assertEquals(START.plusMonths(1L).toInstant().toEpochMilli(), ReplayExchange.plusBuckets(monday, TimeFrame.MONTHLY, 1L));
+        assertEquals(START.minusWeeks(2L).toInstant().toEpochMilli(), ReplayExchange.plusBuckets(monday, TimeFrame.WEEKLY, -2L));
+        assertEquals(START.plusHours(3L).toInstant().toEpochMilli(), ReplayExchange.plusBuckets(monday, TimeFrame.HOURLY, 3L));
+        assertEquals(Instant.EPOCH.plus(Duration.ofDays(4L)).toEpochMilli(), ReplayExchange.bucketStart(Instant.EPOCH.plus(Duration.ofDays(10L)).toEpochMilli(), TimeFrame.WEEKLY));
+    }
+}
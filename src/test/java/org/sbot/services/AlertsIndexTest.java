@@ -0,0 +1,42 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.services.AlertsIndex.PriceBox;
+import org.sbot.utils.DatesTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TEN;
+import static java.math.BigDecimal.TWO;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertsIndexTest {
+
+    @Test
+    void priceBox() {
+        assertThrows(NullPointerException.class, () -> new PriceBox(0L, 1L, null, ONE));
+        assertThrows(NullPointerException.class, () -> new PriceBox(0L, 1L, ONE, null));
+        assertThrows(IllegalArgumentException.class, () -> new PriceBox(1L, 0L, ONE, ONE));
+        assertThrows(IllegalArgumentException.class, () -> new PriceBox(0L, 1L, TWO, ONE));
+        assertDoesNotThrow(() -> new PriceBox(1L, 1L, ONE, ONE));
+    }
+
+    @Test
+    void priceBoxOf() {
+        var now = DatesTest.nowUtc();
+        var candlestick1 = new Candlestick(now.minusMinutes(2L), now.minusMinutes(1L), TWO, TWO, BigDecimal.valueOf(3L), TWO);
+        var candlestick2 = new Candlestick(now.minusMinutes(1L), now, TWO, TWO, TEN, ONE);
+        var previous = new Candlestick(now.minusMinutes(3L), now.minusMinutes(2L), TWO, TWO, BigDecimal.valueOf(20L), TWO);
+
+        assertThrows(NullPointerException.class, () -> PriceBox.of(null, previous));
+        assertEquals(new PriceBox(now.minusMinutes(2L).toInstant().toEpochMilli(), now.minusMinutes(1L).toInstant().toEpochMilli(), TWO, BigDecimal.valueOf(3L)),
+                PriceBox.of(List.of(candlestick1), null));
+        assertEquals(new PriceBox(now.minusMinutes(2L).toInstant().toEpochMilli(), now.toInstant().toEpochMilli(), ONE, TEN),
+                PriceBox.of(List.of(candlestick1, candlestick2), null));
+        assertEquals(new PriceBox(now.minusMinutes(3L).toInstant().toEpochMilli(), now.toInstant().toEpochMilli(), ONE, BigDecimal.valueOf(20L)),
+                PriceBox.of(List.of(candlestick1, candlestick2), previous));
+    }
+}
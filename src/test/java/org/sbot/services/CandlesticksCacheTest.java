@@ -0,0 +1,243 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.exchanges.Exchange;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TWO;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.sbot.utils.Dates.UTC;
+
+class CandlesticksCacheTest {
+
+    private static final long NOW = 1704067230000L; // 00:00:30
+
+    private static ZonedDateTime date(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(UTC);
+    }
+
+    // one minute candlestick opened at this date
+    private static Candlestick candlestick(long openTime) {
+        return new Candlestick(date(openTime), date(openTime + 59_999L), ONE, ONE, TWO, ONE);
+    }
+
+    private static Clock clock(long millis) {
+        Clock clock = mock();
+        when(clock.millis()).thenReturn(millis);
+        return clock;
+    }
+
+    private static Exchange exchange(Candlestick... candlesticks) {
+        Exchange exchange = mock();
+        when(exchange.name()).thenReturn("binance");
+        when(exchange.getCandlesticks(any(), any(), anyLong())).thenReturn(List.of(candlesticks));
+        return exchange;
+    }
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new CandlesticksCache(null));
+        assertThrows(NullPointerException.class, () -> new CandlesticksCache(null, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new CandlesticksCache(Clock.systemUTC(), null));
+        assertThrows(IllegalArgumentException.class, () -> new CandlesticksCache(Clock.systemUTC(), Duration.ofSeconds(-1L)));
+        assertThrows(NullPointerException.class, () -> new CandlesticksCache(Clock.systemUTC(), (CandlesticksHistory) null));
+        assertDoesNotThrow(() -> new CandlesticksCache(Clock.systemUTC()));
+        assertDoesNotThrow(() -> new CandlesticksCache(Clock.systemUTC(), CandlesticksHistory.DISABLED));
+    }
+
+    @Test
+    void getLast() {
+        var clock = clock(NOW);
+        var cache = new CandlesticksCache(clock, Duration.ofSeconds(10L));
+        var open = candlestick(NOW - 30_000L);
+        var exchange = exchange(candlestick(NOW - 90_000L), open);
+
+        assertEquals(Optional.of(open), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange).getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1);
+        assertEquals(Optional.of(open), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange, times(1)).getCandlesticks(any(), any(), anyLong());
+        assertEquals(1L, cache.hits());
+        assertEquals(1L, cache.misses());
+
+        // other keys
+        cache.getLast(exchange, "BTC/USDT", TimeFrame.ONE_MINUTE);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.HOURLY);
+        verify(exchange, times(3)).getCandlesticks(any(), any(), anyLong());
+        assertEquals(3L, cache.misses());
+
+        // max ttl
+        when(clock.millis()).thenReturn(NOW + 9_999L);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange, times(3)).getCandlesticks(any(), any(), anyLong());
+        when(clock.millis()).thenReturn(NOW + 10_000L);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange, times(4)).getCandlesticks(any(), any(), anyLong());
+
+        // expires once the candlestick closes
+        when(clock.millis()).thenReturn(NOW + 25_000L);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange, times(5)).getCandlesticks(any(), any(), anyLong());
+        when(clock.millis()).thenReturn(NOW + 29_999L);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange, times(5)).getCandlesticks(any(), any(), anyLong());
+        when(clock.millis()).thenReturn(NOW + 30_000L);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange, times(6)).getCandlesticks(any(), any(), anyLong());
+
+        // no market data is cached too
+        var empty = exchange();
+        assertEquals(Optional.empty(), cache.getLast(empty, "DOT/USDT", TimeFrame.ONE_MINUTE));
+        assertEquals(Optional.empty(), cache.getLast(empty, "DOT/USDT", TimeFrame.ONE_MINUTE));
+        verify(empty, times(1)).getCandlesticks(any(), any(), anyLong());
+
+        // errors are not cached
+        Exchange failing = mock();
+        when(failing.name()).thenReturn("failing");
+        when(failing.getCandlesticks(any(), any(), anyLong())).thenThrow(IllegalStateException.class);
+        assertThrows(IllegalStateException.class, () -> cache.getLast(failing, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        assertThrows(IllegalStateException.class, () -> cache.getLast(failing, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(failing, times(2)).getCandlesticks(any(), any(), anyLong());
+    }
+
+    @Test
+    void getLastCoalesced() throws Exception {
+        var cache = new CandlesticksCache(clock(NOW), Duration.ofSeconds(10L));
+        var open = candlestick(NOW - 30_000L);
+        var release = new CountDownLatch(1);
+        Exchange exchange = mock();
+        when(exchange.name()).thenReturn("binance");
+        when(exchange.getCandlesticks(any(), any(), anyLong())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(open);
+        });
+
+        int callers = 10;
+        try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var results = IntStream.range(0, callers).mapToObj(i ->
+                    executor.submit(() -> cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE))).toList();
+            long timeout = System.currentTimeMillis() + 5000L;
+            while(cache.coalesced() < callers - 1 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(5L);
+            }
+            release.countDown();
+            for(var result : results) {
+                assertEquals(Optional.of(open), result.get(5L, TimeUnit.SECONDS));
+            }
+        }
+        verify(exchange, times(1)).getCandlesticks(any(), any(), anyLong());
+        assertEquals(1L, cache.misses());
+        assertEquals(callers - 1, cache.coalesced());
+        assertEquals(0L, cache.hits());
+    }
+
+    @Test
+    void getLastHistoryFallback() {
+        CandlesticksHistory history = mock();
+        var cache = new CandlesticksCache(clock(NOW), Duration.ofSeconds(10L), history);
+        Exchange exchange = mock();
+        when(exchange.name()).thenReturn("binance");
+        when(exchange.getCandlesticks(any(), any(), anyLong())).thenThrow(new IllegalStateException("down"));
+
+        when(history.isEnabled()).thenReturn(false);
+        assertThrows(IllegalStateException.class, () -> cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(history, never()).getLast(any(), any(), any());
+
+        when(history.isEnabled()).thenReturn(true);
+        when(history.getLast("binance", "ETH/USDT", TimeFrame.ONE_MINUTE)).thenReturn(Optional.empty());
+        assertThrows(IllegalStateException.class, () -> cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+
+        var stored = candlestick(NOW - 90_000L);
+        when(history.getLast("binance", "ETH/USDT", TimeFrame.ONE_MINUTE)).thenReturn(Optional.of(stored));
+        assertEquals(Optional.of(stored), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        // not cached, the exchange is requested again
+        assertEquals(Optional.of(stored), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange, times(4)).getCandlesticks(any(), any(), anyLong());
+    }
+
+    @Test
+    void getLastFromHistory() {
+        CandlesticksHistory history = mock();
+        var clock = clock(NOW);
+        var cache = new CandlesticksCache(clock, Duration.ofSeconds(10L), history);
+        var exchange = exchange(candlestick(NOW - 30_000L));
+        when(history.isEnabled()).thenReturn(true);
+
+        // closed 5 seconds ago, within the max ttl
+        var stored = candlestick(NOW - 65_000L);
+        when(history.getLast("binance", "ETH/USDT", TimeFrame.ONE_MINUTE)).thenReturn(Optional.of(stored));
+        assertEquals(Optional.of(stored), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        assertEquals(Optional.of(stored), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange, never()).getCandlesticks(any(), any(), anyLong());
+        assertEquals(1L, cache.hits());
+
+        // expired once the max ttl elapsed since its close
+        when(clock.millis()).thenReturn(NOW + 5_000L);
+        assertEquals(Optional.of(candlestick(NOW - 30_000L)), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange).getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1);
+
+        // an error reading the history falls back to the exchange
+        when(history.getLast("binance", "DOT/USDT", TimeFrame.ONE_MINUTE)).thenThrow(new IllegalStateException("io"));
+        assertEquals(Optional.of(candlestick(NOW - 30_000L)), cache.getLast(exchange, "DOT/USDT", TimeFrame.ONE_MINUTE));
+    }
+
+    @Test
+    void put() {
+        var clock = clock(NOW);
+        var cache = new CandlesticksCache(clock, Duration.ofSeconds(10L));
+        var exchange = exchange(candlestick(NOW - 90_000L));
+        var open = candlestick(NOW - 30_000L);
+        assertThrows(NullPointerException.class, () -> cache.put("binance", "ETH/USDT", TimeFrame.ONE_MINUTE, null));
+
+        cache.put("binance", "ETH/USDT", TimeFrame.ONE_MINUTE, open);
+        assertEquals(Optional.of(open), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange, never()).getCandlesticks(any(), any(), anyLong());
+
+        // an older candlestick does not replace a newer one
+        cache.put("binance", "ETH/USDT", TimeFrame.ONE_MINUTE, candlestick(NOW - 90_000L));
+        assertEquals(Optional.of(open), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+        var update = new Candlestick(open.openTime(), open.closeTime(), ONE, TWO, TWO, ONE);
+        cache.put("binance", "ETH/USDT", TimeFrame.ONE_MINUTE, update);
+        assertEquals(Optional.of(update), cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE));
+
+        // a closed candlestick is kept for the max ttl
+        var closed = candlestick(NOW - 60_000L - 30_000L);
+        cache.put("binance", "BTC/USDT", TimeFrame.ONE_MINUTE, closed);
+        when(clock.millis()).thenReturn(NOW + 9_999L);
+        assertEquals(Optional.of(closed), cache.getLast(exchange, "BTC/USDT", TimeFrame.ONE_MINUTE));
+        verify(exchange, never()).getCandlesticks(any(), any(), anyLong());
+        when(clock.millis()).thenReturn(NOW + 10_000L);
+        cache.getLast(exchange, "BTC/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange).getCandlesticks("BTC/USDT", TimeFrame.ONE_MINUTE, 1);
+    }
+
+    @Test
+    void evictExpired() {
+        var clock = clock(NOW);
+        var cache = new CandlesticksCache(clock, Duration.ofSeconds(10L));
+        var exchange = exchange(candlestick(NOW - 90_000L));
+        cache.put("binance", "ETH/USDT", TimeFrame.ONE_MINUTE, candlestick(NOW - 30_000L));
+        cache.evictExpired();
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange, never()).getCandlesticks(any(), any(), anyLong());
+
+        when(clock.millis()).thenReturn(NOW + 10_000L);
+        cache.evictExpired();
+        when(clock.millis()).thenReturn(NOW);
+        cache.getLast(exchange, "ETH/USDT", TimeFrame.ONE_MINUTE);
+        verify(exchange).getCandlesticks("ETH/USDT", TimeFrame.ONE_MINUTE, 1);
+    }
+}
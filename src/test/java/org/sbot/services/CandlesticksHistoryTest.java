@@ -0,0 +1,303 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.KLine;
+import org.sbot.entities.chart.TimeFrame;
+import org.sbot.utils.SimulatedClock;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.entities.chart.TimeFrame.*;
+import static org.sbot.utils.Dates.UTC;
+
+class CandlesticksHistoryTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, UTC);
+    private static final Map<TimeFrame, Duration> RETENTION = Map.of(ONE_MINUTE, Duration.ofDays(2L), HOURLY, Duration.ofDays(90L), DAILY, Duration.ofDays(730L));
+
+    // one minute candlesticks from START plus this number of minutes, the price i is opened at i / 10 and closed at (i + 1) / 10,
+    // with a high at i + 2 and a low at i / 100
+    private static List<Candlestick> candlesticks(int from, int count) {
+        var candlesticks = new ArrayList<Candlestick>(count);
+        for(int i = from; i < from + count; i++) {
+            candlesticks.add(new Candlestick(START.plusMinutes(i), START.plusMinutes(i + 1L).minusNanos(1_000_000L),
+                    BigDecimal.valueOf(i, 1), BigDecimal.valueOf(i + 1L, 1), BigDecimal.valueOf(i + 2L), BigDecimal.valueOf(i, 2)));
+        }
+        return candlesticks;
+    }
+
+    // compared with their compact value, the trailing zeros are not stored
+    private static List<Candlestick> stripped(List<Candlestick> candlesticks) {
+        return candlesticks.stream().map(candlestick -> KLine.of(candlestick).candlestick()).toList();
+    }
+
+    private static Path series(Path directory, TimeFrame timeFrame) {
+        return directory.resolve("binance").resolve("ETH_USDT").resolve(timeFrame.symbol);
+    }
+
+    @Test
+    void constructor(@TempDir Path directory) {
+        assertThrows(NullPointerException.class, () -> new CandlesticksHistory(null));
+        assertThrows(NullPointerException.class, () -> new CandlesticksHistory(directory, null, RETENTION));
+        assertThrows(NullPointerException.class, () -> new CandlesticksHistory(directory, Clock.systemUTC(), null));
+        assertTrue(new CandlesticksHistory(directory, Clock.systemUTC(), RETENTION).isEnabled());
+        assertFalse(new CandlesticksHistory(null, Clock.systemUTC(), RETENTION).isEnabled());
+        assertFalse(CandlesticksHistory.DISABLED.isEnabled());
+    }
+
+    @Test
+    void disabled() {
+        var history = CandlesticksHistory.DISABLED;
+        assertEquals(0, history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(0, 10)));
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, START));
+        assertEquals(Optional.empty(), history.getLast("binance", "ETH/USDT", ONE_MINUTE));
+        assertDoesNotThrow(history::compactIfDue);
+    }
+
+    @Test
+    void append(@TempDir Path directory) {
+        var clock = new SimulatedClock(START.plusMinutes(10L).toInstant());
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        assertThrows(IllegalArgumentException.class, () -> history.append("binance", "ETH/USDT", FIVE_MINUTES, candlesticks(0, 1)));
+        assertEquals(0, history.append("binance", "ETH/USDT", ONE_MINUTE, List.of()));
+
+        // the last one is still open
+        assertEquals(10, history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(0, 11)));
+        assertTrue(Files.exists(series(directory, ONE_MINUTE).resolve(START.toInstant().toEpochMilli() + CandlesticksHistory.SEGMENT_EXTENSION)));
+        assertEquals(Optional.of(stripped(candlesticks(9, 1)).getFirst()), history.getLast("binance", "ETH/USDT", ONE_MINUTE));
+
+        // already stored ones are ignored
+        clock.advance(Duration.ofMinutes(5L));
+        assertEquals(5, history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(5, 10).reversed()));
+        assertEquals(0, history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(0, 15)));
+        assertEquals(stripped(candlesticks(0, 15)), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, START.minusNanos(1_000_000L)));
+
+        // a price that doesn't fit into a compact decimal is not stored
+        clock.advance(Duration.ofMinutes(1L));
+        var tooLong = candlesticks(15, 1).getFirst();
+        assertEquals(0, history.append("binance", "ETH/USDT", ONE_MINUTE, List.of(new Candlestick(tooLong.openTime(), tooLong.closeTime(),
+                BigDecimal.ONE, BigDecimal.ONE, new BigDecimal("123456789012345678901234567890"), BigDecimal.ONE))));
+    }
+
+    @Test
+    void getCandlesticksSince(@TempDir Path directory) {
+        var clock = new SimulatedClock(START.plusDays(2L).toInstant());
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        assertThrows(IllegalArgumentException.class, () -> history.getCandlesticksSince("binance", "ETH/USDT", WEEKLY, START));
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, START));
+
+        // over two segments, with a missing candlestick after the first day
+        int minutes = 1440 + 10;
+        var candlesticks = candlesticks(0, minutes);
+        var missing = new ArrayList<>(candlesticks);
+        missing.remove(1440 + 5);
+        assertEquals(minutes - 1, history.append("binance", "ETH/USDT", ONE_MINUTE, missing));
+        assertEquals(2L, fileCount(series(directory, ONE_MINUTE)));
+
+        assertEquals(stripped(candlesticks.subList(1000, 1440 + 5)),
+                history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, candlesticks.get(999).closeTime()));
+        assertEquals(stripped(candlesticks.subList(1440 + 6, minutes)),
+                history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, candlesticks.get(1440 + 5).closeTime()));
+        // not the close time of a stored candlestick
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, candlesticks.get(999).openTime()));
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, candlesticks.getLast().closeTime()));
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "BTC/USDT", ONE_MINUTE, candlesticks.get(999).closeTime()));
+    }
+
+    @Test
+    void reload(@TempDir Path directory) throws IOException {
+        var clock = new SimulatedClock(START.plusHours(1L).toInstant());
+        new CandlesticksHistory(directory, clock, RETENTION).append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(0, 20));
+
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        assertEquals(Optional.of(stripped(candlesticks(19, 1)).getFirst()), history.getLast("binance", "ETH/USDT", ONE_MINUTE));
+        assertEquals(1, history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(15, 6)));
+
+        // an incomplete last record is truncated
+        var segment = series(directory, ONE_MINUTE).resolve(START.toInstant().toEpochMilli() + CandlesticksHistory.SEGMENT_EXTENSION);
+        long size = Files.size(segment);
+        Files.write(segment, new byte[] {(byte) 0x80}, StandardOpenOption.APPEND);
+        history = new CandlesticksHistory(directory, clock, RETENTION);
+        assertEquals(Optional.of(stripped(candlesticks(20, 1)).getFirst()), history.getLast("binance", "ETH/USDT", ONE_MINUTE));
+        assertEquals(size, Files.size(segment));
+        assertEquals(1, history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(21, 1)));
+        assertEquals(stripped(candlesticks(0, 22)), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, START.minusNanos(1_000_000L)));
+    }
+
+    @Test
+    void compact(@TempDir Path directory) {
+        var clock = new SimulatedClock(START.plusDays(3L).toInstant());
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        // starts in the middle of the first hour, ends in the middle of the third day
+        history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(30, 2 * 1440 + 90));
+        history.compactIfDue();
+
+        var hourly = history.getCandlesticksSince("binance", "ETH/USDT", HOURLY, START.plusHours(1L).minusNanos(1_000_000L));
+        assertEquals(2 * 24 + 1, hourly.size());
+        assertEquals(new Candlestick(START.plusHours(1L), START.plusHours(2L).minusNanos(1_000_000L),
+                BigDecimal.valueOf(6L), BigDecimal.valueOf(12L), BigDecimal.valueOf(121L), BigDecimal.valueOf(6L, 1)), hourly.getFirst());
+        assertEquals(START.plusDays(2L).plusHours(1L), hourly.getLast().openTime());
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", HOURLY, START.minusNanos(1_000_000L)));
+
+        // the first day is incomplete
+        var daily = history.getCandlesticksSince("binance", "ETH/USDT", DAILY, START.plusDays(1L).minusNanos(1_000_000L));
+        assertEquals(1, daily.size());
+        assertEquals(new Candlestick(START.plusDays(1L), START.plusDays(2L).minusNanos(1_000_000L),
+                BigDecimal.valueOf(144L), BigDecimal.valueOf(288L), BigDecimal.valueOf(2 * 1440 + 1L), BigDecimal.valueOf(144L, 1)), daily.getFirst());
+
+        // the one minute segment of the first day is expired
+        assertEquals(2L, fileCount(series(directory, ONE_MINUTE)));
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", ONE_MINUTE, START.plusHours(12L).minusNanos(1_000_000L)));
+        assertEquals(1L, fileCount(series(directory, HOURLY)));
+        assertEquals(1L, fileCount(series(directory, DAILY)));
+
+        // not before the compaction period
+        history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(2 * 1440 + 120, 60));
+        clock.advance(Duration.ofMinutes(59L));
+        history.compactIfDue();
+        assertEquals(START.plusDays(2L).plusHours(1L), history.getLast("binance", "ETH/USDT", HOURLY).orElseThrow().openTime());
+        clock.advance(Duration.ofMinutes(1L));
+        history.compactIfDue();
+        assertEquals(START.plusDays(2L).plusHours(2L), history.getLast("binance", "ETH/USDT", HOURLY).orElseThrow().openTime());
+
+        history.compact(START.plusDays(4L).toInstant().toEpochMilli());
+        assertEquals(1L, fileCount(series(directory, ONE_MINUTE)));
+    }
+
+    @Test
+    void compactIncomplete(@TempDir Path directory) {
+        var clock = new SimulatedClock(START.plusDays(2L).toInstant());
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        // a missing candlestick in the second hour
+        var candlesticks = new ArrayList<>(candlesticks(0, 1440 + 120));
+        candlesticks.remove(90);
+        history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks);
+        history.compactIfDue();
+
+        var hourly = history.getCandlesticksSince("binance", "ETH/USDT", HOURLY, START.minusNanos(1_000_000L));
+        assertEquals(1, hourly.size());
+        assertEquals(START, hourly.getFirst().openTime());
+        hourly = history.getCandlesticksSince("binance", "ETH/USDT", HOURLY, START.plusHours(2L).minusNanos(1_000_000L));
+        assertEquals(24, hourly.size());
+        assertEquals(START.plusDays(1L).plusHours(1L), hourly.getLast().openTime());
+        // the first day misses an hour
+        assertEquals(Optional.empty(), history.getLast("binance", "ETH/USDT", DAILY));
+    }
+
+    @Test
+    void compactGapped(@TempDir Path directory) throws IOException {
+        var clock = new SimulatedClock(START.plusDays(2L).toInstant());
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        // a missing candlestick in each hour, as after some ticker screened checks
+        var candlesticks = new ArrayList<Candlestick>();
+        for(int hour = 0; hour < 48; hour++) {
+            candlesticks.addAll(candlesticks(hour * 60, 10));
+            candlesticks.addAll(candlesticks(hour * 60 + 11, 49));
+        }
+        history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks);
+        history.compact(clock.millis());
+        assertEquals(Optional.empty(), history.getLast("binance", "ETH/USDT", HOURLY));
+
+        // the ended hours are not read again, the first segment would fail to be read
+        Files.delete(series(directory, ONE_MINUTE).resolve(START.toInstant().toEpochMilli() + CandlesticksHistory.SEGMENT_EXTENSION));
+        clock.advance(Duration.ofHours(1L));
+        history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(2 * 1440, 60));
+        history.compact(clock.millis());
+        var hourly = history.getCandlesticksSince("binance", "ETH/USDT", HOURLY, START.plusDays(2L).minusNanos(1_000_000L));
+        assertEquals(1, hourly.size());
+        assertEquals(START.plusDays(2L), hourly.getFirst().openTime());
+    }
+
+    @Test
+    void getCandlesticksSinceMixed(@TempDir Path directory) {
+        var clock = new SimulatedClock(START.plusDays(3L).toInstant());
+        var history = new CandlesticksHistory(directory, clock, RETENTION);
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", START));
+        history.append("binance", "ETH/USDT", ONE_MINUTE, candlesticks(30, 2 * 1440 + 90));
+        // the one minute candlesticks of the first day are expired, its hours are still stored
+        history.compactIfDue();
+
+        var candlesticks = history.getCandlesticksSince("binance", "ETH/USDT", START.plusHours(1L).minusNanos(1_000_000L));
+        assertEquals(23 + 1440 + 120, candlesticks.size());
+        assertEquals(history.getCandlesticksSince("binance", "ETH/USDT", HOURLY, START.plusHours(1L).minusNanos(1_000_000L)).subList(0, 23),
+                candlesticks.subList(0, 23));
+        // the one minute candlesticks are preferred once available
+        assertEquals(stripped(candlesticks(1440, 1440 + 120)), candlesticks.subList(23, candlesticks.size()));
+        for(int i = 1; i < candlesticks.size(); i++) {
+            assertEquals(candlesticks.get(i - 1).closeTime().plusNanos(1_000_000L), candlesticks.get(i).openTime());
+        }
+
+        // neither a stored minute nor the start of a stored hour
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "ETH/USDT", START.plusHours(12L).plusMinutes(30L).minusNanos(1_000_000L)));
+        assertEquals(List.of(), history.getCandlesticksSince("binance", "BTC/USDT", START.plusHours(1L).minusNanos(1_000_000L)));
+        assertEquals(List.of(), CandlesticksHistory.DISABLED.getCandlesticksSince("binance", "ETH/USDT", START));
+    }
+
+    @Test
+    void encode() {
+        var buffer = ByteBuffer.allocate(1024);
+        var first = KLine.of(candlesticks(1, 1).getFirst());
+        var second = KLine.of(new Candlestick(START.plusMinutes(2L), START.plusMinutes(3L).minusNanos(1_000_000L),
+                new BigDecimal("0.2"), new BigDecimal("123.456"), new BigDecimal("1E+20"), new BigDecimal("0.000001")));
+        long segmentStart = START.toInstant().toEpochMilli();
+        CandlesticksHistory.encode(buffer, first, null, segmentStart);
+        CandlesticksHistory.encode(buffer, second, first, segmentStart);
+        int size = buffer.position();
+        buffer.put((byte) 0x80).flip();
+
+        var segment = CandlesticksHistory.decode(buffer, segmentStart);
+        assertEquals(size, segment.validBytes());
+        assertEquals(List.of(first.candlestick(), second.candlestick()), segment.kLines().stream().map(KLine::candlestick).toList());
+    }
+
+    @Test
+    void varLong() {
+        var buffer = ByteBuffer.allocate(128);
+        for(long value : new long[] {0L, 1L, 127L, 128L, Long.MAX_VALUE, -1L, Long.MIN_VALUE}) {
+            buffer.clear();
+            CandlesticksHistory.putVarLong(buffer, CandlesticksHistory.zigZag(value));
+            buffer.flip();
+            assertEquals(value, CandlesticksHistory.unZigZag(CandlesticksHistory.getVarLong(buffer)));
+        }
+        buffer.clear();
+        CandlesticksHistory.putVarLong(buffer, 127L);
+        assertEquals(1, buffer.position());
+        assertEquals(1L, CandlesticksHistory.zigZag(-1L));
+        assertEquals(2L, CandlesticksHistory.zigZag(1L));
+    }
+
+    @Test
+    void segmentStart() {
+        long day = Duration.ofDays(1L).toMillis();
+        assertEquals(START.toInstant().toEpochMilli(), CandlesticksHistory.segmentStart(START.plusHours(5L).toInstant().toEpochMilli(), CandlesticksHistory.period(ONE_MINUTE)));
+        assertEquals(0L, CandlesticksHistory.segmentStart(1439L * day, CandlesticksHistory.period(DAILY)));
+        assertEquals(1440L * day, CandlesticksHistory.segmentStart(1440L * day, CandlesticksHistory.period(DAILY)));
+        assertEquals(Long.valueOf(123L), CandlesticksHistory.segmentStart("123.seg"));
+        assertNull(CandlesticksHistory.segmentStart("123.txt"));
+        assertNull(CandlesticksHistory.segmentStart("abc.seg"));
+        assertThrows(IllegalArgumentException.class, () -> CandlesticksHistory.period(ONE_SECOND));
+    }
+
+    private static long fileCount(Path directory) {
+        try (var files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
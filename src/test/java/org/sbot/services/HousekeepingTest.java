@@ -0,0 +1,86 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.notifications.MigratedNotification;
+import org.sbot.entities.settings.ServerSettings;
+import org.sbot.entities.settings.UserSettings;
+import org.sbot.services.context.Context;
+import org.sbot.services.context.Context.Parameters;
+import org.sbot.services.discord.Discord;
+import org.sbot.utils.Dates;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.sbot.entities.alerts.Alert.PRIVATE_MESSAGES;
+import static org.sbot.entities.alerts.Alert.Type.range;
+import static org.sbot.entities.alerts.Alert.Type.trend;
+import static org.sbot.entities.alerts.AlertTest.TEST_CLIENT_TYPE;
+import static org.sbot.entities.alerts.AlertTest.createTestAlertWithType;
+import static org.sbot.entities.alerts.ClientType.DISCORD;
+import static org.sbot.entities.settings.UserSettings.DEFAULT_LOCALE;
+import static org.sbot.services.Housekeeping.CHUNK_SIZE;
+
+class HousekeepingTest {
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new Housekeeping(null));
+    }
+
+    @Test
+    void run() {
+        var clock = Clock.systemUTC();
+        ZonedDateTime now = Dates.nowUtc(clock);
+        var context = Context.of(clock, Parameters.of(null, "discordTokenFile", 1, 1), null, ctx -> mock(Discord.class));
+        long[] alertIds = new long[2];
+        context.transaction(txCtx -> {
+            var notificationsDao = txCtx.notificationsDao();
+            var expired = MigratedNotification.of(TEST_CLIENT_TYPE, now.minusYears(1L), DEFAULT_LOCALE, 123L, 321L, range, "tickerOrPair", "fromGuild", "toGuild", MigratedNotification.Reason.ADMIN, 1L);
+            for(int i = 2 * CHUNK_SIZE + 1; i-- > 0;) {
+                notificationsDao.addNotification(expired);
+            }
+            notificationsDao.addNotification(MigratedNotification.of(TEST_CLIENT_TYPE, now, DEFAULT_LOCALE, 123L, 321L, range, "tickerOrPair", "fromGuild", "toGuild", MigratedNotification.Reason.ADMIN, 1L));
+
+            txCtx.userSettingsDao().addSettings(UserSettings.ofDiscordUser(1L, Locale.UK, Dates.UTC, now.minusYears(1L)));
+            txCtx.userSettingsDao().addSettings(UserSettings.ofDiscordUser(2L, Locale.UK, Dates.UTC, now));
+            txCtx.serverSettingsDao().addSettings(ServerSettings.ofDiscordServer(1L, Dates.UTC, "", "", "", now.minusYears(2L)));
+            txCtx.serverSettingsDao().addSettings(ServerSettings.ofDiscordServer(2L, Dates.UTC, "", "", "", now));
+
+            // a private alert, its deletion notification does not need a discord server name
+            alertIds[0] = txCtx.alertsDao().addAlert(createTestAlertWithType(trend).withServerId(PRIVATE_MESSAGES)
+                    .withRepeat((short) 1).withToDate(now.minusYears(1L)));
+            alertIds[1] = txCtx.alertsDao().addAlert(createTestAlertWithType(range).withServerId(PRIVATE_MESSAGES)
+                    .withRepeat((short) 1).withToDate(now.plusDays(1L)));
+        });
+
+        var housekeeping = new Housekeeping(context);
+        assertNull(housekeeping.lastPass());
+        var pass = housekeeping.run();
+        assertSame(pass, housekeeping.lastPass());
+        assertEquals(2L * CHUNK_SIZE + 1L, pass.notifications());
+        assertEquals(1L, pass.users());
+        assertEquals(1L, pass.servers());
+        assertEquals(1L, pass.alerts());
+        assertEquals(2L * CHUNK_SIZE + 4L, pass.deleted());
+        // 3 chunks of notifications, one of users, servers, done alerts, expired trend and range alerts
+        assertEquals(8L, pass.chunks());
+        assertTrue(pass.busyMillis() <= pass.elapsedMillis());
+
+        context.transaction(txCtx -> {
+            assertTrue(txCtx.userSettingsDao().getUserSettings(DISCORD, 1L).isEmpty());
+            assertTrue(txCtx.userSettingsDao().getUserSettings(DISCORD, 2L).isPresent());
+            assertTrue(txCtx.serverSettingsDao().getServerSettings(DISCORD, 1L).isEmpty());
+            assertTrue(txCtx.serverSettingsDao().getServerSettings(DISCORD, 2L).isPresent());
+            assertTrue(txCtx.alertsDao().getAlert(DISCORD, alertIds[0]).isEmpty());
+            assertTrue(txCtx.alertsDao().getAlert(DISCORD, alertIds[1]).isPresent());
+        });
+
+        pass = housekeeping.run();
+        assertEquals(0L, pass.deleted());
+        assertEquals(6L, pass.chunks());
+    }
+}
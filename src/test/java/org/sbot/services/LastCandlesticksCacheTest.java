@@ -0,0 +1,103 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.services.LastCandlesticksCache.LastCandlesticks;
+import org.sbot.utils.DatesTest;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static java.math.BigDecimal.ONE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LastCandlesticksCacheTest {
+
+    private static Candlestick candlestick(ZonedDateTime closeTime) {
+        return new Candlestick(closeTime.minusMinutes(1L), closeTime, ONE, ONE, ONE, ONE);
+    }
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new LastCandlesticksCache(null));
+        assertThrows(IllegalArgumentException.class, () -> new LastCandlesticksCache(Duration.ofMinutes(-1L)));
+        assertDoesNotThrow(() -> new LastCandlesticksCache(Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new LastCandlesticks(null, null));
+    }
+
+    @Test
+    void isCheckpointDue() {
+        var now = DatesTest.nowUtc();
+        var cache = new LastCandlesticksCache(Duration.ofMinutes(60L));
+        assertTrue(cache.isCheckpointDue(null, candlestick(now)));
+        assertFalse(cache.isCheckpointDue(candlestick(now), candlestick(now)));
+        assertFalse(cache.isCheckpointDue(candlestick(now), candlestick(now.plusMinutes(59L))));
+        assertTrue(cache.isCheckpointDue(candlestick(now), candlestick(now.plusMinutes(60L))));
+        assertTrue(cache.isCheckpointDue(candlestick(now), candlestick(now.plusMinutes(61L))));
+
+        cache = new LastCandlesticksCache(Duration.ZERO);
+        assertTrue(cache.isCheckpointDue(candlestick(now), candlestick(now)));
+        assertTrue(cache.isCheckpointDue(candlestick(now), candlestick(now.plusMinutes(1L))));
+    }
+
+    @Test
+    void getPut() {
+        var now = DatesTest.nowUtc();
+        var cache = new LastCandlesticksCache();
+        assertNull(cache.get("binance", "ETH/BTC"));
+        assertThrows(NullPointerException.class, () -> cache.put("binance", "ETH/BTC", null, null));
+
+        var stored = candlestick(now);
+        cache.put("binance", "ETH/BTC", stored, stored);
+        assertEquals(new LastCandlesticks(stored, stored), cache.get("binance", "ETH/BTC"));
+        assertNull(cache.get("binance", "DOT/BTC"));
+        assertNull(cache.get("other", "ETH/BTC"));
+
+        var last = candlestick(now.plusMinutes(1L));
+        cache.put("binance", "ETH/BTC", last, stored);
+        assertEquals(new LastCandlesticks(last, stored), cache.get("binance", "ETH/BTC"));
+
+        // an older last candlestick is ignored, but not the stored one
+        cache.put("binance", "ETH/BTC", stored, last);
+        assertEquals(new LastCandlesticks(last, last), cache.get("binance", "ETH/BTC"));
+    }
+
+    @Test
+    void retain() {
+        var now = DatesTest.nowUtc();
+        var cache = new LastCandlesticksCache();
+        var candlestick = candlestick(now);
+        cache.put("binance", "ETH/BTC", candlestick, null);
+        cache.put("binance", "DOT/BTC", candlestick, null);
+        cache.put("other", "ETH/BTC", candlestick, null);
+
+        cache.retain(Map.of("binance", Set.of("ETH/BTC", "ADA/BTC")));
+        assertNotNull(cache.get("binance", "ETH/BTC"));
+        assertNull(cache.get("binance", "DOT/BTC"));
+        assertNull(cache.get("other", "ETH/BTC"));
+
+        cache.retain(Map.of());
+        assertNull(cache.get("binance", "ETH/BTC"));
+    }
+
+    @Test
+    void retainFiltered() {
+        var now = DatesTest.nowUtc();
+        var cache = new LastCandlesticksCache();
+        var candlestick = candlestick(now);
+        cache.put("binance", "ETH/BTC", candlestick, null);
+        cache.put("binance", "DOT/BTC", candlestick, null);
+        cache.put("other", "ETH/BTC", candlestick, null);
+
+        cache.retain((exchange, pair) -> "ETH/BTC".equals(pair));
+        assertNotNull(cache.get("binance", "ETH/BTC"));
+        assertNull(cache.get("binance", "DOT/BTC"));
+        assertNotNull(cache.get("other", "ETH/BTC"));
+
+        cache.retain((exchange, pair) -> "binance".equals(exchange));
+        assertNotNull(cache.get("binance", "ETH/BTC"));
+        assertNull(cache.get("other", "ETH/BTC"));
+    }
+}
@@ -0,0 +1,192 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.RangeAlert;
+import org.sbot.entities.alerts.TrendAlert;
+import org.sbot.entities.chart.Candlestick;
+import org.sbot.entities.chart.KLine;
+import org.sbot.services.MatchingService.MatchingAlert;
+import org.sbot.services.MatchingService.Prices;
+import org.sbot.utils.DatesTest;
+import org.sbot.utils.MutableDecimal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.math.BigDecimal.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.sbot.entities.alerts.Alert.*;
+import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.entities.alerts.RangeAlertTest.createTestRangeAlert;
+import static org.sbot.entities.alerts.RemainderAlertTest.createTestRemainderAlert;
+import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.MARGIN;
+import static org.sbot.services.MatchingService.MatchingAlert.MatchingStatus.MATCHED;
+
+class MatchingServiceTest {
+
+    @Test
+    void prices() {
+        var now = DatesTest.nowUtc();
+        var candlestick = new Candlestick(now, now, ONE, ONE, TWO, ONE);
+        assertThrows(NullPointerException.class, () -> new Prices(null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new Prices(List.of(candlestick), null, List.of(), null, null));
+        assertDoesNotThrow(() -> new Prices(List.of(candlestick), null, null, null, null));
+
+        var prices = Prices.of(List.of(candlestick), null);
+        assertEquals(List.of(candlestick), prices.candlesticks());
+        assertNull(prices.previousCandlestick());
+        assertEquals(List.of(KLine.of(candlestick)), prices.kLines());
+        assertNull(prices.previousKLine());
+        assertEquals(KLine.of(candlestick), prices.envelope());
+        prices = Prices.of(List.of(), candlestick);
+        assertEquals(List.of(), prices.kLines());
+        assertEquals(KLine.of(candlestick), prices.previousKLine());
+        assertNull(prices.envelope());
+
+        // prices too long for the klines
+        var tooLong = new Candlestick(now, now, ONE, ONE, new BigDecimal("1234567890.123456789"), ONE);
+        prices = Prices.of(List.of(candlestick, tooLong), null);
+        assertEquals(List.of(candlestick, tooLong), prices.candlesticks());
+        assertNull(prices.kLines());
+        assertNull(prices.previousKLine());
+        assertNull(prices.envelope());
+    }
+
+    @Test
+    void envelopeOf() {
+        var now = DatesTest.nowUtc();
+        var previous = KLine.of(new Candlestick(now.minusMinutes(1L), now, ONE, TWO, BigDecimal.valueOf(20L), ONE));
+        var kLine1 = KLine.of(new Candlestick(now, now.plusMinutes(1L), TWO, TWO, TEN, new BigDecimal("0.5")));
+        var kLine2 = KLine.of(new Candlestick(now.plusMinutes(1L), now.plusMinutes(2L), TWO, TEN, new BigDecimal("10.5"), TWO));
+        assertNull(Prices.envelopeOf(List.of(), previous));
+        assertEquals(kLine1, Prices.envelopeOf(List.of(kLine1), null));
+
+        var envelope = Prices.envelopeOf(List.of(kLine1, kLine2), null);
+        var price = MutableDecimal.empty();
+        assertEquals(kLine1.openTime(), envelope.openTime());
+        assertEquals(kLine2.closeTime(), envelope.closeTime());
+        assertEquals(0, new BigDecimal("0.5").compareTo(envelope.getLow(price).bigDecimal()));
+        assertEquals(0, new BigDecimal("10.5").compareTo(envelope.getHigh(price).bigDecimal()));
+        assertEquals(0, TWO.compareTo(envelope.getOpen(price).bigDecimal()));
+        assertEquals(0, TEN.compareTo(envelope.getClose(price).bigDecimal()));
+
+        envelope = Prices.envelopeOf(List.of(kLine1, kLine2), previous);
+        assertEquals(previous.openTime(), envelope.openTime());
+        assertEquals(kLine2.closeTime(), envelope.closeTime());
+        assertEquals(0, new BigDecimal("0.5").compareTo(envelope.getLow(price).bigDecimal()));
+        assertEquals(0, BigDecimal.valueOf(20L).compareTo(envelope.getHigh(price).bigDecimal()));
+    }
+
+    @Test
+    void matchPrices() {
+        var matchingService = new MatchingService(mock());
+        var now = DatesTest.nowUtc();
+        var alert = (RangeAlert) createTestRangeAlert().withFromDate(null).withToDate(null)
+                .withFromPrice(ONE).withToPrice(TWO).withMargin(ONE);
+        var notMatching = new Candlestick(now.minusMinutes(1L), now, TEN, TEN, TEN, TEN);
+        var margin = new Candlestick(now.minusMinutes(1L), now, TEN, TEN, TEN, new BigDecimal("2.5"));
+        var matching = new Candlestick(now, now.plusMinutes(1L), TWO, TWO, TWO, TWO);
+
+        assertNull(matchingService.match(now, alert, Prices.of(List.of(), null)));
+        assertNull(matchingService.match(now, alert, Prices.of(List.of(notMatching), null)));
+
+        var matchingAlert = matchingService.match(now, alert, Prices.of(List.of(notMatching, margin, matching), null));
+        assertNotNull(matchingAlert);
+        assertEquals(alert, matchingAlert.alert());
+        assertEquals(MARGIN, matchingAlert.status());
+        assertSame(margin, matchingAlert.matchingCandlestick());
+
+        matchingAlert = matchingService.match(now, alert, Prices.of(List.of(notMatching, matching), null));
+        assertNotNull(matchingAlert);
+        assertEquals(MATCHED, matchingAlert.status());
+        assertSame(matching, matchingAlert.matchingCandlestick());
+
+        // candlesticks matching fallback
+        matchingAlert = matchingService.match(now, alert, new Prices(List.of(notMatching, matching), null, null, null, null));
+        assertNotNull(matchingAlert);
+        assertEquals(MATCHED, matchingAlert.status());
+        assertSame(matching, matchingAlert.matchingCandlestick());
+        assertNull(matchingService.match(now, alert, new Prices(List.of(notMatching), null, null, null, null)));
+    }
+
+    @Test
+    void matchBatch() {
+        var now = DatesTest.nowUtc();
+        var alert = (RangeAlert) createTestRangeAlert().withFromDate(null).withToDate(null)
+                .withFromPrice(ONE).withToPrice(TWO).withMargin(ONE);
+        var marginAlert = alert.withFromPrice(TEN).withToPrice(TEN);
+        var notMatchingAlert = alert.withFromPrice(BigDecimal.valueOf(100L)).withToPrice(BigDecimal.valueOf(200L));
+        var trendAlert = new TrendAlert(NEW_ALERT_ID, TEST_CLIENT_TYPE, TEST_USER_ID, TEST_SERVER_ID, TEST_FROM_DATE.minusMinutes(1L), TEST_FROM_DATE, TEST_EXCHANGE, TEST_PAIR, TEST_MESSAGE,
+                BigDecimal.valueOf(1000L), BigDecimal.valueOf(1000L), TEST_FROM_DATE, TEST_TO_DATE, null, ZERO, DEFAULT_REPEAT, DEFAULT_SNOOZE_HOURS);
+        var alerts = List.of(alert, marginAlert, notMatchingAlert, trendAlert);
+        var prices = Prices.of(List.of(new Candlestick(now, now.plusMinutes(1L), TWO, TWO, new BigDecimal("9.5"), ONE)), null);
+
+        for (int threshold : List.of(1, 3, 100)) {
+            var matchingService = new MatchingService(mock(), threshold);
+            assertThrows(NullPointerException.class, () -> matchingService.match(null, alerts, prices));
+            assertThrows(NullPointerException.class, () -> matchingService.match(now, (List<Alert>) null, prices));
+            assertThrows(NullPointerException.class, () -> matchingService.match(now, alerts, (Prices) null));
+            var matchingAlerts = matchingService.match(now, alerts, prices).toList();
+            assertEquals(2, matchingAlerts.size());
+            assertTrue(matchingAlerts.stream().anyMatch(matchingAlert -> matchingAlert.alert() == alert && matchingAlert.status() == MATCHED));
+            assertTrue(matchingAlerts.stream().anyMatch(matchingAlert -> matchingAlert.alert() == marginAlert && matchingAlert.status() == MARGIN));
+        }
+    }
+
+    @Test
+    void compiled() {
+        var matchingService = new MatchingService(mock());
+        var alert = createTestRangeAlert();
+        var compiled = matchingService.compiled(alert);
+        assertNotNull(compiled);
+        assertSame(compiled, matchingService.compiled(alert));
+        // the same alert loaded again
+        assertSame(compiled, matchingService.compiled(alert.withMargin(new BigDecimal(alert.margin.toPlainString()))));
+
+        var changed = alert.withFromPrice(alert.fromPrice.add(ONE));
+        var recompiled = matchingService.compiled(changed);
+        assertNotSame(compiled, recompiled);
+        assertSame(recompiled, matchingService.compiled(changed));
+        var snoozed = changed.withListeningDateRepeat(changed.listeningDate.plusMinutes(1L), changed.repeat);
+        assertNotSame(recompiled, matchingService.compiled(snoozed));
+
+        compiled = matchingService.compiled(alert);
+        matchingService.onDelete(alert.id);
+        assertNotSame(compiled, matchingService.compiled(alert));
+        compiled = matchingService.compiled(alert);
+        matchingService.onInvalidate();
+        assertNotSame(compiled, matchingService.compiled(alert));
+
+        assertNull(matchingService.compiled(createTestRemainderAlert()));
+    }
+
+    @Test
+    void matchParallel() {
+        var now = DatesTest.nowUtc();
+        assertThrows(IllegalArgumentException.class, () -> new MatchingService(mock(), 1, 4, 0));
+        var alert = (RangeAlert) createTestRangeAlert().withFromDate(null).withToDate(null)
+                .withFromPrice(ONE).withToPrice(TWO).withMargin(ONE);
+        var prices = Prices.of(List.of(new Candlestick(now, now.plusMinutes(1L), TWO, TWO, new BigDecimal("9.5"), ONE)), null);
+        var alerts = new ArrayList<Alert>();
+        for (int i = 0; i < 1000; i++) {
+            alerts.add(switch (i % 3) {
+                case 0 -> alert.withId(() -> NEW_ALERT_ID + alerts.size());
+                case 1 -> alert.withId(() -> NEW_ALERT_ID + alerts.size()).withFromPrice(TEN).withToPrice(TEN);
+                default -> alert.withId(() -> NEW_ALERT_ID + alerts.size()).withFromPrice(BigDecimal.valueOf(100L)).withToPrice(BigDecimal.valueOf(200L));
+            });
+        }
+        var expected = new MatchingService(mock(), Integer.MAX_VALUE).match(now, alerts, prices).toList();
+        assertEquals(667, expected.size());
+        for (int threshold : List.of(1, Integer.MAX_VALUE)) {
+            for (int chunkSize : List.of(1, 7, 100, 5000)) {
+                var matchingAlerts = new MatchingService(mock(), threshold, 4, chunkSize).match(now, alerts, prices).toList();
+                assertEquals(expected.stream().map(matchingAlert -> matchingAlert.alert().id).toList(),
+                        matchingAlerts.stream().map(matchingAlert -> matchingAlert.alert().id).toList());
+                assertEquals(expected.stream().map(MatchingAlert::status).toList(), matchingAlerts.stream().map(MatchingAlert::status).toList());
+            }
+        }
+    }
+}
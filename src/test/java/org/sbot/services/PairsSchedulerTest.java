@@ -0,0 +1,130 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.chart.Candlestick;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.entities.alerts.RangeAlertTest.createTestRangeAlert;
+import static org.sbot.utils.Dates.UTC;
+
+class PairsSchedulerTest {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, UTC);
+    private static final long NOW_MS = NOW.toInstant().toEpochMilli();
+    private static final long MINUTE = Duration.ofMinutes(1L).toMillis();
+
+    // one minute candlestick with a range of high - low
+    private static Candlestick candlestick(long low, long high) {
+        return new Candlestick(NOW.minusMinutes(1L), NOW.minusNanos(1_000_000L),
+                BigDecimal.valueOf(low), BigDecimal.valueOf(high), BigDecimal.valueOf(high), BigDecimal.valueOf(low));
+    }
+
+    private static PairsScheduler scheduler() {
+        return new PairsScheduler(Duration.ofMinutes(1L), Duration.ofMinutes(60L), true);
+    }
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new PairsScheduler(Duration.ZERO, Duration.ofMinutes(60L), true));
+        assertThrows(IllegalArgumentException.class, () -> new PairsScheduler(Duration.ofMinutes(2L), Duration.ofMinutes(1L), true));
+        assertTrue(scheduler().isEnabled());
+        assertFalse(new PairsScheduler(Duration.ofMinutes(1L), Duration.ofMinutes(60L), false).isEnabled());
+        assertDoesNotThrow(() -> new PairsScheduler());
+    }
+
+    @Test
+    void interval() {
+        var scheduler = scheduler();
+        assertEquals(MINUTE, scheduler.interval(0d, 1d));
+        assertEquals(MINUTE, scheduler.interval(Double.NaN, 1d));
+        assertEquals(60L * MINUTE, scheduler.interval(10d, 0d));
+        assertEquals(60L * MINUTE, scheduler.interval(Double.POSITIVE_INFINITY, 1d));
+        // a distance of 3 volatility moves is one minute, of 6 is 4 minutes, of 15 is 25 minutes
+        assertEquals(MINUTE, scheduler.interval(3d, 1d));
+        assertEquals(4L * MINUTE, scheduler.interval(6d, 1d));
+        assertEquals(25L * MINUTE, scheduler.interval(150d, 10d));
+        assertEquals(MINUTE, scheduler.interval(1d, 1d));
+        assertEquals(60L * MINUTE, scheduler.interval(100d, 1d));
+    }
+
+    @Test
+    void volatility() {
+        assertEquals(0d, PairsScheduler.volatility(List.of()));
+        assertEquals(4d, PairsScheduler.volatility(List.of(candlestick(10L, 12L), candlestick(10L, 14L))));
+        // an hourly candlestick range is scaled by the square root of its 60 minutes
+        var hourly = new Candlestick(NOW.minusHours(1L), NOW.minusNanos(1_000_000L), BigDecimal.TEN, BigDecimal.TEN, BigDecimal.valueOf(70L), BigDecimal.TEN);
+        assertEquals(60d / Math.sqrt(60d), PairsScheduler.volatility(List.of(hourly)), 1e-9);
+    }
+
+    @Test
+    void schedule() {
+        var scheduler = scheduler();
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, TEST_PAIR, NOW_MS));
+        assertNull(scheduler.nextCheck());
+
+        // volatility 1, 6 from the nearest alert, next check in 4 minutes
+        assertEquals(NOW_MS + 4L * MINUTE, scheduler.schedule(TEST_EXCHANGE, TEST_PAIR, NOW_MS, List.of(candlestick(10L, 11L)), 6d));
+        assertFalse(scheduler.isDue(TEST_EXCHANGE, TEST_PAIR, NOW_MS));
+        assertFalse(scheduler.isDue(TEST_EXCHANGE, TEST_PAIR, NOW_MS + 4L * MINUTE - 1L));
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, TEST_PAIR, NOW_MS + 4L * MINUTE));
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, "other", NOW_MS));
+        assertEquals(Instant.ofEpochMilli(NOW_MS + 4L * MINUTE), scheduler.nextCheck());
+
+        // a calm price keeps half the previous volatility
+        assertEquals(NOW_MS + 16L * MINUTE, scheduler.schedule(TEST_EXCHANGE, TEST_PAIR, NOW_MS, List.of(candlestick(10L, 10L)), 6d));
+        assertEquals(Instant.ofEpochMilli(NOW_MS + 16L * MINUTE), scheduler.nextCheck());
+        // a ticker price keeps the volatility, a pair without one stays due
+        assertEquals(NOW_MS, scheduler.schedule(TEST_EXCHANGE, "ticker", NOW_MS, 6d));
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, "ticker", NOW_MS));
+        assertEquals(NOW_MS + 16L * MINUTE, scheduler.schedule(TEST_EXCHANGE, TEST_PAIR, NOW_MS, 6d));
+        assertEquals(NOW_MS + 16L * MINUTE, scheduler.schedule(TEST_EXCHANGE, TEST_PAIR, NOW_MS, 6d));
+        assertEquals(NOW_MS + MINUTE, scheduler.schedule(TEST_EXCHANGE, "other", NOW_MS, List.of(candlestick(10L, 11L)), 0d));
+        assertEquals(Instant.ofEpochMilli(NOW_MS + MINUTE), scheduler.nextCheck());
+
+        scheduler.retain(Map.of(TEST_EXCHANGE, Set.of(TEST_PAIR)));
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, "other", NOW_MS));
+        assertEquals(Instant.ofEpochMilli(NOW_MS + 16L * MINUTE), scheduler.nextCheck());
+        scheduler.retain(Map.of());
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, TEST_PAIR, NOW_MS));
+        assertNull(scheduler.nextCheck());
+    }
+
+    @Test
+    void disabled() {
+        var scheduler = new PairsScheduler(Duration.ofMinutes(1L), Duration.ofMinutes(60L), false);
+        assertEquals(NOW_MS, scheduler.schedule(TEST_EXCHANGE, TEST_PAIR, NOW_MS, List.of(candlestick(10L, 11L)), 100d));
+        assertEquals(NOW_MS, scheduler.schedule(TEST_EXCHANGE, TEST_PAIR, NOW_MS, 100d));
+        assertTrue(scheduler.isDue(TEST_EXCHANGE, TEST_PAIR, NOW_MS));
+        assertNull(scheduler.nextCheck());
+    }
+
+    @Test
+    void alertsChanges() {
+        var scheduler = scheduler();
+        var alert = createTestRangeAlert();
+        scheduler.schedule(alert.exchange, alert.pair, NOW_MS, List.of(candlestick(10L, 11L)), 100d);
+        assertFalse(scheduler.isDue(alert.exchange, alert.pair, NOW_MS));
+        scheduler.onAdd(alert);
+        assertTrue(scheduler.isDue(alert.exchange, alert.pair, NOW_MS));
+
+        scheduler.schedule(alert.exchange, alert.pair, NOW_MS, List.of(candlestick(10L, 11L)), 100d);
+        scheduler.onUpdate(alert, Set.of());
+        assertTrue(scheduler.isDue(alert.exchange, alert.pair, NOW_MS));
+
+        scheduler.schedule(alert.exchange, alert.pair, NOW_MS, List.of(candlestick(10L, 11L)), 100d);
+        scheduler.onDelete(alert.id);
+        assertFalse(scheduler.isDue(alert.exchange, alert.pair, NOW_MS));
+        scheduler.onInvalidate();
+        assertTrue(scheduler.isDue(alert.exchange, alert.pair, NOW_MS));
+        assertNull(scheduler.nextCheck());
+    }
+}
@@ -0,0 +1,136 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.alerts.RangeAlert;
+import org.sbot.entities.settings.UserSettings;
+import org.sbot.services.AlertsIndex.PriceBox;
+import org.sbot.services.dao.AlertsDao;
+import org.sbot.services.dao.ListenableAlertsDao;
+import org.sbot.services.dao.memory.AlertsMemory;
+import org.sbot.utils.DatesTest;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.ZERO;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.entities.alerts.Alert.Type.range;
+import static org.sbot.entities.alerts.Alert.Type.trend;
+import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.entities.alerts.RangeAlertTest.createTestRangeAlert;
+import static org.sbot.entities.settings.UserSettings.DEFAULT_TIMEZONE;
+import static org.sbot.services.dao.AlertsDao.UpdateField.FROM_PRICE;
+import static org.sbot.services.dao.AlertsDao.UpdateField.TO_PRICE;
+
+class RangeAlertsIndexTest {
+
+    private static Set<Long> candidates(RangeAlertsIndex index, AlertsDao alertsDao, ZonedDateTime now, long low, long high) {
+        return index.candidates(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, new PriceBox(0L, 0L, BigDecimal.valueOf(low), BigDecimal.valueOf(high)))
+                .boxed().collect(Collectors.toSet());
+    }
+
+    static AlertsMemory loadDao(ZonedDateTime now) {
+        var alertsMemory = new AlertsMemory();
+        alertsMemory.userSettingsDao.addSettings(UserSettings.ofDiscordUser(TEST_USER_ID, Locale.UK, DEFAULT_TIMEZONE, now));
+        return alertsMemory;
+    }
+
+    @Test
+    void intervalOf() {
+        // from price 10, to price 20, margin 10
+        double[] interval = RangeAlertsIndex.intervalOf(createTestRangeAlert());
+        assertTrue(interval[0] < 0d && interval[0] > -1e-9);
+        assertTrue(interval[1] > 30d && interval[1] < 30d + 1e-9);
+        interval = RangeAlertsIndex.intervalOf((RangeAlert) createTestRangeAlert().withMargin(ZERO));
+        assertTrue(interval[0] < 10d && interval[1] > 20d);
+    }
+
+    @Test
+    void candidates() {
+        var now = DatesTest.nowUtc();
+        var index = new RangeAlertsIndex();
+        var alertsMemory = loadDao(now);
+        var alertsDao = new ListenableAlertsDao(alertsMemory, List.of(index));
+        var box = new PriceBox(0L, 0L, ONE, ONE);
+        assertThrows(NullPointerException.class, () -> index.candidates(null, now, TEST_EXCHANGE, TEST_PAIR, box));
+        assertThrows(NullPointerException.class, () -> index.candidates(alertsDao, null, TEST_EXCHANGE, TEST_PAIR, box));
+        assertThrows(NullPointerException.class, () -> index.candidates(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, null));
+        assertEquals(range, index.type());
+
+        // alerts already stored, loaded by the first index build
+        long alertId1 = alertsMemory.addAlert(createTestRangeAlert().withToDate(null)); // [0, 30] with margin
+        long alertId2 = alertsMemory.addAlert(createTestRangeAlert().withToDate(null).withMargin(ZERO)); // [10, 20]
+        alertsMemory.addAlert(createTestRangeAlert().withToDate(now)); // expired
+        alertsMemory.addAlert(createTestAlertWithExchangeAndPairAndType(TEST_EXCHANGE, TEST_PAIR, trend).withToDate(null));
+
+        assertEquals(Set.of(alertId1, alertId2), candidates(index, alertsDao, now, 15L, 16L));
+        assertEquals(Set.of(alertId1, alertId2), candidates(index, alertsDao, now, 0L, 100L));
+        assertEquals(Set.of(alertId1), candidates(index, alertsDao, now, 25L, 26L));
+        assertEquals(Set.of(alertId1), candidates(index, alertsDao, now, -10L, 0L));
+        assertEquals(Set.of(), candidates(index, alertsDao, now, 31L, 40L));
+        assertEquals(Set.of(), index.candidates(alertsDao, now, TEST_EXCHANGE, "eth/usd", new PriceBox(0L, 0L, ZERO, BigDecimal.valueOf(100L))).boxed().collect(Collectors.toSet()));
+
+        // new alerts are indexed once notified
+        long alertId3 = alertsDao.addAlert(createTestRangeAlert().withToDate(null).withMargin(ZERO).withToPrice(BigDecimal.valueOf(40L)));
+        assertEquals(Set.of(alertId1, alertId3), candidates(index, alertsDao, now, 25L, 26L));
+    }
+
+    @Test
+    void distance() {
+        var now = DatesTest.nowUtc();
+        var index = new RangeAlertsIndex();
+        var alertsMemory = loadDao(now);
+        var alertsDao = new ListenableAlertsDao(alertsMemory, List.of(index));
+        assertThrows(NullPointerException.class, () -> index.distance(null, now, TEST_EXCHANGE, TEST_PAIR, ONE));
+        assertThrows(NullPointerException.class, () -> index.distance(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, null));
+        assertEquals(Double.POSITIVE_INFINITY, index.distance(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, ONE));
+
+        alertsMemory.addAlert(createTestRangeAlert().withToDate(null).withMargin(ZERO)); // [10, 20]
+        index.onInvalidate();
+        assertEquals(0d, index.distance(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, BigDecimal.valueOf(15L)));
+        assertEquals(5d, index.distance(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, BigDecimal.valueOf(25L)), 1e-9);
+        assertEquals(9d, index.distance(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, ONE), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, index.distance(alertsDao, now, TEST_EXCHANGE, "eth/usd", ONE));
+
+        // new alerts are indexed once notified
+        alertsDao.addAlert(createTestRangeAlert().withToDate(null).withMargin(ZERO).withFromPrice(BigDecimal.valueOf(30L)).withToPrice(BigDecimal.valueOf(40L)));
+        assertEquals(2d, index.distance(alertsDao, now, TEST_EXCHANGE, TEST_PAIR, BigDecimal.valueOf(28L)), 1e-9);
+    }
+
+    @Test
+    void updatesKeepSuperset() {
+        var now = DatesTest.nowUtc();
+        var index = new RangeAlertsIndex();
+        var alertsDao = new ListenableAlertsDao(loadDao(now), List.of(index));
+        var alert = createTestRangeAlert().withToDate(null).withMargin(ZERO);
+        long alertId = alertsDao.addAlert(alert);
+        assertEquals(Set.of(alertId), candidates(index, alertsDao, now, 15L, 15L));
+        assertEquals(Set.of(), candidates(index, alertsDao, now, 55L, 55L));
+
+        // the update may not be committed yet, previous interval is kept
+        alert = alert.withId(() -> alertId).withToPrice(BigDecimal.valueOf(60L)).withFromPrice(BigDecimal.valueOf(50L));
+        alertsDao.update(alert, Set.of(FROM_PRICE, TO_PRICE));
+        assertEquals(Set.of(alertId), candidates(index, alertsDao, now, 15L, 15L));
+        assertEquals(Set.of(alertId), candidates(index, alertsDao, now, 55L, 55L));
+
+        // updated intervals are kept by the next rebuild, then reloaded from the dao
+        index.onInvalidate();
+        assertEquals(Set.of(alertId), candidates(index, alertsDao, now, 15L, 15L));
+        index.onInvalidate();
+        assertEquals(Set.of(), candidates(index, alertsDao, now, 15L, 15L));
+        assertEquals(Set.of(alertId), candidates(index, alertsDao, now, 55L, 55L));
+
+        // deleted alerts are still returned until the next rebuild
+        alertsDao.delete(alert.clientType, alertId);
+        assertEquals(Set.of(alertId), candidates(index, alertsDao, now, 55L, 55L));
+        index.onInvalidate();
+        assertEquals(Set.of(), candidates(index, alertsDao, now, 55L, 55L));
+        assertDoesNotThrow(() -> index.onDelete(alertId));
+        assertDoesNotThrow(() -> index.onMatched(alertId, now));
+    }
+}
@@ -0,0 +1,159 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.entities.alerts.RemainderAlert;
+import org.sbot.services.dao.AlertsDao;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sbot.entities.alerts.Alert.Type.remainder;
+import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.utils.Dates.UTC;
+
+class RemaindersWheelTest {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.of(2024, 1, 1, 0, 0, 30, 0, UTC);
+
+    private static Alert remainderAlert(long id, ZonedDateTime fromDate, ZonedDateTime listeningDate, short repeat, short snooze) {
+        return new RemainderAlert(id, TEST_CLIENT_TYPE, TEST_USER_ID, TEST_SERVER_ID, NOW.minusDays(1L), listeningDate,
+                TEST_PAIR, TEST_MESSAGE, fromDate, null, repeat, snooze);
+    }
+
+    private static Alert remainderAlert(long id, ZonedDateTime fromDate) {
+        return remainderAlert(id, fromDate, NOW.minusDays(1L), (short) 0, (short) 1);
+    }
+
+    private static RemaindersWheel startedWheel() {
+        var wheel = new RemaindersWheel();
+        assertEquals(0, wheel.advance(NOW).length);
+        return wheel;
+    }
+
+    @Test
+    void dueMinute() {
+        long minute = NOW.toInstant().toEpochMilli() / 60_000L;
+        assertEquals(minute + 1L, RemaindersWheel.dueMinute(remainderAlert(1L, NOW)));
+        assertEquals(minute, RemaindersWheel.dueMinute(remainderAlert(1L, NOW.withSecond(0))));
+        assertEquals(minute + 5L, RemaindersWheel.dueMinute(remainderAlert(1L, NOW.plusMinutes(4L))));
+        // a snoozed alert is due at its listening date
+        assertEquals(minute + 60L, RemaindersWheel.dueMinute(remainderAlert(1L, NOW, NOW.plusMinutes(59L), (short) 0, (short) 1)));
+    }
+
+    @Test
+    void advance() {
+        var wheel = startedWheel();
+        wheel.onAdd(remainderAlert(1L, NOW.plusMinutes(5L).plusSeconds(10L)));
+        wheel.onAdd(remainderAlert(2L, NOW.plusMinutes(5L).plusSeconds(20L)));
+        wheel.onAdd(remainderAlert(3L, NOW.minusMinutes(5L)));
+        wheel.onAdd(createTestAlertWithType(Alert.Type.range).withId(() -> 4L));
+        assertEquals(3, wheel.size());
+
+        // an alert already due fires at the next advance
+        assertArrayEquals(new long[] {3L}, wheel.advance(NOW));
+        wheel.release(new long[] {3L});
+        assertEquals(2, wheel.size());
+        assertEquals(0, wheel.advance(NOW.plusMinutes(5L).plusSeconds(29L)).length);
+        assertEquals(Set.of(1L, 2L), toSet(wheel.advance(NOW.plusMinutes(5L).plusSeconds(30L))));
+        assertEquals(0, wheel.advance(NOW.plusMinutes(6L)).length);
+        wheel.release(new long[] {1L, 2L});
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceLevels() {
+        var wheel = startedWheel();
+        var random = new Random(42L);
+        var dueMinutes = new HashMap<Long, Long>();
+        for(long id = 1L; id <= 500L; id++) {
+            var alert = remainderAlert(id, NOW.plusSeconds(random.nextLong(60L * 400_000L)));
+            dueMinutes.put(id, RemaindersWheel.dueMinute(alert));
+            wheel.onAdd(alert);
+        }
+        // beyond the span of the wheel levels
+        var farAlert = remainderAlert(501L, NOW.plusYears(40L));
+        dueMinutes.put(501L, RemaindersWheel.dueMinute(farAlert));
+        wheel.onAdd(farAlert);
+
+        var fired = new HashSet<Long>();
+        for(var now = NOW; fired.size() < dueMinutes.size(); now = now.plusMinutes(1L + random.nextLong(now.isBefore(NOW.plusYears(1L)) ? 200L : 200_000L))) {
+            long nowMinute = now.toInstant().toEpochMilli() / 60_000L;
+            for(long id : wheel.advance(now)) {
+                assertTrue(fired.add(id));
+                assertTrue(dueMinutes.get(id) <= nowMinute);
+            }
+            dueMinutes.forEach((id, dueMinute) -> assertEquals(dueMinute <= nowMinute, fired.contains(id)));
+        }
+    }
+
+    @Test
+    void changes() {
+        var wheel = startedWheel();
+        wheel.onAdd(remainderAlert(1L, NOW.plusMinutes(10L)));
+        wheel.onAdd(remainderAlert(2L, NOW.plusMinutes(10L)));
+        wheel.onAdd(remainderAlert(3L, NOW.plusMinutes(10L)));
+        wheel.onUpdate(remainderAlert(1L, NOW.plusMinutes(20L)), Set.of());
+        wheel.onUpdate(remainderAlert(2L, NOW.plusMinutes(10L), null, (short) 0, (short) 1), Set.of());
+        wheel.onDelete(3L);
+        assertEquals(1, wheel.size());
+        assertEquals(0, wheel.advance(NOW.plusMinutes(11L)).length);
+        assertArrayEquals(new long[] {1L}, wheel.advance(NOW.plusMinutes(21L)));
+    }
+
+    @Test
+    void onMatched() {
+        var wheel = startedWheel();
+        wheel.onAdd(remainderAlert(1L, NOW.plusMinutes(10L), NOW.minusDays(1L), (short) 1, (short) 2));
+        var now = NOW.plusMinutes(10L).plusSeconds(30L);
+        assertArrayEquals(new long[] {1L}, wheel.advance(now));
+        // a matched alert with some repeats left listens again after its snooze
+        wheel.onMatched(1L, now);
+        wheel.release(new long[] {1L});
+        assertEquals(1, wheel.size());
+        assertEquals(0, wheel.advance(now.plusHours(2L).minusSeconds(1L)).length);
+        assertArrayEquals(new long[] {1L}, wheel.advance(now.plusHours(2L).plusSeconds(30L)));
+        wheel.onMatched(1L, now.plusHours(2L));
+        wheel.release(new long[] {1L});
+        assertEquals(0, wheel.size());
+        wheel.onMatched(1L, now.plusHours(2L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void load() {
+        var wheel = new RemaindersWheel();
+        assertFalse(wheel.isLoaded());
+        // changed before the load, this one is not due yet
+        wheel.onAdd(remainderAlert(3L, NOW.plusMinutes(3L)));
+        AlertsDao alertsDao = mock();
+        when(alertsDao.fetchAlertsWithoutMessageByTypeHavingListeningDate(eq(remainder), any())).thenAnswer(invocation -> {
+            ((Consumer<Stream<Alert>>) invocation.getArgument(1)).accept(Stream.of(remainderAlert(1L, NOW.minusHours(1L)), remainderAlert(2L, NOW.plusMinutes(2L))));
+            return 2L;
+        });
+        wheel.load(alertsDao, NOW);
+        assertTrue(wheel.isLoaded());
+        assertEquals(3, wheel.size());
+        assertArrayEquals(new long[] {1L}, wheel.advance(NOW));
+        assertEquals(0, wheel.advance(NOW.plusMinutes(2L)).length);
+        assertArrayEquals(new long[] {2L}, wheel.advance(NOW.plusMinutes(2L).plusSeconds(30L)));
+        assertArrayEquals(new long[] {3L}, wheel.advance(NOW.plusMinutes(3L).plusSeconds(30L)));
+
+        wheel.onInvalidate();
+        assertFalse(wheel.isLoaded());
+    }
+
+    private static Set<Long> toSet(long[] values) {
+        var set = new HashSet<Long>();
+        Arrays.stream(values).forEach(set::add);
+        return set;
+    }
+}
@@ -0,0 +1,160 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.notifications.MigratedNotification;
+import org.sbot.services.context.Context;
+import org.sbot.services.context.Context.Parameters;
+import org.sbot.services.dao.AlertsListener;
+import org.sbot.services.discord.Discord;
+import org.sbot.utils.Dates;
+import org.sbot.utils.SimulatedClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.sbot.entities.alerts.Alert.Type.range;
+import static org.sbot.entities.alerts.AlertTest.TEST_CLIENT_TYPE;
+import static org.sbot.entities.alerts.AlertTest.createTestAlert;
+import static org.sbot.entities.settings.UserSettings.DEFAULT_LOCALE;
+
+class ShardsRingTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(60L);
+    private static final List<String> KEYS = IntStream.range(0, 1000).mapToObj(i -> "binance:PAIR" + i + "/USDT").toList();
+
+    private static Context context(SimulatedClock clock) {
+        return Context.of(clock, Parameters.of(null, "discordTokenFile", 1, 1), null, ctx -> mock(Discord.class));
+    }
+
+    @Test
+    void constructor() {
+        Context context = mock();
+        assertThrows(NullPointerException.class, () -> new ShardsRing(null));
+        assertThrows(NullPointerException.class, () -> new ShardsRing(null, "node1", LEASE, 64));
+        assertThrows(NullPointerException.class, () -> new ShardsRing(context, "node1", null, 64));
+        assertThrows(IllegalArgumentException.class, () -> new ShardsRing(context, "node1", Duration.ZERO, 64));
+        assertThrows(IllegalArgumentException.class, () -> new ShardsRing(context, "node1", LEASE, 0));
+        assertDoesNotThrow(() -> new ShardsRing(context, null, LEASE, 1));
+    }
+
+    @Test
+    void disabled() {
+        var shardsRing = new ShardsRing(mock(), null, LEASE, 64);
+        assertFalse(shardsRing.isEnabled());
+        assertNull(shardsRing.nodeId());
+        assertTrue(shardsRing.nodes().isEmpty());
+        assertNull(shardsRing.owner("binance:ETH/USDT"));
+        assertTrue(KEYS.stream().allMatch(shardsRing::owns));
+        assertTrue(shardsRing.owns("binance", "ETH/USDT"));
+        assertFalse(shardsRing.refresh());
+        assertEquals(0L, shardsRing.version());
+    }
+
+    @Test
+    void hash() {
+        assertEquals(ShardsRing.hash("binance:ETH/USDT"), ShardsRing.hash(new String("binance:ETH/USDT")));
+        assertEquals(KEYS.size(), KEYS.stream().mapToLong(ShardsRing::hash).distinct().count());
+        assertNotEquals(ShardsRing.hash("node1#0"), ShardsRing.hash("node1#1"));
+    }
+
+    @Test
+    void ownership() {
+        var clock = new SimulatedClock(Instant.parse("2024-01-01T00:00:00Z"));
+        var context = context(clock);
+        var node1 = new ShardsRing(context, "node1", LEASE, 64);
+        var node2 = new ShardsRing(context, "node2", LEASE, 64);
+        assertTrue(node1.isEnabled());
+        assertEquals("node1", node1.nodeId());
+        assertEquals(List.of("node1"), node1.nodes());
+        // no key is owned before the lease is taken
+        assertTrue(KEYS.stream().noneMatch(node1::owns));
+
+        assertFalse(node1.refresh());
+        assertEquals(0L, node1.version());
+        assertTrue(KEYS.stream().allMatch(node1::owns));
+
+        assertTrue(node2.refresh());
+        assertEquals(List.of("node1", "node2"), node2.nodes());
+        assertTrue(node1.refresh());
+        assertEquals(1L, node1.version());
+        assertEquals(List.of("node1", "node2"), node1.nodes());
+        assertFalse(node1.refresh());
+        assertEquals(1L, node1.version());
+
+        // each key has one owner, and the keys are spread over the nodes
+        assertTrue(KEYS.stream().allMatch(key -> node1.owns(key) != node2.owns(key)));
+        assertTrue(KEYS.stream().allMatch(key -> node1.owner(key).equals(node2.owner(key))));
+        var node1Keys = KEYS.stream().filter(node1::owns).toList();
+        assertTrue(node1Keys.size() > KEYS.size() / 4, "node1 owns " + node1Keys.size() + " keys");
+        assertTrue(node1Keys.size() < 3 * KEYS.size() / 4, "node1 owns " + node1Keys.size() + " keys");
+        var notification = MigratedNotification.of(TEST_CLIENT_TYPE, Dates.nowUtc(clock), DEFAULT_LOCALE, 123L, 321L, range, "tickerOrPair", "fromGuild", "toGuild", MigratedNotification.Reason.ADMIN, 1L);
+        assertNotEquals(node1.owns(notification), node2.owns(notification));
+        assertEquals(node1.owns("binance:ETH/USDT"), node1.owns("binance", "ETH/USDT"));
+
+        // node2 stops renewing its lease, node1 takes over its keys once it expired, and keeps its own ones
+        clock.advance(LEASE.dividedBy(2L));
+        assertFalse(node1.refresh());
+        clock.advance(LEASE.dividedBy(2L));
+        assertTrue(KEYS.stream().noneMatch(node2::owns));
+        assertTrue(node1.refresh());
+        assertEquals(List.of("node1"), node1.nodes());
+        assertTrue(KEYS.stream().allMatch(node1::owns));
+
+        // node2 comes back, it gets the same keys as before
+        assertTrue(node2.refresh());
+        assertTrue(node1.refresh());
+        assertEquals(node1Keys, KEYS.stream().filter(node1::owns).toList());
+        assertTrue(KEYS.stream().allMatch(key -> node1.owns(key) != node2.owns(key)));
+    }
+
+    @Test
+    void rejoined() {
+        var clock = new SimulatedClock(Instant.parse("2024-01-01T00:00:00Z"));
+        var node1 = new ShardsRing(context(clock), "node1", LEASE, 64);
+        assertFalse(node1.refresh());
+        clock.advance(LEASE);
+        assertTrue(KEYS.stream().noneMatch(node1::owns));
+        // the lease expired, other nodes may have checked its pairs meanwhile
+        assertTrue(node1.refresh());
+        assertEquals(1L, node1.version());
+        assertTrue(KEYS.stream().allMatch(node1::owns));
+    }
+
+    @Test
+    void alertsChanges() {
+        var clock = new SimulatedClock(Instant.parse("2024-01-01T00:00:00Z"));
+        var context = context(clock);
+        var node1 = new ShardsRing(context, "node1", LEASE, 64);
+        var node2 = new ShardsRing(context, "node2", LEASE, 64);
+        AlertsListener listener = mock();
+        context.dataServices().alertsListeners().add(listener);
+        node1.refresh();
+        node2.refresh();
+        node1.refresh();
+        verify(listener, times(2)).onInvalidate(); // each node joining the ring reloads its alerts indexes
+        clearInvocations(listener);
+
+        node2.onDelete(1L);
+        node2.onInvalidate();
+        node2.refresh(); // the changes are published by the next refresh, once committed
+        assertFalse(node1.refresh());
+        verify(listener, never()).onInvalidate();
+        node2.refresh();
+        assertFalse(node1.refresh());
+        verify(listener).onInvalidate();
+        clearInvocations(listener);
+        node2.refresh();
+        node1.refresh();
+        verify(listener, never()).onInvalidate();
+
+        // the changes done by node1 don't reload its own indexes
+        node1.onAdd(createTestAlert());
+        node1.refresh();
+        node1.refresh();
+        verify(listener, never()).onInvalidate();
+    }
+}
@@ -0,0 +1,91 @@
+package org.sbot.services;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.services.AlertsIndex.PriceBox;
+import org.sbot.services.dao.AlertsDao;
+import org.sbot.services.dao.ListenableAlertsDao;
+import org.sbot.utils.DatesTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.math.BigDecimal.ZERO;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.sbot.entities.alerts.Alert.Type.range;
+import static org.sbot.entities.alerts.Alert.Type.trend;
+import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.services.RangeAlertsIndexTest.loadDao;
+
+class TrendAlertsIndexTest {
+
+    private static Set<Long> candidates(AlertsIndex index, AlertsDao alertsDao, ZonedDateTime now, ZonedDateTime from, ZonedDateTime to, long low, long high) {
+        var candidates = index.candidates(alertsDao, now, TEST_EXCHANGE, TEST_PAIR,
+                new PriceBox(from.toInstant().toEpochMilli(), to.toInstant().toEpochMilli(), BigDecimal.valueOf(low), BigDecimal.valueOf(high)));
+        return null == candidates ? null : candidates.boxed().collect(Collectors.toSet());
+    }
+
+    // trend line from price 100 at now - 10 hours to price 200 at now, 10 per hour
+    private static Alert createTrendAlert(ZonedDateTime now, long margin) {
+        return createTestAlertWithExchangeAndPairAndType(TEST_EXCHANGE, TEST_PAIR, trend)
+                .withFromPrice(BigDecimal.valueOf(100L)).withToPrice(BigDecimal.valueOf(200L))
+                .withFromDate(now.minusHours(10L)).withToDate(now)
+                .withMargin(BigDecimal.valueOf(margin));
+    }
+
+    @Test
+    void intervalOf() {
+        var now = DatesTest.nowUtc();
+        var alert = createTrendAlert(now, 0L);
+        long nowMs = now.toInstant().toEpochMilli();
+        long hourMs = Duration.ofHours(1L).toMillis();
+
+        double[] interval = TrendAlertsIndex.intervalOf(alert, nowMs, nowMs, 0d);
+        assertTrue(interval[0] < 200d && interval[0] > 199.99d);
+        assertTrue(interval[1] > 200d && interval[1] < 200.01d);
+        interval = TrendAlertsIndex.intervalOf(alert, nowMs - hourMs, nowMs + 2 * hourMs, 5d);
+        assertTrue(interval[0] < 185d && interval[0] > 184.99d);
+        assertTrue(interval[1] > 225d && interval[1] < 225.01d);
+        // trend prices can't be negative
+        interval = TrendAlertsIndex.intervalOf(alert, nowMs - 30 * hourMs, nowMs - 25 * hourMs, 0d);
+        assertTrue(interval[0] < 0d && interval[0] > -0.01d);
+        assertTrue(interval[1] > 0d && interval[1] < 0.01d);
+    }
+
+    @Test
+    void candidates() {
+        var now = DatesTest.nowUtc();
+        var index = new TrendAlertsIndex(Duration.ofHours(2L));
+        var alertsMemory = loadDao(now);
+        var alertsDao = new ListenableAlertsDao(alertsMemory, List.of(index));
+        assertEquals(trend, index.type());
+
+        long alertId1 = alertsMemory.addAlert(createTrendAlert(now, 0L));
+        long alertId2 = alertsMemory.addAlert(createTrendAlert(now, 20L));
+        alertsMemory.addAlert(createTestAlertWithExchangeAndPairAndType(TEST_EXCHANGE, TEST_PAIR, range).withToDate(null));
+
+        // index window covers [now - 2h15, now + 2 hours], the intervals are [177.5, 220] and [157.5, 240] with margin
+        assertEquals(Set.of(alertId1, alertId2), candidates(index, alertsDao, now, now.minusMinutes(15L), now, 195L, 196L));
+        assertEquals(Set.of(alertId1, alertId2), candidates(index, alertsDao, now, now.minusMinutes(15L), now, 181L, 182L));
+        assertEquals(Set.of(alertId2), candidates(index, alertsDao, now, now.minusMinutes(15L), now, 225L, 230L));
+        assertEquals(Set.of(alertId2), candidates(index, alertsDao, now, now.minusMinutes(15L), now, 160L, 170L));
+        assertEquals(Set.of(), candidates(index, alertsDao, now, now.minusMinutes(15L), now, 300L, 400L));
+
+        // prices before the index window
+        assertNull(candidates(index, alertsDao, now, now.minusHours(3L), now, 195L, 196L));
+
+        // prices after the index window, it gets rebuilt on [now + 45m, now + 5 hours], intervals are [207.5, 250] and [187.5, 270]
+        var later = now.plusHours(3L);
+        assertEquals(Set.of(alertId1, alertId2), candidates(index, alertsDao, later, later.minusMinutes(15L), later, 230L, 230L));
+        assertEquals(Set.of(), candidates(index, alertsDao, later, later.minusMinutes(15L), later, 180L, 180L));
+        assertEquals(Set.of(alertId2), candidates(index, alertsDao, later, later.minusMinutes(15L), later, 190L, 190L));
+
+        // new alerts are indexed once notified
+        long alertId3 = alertsDao.addAlert(createTrendAlert(now, 0L).withToPrice(BigDecimal.valueOf(100L)).withMargin(ZERO));
+        assertEquals(Set.of(alertId3), candidates(index, alertsDao, later, later.minusMinutes(15L), later, 100L, 100L));
+    }
+}
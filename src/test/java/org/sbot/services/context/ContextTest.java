@@ -4,12 +4,13 @@ import org.jdbi.v3.core.Jdbi;
 import org.junit.jupiter.api.Test;
 import org.sbot.exchanges.Exchanges;
 import org.sbot.services.context.Context.Parameters;
-import org.sbot.services.dao.memory.AlertsMemory;
+import org.sbot.services.dao.ListenableAlertsDao;
 import org.sbot.services.dao.memory.LastCandlesticksMemory;
+import org.sbot.services.dao.memory.NodesMemory;
 import org.sbot.services.dao.memory.ServerSettingsMemory;
 import org.sbot.services.dao.memory.UserSettingsMemory;
-import org.sbot.services.dao.sql.AlertsSQLite;
 import org.sbot.services.dao.sql.LastCandlesticksSQLite;
+import org.sbot.services.dao.sql.NodesSQLite;
 import org.sbot.services.dao.sql.ServerSettingsSQLite;
 import org.sbot.services.dao.sql.UserSettingsSQLite;
 import org.sbot.services.dao.sql.jdbi.JDBIRepository;
@@ -48,9 +49,12 @@ class ContextTest {
         assertInstanceOf(UserSettingsMemory.class, context.dataServices().userSettingsDao().apply(null));
         assertInstanceOf(ServerSettingsMemory.class, context.dataServices().serverSettingsDao().apply(null));
         assertNotNull(context.dataServices().alertsDao());
-        assertInstanceOf(AlertsMemory.class, context.dataServices().alertsDao().apply(null));
+        assertInstanceOf(ListenableAlertsDao.class, context.dataServices().alertsDao().apply(null));
+        assertNotNull(context.dataServices().alertsListeners());
         assertNotNull(context.dataServices().lastCandlesticksDao());
         assertInstanceOf(LastCandlesticksMemory.class, context.dataServices().lastCandlesticksDao().apply(null));
+        assertNotNull(context.dataServices().nodesDao());
+        assertInstanceOf(NodesMemory.class, context.dataServices().nodesDao().apply(null));
 
         Context sqlContext;
         try (var handle = Jdbi.create(SQLITE_MEMORY_PERSISTENT).open()) { // need to maintain a handle open to keep data in memory during init
@@ -66,10 +70,14 @@ class ContextTest {
         assertInstanceOf(ServerSettingsSQLite.class, sqlContext.dataServices().serverSettingsDao().apply(mock(JDBITransactionHandler.class)));
         assertNotNull(sqlContext.dataServices().alertsDao());
         assertThrows(NullPointerException.class, () -> sqlContext.dataServices().alertsDao().apply(null));
-        assertInstanceOf(AlertsSQLite.class, sqlContext.dataServices().alertsDao().apply(mock(JDBITransactionHandler.class)));
+        assertInstanceOf(ListenableAlertsDao.class, sqlContext.dataServices().alertsDao().apply(mock(JDBITransactionHandler.class)));
+        assertNotNull(sqlContext.dataServices().alertsListeners());
         assertNotNull(sqlContext.dataServices().lastCandlesticksDao());
         assertThrows(NullPointerException.class, () -> sqlContext.dataServices().lastCandlesticksDao().apply(null));
         assertInstanceOf(LastCandlesticksSQLite.class, sqlContext.dataServices().lastCandlesticksDao().apply(mock(JDBITransactionHandler.class)));
+        assertNotNull(sqlContext.dataServices().nodesDao());
+        assertThrows(NullPointerException.class, () -> sqlContext.dataServices().nodesDao().apply(null));
+        assertInstanceOf(NodesSQLite.class, sqlContext.dataServices().nodesDao().apply(mock(JDBITransactionHandler.class)));
     }
 
     @Test
@@ -83,6 +91,21 @@ class ContextTest {
         assertNotNull(context.services().lastCandlesticksService().apply(mock(TransactionalContext.class)));
         assertNotNull(context.services().matchingService());
         assertNotNull(context.services().alertsWatcher());
+        assertNotNull(context.services().rangeAlertsIndex());
+        assertTrue(context.dataServices().alertsListeners().contains(context.services().rangeAlertsIndex()));
+        assertNotNull(context.services().trendAlertsIndex());
+        assertTrue(context.dataServices().alertsListeners().contains(context.services().trendAlertsIndex()));
+        assertNotNull(context.services().lastCandlesticksCache());
+        assertNotNull(context.services().candlesticksCache());
+        assertNotNull(context.services().candlesticksHistory());
+        assertNotNull(context.services().pairsScheduler());
+        assertTrue(context.dataServices().alertsListeners().contains(context.services().pairsScheduler()));
+        assertNotNull(context.services().remaindersWheel());
+        assertTrue(context.dataServices().alertsListeners().contains(context.services().remaindersWheel()));
+        assertNotNull(context.services().housekeeping());
+        assertNotNull(context.services().shardsRing());
+        assertTrue(context.dataServices().alertsListeners().contains(context.services().shardsRing()));
+        assertFalse(context.services().shardsRing().isEnabled());
         assertEquals(discord, context.services().discord());
     }
 
@@ -157,6 +180,62 @@ class ContextTest {
         assertNotNull(context.alertsWatcher());
     }
 
+    @Test
+    void rangeAlertsIndex() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.rangeAlertsIndex());
+    }
+
+    @Test
+    void trendAlertsIndex() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.trendAlertsIndex());
+    }
+
+    @Test
+    void candlesticksCache() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.candlesticksCache());
+    }
+
+    @Test
+    void candlesticksHistory() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.candlesticksHistory());
+    }
+
+    @Test
+    void pairsScheduler() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.pairsScheduler());
+    }
+
+    @Test
+    void remaindersWheel() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.remaindersWheel());
+    }
+
+    @Test
+    void housekeeping() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.housekeeping());
+    }
+
+    @Test
+    void shardsRing() {
+        Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
+        var context = Context.of(Clock.systemUTC(), parameters, null, ctx -> mock(Discord.class));
+        assertNotNull(context.shardsRing());
+    }
+
     @Test
     void asThreadSafeTxContext() {
         Parameters parameters = Parameters.of(null, "discordTokenFile", 1, 1);
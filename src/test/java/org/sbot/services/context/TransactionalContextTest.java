@@ -128,6 +128,20 @@ class TransactionalContextTest {
         verify(lastCandlesticksDaoBuilder).apply(any());
     }
 
+    @Test
+    void nodesDao() {
+        var context = mock(Context.class);
+        var dataServices = mock(DataServices.class);
+        when(context.dataServices()).thenReturn(dataServices);
+        var nodesDaoBuilder = mock(Function.class);
+        when(dataServices.nodesDao()).thenReturn(nodesDaoBuilder);
+        TransactionalContext txContext = new TransactionalContext(context, READ_COMMITTED);
+        txContext.nodesDao();
+        verify(context).dataServices();
+        verify(dataServices).nodesDao();
+        verify(nodesDaoBuilder).apply(any());
+    }
+
     @Test
     void lastCandlesticksService() {
         var context = mock(Context.class);
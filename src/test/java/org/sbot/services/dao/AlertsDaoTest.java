@@ -403,6 +403,105 @@ public abstract class AlertsDaoTest {
                 stream -> assertTrue(stream.allMatch(a -> trendAlertId1 == a.id))));
     }
 
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
+        setUserSettings(userSettings, TEST_USER_ID);
+        setServerSettings(serverSettings, TEST_SERVER_ID);
+
+        ZonedDateTime now = DatesTest.nowUtc().truncatedTo(MILLIS);
+        int checkPeriodMin = 15;
+        String exchange = SUPPORTED_EXCHANGES.get(0);
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(null, "ALL/ERT1", trend, now, checkPeriodMin, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, null, trend, now, checkPeriodMin, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", null, now, checkPeriodMin, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", trend, null, checkPeriodMin, mock()));
+        assertThrows(IllegalArgumentException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", trend, now, -1, mock()));
+
+        long trendAlertId = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", trend));
+        long rangeAlertId = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", range).withToDate(null));
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", trend).withListeningDateRepeat(null, (short) 1));
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", range).withListeningDateRepeat(now.plusMinutes(1L), (short) 1));
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT2", trend));
+
+        assertEquals(2, alerts.fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", now, checkPeriodMin,
+                stream -> assertEquals(2, stream.count())));
+        assertEquals(1, alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", trend, now, checkPeriodMin,
+                stream -> assertTrue(stream.allMatch(a -> trendAlertId == a.id))));
+        assertEquals(1, alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", range, now, checkPeriodMin,
+                stream -> assertTrue(stream.allMatch(a -> rangeAlertId == a.id))));
+        assertEquals(0, alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", remainder, now, checkPeriodMin,
+                stream -> assertEquals(0, stream.count())));
+        if(alerts instanceof AlertsSQLite) {
+            assertEquals(1, alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingPastListeningDateWithActiveRange(exchange, "ALL/ERT1", trend, now, checkPeriodMin,
+                    stream -> assertTrue(stream.allMatch(a -> a.message.isEmpty()))));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
+        setUserSettings(userSettings, TEST_USER_ID);
+        setServerSettings(serverSettings, TEST_SERVER_ID);
+
+        ZonedDateTime now = DatesTest.nowUtc().truncatedTo(MILLIS);
+        String exchange = SUPPORTED_EXCHANGES.get(0);
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(null, "ALL/ERT1", range, now, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, null, range, now, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, "ALL/ERT1", null, now, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, "ALL/ERT1", range, null, mock()));
+
+        // listening date in the past or in the future -> ok
+        long rangeAlertId1 = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", range).withToDate(null));
+        long rangeAlertId2 = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", range)
+                .withListeningDateRepeat(now.plusHours(3L), (short) 1).withToDate(now.plusDays(1L)));
+        // listening date null -> ko
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", range).withListeningDateRepeat(null, (short) 1).withToDate(null));
+        // expired -> ko
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", range).withToDate(now));
+        // other type or pair -> ko
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT1", trend));
+        alerts.addAlert(createTestAlertWithExchangeAndPairAndType(exchange, "ALL/ERT2", range).withToDate(null));
+
+        assertEquals(2, alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, "ALL/ERT1", range, now,
+                stream -> assertTrue(stream.allMatch(a -> Set.of(rangeAlertId1, rangeAlertId2).contains(a.id)))));
+        if(alerts instanceof AlertsSQLite) {
+            assertEquals(2, alerts.fetchAlertsWithoutMessageByExchangeAndPairAndTypeHavingListeningDateWithActiveRange(exchange, "ALL/ERT1", range, now,
+                    stream -> assertTrue(stream.allMatch(a -> a.message.isEmpty()))));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
+        setUserSettings(userSettings, TEST_USER_ID);
+        setServerSettings(serverSettings, TEST_SERVER_ID);
+
+        ZonedDateTime now = DatesTest.nowUtc().truncatedTo(MILLIS);
+        int checkPeriodMin = 15;
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(null, now, checkPeriodMin, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.of(1L), null, checkPeriodMin, mock()));
+        assertThrows(IllegalArgumentException.class, () -> alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.of(1L), now, -1, mock()));
+
+        assertEquals(0, alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.empty(), now, checkPeriodMin,
+                stream -> assertEquals(0, stream.count())));
+
+        long alertId1 = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(SUPPORTED_EXCHANGES.get(0), "ALL/ERT1", range).withToDate(null));
+        long alertId2 = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(SUPPORTED_EXCHANGES.get(0), "ALL/ERT2", trend));
+        long alertId3 = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(SUPPORTED_EXCHANGES.get(0), "ALL/ERT1", range)
+                .withListeningDateRepeat(now.plusHours(1L), (short) 1).withToDate(null));
+        long alertId4 = alerts.addAlert(createTestAlertWithExchangeAndPairAndType(SUPPORTED_EXCHANGES.get(0), "ALL/ERT1", range).withToDate(now));
+
+        assertEquals(1, alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.of(alertId1), now, checkPeriodMin,
+                stream -> assertTrue(stream.allMatch(a -> alertId1 == a.id))));
+        assertEquals(2, alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.of(alertId1, alertId2, alertId3, alertId4, 9876L), now, checkPeriodMin,
+                stream -> assertTrue(stream.allMatch(a -> Set.of(alertId1, alertId2).contains(a.id)))));
+        if(alerts instanceof AlertsSQLite) {
+            assertEquals(2, alerts.fetchAlertsWithoutMessageByIdsHavingPastListeningDateWithActiveRange(LongStream.of(alertId1, alertId2), now, checkPeriodMin,
+                    stream -> assertTrue(stream.allMatch(a -> a.message.isEmpty()))));
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("provideDao")
     void fetchAlertsWithoutMessageHavingRepeatNegativeAndLastTriggerBeforeOrNullAndCreationBefore(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
@@ -543,6 +642,35 @@ public abstract class AlertsDaoTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void fetchAlertsWithoutMessageByTypeHavingListeningDate(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
+        setUserSettings(userSettings, TEST_USER_ID);
+        setServerSettings(serverSettings, TEST_SERVER_ID);
+
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByTypeHavingListeningDate(null, mock()));
+        assertThrows(NullPointerException.class, () -> alerts.fetchAlertsWithoutMessageByTypeHavingListeningDate(remainder, null));
+
+        ZonedDateTime date = DatesTest.nowUtc().truncatedTo(MILLIS);
+        long alertId1 = alerts.addAlert(createTestAlertWithType(remainder).withListeningDateRepeat(date, (short) 1));
+        long alertId2 = alerts.addAlert(createTestAlertWithType(remainder).withListeningDateRepeat(date.plusDays(3L), (short) 1));
+        alerts.addAlert(createTestAlertWithType(remainder).withListeningDateRepeat(null, (short) 1));
+        alerts.addAlert(createTestAlertWithType(range).withListeningDateRepeat(date, (short) 1));
+        alerts.addAlert(createTestAlertWithType(trend).withListeningDateRepeat(date.plusDays(3L), (short) 1));
+
+        assertEquals(2, alerts.fetchAlertsWithoutMessageByTypeHavingListeningDate(remainder,
+                stream -> assertTrue(stream.allMatch(a -> Set.of(alertId1, alertId2).contains(a.id)))));
+        assertEquals(1, alerts.fetchAlertsWithoutMessageByTypeHavingListeningDate(range,
+                stream -> assertTrue(stream.allMatch(a -> a.type == range))));
+        assertEquals(1, alerts.fetchAlertsWithoutMessageByTypeHavingListeningDate(trend,
+                stream -> assertTrue(stream.allMatch(a -> a.type == trend))));
+
+        if(alerts instanceof AlertsSQLite) { // sql dao do not retrieve message
+            assertEquals(2, alerts.fetchAlertsWithoutMessageByTypeHavingListeningDate(remainder,
+                    stream -> assertTrue(stream.allMatch(a -> a.message.isEmpty()))));
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("provideDao")
     void getPairsByExchangesHavingPastListeningDateWithActiveRange(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
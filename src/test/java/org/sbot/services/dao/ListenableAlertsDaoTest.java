@@ -0,0 +1,93 @@
+package org.sbot.services.dao;
+
+import org.junit.jupiter.api.Test;
+import org.sbot.entities.alerts.Alert;
+import org.sbot.services.dao.AlertsDao.SelectionFilter;
+import org.sbot.utils.DatesTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.sbot.entities.alerts.AlertTest.*;
+import static org.sbot.services.dao.AlertsDao.UpdateField.MESSAGE;
+
+class ListenableAlertsDaoTest {
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new ListenableAlertsDao(null, List.of()));
+        assertThrows(NullPointerException.class, () -> new ListenableAlertsDao(mock(), null));
+    }
+
+    @Test
+    void addUpdateDelete() {
+        AlertsDao alertsDao = mock();
+        AlertsListener listener = mock();
+        var listenableAlertsDao = new ListenableAlertsDao(alertsDao, List.of(listener));
+
+        var alert = createTestAlert();
+        when(alertsDao.addAlert(alert)).thenReturn(123L);
+        assertEquals(123L, listenableAlertsDao.addAlert(alert));
+        verify(listener).onAdd(argThat(a -> a.id == 123L));
+
+        var storedAlert = alert.withId(() -> 123L);
+        listenableAlertsDao.update(storedAlert, Set.of(MESSAGE));
+        verify(alertsDao).update(storedAlert, Set.of(MESSAGE));
+        verify(listener).onUpdate(storedAlert, Set.of(MESSAGE));
+
+        listenableAlertsDao.delete(TEST_CLIENT_TYPE, 123L);
+        verify(alertsDao).delete(TEST_CLIENT_TYPE, 123L);
+        verify(listener).onDelete(123L);
+
+        var filter = SelectionFilter.ofUser(TEST_CLIENT_TYPE, TEST_USER_ID, null);
+        when(alertsDao.delete(filter)).thenReturn(0L);
+        assertEquals(0L, listenableAlertsDao.delete(filter));
+        verify(listener, never()).onInvalidate();
+        when(alertsDao.delete(filter)).thenReturn(2L);
+        assertEquals(2L, listenableAlertsDao.delete(filter));
+        verify(listener).onInvalidate();
+        when(alertsDao.updateServerIdOf(filter, 1L)).thenReturn(3L);
+        assertEquals(3L, listenableAlertsDao.updateServerIdOf(filter, 1L));
+        verify(listener, times(2)).onInvalidate();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchUpdates() {
+        AlertsDao alertsDao = mock();
+        AlertsListener listener = mock();
+        var listenableAlertsDao = new ListenableAlertsDao(alertsDao, List.of(listener));
+        var now = DatesTest.nowUtc();
+        BatchEntry batchEntry = mock();
+        doAnswer(invocation -> { ((Consumer<BatchEntry>) invocation.getArgument(1)).accept(batchEntry); return null; })
+                .when(alertsDao).matchedAlertBatchUpdates(any(), any());
+        doAnswer(invocation -> { ((Consumer<BatchEntry>) invocation.getArgument(1)).accept(batchEntry); return null; })
+                .when(alertsDao).marginAlertBatchUpdates(any(), any());
+        doAnswer(invocation -> { ((Consumer<BatchEntry>) invocation.getArgument(0)).accept(batchEntry); return null; })
+                .when(alertsDao).delete(any(Consumer.class));
+
+        listenableAlertsDao.matchedAlertBatchUpdates(now, updater -> updater.batchId(1L));
+        verify(listener).onMatched(1L, now);
+        listenableAlertsDao.marginAlertBatchUpdates(now, updater -> updater.batchId(2L));
+        verify(listener).onMargin(2L, now);
+        listenableAlertsDao.delete(deleter -> deleter.batchId(3L));
+        verify(listener).onDelete(3L);
+        verify(batchEntry, times(3)).batch(any());
+    }
+
+    @Test
+    void fetch() {
+        AlertsDao alertsDao = mock();
+        AlertsListener listener = mock();
+        var listenableAlertsDao = new ListenableAlertsDao(alertsDao, List.of(listener));
+        var now = DatesTest.nowUtc();
+        Consumer<Stream<Alert>> consumer = mock();
+        listenableAlertsDao.fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(TEST_EXCHANGE, TEST_PAIR, now, 15, consumer);
+        verify(alertsDao).fetchAlertsWithoutMessageByExchangeAndPairHavingPastListeningDateWithActiveRange(TEST_EXCHANGE, TEST_PAIR, now, 15, consumer);
+        verifyNoInteractions(listener);
+    }
+}
@@ -0,0 +1,77 @@
+package org.sbot.services.dao;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.sbot.services.dao.NodesDao.NodeLease;
+import org.sbot.utils.Dates;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public abstract class NodesDaoTest {
+
+    private static ZonedDateTime now() {
+        return Dates.nowUtc(Clock.systemUTC()).truncatedTo(ChronoUnit.MILLIS); // sqlite save milliseconds and not nanos
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void renewLease(NodesDao nodes) {
+        ZonedDateTime now = now();
+        assertThrows(NullPointerException.class, () -> nodes.renewLease(null, now, 0L));
+        assertThrows(NullPointerException.class, () -> nodes.renewLease("node1", null, 0L));
+        assertThrows(IllegalArgumentException.class, () -> nodes.renewLease("", now, 0L));
+        assertThrows(IllegalArgumentException.class, () -> nodes.renewLease(" ", now, 0L));
+        assertThrows(IllegalArgumentException.class, () -> nodes.renewLease("node1", now, -1L));
+        assertTrue(nodes.getLiveNodes(now).isEmpty());
+
+        nodes.renewLease("node1", now.plusSeconds(60L), 0L);
+        assertEquals(List.of(new NodeLease("node1", now.plusSeconds(60L), 0L)), nodes.getLiveNodes(now));
+
+        nodes.renewLease("node1", now.plusSeconds(90L), 3L);
+        assertEquals(List.of(new NodeLease("node1", now.plusSeconds(90L), 3L)), nodes.getLiveNodes(now));
+        assertEquals(List.of(new NodeLease("node1", now.plusSeconds(90L), 3L)), nodes.getLiveNodes(now.plusSeconds(89L)));
+        assertTrue(nodes.getLiveNodes(now.plusSeconds(90L)).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void getLiveNodes(NodesDao nodes) {
+        ZonedDateTime now = now();
+        assertThrows(NullPointerException.class, () -> nodes.getLiveNodes(null));
+        assertTrue(nodes.getLiveNodes(now).isEmpty());
+
+        nodes.renewLease("node3", now.plusSeconds(30L), 1L);
+        nodes.renewLease("node1", now.plusSeconds(60L), 2L);
+        nodes.renewLease("node2", now.minusSeconds(1L), 3L);
+        assertEquals(List.of(new NodeLease("node1", now.plusSeconds(60L), 2L), new NodeLease("node3", now.plusSeconds(30L), 1L)),
+                nodes.getLiveNodes(now));
+        assertEquals(List.of(new NodeLease("node1", now.plusSeconds(60L), 2L), new NodeLease("node2", now.minusSeconds(1L), 3L),
+                        new NodeLease("node3", now.plusSeconds(30L), 1L)), nodes.getLiveNodes(now.minusSeconds(2L)));
+        assertEquals(List.of(new NodeLease("node1", now.plusSeconds(60L), 2L)), nodes.getLiveNodes(now.plusSeconds(30L)));
+        assertTrue(nodes.getLiveNodes(now.plusSeconds(60L)).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void deleteLeasesExpiredBefore(NodesDao nodes) {
+        ZonedDateTime now = now();
+        assertThrows(NullPointerException.class, () -> nodes.deleteLeasesExpiredBefore(null));
+        assertEquals(0L, nodes.deleteLeasesExpiredBefore(now));
+
+        nodes.renewLease("node1", now.plusSeconds(60L), 0L);
+        nodes.renewLease("node2", now.minusSeconds(60L), 0L);
+        nodes.renewLease("node3", now.minusSeconds(120L), 0L);
+        assertEquals(3, nodes.getLiveNodes(now.minusYears(1L)).size());
+
+        assertEquals(1L, nodes.deleteLeasesExpiredBefore(now.minusSeconds(60L)));
+        assertEquals(List.of("node1", "node2"), nodes.getLiveNodes(now.minusYears(1L)).stream().map(NodeLease::nodeId).toList());
+        assertEquals(1L, nodes.deleteLeasesExpiredBefore(now));
+        assertEquals(List.of("node1"), nodes.getLiveNodes(now.minusYears(1L)).stream().map(NodeLease::nodeId).toList());
+        assertEquals(0L, nodes.deleteLeasesExpiredBefore(now));
+    }
+}
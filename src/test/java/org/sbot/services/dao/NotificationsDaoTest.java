@@ -12,6 +12,7 @@ import org.sbot.utils.DatesTest;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.*;
@@ -69,6 +70,36 @@ public abstract class NotificationsDaoTest {
         assertDeepEquals(notification.withId(() -> 2), requireOneItem(notifications.getNewNotifications(100)));
     }
 
+    @ParameterizedTest
+    @MethodSource("provideDao")
+    void getNewNotificationsFiltered(NotificationsDao notifications) {
+        assertThrows(IllegalArgumentException.class, () -> notifications.getNewNotifications(0L, n -> true));
+        assertThrows(IllegalArgumentException.class, () -> notifications.getNewNotifications(-1L, n -> true));
+        assertThrows(NullPointerException.class, () -> notifications.getNewNotifications(100L, null));
+
+        assertEquals(0, notifications.getNewNotifications(100L, n -> true).size());
+        var notificationU1 = MigratedNotification.of(TEST_CLIENT_TYPE, DatesTest.nowUtc(), DEFAULT_LOCALE, 111L, 321L, range, "tickerOrPair", "fromGuild", "toGuild", MigratedNotification.Reason.ADMIN, 1L);
+        var notificationU2 = MigratedNotification.of(TEST_CLIENT_TYPE, DatesTest.nowUtc(), DEFAULT_LOCALE, 222L, 321L, range, "tickerOrPair", "fromGuild", "toGuild", MigratedNotification.Reason.ADMIN, 1L);
+        notifications.addNotification(notificationU1);
+        notifications.addNotification(notificationU2);
+        notifications.addNotification(notificationU1);
+        notifications.addNotification(notificationU2);
+        notifications.addNotification(notificationU1);
+        assertEquals(5, notifications.getNewNotifications(100L, n -> true).size());
+        assertEquals(0, notifications.getNewNotifications(100L, n -> false).size());
+        Predicate<Notification> user1 = n -> notificationU1.recipientId.equals(n.recipientId);
+        assertEquals(Set.of(1L, 3L, 5L), notifications.getNewNotifications(100L, user1).stream().map(n -> n.id).collect(toSet()));
+        // the limit applies to the filtered notifications
+        assertEquals(2, notifications.getNewNotifications(2L, user1).size());
+        assertTrue(notifications.getNewNotifications(2L, user1).stream().allMatch(user1));
+
+        notifications.statusBatchUpdate(NotificationStatus.SENDING, updater -> updater.batchId(3));
+        assertEquals(Set.of(1L, 5L), notifications.getNewNotifications(100L, user1).stream().map(n -> n.id).collect(toSet()));
+        assertEquals(Set.of(2L, 4L), notifications.getNewNotifications(100L, user1.negate()).stream().map(n -> n.id).collect(toSet()));
+        // the filtered notifications are spread over several pages
+        assertEquals(Set.of(1L, 5L), notifications.getNewNotifications(2L, user1).stream().map(n -> n.id).collect(toSet()));
+    }
+
     @ParameterizedTest
     @MethodSource("provideDao")
     void unblockStatusOfRecipient(NotificationsDao notifications) {
@@ -197,7 +228,8 @@ public abstract class NotificationsDaoTest {
     @ParameterizedTest
     @MethodSource("provideDao")
     void deleteHavingCreationDateBefore(NotificationsDao notifications) {
-        assertThrows(NullPointerException.class, () -> notifications.deleteHavingCreationDateBefore(null));
+        assertThrows(NullPointerException.class, () -> notifications.deleteHavingCreationDateBefore(null, 100L));
+        assertThrows(IllegalArgumentException.class, () -> notifications.deleteHavingCreationDateBefore(DatesTest.nowUtc(), 0L));
 
         var now = DatesTest.nowUtc();
         var notification = MigratedNotification.of(TEST_CLIENT_TYPE, now, DEFAULT_LOCALE, 123L, 321L, range, "tickerOrPair", "fromGuild", "toGuild", MigratedNotification.Reason.ADMIN, 1L);
@@ -219,21 +251,24 @@ public abstract class NotificationsDaoTest {
         notifications.addNotification(notification);
         assertEquals(7, notifications.getNewNotifications(100).size());
 
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusDays(3L)));
-        assertEquals(2L, notifications.deleteHavingCreationDateBefore(now.minusDays(1L).plusSeconds(1L)));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusDays(3L), 100L));
+        assertEquals(2L, notifications.deleteHavingCreationDateBefore(now.minusDays(1L).plusSeconds(1L), 100L));
         assertEquals(5, notifications.getNewNotifications(100).size());
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusDays(1L).plusSeconds(1L)));
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusHours(8L)));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusDays(1L).plusSeconds(1L), 100L));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusHours(8L), 100L));
         assertEquals(5, notifications.getNewNotifications(100).size());
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusHours(3L)));
-        assertEquals(2L, notifications.deleteHavingCreationDateBefore(now.minusHours(3L).plusSeconds(1L)));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusHours(3L), 100L));
+        assertEquals(2L, notifications.deleteHavingCreationDateBefore(now.minusHours(3L).plusSeconds(1L), 100L));
         assertEquals(3, notifications.getNewNotifications(100).size());
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusHours(3L).plusSeconds(1L)));
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusMinutes(1L)));
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusSeconds(1L)));
-        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusHours(3L).plusSeconds(1L), 100L));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusMinutes(1L), 100L));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now.minusSeconds(1L), 100L));
+        assertEquals(0L, notifications.deleteHavingCreationDateBefore(now, 100L));
         assertEquals(3, notifications.getNewNotifications(100).size());
-        assertEquals(3L, notifications.deleteHavingCreationDateBefore(now.plusSeconds(1L)));
+        // deleted by chunks
+        assertEquals(2L, notifications.deleteHavingCreationDateBefore(now.plusSeconds(1L), 2L));
+        assertEquals(1, notifications.getNewNotifications(100).size());
+        assertEquals(1L, notifications.deleteHavingCreationDateBefore(now.plusSeconds(1L), 2L));
         assertEquals(0, notifications.getNewNotifications(100).size());
     }
 }
\ No newline at end of file
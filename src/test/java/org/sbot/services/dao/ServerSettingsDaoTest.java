@@ -143,8 +143,9 @@ public abstract class ServerSettingsDaoTest {
     @ParameterizedTest
     @MethodSource("provideAlertWithSettingsDao")
     void deleteHavingLastAccessBeforeAndNotInAlerts(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
-        assertThrows(NullPointerException.class, () -> serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(null, DatesTest.nowUtc()));
-        assertThrows(NullPointerException.class, () -> serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, null));
+        assertThrows(NullPointerException.class, () -> serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(null, DatesTest.nowUtc(), 100L));
+        assertThrows(NullPointerException.class, () -> serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, null, 100L));
+        assertThrows(IllegalArgumentException.class, () -> serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, DatesTest.nowUtc(), 0L));
 
         ZonedDateTime now = nowUtc().truncatedTo(ChronoUnit.MILLIS); // sqlite save milliseconds and not nanos
         var server1 = new ServerSettings(1L, Dates.UTC, "channel1", "role1", "admin1", now);
@@ -166,7 +167,7 @@ public abstract class ServerSettingsDaoTest {
         assertTrue(serverSettings.getServerSettings(DISCORD, server4.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
 
-        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusMonths(1L));
+        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusMonths(1L), 100L);
         assertTrue(serverSettings.getServerSettings(DISCORD, server1.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server2.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server3.discordServerId()).isPresent());
@@ -174,32 +175,42 @@ public abstract class ServerSettingsDaoTest {
         assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
 
         now = now.plusMinutes(1L);
-        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusWeeks(1L));
+        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusWeeks(1L), 100L);
         assertTrue(serverSettings.getServerSettings(DISCORD, server1.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server2.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server3.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server4.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
 
-        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusDays(1L));
+        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusDays(1L), 100L);
         assertTrue(serverSettings.getServerSettings(DISCORD, server1.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server2.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server3.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server4.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
 
-        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusHours(1L));
+        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusHours(1L), 100L);
         assertTrue(serverSettings.getServerSettings(DISCORD, server1.discordServerId()).isPresent());
         assertTrue(serverSettings.getServerSettings(DISCORD, server2.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server3.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server4.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
 
-        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now);
+        serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 100L);
         assertTrue(serverSettings.getServerSettings(DISCORD, server1.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server2.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server3.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server4.discordServerId()).isEmpty());
         assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
+
+        // deleted by chunks
+        serverSettings.addSettings(new ServerSettings(6L, Dates.UTC, "channel1", "role1", "admin1", now.minusMonths(1L)));
+        serverSettings.addSettings(new ServerSettings(7L, Dates.UTC, "channel1", "role1", "admin1", now.minusMonths(1L)));
+        assertEquals(1L, serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 1L));
+        assertEquals(1L, serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 1L));
+        assertEquals(0L, serverSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 1L));
+        assertTrue(serverSettings.getServerSettings(DISCORD, 6L).isEmpty());
+        assertTrue(serverSettings.getServerSettings(DISCORD, 7L).isEmpty());
+        assertTrue(serverSettings.getServerSettings(DISCORD, server5.discordServerId()).isPresent());
     }
 }
\ No newline at end of file
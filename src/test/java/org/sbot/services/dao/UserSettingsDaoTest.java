@@ -58,7 +58,7 @@ public abstract class UserSettingsDaoTest {
         UserSettings settings = new UserSettings(userId, DEFAULT_LOCALE, DEFAULT_TIMEZONE, now);
         userSettings.addSettings(settings);
         assertTrue(userSettings.userExists(DISCORD, userId));
-        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.plusMinutes(1L));
+        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.plusMinutes(1L), 100L);
         assertFalse(userSettings.userExists(DISCORD, userId));
     }
 
@@ -180,8 +180,9 @@ public abstract class UserSettingsDaoTest {
     @ParameterizedTest
     @MethodSource("provideAlertWithSettingsDao")
     void deleteHavingLastAccessBeforeAndNotInAlerts(AlertsDao alerts, UserSettingsDao userSettings, ServerSettingsDao serverSettings) {
-        assertThrows(NullPointerException.class, () -> userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(null, DatesTest.nowUtc()));
-        assertThrows(NullPointerException.class, () -> userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, null));
+        assertThrows(NullPointerException.class, () -> userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(null, DatesTest.nowUtc(), 100L));
+        assertThrows(NullPointerException.class, () -> userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, null, 100L));
+        assertThrows(IllegalArgumentException.class, () -> userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, DatesTest.nowUtc(), 0L));
 
         ZonedDateTime now = nowUtc().truncatedTo(ChronoUnit.MILLIS); // sqlite save milliseconds and not nanos
         var user1 = new UserSettings(1L, Locale.UK, Dates.UTC, now);
@@ -203,7 +204,7 @@ public abstract class UserSettingsDaoTest {
         assertTrue(userSettings.getUserSettings(DISCORD, user4.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
 
-        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusMonths(1L));
+        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusMonths(1L), 100L);
         assertTrue(userSettings.getUserSettings(DISCORD, user1.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user2.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user3.discordUserId()).isPresent());
@@ -211,32 +212,42 @@ public abstract class UserSettingsDaoTest {
         assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
 
         now = now.plusMinutes(1L);
-        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusWeeks(1L));
+        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusWeeks(1L), 100L);
         assertTrue(userSettings.getUserSettings(DISCORD, user1.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user2.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user3.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user4.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
 
-        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusDays(1L));
+        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusDays(1L), 100L);
         assertTrue(userSettings.getUserSettings(DISCORD, user1.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user2.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user3.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user4.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
 
-        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusHours(1L));
+        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now.minusHours(1L), 100L);
         assertTrue(userSettings.getUserSettings(DISCORD, user1.discordUserId()).isPresent());
         assertTrue(userSettings.getUserSettings(DISCORD, user2.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user3.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user4.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
 
-        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now);
+        userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 100L);
         assertTrue(userSettings.getUserSettings(DISCORD, user1.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user2.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user3.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user4.discordUserId()).isEmpty());
         assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
+
+        // deleted by chunks
+        userSettings.addSettings(new UserSettings(6L, Locale.UK, Dates.UTC, now.minusMonths(1L)));
+        userSettings.addSettings(new UserSettings(7L, Locale.UK, Dates.UTC, now.minusMonths(1L)));
+        assertEquals(1L, userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 1L));
+        assertEquals(1L, userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 1L));
+        assertEquals(0L, userSettings.deleteHavingLastAccessBeforeAndNotInAlerts(DISCORD, now, 1L));
+        assertTrue(userSettings.getUserSettings(DISCORD, 6L).isEmpty());
+        assertTrue(userSettings.getUserSettings(DISCORD, 7L).isEmpty());
+        assertTrue(userSettings.getUserSettings(DISCORD, user5.discordUserId()).isPresent());
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.sbot.services.dao.memory;
+
+import org.junit.jupiter.params.provider.Arguments;
+import org.sbot.services.dao.NodesDaoTest;
+
+import java.util.stream.Stream;
+
+class NodesMemoryTest extends NodesDaoTest {
+
+    public static Stream<Arguments> provideDao() {
+        return Stream.of(Arguments.of(new NodesMemory()));
+    }
+}
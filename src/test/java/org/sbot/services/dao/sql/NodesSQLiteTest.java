@@ -0,0 +1,29 @@
+package org.sbot.services.dao.sql;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.provider.Arguments;
+import org.sbot.services.dao.NodesDaoTest;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.sbot.services.dao.sql.jdbi.JDBIRepositoryTest.loadTransactionalDao;
+
+class NodesSQLiteTest extends NodesDaoTest {
+
+    public static Stream<Arguments> provideDao() {
+        return Stream.of(Arguments.of(loadTransactionalDao(NodesSQLite::setupTable, NodesSQLite::new, List.of(NodesSQLite::new))));
+    }
+
+    @Test
+    void withHandler() {
+        assertThrows(NullPointerException.class, () -> new NodesSQLite(null));
+        assertThrows(NullPointerException.class, () -> new NodesSQLite(mock(), null));
+        assertThrows(NullPointerException.class, () -> new NodesSQLite(null, mock()));
+        assertThrows(NullPointerException.class, () -> new NodesSQLite(mock()).withHandler(null));
+        assertDoesNotThrow(() -> new NodesSQLite(mock()).withHandler(mock()));
+    }
+}
@@ -11,10 +11,15 @@ import net.dv8tion.jda.api.events.guild.GuildBanEvent;
 import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.AutoCompleteQuery;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.requests.restaction.interactions.AutoCompleteCallbackAction;
 import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -22,6 +27,9 @@ import org.sbot.commands.RangeCommand;
 import org.sbot.commands.SpotBotCommand;
 import org.sbot.commands.context.CommandContext;
 import org.sbot.entities.settings.Settings;
+import org.sbot.exchanges.Exchange;
+import org.sbot.exchanges.Exchanges;
+import org.sbot.exchanges.binance.BinanceClient;
 import org.sbot.services.NotificationsService;
 import org.sbot.services.SettingsService;
 import org.sbot.services.context.Context;
@@ -34,11 +42,14 @@ import org.sbot.services.dao.UserSettingsDao;
 import java.awt.Color;
 import java.time.Clock;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static java.util.function.Predicate.not;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.sbot.commands.CommandAdapter.EXCHANGE_ARGUMENT;
+import static org.sbot.commands.CommandAdapter.PAIR_ARGUMENT;
 import static org.sbot.entities.alerts.Alert.PRIVATE_MESSAGES;
 import static org.sbot.entities.alerts.AlertTest.TEST_CLIENT_TYPE;
 import static org.sbot.entities.alerts.ClientType.DISCORD;
@@ -475,6 +486,49 @@ class EventAdapterTest {
         assertEquals("test<@123>", EventAdapter.removeStartingMentions("test<@123>"));
     }
 
+    @Test
+    void onCommandAutoCompleteInteraction() {
+        Context context = mock();
+        Exchanges exchanges = mock();
+        when(context.exchanges()).thenReturn(exchanges);
+        Exchange binance = mock();
+        when(binance.getAvailablePairs("ETH/", OptionData.MAX_CHOICES)).thenReturn(List.of("ETH/BTC", "ETH/USDT"));
+        when(exchanges.get(BinanceClient.NAME)).thenReturn(Optional.of(binance));
+        EventAdapter adapter = new EventAdapter(context);
+        assertThrows(NullPointerException.class, () -> adapter.onCommandAutoCompleteInteraction(null));
+
+        CommandAutoCompleteInteractionEvent event = mock();
+        User user = mock();
+        when(event.getUser()).thenReturn(user);
+        AutoCompleteQuery query = mock();
+        when(query.getName()).thenReturn(PAIR_ARGUMENT);
+        when(query.getValue()).thenReturn("eth/");
+        when(event.getFocusedOption()).thenReturn(query);
+        OptionMapping exchangeOption = mock();
+        when(exchangeOption.getAsString()).thenReturn(BinanceClient.NAME);
+        when(event.getOption(EXCHANGE_ARGUMENT)).thenReturn(exchangeOption);
+        AutoCompleteCallbackAction reply = mock();
+        when(event.replyChoiceStrings(anyCollection())).thenReturn(reply);
+
+        adapter.onCommandAutoCompleteInteraction(event);
+        verify(event).replyChoiceStrings(List.of("ETH/BTC", "ETH/USDT"));
+        verify(reply).queue();
+
+        // unknown exchange
+        when(exchangeOption.getAsString()).thenReturn("unknown");
+        adapter.onCommandAutoCompleteInteraction(event);
+        verify(event).replyChoiceStrings(List.of());
+        verify(exchanges, never()).get("unknown");
+
+        // bot user or other option
+        when(user.isBot()).thenReturn(true);
+        adapter.onCommandAutoCompleteInteraction(event);
+        when(user.isBot()).thenReturn(false);
+        when(query.getName()).thenReturn(EXCHANGE_ARGUMENT);
+        adapter.onCommandAutoCompleteInteraction(event);
+        verify(event, times(2)).replyChoiceStrings(anyCollection());
+    }
+
     @Test
     void onStringSelectInteraction() {
         Context context = mock();
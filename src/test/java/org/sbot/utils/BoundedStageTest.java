@@ -0,0 +1,110 @@
+package org.sbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedStageTest {
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new BoundedStage<>(null, 1, 1, item -> {}));
+        assertThrows(NullPointerException.class, () -> new BoundedStage<>("test", 1, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedStage<>("test", 0, 1, item -> {}));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedStage<>("test", 1, 0, item -> {}));
+        try(var stage = new BoundedStage<>("test", 1, 1, item -> {})) {
+            assertEquals("test", stage.name());
+            assertEquals(0, stage.queueDepth());
+        }
+    }
+
+    @Test
+    void submit() throws InterruptedException {
+        List<Integer> consumed = new CopyOnWriteArrayList<>();
+        var stage = new BoundedStage<Integer>("test", 4, 3, consumed::add);
+        for(int i = 0; i < 100; i++) {
+            stage.submit(i);
+        }
+        assertThrows(NullPointerException.class, () -> stage.submit(null));
+        stage.close();
+        // closing waits for the submitted items to be consumed
+        assertEquals(IntStream.range(0, 100).boxed().toList(), consumed.stream().sorted().toList());
+        assertThrows(IllegalStateException.class, () -> stage.submit(100));
+        assertDoesNotThrow(stage::close);
+
+        var metrics = stage.metrics();
+        assertEquals("test", metrics.name());
+        assertEquals(100L, metrics.consumed());
+        assertEquals(0L, metrics.failed());
+        assertTrue(metrics.maxQueueDepth() <= 4);
+        assertEquals(metrics.elapsedMillis(), stage.metrics().elapsedMillis());
+    }
+
+    @Test
+    void backpressure() throws InterruptedException {
+        var release = new CountDownLatch(1);
+        var stage = new BoundedStage<Integer>("test", 2, 1, item -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        var submitted = new CountDownLatch(10);
+        var done = new AtomicBoolean();
+        var producer = Thread.ofVirtual().start(() -> {
+            try {
+                for(int i = 0; i < 10; i++) {
+                    stage.submit(i);
+                    submitted.countDown();
+                }
+                done.set(true);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        // one item is consumed by the worker, two fill the queue, the producer is then blocked
+        assertFalse(submitted.await(200L, TimeUnit.MILLISECONDS));
+        assertFalse(done.get());
+        assertEquals(2, stage.queueDepth());
+        assertEquals(7L, submitted.getCount());
+
+        release.countDown();
+        producer.join();
+        assertTrue(done.get());
+        stage.close();
+        assertEquals(10L, stage.metrics().consumed());
+        assertEquals(2, stage.metrics().maxQueueDepth());
+    }
+
+    @Test
+    void failures() throws InterruptedException {
+        var stage = new BoundedStage<Integer>("test", 10, 2, item -> {
+            if(item % 2 == 0) {
+                throw new IllegalStateException("test");
+            }
+        });
+        try(stage) {
+            for(int i = 0; i < 10; i++) {
+                stage.submit(i);
+            }
+        }
+        var metrics = stage.metrics();
+        assertEquals(10L, metrics.consumed());
+        assertEquals(5L, metrics.failed());
+    }
+
+    @Test
+    void throughput() {
+        assertEquals(0d, new BoundedStage.Metrics("test", 10L, 0L, 0, 0L, 0L).throughput());
+        assertEquals(20d, new BoundedStage.Metrics("test", 10L, 0L, 0, 0L, 500L).throughput());
+        assertThrows(NullPointerException.class, () -> new BoundedStage.Metrics(null, 10L, 0L, 0, 0L, 500L));
+    }
+}
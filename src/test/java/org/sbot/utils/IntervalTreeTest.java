@@ -0,0 +1,152 @@
+package org.sbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    private static Set<Long> overlapping(IntervalTree tree, double low, double high) {
+        var ids = new HashSet<Long>();
+        assertEquals(tree.overlapping(low, high, ids::add), ids.size());
+        return ids;
+    }
+
+    @Test
+    void put() {
+        var tree = new IntervalTree();
+        assertTrue(tree.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> tree.put(1L, 2d, 1d));
+        assertThrows(IllegalArgumentException.class, () -> tree.put(1L, Double.NaN, 1d));
+        assertThrows(IllegalArgumentException.class, () -> tree.put(1L, 1d, Double.NaN));
+        tree.put(1L, 1d, 2d);
+        assertEquals(1, tree.size());
+        assertTrue(tree.contains(1L));
+        assertArrayEquals(new double[] {1d, 2d}, tree.interval(1L));
+        tree.put(1L, 3d, 4d);
+        assertEquals(1, tree.size());
+        assertArrayEquals(new double[] {3d, 4d}, tree.interval(1L));
+        tree.put(2L, 3d, 3d);
+        assertEquals(2, tree.size());
+        assertNull(tree.interval(3L));
+    }
+
+    @Test
+    void remove() {
+        var tree = new IntervalTree();
+        assertFalse(tree.remove(1L));
+        tree.put(1L, 1d, 2d);
+        tree.put(2L, 1d, 2d);
+        assertTrue(tree.remove(1L));
+        assertFalse(tree.remove(1L));
+        assertFalse(tree.contains(1L));
+        assertEquals(Set.of(2L), overlapping(tree, 0d, 10d));
+        tree.clear();
+        assertTrue(tree.isEmpty());
+        assertEquals(Set.of(), overlapping(tree, 0d, 10d));
+    }
+
+    @Test
+    void overlapping() {
+        var tree = new IntervalTree();
+        assertThrows(NullPointerException.class, () -> tree.overlapping(1d, 2d, null));
+        tree.put(1L, 10d, 20d);
+        tree.put(2L, 15d, 30d);
+        tree.put(3L, 25d, 25d);
+        tree.put(4L, -5d, 5d);
+
+        assertEquals(Set.of(), overlapping(tree, 6d, 9d));
+        assertEquals(Set.of(), overlapping(tree, 31d, 100d));
+        assertEquals(Set.of(), overlapping(tree, 20d, 10d));
+        assertEquals(Set.of(1L), overlapping(tree, 20d, 20d));
+        assertEquals(Set.of(1L, 4L), overlapping(tree, 5d, 10d));
+        assertEquals(Set.of(1L, 2L), overlapping(tree, 16d, 17d));
+        assertEquals(Set.of(2L, 3L), overlapping(tree, 25d, 25d));
+        assertEquals(Set.of(1L, 2L, 3L, 4L), overlapping(tree, -100d, 100d));
+
+        var ids = new HashSet<Long>();
+        assertEquals(2, tree.stabbing(15d, ids::add));
+        assertEquals(Set.of(1L, 2L), ids);
+    }
+
+    @Test
+    void overlappingRandom() {
+        var tree = new IntervalTree();
+        var intervals = new HashMap<Long, double[]>();
+        var random = new Random(1234L);
+        for(int i = 0; i < 10_000; i++) {
+            long id = random.nextInt(500);
+            if(random.nextInt(4) == 0) {
+                assertEquals(null != intervals.remove(id), tree.remove(id));
+            } else {
+                double low = random.nextInt(1000);
+                double high = low + random.nextInt(100);
+                tree.put(id, low, high);
+                intervals.put(id, new double[] {low, high});
+            }
+            double low = random.nextInt(1100) - 50;
+            double high = low + random.nextInt(50);
+            assertEquals(bruteForce(intervals, low, high), overlapping(tree, low, high));
+            assertEquals(intervals.size(), tree.size());
+        }
+    }
+
+    @Test
+    void distance() {
+        var tree = new IntervalTree();
+        assertThrows(IllegalArgumentException.class, () -> tree.distance(Double.NaN));
+        assertEquals(Double.POSITIVE_INFINITY, tree.distance(10d));
+        tree.put(1L, 10d, 20d);
+        tree.put(2L, 12d, 14d);
+        tree.put(3L, 50d, 60d);
+        assertEquals(0d, tree.distance(10d));
+        assertEquals(0d, tree.distance(15d));
+        assertEquals(0d, tree.distance(60d));
+        assertEquals(5d, tree.distance(5d));
+        assertEquals(10d, tree.distance(30d));
+        assertEquals(10d, tree.distance(40d));
+        assertEquals(40d, tree.distance(100d));
+        tree.remove(3L);
+        assertEquals(20d, tree.distance(40d));
+    }
+
+    @Test
+    void distanceRandom() {
+        var tree = new IntervalTree();
+        var intervals = new HashMap<Long, double[]>();
+        var random = new Random(1234L);
+        for(int i = 0; i < 10_000; i++) {
+            long id = random.nextInt(500);
+            if(random.nextInt(4) == 0) {
+                intervals.remove(id);
+                tree.remove(id);
+            } else {
+                double low = random.nextInt(1000);
+                double high = low + random.nextInt(20);
+                tree.put(id, low, high);
+                intervals.put(id, new double[] {low, high});
+            }
+            double point = random.nextInt(1100) - 50;
+            double expected = intervals.values().stream()
+                    .mapToDouble(interval -> Math.max(0d, Math.max(interval[0] - point, point - interval[1])))
+                    .min().orElse(Double.POSITIVE_INFINITY);
+            assertEquals(expected, tree.distance(point));
+        }
+    }
+
+    private static Set<Long> bruteForce(Map<Long, double[]> intervals, double low, double high) {
+        var ids = new HashSet<Long>();
+        intervals.forEach((id, interval) -> {
+            if(interval[0] <= high && interval[1] >= low) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+}
@@ -57,40 +57,40 @@ class MutableDecimalParserTest {
         assertEquals(MD123, MutableDecimalParser.parse(value));
         value = "-000000000000000000000000000000000000000000123";
         assertEquals(MD123, MutableDecimalParser.parse(value));
-        var DP123 = ImmutableDecimal.of(123456L, (byte) 3);
+        var DP123 = ImmutableDecimal.of(123456L, (byte) -3);
         value = "123.456";
         assertEquals(DP123, MutableDecimalParser.parse(value));
         value = "+000000000000000000000000000000000000000000123.456";
         assertEquals(DP123, MutableDecimalParser.parse(value));
-        var MDP123 = ImmutableDecimal.of(-123456L, (byte) 3);
+        var MDP123 = ImmutableDecimal.of(-123456L, (byte) -3);
         value = "-123.456";
         assertEquals(MDP123, MutableDecimalParser.parse(value));
         value = "-000000000000000000000000000000000000000000123.456";
         assertEquals(MDP123, MutableDecimalParser.parse(value));
 
-        var B123 = ImmutableDecimal.of(1234567890123456L, (byte) 1);
+        var B123 = ImmutableDecimal.of(1234567890123456L, (byte) -1);
         value = "123456789012345.6";
         assertEquals(B123, MutableDecimalParser.parse(value));
         value = "000000000000000000123456789012345.6";
         assertEquals(B123, MutableDecimalParser.parse(value));
 
-        var NB123 = ImmutableDecimal.of(-1234567890123456L, (byte) 1);
+        var NB123 = ImmutableDecimal.of(-1234567890123456L, (byte) -1);
         value = "-123456789012345.6";
         assertEquals(NB123, MutableDecimalParser.parse(value));
         value = "-000000000000000000123456789012345.6";
         assertEquals(NB123, MutableDecimalParser.parse(value));
 
-        var L123 = ImmutableDecimal.of(123456L, (byte) 16);
+        var L123 = ImmutableDecimal.of(123456L, (byte) -16);
         value = "0.0000000000123456";
         assertEquals(L123, MutableDecimalParser.parse(value));
         value = "+00000000000.0000000000123456";
         assertEquals(L123, MutableDecimalParser.parse(value));
 
-        var NL123 = ImmutableDecimal.of(-123456L, (byte) 16);
+        var NL123 = ImmutableDecimal.of(-123456L, (byte) -16);
         value = "-0.0000000000123456";
         assertEquals(NL123, MutableDecimalParser.parse(value));
-        assertNotEquals(ImmutableDecimal.of(-123456L, (byte) 17), MutableDecimalParser.parse(value));
-        assertNotEquals(ImmutableDecimal.of(-123456L, (byte) 15), MutableDecimalParser.parse(value));
+        assertNotEquals(ImmutableDecimal.of(-123456L, (byte) -17), MutableDecimalParser.parse(value));
+        assertNotEquals(ImmutableDecimal.of(-123456L, (byte) -15), MutableDecimalParser.parse(value));
         value = "-00000000000.0000000000123456";
         assertEquals(NL123, MutableDecimalParser.parse(value));
 
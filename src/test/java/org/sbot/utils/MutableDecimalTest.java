@@ -41,6 +41,35 @@ public class MutableDecimalTest {
         assertEquals((byte) 3, decimal.exp());
     }
 
+    @Test
+    void ofBigDecimal() {
+        assertThrows(NullPointerException.class, () -> MutableDecimal.of(null));
+        var decimal = MutableDecimal.of(new BigDecimal("1.2340"));
+        assertEquals(1234L, decimal.mantissa());
+        assertEquals((byte) -3, decimal.exp());
+        decimal = MutableDecimal.of(new BigDecimal("1200"));
+        assertEquals(12L, decimal.mantissa());
+        assertEquals((byte) 2, decimal.exp());
+        decimal = MutableDecimal.of(new BigDecimal("-0.000"));
+        assertEquals(0L, decimal.mantissa());
+        assertEquals((byte) 0, decimal.exp());
+        assertEquals(0, new BigDecimal("123456789.123456789").compareTo(MutableDecimal.of(new BigDecimal("123456789.123456789")).bigDecimal()));
+        assertEquals(0, new BigDecimal("-0.00000001").compareTo(MutableDecimal.of(new BigDecimal("-0.00000001")).bigDecimal()));
+
+        assertThrows(ArithmeticException.class, () -> MutableDecimal.of(new BigDecimal("1234567890.123456789")));
+        assertThrows(ArithmeticException.class, () -> MutableDecimal.of(new BigDecimal("1E-200")));
+        assertThrows(ArithmeticException.class, () -> MutableDecimal.of(new BigDecimal("1E+200")));
+    }
+
+    @Test
+    void immutableDecimal() {
+        var decimal = new ImmutableDecimal(MutableDecimal.of(1234L, (byte) -2));
+        assertEquals(1234L, decimal.mantissa());
+        assertEquals((byte) -2, decimal.exp());
+        assertThrows(UnsupportedOperationException.class, () -> decimal.mantissa(1L));
+        assertThrows(UnsupportedOperationException.class, () -> decimal.exp((byte) 1));
+    }
+
     static String number(double rand, int maxLength) {
         if(rand < 0) {
             maxLength++;
@@ -107,6 +136,31 @@ public class MutableDecimalTest {
         //TODO
     }
 
+    @Test
+    void expandMantissa() {
+        var decimal = MutableDecimal.of(12L, (byte) 3);
+        decimal.expandMantissa();
+        assertEquals(120000000000000000L, decimal.mantissa());
+        assertEquals((byte) -13, decimal.exp());
+        assertEquals(0, new BigDecimal("12000").compareTo(decimal.bigDecimal()));
+        decimal.set(-12345L, (byte) -2);
+        decimal.expandMantissa();
+        assertEquals(-123450000000000000L, decimal.mantissa());
+        assertEquals(0, new BigDecimal("-123.45").compareTo(decimal.bigDecimal()));
+        decimal.set(0L, (byte) 0);
+        decimal.expandMantissa();
+        assertEquals(0L, decimal.mantissa());
+        assertEquals((byte) 0, decimal.exp());
+        decimal.set(1234567890123456789L, (byte) 0);
+        decimal.expandMantissa();
+        assertEquals(1234567890123456789L, decimal.mantissa());
+        assertEquals((byte) 0, decimal.exp());
+        decimal.set(3L, (byte) (Byte.MIN_VALUE + 2));
+        decimal.expandMantissa();
+        assertEquals(300L, decimal.mantissa());
+        assertEquals(Byte.MIN_VALUE, decimal.exp());
+    }
+
     @Test
     void max() {
 
@@ -1469,6 +1523,78 @@ public class MutableDecimalTest {
         System.out.println("% : " + (100d * (double) MutableDecimal.failing) / (double) MutableDecimal.ok);
     }
 
+    @Test
+    void multiplyDivideCaped() {
+        var decimal = MutableDecimal.of(1L, (byte) 0);
+        assertThrows(IllegalArgumentException.class, () -> decimal.multiplyDivideCaped(1L, 0L));
+        assertThrows(IllegalArgumentException.class, () -> decimal.multiplyDivideCaped(1L, -1L));
+        decimal.expandMantissa();
+        decimal.multiplyDivideCaped(1800L, 3600L);
+        assertEquals(0, new BigDecimal("0.5").compareTo(decimal.bigDecimal()));
+        decimal.set(1L, (byte) 0);
+        decimal.expandMantissa();
+        decimal.multiplyDivideCaped(1L, 3L);
+        assertEquals(0, new BigDecimal("0.33333333333333333").compareTo(decimal.bigDecimal()));
+        decimal.set(-2L, (byte) 0);
+        decimal.expandMantissa();
+        decimal.multiplyDivideCaped(-1L, 3L);
+        assertEquals(0, new BigDecimal("0.66666666666666667").compareTo(decimal.bigDecimal()));
+        decimal.set(2L, (byte) 0);
+        decimal.expandMantissa();
+        decimal.multiplyDivideCaped(-1L, 3L);
+        assertEquals(0, new BigDecimal("-0.66666666666666667").compareTo(decimal.bigDecimal()));
+        decimal.set(123L, (byte) 0);
+        decimal.multiplyDivideCaped(0L, 3L);
+        assertEquals(0L, decimal.mantissa());
+
+        // quotients above 63 bits
+        decimal.set(981575631534798000L, (byte) -14);
+        decimal.multiplyDivideCaped(9753120L, 1002000L);
+        assertEquals(0, new BigDecimal("95543.16290852963").compareTo(decimal.bigDecimal().round(new MathContext(16))));
+        decimal.set(Long.MAX_VALUE, (byte) 0);
+        decimal.multiplyDivideCaped(Long.MAX_VALUE, 1L);
+        assertEquals(0, new BigDecimal(Long.MAX_VALUE).multiply(new BigDecimal(Long.MAX_VALUE)).round(new MathContext(17)).compareTo(decimal.bigDecimal().round(new MathContext(17))));
+
+        for (int i = 0; i < 100000; i++) {
+            long mantissa = (long) ((Math.random() - 0.5d) * 2e18);
+            long multiplier = (long) ((Math.random() - 0.5d) * 2e10);
+            long divisor = 1L + (long) (Math.random() * 1e10);
+            byte exp = (byte) ((Math.random() - 0.5d) * 40);
+            decimal.set(mantissa, exp);
+            decimal.expandMantissa();
+            decimal.multiplyDivideCaped(multiplier, divisor);
+            var expected = BigDecimal.valueOf(mantissa, -exp).multiply(BigDecimal.valueOf(multiplier)).divide(BigDecimal.valueOf(divisor), DECIMAL128);
+            var error = expected.subtract(decimal.bigDecimal()).abs();
+            assertTrue(error.compareTo(expected.abs().multiply(new BigDecimal("1E-16")).max(BigDecimal.valueOf(1L, -exp))) <= 0, expected + " <> " + decimal);
+        }
+    }
+
+    @Test
+    void addCapedMixedSigns() {
+        // 128 bits additions of a negative value, the low bits may borrow from the high ones
+        var decimal = MutableDecimal.of(-747089288256236268L, (byte) -13);
+        decimal.addCaped(92561864456L, (byte) -5);
+        assertEquals(0, new BigDecimal("850909.7157343763732").compareTo(decimal.bigDecimal()));
+        decimal = MutableDecimal.of(92561864456L, (byte) -5);
+        decimal.addCaped(-747089288256236268L, (byte) -13);
+        assertEquals(0, new BigDecimal("850909.7157343763732").compareTo(decimal.bigDecimal()));
+        decimal = MutableDecimal.of(-1733631627506917099L, (byte) -14);
+        decimal.addCaped(-168963358L, (byte) 0);
+        assertEquals(0, new BigDecimal("-168980694.3162750692").compareTo(decimal.bigDecimal()));
+
+        for (int i = 0; i < 100000; i++) {
+            long mantissa1 = (long) ((Math.random() - 0.5d) * 2e18);
+            long mantissa2 = (long) ((Math.random() - 0.5d) * 2e18);
+            byte exp1 = (byte) ((Math.random() - 0.5d) * 30);
+            byte exp2 = (byte) (exp1 + (Math.random() - 0.5d) * 30);
+            decimal = MutableDecimal.of(mantissa1, exp1);
+            decimal.addCaped(mantissa2, exp2);
+            var expected = BigDecimal.valueOf(mantissa1, -exp1).add(BigDecimal.valueOf(mantissa2, -exp2));
+            var error = expected.subtract(decimal.bigDecimal()).abs();
+            assertTrue(0 == expected.signum() || error.compareTo(expected.abs().multiply(new BigDecimal("1E-16"))) <= 0, expected + " <> " + decimal);
+        }
+    }
+
     @Test
     void setOverflow() {
         var decimal = MutableDecimal.empty();
@@ -0,0 +1,56 @@
+package org.sbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedClockTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void constructor() {
+        assertThrows(NullPointerException.class, () -> new SimulatedClock(null));
+        var clock = new SimulatedClock(START);
+        assertEquals(START, clock.instant());
+        assertEquals(START.toEpochMilli(), clock.millis());
+        assertEquals(Dates.UTC, clock.getZone());
+    }
+
+    @Test
+    void advance() {
+        var clock = new SimulatedClock(START);
+        assertEquals(START, clock.advance(Duration.ZERO));
+        assertEquals(START.plusSeconds(60L), clock.advance(Duration.ofMinutes(1L)));
+        assertEquals(START.plusSeconds(60L), clock.instant());
+        assertThrows(NullPointerException.class, () -> clock.advance(null));
+        assertThrows(IllegalArgumentException.class, () -> clock.advance(Duration.ofMillis(-1L)));
+        assertEquals(START.plusSeconds(60L), clock.instant());
+    }
+
+    @Test
+    void set() {
+        var clock = new SimulatedClock(START);
+        clock.set(START);
+        assertEquals(START, clock.instant());
+        clock.set(START.plusSeconds(3600L));
+        assertEquals(START.plusSeconds(3600L), clock.instant());
+        assertThrows(NullPointerException.class, () -> clock.set(null));
+        assertThrows(IllegalArgumentException.class, () -> clock.set(START));
+        assertEquals(START.plusSeconds(3600L), clock.instant());
+    }
+
+    @Test
+    void withZone() {
+        var clock = new SimulatedClock(START);
+        assertSame(clock, clock.withZone(Dates.UTC));
+        var zoned = clock.withZone(ZoneId.of("Europe/Paris"));
+        assertEquals(ZoneId.of("Europe/Paris"), zoned.getZone());
+        clock.advance(Duration.ofMinutes(5L));
+        assertEquals(clock.instant(), zoned.instant());
+    }
+}